@@ -4,10 +4,12 @@ import org.apache.jena.fuseki.main.FusekiServer;
 import org.apache.jena.query.DatasetFactory;
 import org.apache.jena.rdfconnection.RDFConnection;
 import org.apache.jena.rdfconnection.RDFConnectionFuseki;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import eu.xfsc.fc.graphdb.service.FusekiRdfWriter;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -33,4 +35,11 @@ public class EmbeddedFusekiConfig {
             .destination(server.serverURL() + "ds")
             .build();
     }
+
+    @Bean
+    public FusekiRdfWriter fusekiRdfWriter(FusekiServer server,
+            @Value("${graphstore.fuseki.write-format:thrift}") String writeFormat,
+            @Value("${graphstore.fuseki.write-gzip:false}") boolean writeGzip) {
+        return new FusekiRdfWriter(server.serverURL() + "ds", writeFormat, writeGzip);
+    }
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Scope;
 
+import eu.xfsc.fc.graphdb.service.FusekiRdfWriter;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -18,6 +19,10 @@ public class FusekiGraphDbConfig {
 
     @Value("${graphstore.uri}")
     private String uri;
+    @Value("${graphstore.fuseki.write-format:thrift}")
+    private String writeFormat;
+    @Value("${graphstore.fuseki.write-gzip:false}")
+    private boolean writeGzip;
         
     @Bean
     @Scope(value = ConfigurableBeanFactory.SCOPE_SINGLETON)
@@ -25,4 +30,9 @@ public class FusekiGraphDbConfig {
         return RDFConnectionFuseki.create().destination(uri).build();
     }
 
+    @Bean
+    public FusekiRdfWriter fusekiRdfWriter() {
+        return new FusekiRdfWriter(uri, writeFormat, writeGzip);
+    }
+
 }
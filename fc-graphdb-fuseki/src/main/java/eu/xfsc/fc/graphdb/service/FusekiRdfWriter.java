@@ -0,0 +1,102 @@
+package eu.xfsc.fc.graphdb.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.WebContent;
+
+import eu.xfsc.fc.core.exception.ServerException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ships RDF models to the Graph Store Protocol endpoint of a Fuseki dataset.
+ *
+ * <p>Models are serialised in a binary syntax (RDF Thrift or RDF Protobuf) and, optionally,
+ * gzip-compressed; Fuseki decodes {@code Content-Encoding: gzip} request bodies on its own.
+ * Text syntaxes are not offered: N-Triples cannot carry the triple terms used as subjects
+ * of the claim annotations.</p>
+ */
+@Slf4j
+public class FusekiRdfWriter {
+
+    private final HttpClient httpClient;
+    private final URI graphStoreEndpoint;
+    @Getter
+    private final RDFFormat format;
+    @Getter
+    private final boolean gzip;
+
+    /**
+     * Creates a writer for the given Fuseki dataset.
+     *
+     * @param datasetUri the dataset base URI, e.g. {@code http://fuseki:3330/ds}
+     * @param format the write syntax: {@code thrift} or {@code protobuf}
+     * @param gzip whether request bodies are gzip-compressed
+     */
+    public FusekiRdfWriter(String datasetUri, String format, boolean gzip) {
+        this.httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        String base = datasetUri.endsWith("/") ? datasetUri.substring(0, datasetUri.length() - 1) : datasetUri;
+        this.graphStoreEndpoint = URI.create(base + "/data?default");
+        this.format = resolveFormat(format);
+        this.gzip = gzip;
+        log.info("FusekiRdfWriter; endpoint: {}, format: {}, gzip: {}", graphStoreEndpoint, this.format, gzip);
+    }
+
+    /**
+     * Appends all statements of the model to the default graph of the dataset in one request.
+     *
+     * @param model the model to upload
+     * @throws ServerException if the model could not be serialised or Fuseki rejected it
+     */
+    public void write(Model model) {
+        byte[] body = serialize(model);
+        HttpRequest.Builder request = HttpRequest.newBuilder(graphStoreEndpoint)
+            .header("Content-Type", format.getLang().getHeaderString())
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        if (gzip) {
+            request.header("Content-Encoding", WebContent.encodingGzip);
+        }
+        try {
+            HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 != 2) {
+                throw new ServerException("Fuseki rejected graph write with status " + response.statusCode()
+                    + ": " + response.body());
+            }
+            log.debug("write; sent {} statements in {} bytes", model.size(), body.length);
+        } catch (IOException ex) {
+            throw new ServerException("error writing claims to Fuseki: " + ex.getMessage(), ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("interrupted while writing claims to Fuseki", ex);
+        }
+    }
+
+    private byte[] serialize(Model model) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (OutputStream out = gzip ? new GZIPOutputStream(buffer) : buffer) {
+            RDFDataMgr.write(out, model, format);
+        } catch (IOException ex) {
+            throw new ServerException("error serialising claims: " + ex.getMessage(), ex);
+        }
+        return buffer.toByteArray();
+    }
+
+    static RDFFormat resolveFormat(String format) {
+        return switch (format.toLowerCase(Locale.ROOT)) {
+            case "thrift" -> RDFFormat.RDF_THRIFT;
+            case "protobuf" -> RDFFormat.RDF_PROTO;
+            default -> throw new IllegalArgumentException("Unsupported Fuseki write format: " + format);
+        };
+    }
+}
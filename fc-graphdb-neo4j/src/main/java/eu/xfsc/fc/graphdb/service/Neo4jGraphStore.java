@@ -19,8 +19,12 @@ import org.neo4j.driver.Result;
 import org.neo4j.driver.Session;
 import org.neo4j.driver.TransactionConfig;
 import org.neo4j.driver.TransactionContext;
+import org.neo4j.driver.Value;
 import org.neo4j.driver.internal.InternalNode;
 import org.neo4j.driver.internal.InternalRelationship;
+import org.neo4j.driver.summary.Plan;
+import org.neo4j.driver.summary.ResultSummary;
+import org.neo4j.driver.summary.SummaryCounters;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -28,12 +32,14 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import eu.xfsc.fc.api.generated.model.QueryLanguage;
+import eu.xfsc.fc.core.exception.ClientException;
 import eu.xfsc.fc.core.exception.ServerException;
 import eu.xfsc.fc.core.exception.TimeoutException;
 import eu.xfsc.fc.core.pojo.GraphBackendType;
 import eu.xfsc.fc.core.pojo.GraphQuery;
 import eu.xfsc.fc.core.pojo.PaginatedResults;
 import eu.xfsc.fc.core.pojo.RdfClaim;
+import eu.xfsc.fc.core.service.graphdb.GraphStatistics;
 import eu.xfsc.fc.core.service.graphdb.GraphStore;
 import eu.xfsc.fc.core.util.ClaimValidator;
 import lombok.extern.slf4j.Slf4j;
@@ -44,7 +50,12 @@ import lombok.extern.slf4j.Slf4j;
 @ConditionalOnProperty(value = "graphstore.impl", havingValue = "neo4j")
 public class Neo4jGraphStore implements GraphStore {
 
-    private static final String queryInsert = "CALL n10s.rdf.import.inline($payload, \"N-Triples\");"; 
+    // reports whether the subject had claims before the import, in the same round trip;
+    // the presence check is served by the unique constraint on Resource.uri
+    private static final String queryInsert = "OPTIONAL MATCH (n:Resource {uri: $uri})\n" +
+                                              "WITH coalesce($uri IN n.claimsGraphUri, false) AS present\n" +
+                                              "CALL n10s.rdf.import.inline($payload, \"N-Triples\") YIELD terminationStatus\n" +
+                                              "RETURN present;";
     private static final String queryDelete = "MATCH (n {claimsGraphUri: [$uri]})\n" +
                                               "DETACH DELETE n;";
     private static final String queryUpdate = "MATCH (n) WHERE $uri IN n.claimsGraphUri\n" +
@@ -53,6 +64,7 @@ public class Neo4jGraphStore implements GraphStore {
     @Autowired
     private Driver driver;
     private final ClaimValidator claimValidator;
+    private final GraphStatistics statistics = new GraphStatistics();
 
     @Value("${graphstore.timeout-marker:timeout}")
     private String timeoutMarker;
@@ -91,29 +103,98 @@ public class Neo4jGraphStore implements GraphStore {
         }
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Sums the rows estimated by the Neo4j planner for every operator of the {@code EXPLAIN}
+     * plan of the query. The query is planned, but not executed.</p>
+     */
     @Override
-    public long getClaimCount() {
+    public long estimateQueryCost(GraphQuery query) {
+        if (query.getQueryLanguage() != QueryLanguage.OPENCYPHER) {
+            return -1;
+        }
+        Map<String, Object> params = query.getParams() == null ? Map.of() : query.getParams();
         try (Session session = driver.session()) {
-            Result result = session.run(
-                "MATCH (n) WHERE n.claimsGraphUri IS NOT NULL RETURN count(n) AS cnt");
-            return result.single().get("cnt").asLong();
-        } catch (Exception e) {
-            log.warn("Failed to get Neo4j claim count: {}", e.getMessage());
+            Plan plan = session.executeRead(tx -> tx.run("EXPLAIN " + query.getQuery(), params).consume().plan());
+            return plan == null ? -1 : (long) Math.min(Long.MAX_VALUE, estimatedRows(plan));
+        } catch (Exception ex) {
+            log.debug("estimateQueryCost; cannot plan query: {}", ex.getMessage());
             return -1;
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Plans the query with {@code EXPLAIN} in a read transaction, so that queries modifying data
+     * are rejected as well, like in {@link #queryData(GraphQuery)}.</p>
+     */
+    @Override
+    public void validateQuery(GraphQuery query) {
+        if (query.getQueryLanguage() != QueryLanguage.OPENCYPHER) {
+            return;
+        }
+        Map<String, Object> params = query.getParams() == null ? Map.of() : query.getParams();
+        try (Session session = driver.session()) {
+            session.executeRead(tx -> tx.run("EXPLAIN " + query.getQuery(), params).consume());
+        } catch (org.neo4j.driver.exceptions.ClientException ex) {
+            throw new ClientException("invalid openCypher query: " + ex.getMessage());
+        } catch (Exception ex) {
+            throw new ServerException("cannot validate query: " + ex.getMessage());
+        }
+    }
+
+    private static double estimatedRows(Plan plan) {
+        Value rows = plan.arguments().get("EstimatedRows");
+        double sum = rows == null || rows.isNull() ? 0 : rows.asDouble();
+        for (Plan child : plan.children()) {
+            sum += estimatedRows(child);
+        }
+        return sum;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getClaimCount() {
+        ensureStatistics();
+        return statistics.getClaimCount();
+    }
+
     /** {@inheritDoc} */
     @Override
     public long getRDFAssetCountInGraph() {
+        ensureStatistics();
+        return statistics.getAssetCount();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getWriteEpoch() {
+        return statistics.getWriteEpoch();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void reconcileStatistics() {
+        statistics.reconcile(
+            () -> countAll("MATCH (n) WHERE n.claimsGraphUri IS NOT NULL RETURN count(n) AS cnt", "claim"),
+            () -> countAll("MATCH (n) WHERE n.claimsGraphUri IS NOT NULL "
+                + "UNWIND n.claimsGraphUri AS uri RETURN count(DISTINCT uri) AS cnt", "asset"));
+    }
+
+    private void ensureStatistics() {
+        if (!statistics.isInitialized()) {
+            reconcileStatistics();
+        }
+    }
+
+    private long countAll(String query, String what) {
         try (Session session = driver.session()) {
-            Result result = session.run(
-                "MATCH (n) WHERE n.claimsGraphUri IS NOT NULL "
-                + "UNWIND n.claimsGraphUri AS uri RETURN count(DISTINCT uri) AS cnt");
+            Result result = session.run(query);
             return result.single().get("cnt").asLong();
         } catch (Exception e) {
-            log.warn("Failed to get Neo4j asset count: {}", e.getMessage());
+            log.warn("Failed to get Neo4j {} count: {}", what, e.getMessage());
             return -1;
         }
     }
@@ -129,8 +210,11 @@ public class Neo4jGraphStore implements GraphStore {
                 if (!props.getRight().isEmpty()) {
                     updateGraphConfig(session, props.getRight());
                 }
-                Result rs = session.run(queryInsert, Map.of("payload", props.getLeft()));
-                log.debug("addClaims; inserted: {}", rs.consume());
+                Result rs = session.run(queryInsert, Map.of("uri", credentialSubject, "payload", props.getLeft()));
+                boolean newSubject = !rs.single().get("present").asBoolean();
+                ResultSummary summary = rs.consume();
+                log.debug("addClaims; inserted: {}", summary);
+                statistics.recordAdded(summary.counters().nodesCreated(), newSubject ? 1 : 0);
             }
         }
     }
@@ -143,9 +227,13 @@ public class Neo4jGraphStore implements GraphStore {
         Map<String, Object> params = Map.of("uri", credentialSubject);
         try (Session session = driver.session()) {
             Result rsDelete = session.run(queryDelete, params);
-            log.debug("deleteClaims; deleted: {}", rsDelete.consume());
+            SummaryCounters deleted = rsDelete.consume().counters();
+            log.debug("deleteClaims; deleted: {}", deleted);
             Result rsUpdate = session.run(queryUpdate, params);
-            log.debug("deleteClaims; updated: {}", rsUpdate.consume());
+            SummaryCounters updated = rsUpdate.consume().counters();
+            log.debug("deleteClaims; updated: {}", updated);
+            boolean removed = deleted.nodesDeleted() > 0 || updated.propertiesSet() > 0;
+            statistics.recordDeleted(deleted.nodesDeleted(), removed ? 1 : 0);
         }
     }
 
@@ -158,8 +246,26 @@ public class Neo4jGraphStore implements GraphStore {
     @Override
     public void deleteValidationResultClaims(String resultIri) {
         try (Session session = driver.session()) {
-            Result rs = session.run("MATCH (n {uri: $uri}) DETACH DELETE n", Map.of("uri", resultIri));
-            log.debug("deleteValidationResultClaims; deleted: {}", rs.consume());
+            Result rs = session.run("MATCH (n:Resource {uri: $uri}) DETACH DELETE n", Map.of("uri", resultIri));
+            ResultSummary summary = rs.consume();
+            log.debug("deleteValidationResultClaims; deleted: {}", summary);
+            statistics.recordDeleted(summary.counters().nodesDeleted(), 0);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteValidationResultClaimsBatch(Collection<String> resultIris) {
+        if (resultIris.isEmpty()) {
+            return;
+        }
+        try (Session session = driver.session()) {
+            Result rs = session.run("MATCH (n:Resource) WHERE n.uri IN $uris DETACH DELETE n", Map.of("uris", List.copyOf(resultIris)));
+            ResultSummary summary = rs.consume();
+            log.debug("deleteValidationResultClaimsBatch; deleted: {}", summary);
+            statistics.recordDeleted(summary.counters().nodesDeleted(), 0);
         }
     }
 
@@ -1,5 +1,6 @@
 package eu.xfsc.fc.core.service.assetstore;
 
+import eu.xfsc.fc.core.config.BulkheadProperties;
 import eu.xfsc.fc.core.config.RdfContentTypeProperties;
 import eu.xfsc.fc.core.config.VerificationStackTestConfig;
 import eu.xfsc.fc.core.service.verification.VerificationServiceImpl;
@@ -13,6 +14,7 @@ import eu.xfsc.fc.core.pojo.ContentAccessorDirect;
 import eu.xfsc.fc.core.pojo.CredentialVerificationResult;
 import eu.xfsc.fc.core.pojo.GraphQuery;
 import eu.xfsc.fc.core.pojo.NonCredentialVerificationResult;
+import eu.xfsc.fc.core.service.bulkhead.BulkheadRegistry;
 import eu.xfsc.fc.core.service.graphdb.GraphStore;
 import eu.xfsc.fc.core.service.provenance.ProvenanceService;
 import eu.xfsc.fc.core.service.schemastore.SchemaStoreImpl;
@@ -67,6 +69,8 @@ import static eu.xfsc.fc.core.util.TestUtil.getAccessor;
         AssetAuditRepository.class,
         AssetJpaDao.class,
         AssetStoreImpl.class,
+        BulkheadProperties.class,
+        BulkheadRegistry.class,
         GraphRebuilder.class,
         IriGenerator.class,
         IriValidator.class,
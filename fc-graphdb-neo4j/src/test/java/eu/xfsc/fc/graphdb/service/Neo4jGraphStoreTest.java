@@ -29,6 +29,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 
 import eu.xfsc.fc.api.generated.model.QueryLanguage;
+import eu.xfsc.fc.core.exception.ClientException;
 import eu.xfsc.fc.core.exception.QueryException;
 import eu.xfsc.fc.core.exception.ServerException;
 import eu.xfsc.fc.core.exception.TimeoutException;
@@ -538,6 +539,19 @@ public class Neo4jGraphStoreTest {
         );
     }
 
+    @Test
+    void validateQuery_plansReadQueriesAndRejectsInvalidOnes() {
+        Map<String, Object> unbound = new HashMap<>();
+        unbound.put("uri", null);
+        graphGaia.validateQuery(new GraphQuery("MATCH (n:Resource) WHERE n.uri = $uri RETURN n LIMIT 1", unbound,
+                QueryLanguage.OPENCYPHER, GraphQuery.QUERY_TIMEOUT, false));
+
+        Assertions.assertThrows(ClientException.class, () -> graphGaia.validateQuery(
+                new GraphQuery("MATCH (n RETURN n", Map.of())));
+        Assertions.assertThrows(ClientException.class, () -> graphGaia.validateQuery(
+                new GraphQuery("MATCH (n) DETACH DELETE n", Map.of())));
+    }
+
     /**
      * This test adds two sets of claims and after deleting the first set -
      * there should be no nodes with their graphUri list containing the
@@ -0,0 +1,31 @@
+package eu.xfsc.fc.graphdb.config;
+
+import org.apache.jena.query.Dataset;
+import org.apache.jena.tdb2.TDB2Factory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Configuration
+@ConditionalOnProperty(value = "graphstore.impl", havingValue = "tdb2")
+public class Tdb2GraphDbConfig {
+
+    /* Directory of the TDB2 database; an empty location opens a transient in-memory dataset */
+    @Value("${graphstore.tdb2.location:}")
+    private String location;
+
+    @Bean(destroyMethod = "close")
+    public Dataset tdb2Dataset() {
+        if (location == null || location.isBlank()) {
+            log.info("tdb2Dataset; opening in-memory TDB2 dataset");
+            return TDB2Factory.createDataset();
+        }
+        log.info("tdb2Dataset; opening TDB2 dataset at {}", location);
+        return TDB2Factory.connectDataset(location);
+    }
+
+}
@@ -0,0 +1,215 @@
+package eu.xfsc.fc.graphdb.service;
+
+import eu.xfsc.fc.api.generated.model.QueryLanguage;
+import eu.xfsc.fc.core.exception.ServerException;
+import eu.xfsc.fc.core.exception.TimeoutException;
+import eu.xfsc.fc.core.pojo.GraphBackendType;
+import eu.xfsc.fc.core.pojo.GraphQuery;
+import eu.xfsc.fc.core.pojo.PaginatedResults;
+import eu.xfsc.fc.core.pojo.RdfClaim;
+import eu.xfsc.fc.core.service.graphdb.BaseSparqlGraphStore;
+import eu.xfsc.fc.core.service.graphdb.SparqlQueries;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.QueryCancelledException;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.system.Txn;
+import org.apache.jena.update.UpdateExecution;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Graph store backed by an in-process Jena TDB2 dataset.
+ *
+ * <p>Claims are tagged with their credential subject exactly like in the Fuseki store: every claim
+ * triple is stored as a triple term annotated with
+ * {@code <<(s p o)>> cred:credentialSubject <subject>}, so SPARQL queries written for Fuseki run
+ * unchanged. Writes go straight into the memory-mapped TDB2 indexes within a single write
+ * transaction per call; as the store sees every change, the claim and asset counters are
+ * maintained exactly.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "graphstore.impl", havingValue = "tdb2")
+public class Tdb2GraphStore extends BaseSparqlGraphStore {
+
+    private static final Node CREDENTIAL_SUBJECT = NodeFactory.createURI(PROP_CREDENTIAL_SUBJECT);
+
+    @Autowired
+    private Dataset dataset;
+
+    /** {@inheritDoc} */
+    @Override
+    public GraphBackendType getBackendType() {
+        return GraphBackendType.TDB2;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isHealthy() {
+        try {
+            Txn.executeRead(dataset, () -> dataset.getDefaultModel().getGraph().isEmpty());
+            return true;
+        } catch (Exception e) {
+            log.warn("TDB2 health check failed", e);
+            return false;
+        }
+    }
+
+    @Override
+    protected <T> T select(String query, Function<ResultSet, T> reader) {
+        return Txn.calculateRead(dataset, () -> {
+            try (QueryExecution qe = QueryExecution.dataset(dataset).query(query).build()) {
+                return reader.apply(qe.execSelect());
+            }
+        });
+    }
+
+    @Override
+    public void addClaims(List<RdfClaim> claimList, String credentialSubject) {
+        log.debug("addClaims.enter; got claims: {}, subject: {}", claimList, credentialSubject);
+        requireSafeIri(credentialSubject);
+        if (!claimList.isEmpty()) {
+            final Model model = claimValidator.validateClaims(claimList);
+            final long[] added = Txn.calculateWrite(dataset, () -> addStarTriples(model, credentialSubject));
+            statistics.recordAdded(added[0], added[1]);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>All claims of the batch are written in one TDB2 write transaction: either every asset
+     * of the batch is stored or none is.</p>
+     */
+    @Override
+    public void addClaimsBatch(Map<String, List<RdfClaim>> claimsBySubject) {
+        log.debug("addClaimsBatch.enter; got {} subjects", claimsBySubject.size());
+        claimsBySubject.keySet().forEach(BaseSparqlGraphStore::requireSafeIri);
+        final Map<String, Model> models = new HashMap<>();
+        claimsBySubject.forEach((credentialSubject, claimList) -> {
+            if (!claimList.isEmpty()) {
+                models.put(credentialSubject, claimValidator.validateClaims(claimList));
+            }
+        });
+        final long[] added = Txn.calculateWrite(dataset, () -> {
+            final long[] total = new long[2];
+            models.forEach((credentialSubject, model) -> {
+                final long[] delta = addStarTriples(model, credentialSubject);
+                total[0] += delta[0];
+                total[1] += delta[1];
+            });
+            return total;
+        });
+        // recorded after the commit, an aborted batch leaves the counters untouched
+        statistics.recordAdded(added[0], added[1]);
+        log.debug("addClaimsBatch; written claims of {} subjects", models.size());
+    }
+
+    /**
+     * Adds the annotated claim triples to the default graph. Must run inside a write transaction.
+     *
+     * @return the number of triples actually added and whether the subject is new to the graph (1 or 0)
+     */
+    private long[] addStarTriples(Model model, String credentialSubject) {
+        final Graph graph = dataset.asDatasetGraph().getDefaultGraph();
+        final Node subject = NodeFactory.createURI(credentialSubject);
+        final boolean newSubject = !graph.contains(Node.ANY, CREDENTIAL_SUBJECT, subject);
+        long added = 0;
+        for (Triple triple : model.getGraph().find().toList()) {
+            final Triple starTriple = Triple.create(NodeFactory.createTripleTerm(triple), CREDENTIAL_SUBJECT, subject);
+            if (!graph.contains(starTriple)) {
+                graph.add(starTriple);
+                added++;
+            }
+        }
+        return new long[] {added, newSubject && added > 0 ? 1 : 0};
+    }
+
+    @Override
+    public void deleteClaims(String credentialSubject) {
+        log.debug("deleteClaims.enter; got subject: {}", credentialSubject);
+        requireSafeIri(credentialSubject);
+        final Node subject = NodeFactory.createURI(credentialSubject);
+        final long deleted = Txn.calculateWrite(dataset, () -> {
+            final Graph graph = dataset.asDatasetGraph().getDefaultGraph();
+            final List<Triple> triples = graph.find(Node.ANY, CREDENTIAL_SUBJECT, subject).toList();
+            triples.forEach(graph::delete);
+            return (long) triples.size();
+        });
+        statistics.recordDeleted(deleted, deleted > 0 ? 1 : 0);
+    }
+
+    @Override
+    public void deleteValidationResultClaims(String resultIri) {
+        log.debug("deleteValidationResultClaims.enter; resultIri={}", resultIri);
+        requireSafeIri(resultIri);
+        deleteValidationResults(List.of(resultIri), deleteValidationResultUpdate(resultIri));
+        log.debug("deleteValidationResultClaims.exit");
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The triples of all results are removed in one TDB2 write transaction.</p>
+     */
+    @Override
+    public void deleteValidationResultClaimsBatch(Collection<String> resultIris) {
+        log.debug("deleteValidationResultClaimsBatch.enter; got {} results", resultIris.size());
+        if (resultIris.isEmpty()) {
+            return;
+        }
+        resultIris.forEach(BaseSparqlGraphStore::requireSafeIri);
+        deleteValidationResults(resultIris, deleteValidationResultsUpdate(resultIris));
+        log.debug("deleteValidationResultClaimsBatch.exit");
+    }
+
+    /**
+     * Runs the update removing the claims of validation results, counting the claims of the
+     * affected subjects in the same write transaction.
+     */
+    private void deleteValidationResults(Collection<String> resultIris, String update) {
+        final long[] change = Txn.calculateWrite(dataset, () -> countChange(validationResultSubjects(resultIris),
+                () -> UpdateExecution.dataset(dataset).update(update).execute()));
+        // recorded after the commit, an aborted update leaves the counters untouched
+        recordChange(change);
+    }
+
+    @Override
+    public PaginatedResults<Map<String, Object>> queryData(GraphQuery query) {
+        log.debug("queryData.enter; got query: {}", query);
+
+        if (query.getQueryLanguage() != QueryLanguage.SPARQL) {
+            throw new UnsupportedOperationException(query.getQueryLanguage() + " query language is not supported");
+        }
+        return Txn.calculateRead(dataset, () -> {
+            try (QueryExecution queryResults = QueryExecution.dataset(dataset)
+                    .query(SparqlQueries.parse(query.getQuery()))
+                    .substitution(SparqlQueries.bindings(query.getParams()))
+                    .timeout(query.getTimeout(), TimeUnit.SECONDS)
+                    .build()) {
+                return new PaginatedResults<>(toRows(queryResults.execSelect(), query.getQuery()));
+            } catch (QueryCancelledException e) {
+                log.error("Timeout while executing query: {}", query.getQuery(), e);
+                throw new TimeoutException("Timeout while executing query");
+            } catch (Exception e) {
+                log.error("Error while executing query: {}", query.getQuery(), e);
+                throw new ServerException("error querying data " + e.getMessage(), e);
+            }
+        });
+    }
+}
\ No newline at end of file
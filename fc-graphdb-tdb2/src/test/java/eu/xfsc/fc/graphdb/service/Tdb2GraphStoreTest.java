@@ -0,0 +1,34 @@
+package eu.xfsc.fc.graphdb.service;
+
+import eu.xfsc.fc.core.service.graphdb.BaseSparqlGraphStoreTest;
+import eu.xfsc.fc.graphdb.config.Tdb2GraphDbConfig;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.system.Txn;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@ContextConfiguration(classes = {Tdb2GraphStore.class})
+@Import(Tdb2GraphDbConfig.class)
+public class Tdb2GraphStoreTest extends BaseSparqlGraphStoreTest {
+
+    @Autowired
+    private Dataset dataset;
+
+    @Override
+    protected void clearGraph() {
+        Txn.executeWrite(dataset, () -> dataset.asDatasetGraph().clear());
+    }
+
+    @Test
+    void graphStoreBeanIsTdb2Implementation() {
+        assertInstanceOf(Tdb2GraphStore.class, graphStore);
+    }
+}
@@ -9,7 +9,9 @@ import java.util.Map;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import eu.xfsc.fc.api.generated.model.Asset;
+import eu.xfsc.fc.api.generated.model.AssetLookupRequest;
 import eu.xfsc.fc.api.generated.model.AssetResult;
+import eu.xfsc.fc.api.generated.model.Assets;
 
 public class AssetClient extends ServiceClient {
 
@@ -82,6 +84,21 @@ public class AssetClient extends ServiceClient {
         return assetList.isEmpty() ? null: assetList.getFirst();
     }
     
+    /**
+     * Read several assets by their hashes in one request. Hashes of unknown or inactive assets
+     * are left out of the result.
+     *
+     * @param hashes the SHA-256 content hashes of the assets, at most the server's lookup limit
+     * @param withMeta whether to return the asset metadata
+     * @param withContent whether to return the asset content
+     * @return the assets found
+     */
+    public List<AssetResult> getAssetsByHashes(Collection<String> hashes, boolean withMeta, boolean withContent) {
+        AssetLookupRequest request = new AssetLookupRequest(List.copyOf(hashes), withMeta, withContent);
+        Assets assets = doPost("/assets/lookup", request, Map.of(), Map.of(), Assets.class);
+        return assets == null || assets.getItems() == null ? List.of() : assets.getItems();
+    }
+
     public AssetResult getAssetById(String id) {
         List<AssetResult> assetList = getAssets(null, null, null, null, null, null, null, List.of(id), null, true, true, null, null);
         return assetList.isEmpty() ? null: assetList.getFirst();
@@ -0,0 +1,71 @@
+package eu.xfsc.fc.core.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Limits of the bulkheads separating graph query, ingest and admin work.
+ *
+ * <p>Every unit of work holds one database connection and at most one graph session while it
+ * runs, so the sum of the {@code max-concurrent} values should stay below the database connection
+ * pool size, leaving room for schedulers and event subscribers. Configured via
+ * {@code federated-catalogue.bulkhead} in {@code application.yml}.</p>
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "federated-catalogue.bulkhead")
+public class BulkheadProperties {
+
+  private boolean enabled = true;
+
+  /**
+   * Graph queries of the query API.
+   */
+  private Pool query = new Pool(64, 256, Duration.ofSeconds(2));
+
+  /**
+   * Asset uploads, verification and storage, including assets replicated from other instances.
+   */
+  private Pool ingest = new Pool(40, 256, Duration.ofSeconds(10));
+
+  /**
+   * Background work such as graph rebuilds and revalidation. Background work waits for a free
+   * slot as long as needed, so only {@code max-concurrent} applies.
+   */
+  private Pool admin = new Pool(8, 0, Duration.ZERO);
+
+  /**
+   * Limits of a single bulkhead.
+   */
+  @Getter
+  @Setter
+  @ToString
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Pool {
+
+    /**
+     * Units of work running at the same time.
+     */
+    private int maxConcurrent;
+
+    /**
+     * Callers that may wait for a free slot; further callers are rejected right away.
+     */
+    private int maxWaiting;
+
+    /**
+     * How long a caller waits for a free slot before it is rejected.
+     */
+    private Duration maxWait;
+  }
+}
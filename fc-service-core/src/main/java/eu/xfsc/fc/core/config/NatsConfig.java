@@ -7,6 +7,7 @@ import org.springframework.context.annotation.Configuration;
 
 import io.nats.client.Connection;
 import io.nats.client.ErrorListener;
+import io.nats.client.JetStreamApiException;
 import io.nats.client.JetStreamManagement;
 import io.nats.client.Nats;
 import io.nats.client.Options;
@@ -74,4 +75,28 @@ public class NatsConfig {
             System.exit(-1);
         }
     }	
+
+    public static void createStreamIfAbsent(JetStreamManagement jsm, String stream, String subject) {
+        try {
+            StreamInfo si = jsm.getStreamInfo(stream);
+            log.info("stream; using existing: {} with {} messages", stream, si.getStreamState().getMsgCount());
+            return;
+        } catch (JetStreamApiException ex) {
+            log.debug("stream; {} not found: {}", stream, ex.getMessage());
+        } catch (Exception ex) {
+        	log.error("error reading stream", ex);
+            System.exit(-1);
+        }
+        try {
+        	StreamConfiguration sc = StreamConfiguration.builder()
+        	    .name(stream)
+        	    .subjects(subject)
+        	    .build();
+            StreamInfo si = jsm.addStream(sc);
+            log.info("stream; created: {}", si.getConfiguration().getName());
+        } catch (Exception ex) {
+        	log.error("error creating stream", ex);
+            System.exit(-1);
+        }
+    }
 }
@@ -16,20 +16,28 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import org.hibernate.envers.query.AuditQuery;
 
 /**
  * Encapsulates Hibernate Envers audit queries for {@link Asset}.
  * Keeps Envers-specific types out of {@link AssetJpaDao}.
  *
- * <p>Version numbers are 1-based ordinals computed from the Envers revision order.
+ * <p>Version numbers are 1-based ordinals in the order the Envers revisions were written.
  * The list is returned descending (newest first).
  * Status override at query time: non-current, non-REVOKED snapshots display as DEPRECATED.
+ *
+ * <p>Listing and counting read the {@code asset_versions} index, which a trigger on
+ * {@code assets_aud} fills with one narrow row per revision. Version lists carry the indexed
+ * metadata only; the full snapshot, including content, is loaded from Envers for a single
+ * selected version.
  */
 @Repository
 @RequiredArgsConstructor
 public class AssetAuditRepository {
 
+  private static final String VERSIONS_OF_ASSET = """
+      SELECT version, rev_timestamp, asset_hash, status, issuer, change_comment
+      FROM asset_versions WHERE asset_id = :assetId ORDER BY version DESC""";
+
   private final EntityManager entityManager;
 
   /**
@@ -38,25 +46,25 @@ public class AssetAuditRepository {
    * <p>Status override: snapshots that are not the current (latest) version and are not REVOKED
    * are displayed with status DEPRECATED, reflecting that they have been superseded.
    *
-   * @param entityId the surrogate PK of the Asset
-   * @return list of asset records with 1-based version numbers, newest first
+   * @param asset the current Asset entity
+   * @return list of asset records with 1-based version numbers, newest first, without content
    */
-  @SuppressWarnings("unchecked") // Envers API returns raw List<Object[]>; cast is safe per forRevisionsOfEntity contract
-  List<AssetRecord> findAllVersions(Long entityId) {
-    List<Object[]> revisions = baseRevisionsQuery(entityId).getResultList();
-
-    int total = revisions.size();
-    List<AssetRecord> result = new ArrayList<>(total);
-    for (int i = 0; i < total; i++) {
-      int version = total - i;
-      boolean isCurrent = (i == 0);
-      result.add(toRecord(revisions.get(i), version, isCurrent));
+  @SuppressWarnings("unchecked") // native query without result class returns raw List<Object[]>
+  List<AssetRecord> findAllVersions(Asset asset) {
+    List<Object[]> rows = entityManager.createNativeQuery(VERSIONS_OF_ASSET)
+        .setParameter("assetId", asset.getId())
+        .getResultList();
+
+    int total = rows.isEmpty() ? 0 : ((Number) rows.getFirst()[0]).intValue();
+    List<AssetRecord> result = new ArrayList<>(rows.size());
+    for (Object[] row : rows) {
+      result.add(toIndexRecord(asset, row, total));
     }
     return result;
   }
 
-  @SuppressWarnings("unchecked") // Envers API returns raw List<Object[]>; cast is safe per forRevisionsOfEntity contract
-  private List<AssetRecord> findVersionsPage(Long entityId, int page, int size, int total) {
+  @SuppressWarnings("unchecked") // native query without result class returns raw List<Object[]>
+  private List<AssetRecord> findVersionsPage(Asset asset, int page, int size, int total) {
     if (total == 0) {
       return List.of();
     }
@@ -66,22 +74,21 @@ public class AssetAuditRepository {
       return List.of();
     }
 
-    List<Object[]> revisions = baseRevisionsQuery(entityId)
+    List<Object[]> rows = entityManager.createNativeQuery(VERSIONS_OF_ASSET)
+        .setParameter("assetId", asset.getId())
         .setFirstResult(offset)
         .setMaxResults(maxResults)
         .getResultList();
 
-    List<AssetRecord> result = new ArrayList<>(revisions.size());
-    for (int i = 0; i < revisions.size(); i++) {
-      int version = total - (offset + i);
-      boolean isCurrent = (version == total);
-      result.add(toRecord(revisions.get(i), version, isCurrent));
+    List<AssetRecord> result = new ArrayList<>(rows.size());
+    for (Object[] row : rows) {
+      result.add(toIndexRecord(asset, row, total));
     }
     return result;
   }
 
   /**
-   * Return a specific version of an asset entity.
+   * Return a specific version of an asset entity, including its content.
    *
    * @param entityId the surrogate PK of the Asset
    * @param version  1-based version ordinal
@@ -99,9 +106,19 @@ public class AssetAuditRepository {
       return Optional.empty();
     }
 
-    List<Object[]> revisions = baseRevisionsQuery(entityId)
-        .setFirstResult(total - version)
-        .setMaxResults(1)
+    List<Number> revs = entityManager.createNativeQuery(
+            "SELECT rev FROM asset_versions WHERE asset_id = :assetId AND version = :version")
+        .setParameter("assetId", entityId)
+        .setParameter("version", version)
+        .getResultList();
+    if (revs.isEmpty()) {
+      return Optional.empty();
+    }
+
+    List<Object[]> revisions = AuditReaderFactory.get(entityManager).createQuery()
+        .forRevisionsOfEntity(Asset.class, false, true)
+        .add(AuditEntity.id().eq(entityId))
+        .add(AuditEntity.revisionNumber().eq(revs.getFirst().intValue()))
         .getResultList();
 
     if (revisions.isEmpty()) {
@@ -118,10 +135,9 @@ public class AssetAuditRepository {
    * @return revision count
    */
   int countVersions(Long entityId) {
-    Long count = (Long) AuditReaderFactory.get(entityManager).createQuery()
-        .forRevisionsOfEntity(Asset.class, false, true)
-        .add(AuditEntity.id().eq(entityId))
-        .addProjection(AuditEntity.revisionNumber().count())
+    Number count = (Number) entityManager.createNativeQuery(
+            "SELECT count(*) FROM asset_versions WHERE asset_id = :assetId")
+        .setParameter("assetId", entityId)
         .getSingleResult();
     return count.intValue();
   }
@@ -130,26 +146,35 @@ public class AssetAuditRepository {
    * Return a paginated page of versions together with the total revision count,
    * using a single {@link #countVersions} call and one page query.
    *
-   * @param entityId the surrogate PK of the Asset
-   * @param page     0-based page index
-   * @param size     page size
-   * @return paginated results; total is 0 if no revisions exist
+   * @param asset the current Asset entity
+   * @param page  0-based page index
+   * @param size  page size
+   * @return paginated results without content; total is 0 if no revisions exist
    */
-  PaginatedResults<AssetRecord> findVersionsPageWithTotal(Long entityId, int page, int size) {
-    int total = countVersions(entityId);
+  PaginatedResults<AssetRecord> findVersionsPageWithTotal(Asset asset, int page, int size) {
+    int total = countVersions(asset.getId());
     if (total == 0) {
-      return new eu.xfsc.fc.core.pojo.PaginatedResults<>(0, List.of());
+      return new PaginatedResults<>(0, List.of());
     }
-    List<AssetRecord> items = findVersionsPage(entityId, page, size, total);
-    return new eu.xfsc.fc.core.pojo.PaginatedResults<>(total, items);
+    List<AssetRecord> items = findVersionsPage(asset, page, size, total);
+    return new PaginatedResults<>(total, items);
   }
 
-  @SuppressWarnings("unchecked") // Envers API returns raw AuditQuery; cast of getResultList() result is safe
-  private AuditQuery baseRevisionsQuery(Long entityId) {
-    return AuditReaderFactory.get(entityManager).createQuery()
-        .forRevisionsOfEntity(Asset.class, false, true)
-        .add(AuditEntity.id().eq(entityId))
-        .addOrder(AuditEntity.revisionNumber().desc());
+  private AssetRecord toIndexRecord(Asset asset, Object[] row, int total) {
+    int version = ((Number) row[0]).intValue();
+    boolean isCurrent = (version == total);
+    AssetRecord record = AssetRecord.builder()
+        .assetHash((String) row[2])
+        .id(asset.getSubjectId())
+        .issuer((String) row[4])
+        .uploadTime(row[1] == null ? null : Instant.ofEpochMilli(((Number) row[1]).longValue()))
+        .status(displayStatus(AssetStatus.values()[((Number) row[3]).intValue()], isCurrent))
+        .changeComment((String) row[5])
+        .contentKind(asset.getContentKind())
+        .build();
+    record.setVersion(version);
+    record.setIsCurrent(isCurrent);
+    return record;
   }
 
   private AssetRecord toRecord(Object[] revision, int version, boolean isCurrent) {
@@ -157,14 +182,6 @@ public class AssetAuditRepository {
     DefaultRevisionEntity revEntity = (DefaultRevisionEntity) revision[1];
     Instant revTimestamp = Instant.ofEpochMilli(revEntity.getTimestamp());
 
-    // Envers records the state at time of mutation; in-place UPDATE leaves all historical snapshots
-    // with ACTIVE status, but semantically older versions are superseded. Compute display status here.
-    AssetStatus snapshotStatusEnum = AssetStatus.values()[snapshot.getStatus()];
-    AssetStatus displayStatus = isCurrent ? snapshotStatusEnum : switch (snapshotStatusEnum) {
-      case REVOKED -> AssetStatus.REVOKED;
-      default -> AssetStatus.DEPRECATED;
-    };
-
     AssetRecord record = AssetRecord.builder()
         .assetHash(snapshot.getAssetHash())
         .id(snapshot.getSubjectId())
@@ -172,7 +189,7 @@ public class AssetAuditRepository {
         .uploadTime(revTimestamp)
         .statusTime(snapshot.getStatusTime())
         .expirationTime(snapshot.getExpirationTime())
-        .status(displayStatus)
+        .status(displayStatus(AssetStatus.values()[snapshot.getStatus()], isCurrent))
         .content(snapshot.getContent() == null ? null : new ContentAccessorDirect(snapshot.getContent()))
         .validatorDids(snapshot.getValidators() == null ? null : Arrays.asList(snapshot.getValidators()))
         .contentType(snapshot.getContentType())
@@ -185,4 +202,13 @@ public class AssetAuditRepository {
     record.setIsCurrent(isCurrent);
     return record;
   }
+
+  // Envers records the state at time of mutation; in-place UPDATE leaves all historical snapshots
+  // with ACTIVE status, but semantically older versions are superseded. Compute display status here.
+  private static AssetStatus displayStatus(AssetStatus snapshotStatus, boolean isCurrent) {
+    return isCurrent ? snapshotStatus : switch (snapshotStatus) {
+      case REVOKED -> AssetStatus.REVOKED;
+      default -> AssetStatus.DEPRECATED;
+    };
+  }
 }
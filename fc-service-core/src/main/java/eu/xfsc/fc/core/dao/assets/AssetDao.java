@@ -1,5 +1,6 @@
 package eu.xfsc.fc.core.dao.assets;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +16,8 @@ public interface AssetDao {
 	Optional<AssetRecord> selectBySubjectId(String subjectId);
     PaginatedResults<AssetRecord> selectByFilter(AssetFilter filter, boolean withMeta, boolean withContent);
 	List<String> selectHashes(String startHash, int count, int chunks, int chunkId);
+	List<String> selectHashesOfTypes(String startHash, int count, int chunks, int chunkId, Collection<String> types);
+	void updateTypes(String hash, Collection<String> types);
 	List<String> selectExpiredHashes();
 	SubjectHashRecord insert(AssetRecord assetRecord);
 	SubjectStatusRecord update(String hash, int status);
@@ -13,6 +13,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -54,6 +55,21 @@ public class AssetJpaDao implements AssetDao {
         return repository.findHashesAfter(startHash, status, chunks, chunkId, count);
     }
 
+    @Override
+    public List<String> selectHashesOfTypes(String startHash, int count, int chunks, int chunkId, Collection<String> types) {
+        return repository.findHashesOfTypesAfter(startHash == null ? "" : startHash, AssetStatus.ACTIVE.ordinal(),
+                chunks, chunkId, types, count);
+    }
+
+    @Override
+    @Transactional
+    public void updateTypes(String hash, Collection<String> types) {
+        repository.deleteTypes(hash);
+        for (String type : types) {
+            repository.insertType(hash, type);
+        }
+    }
+
     @Override
     public List<String> selectExpiredHashes() {
         return repository.findExpiredHashes(AssetStatus.ACTIVE.ordinal());
@@ -137,7 +153,7 @@ public class AssetJpaDao implements AssetDao {
     @Transactional(readOnly = true)
     public List<AssetRecord> selectVersions(String subjectId) {
         return repository.findBySubjectId(subjectId)
-            .map(entity -> auditRepository.findAllVersions(entity.getId()))
+            .map(auditRepository::findAllVersions)
             .orElse(List.of());
     }
 
@@ -145,7 +161,7 @@ public class AssetJpaDao implements AssetDao {
     @Transactional(readOnly = true)
     public PaginatedResults<AssetRecord> selectVersionsPageWithTotal(String subjectId, int page, int size) {
         return repository.findBySubjectId(subjectId)
-            .map(entity -> auditRepository.findVersionsPageWithTotal(entity.getId(), page, size))
+            .map(entity -> auditRepository.findVersionsPageWithTotal(entity, page, size))
             .orElse(new PaginatedResults<>(0, List.of()));
     }
 
@@ -1,6 +1,7 @@
 package eu.xfsc.fc.core.dao.assets;
 
 import eu.xfsc.fc.core.pojo.AssetType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -69,4 +70,35 @@ public interface AssetRepository
           @Param("chunkid") int chunkId,
           @Param("limit") int limit);
 
+  // Assets without indexed types were stored before the type index existed and always match.
+  @Query(value = """
+    SELECT a.asset_hash
+    FROM assets a
+    WHERE a.asset_hash > :startHash
+        AND a.status = :status
+        AND abs(hashtext(a.asset_hash) % :chunks) = :chunkid
+        AND (EXISTS (SELECT 1 FROM asset_types t WHERE t.asset_id = a.id AND t.type_iri IN (:types))
+            OR NOT EXISTS (SELECT 1 FROM asset_types t WHERE t.asset_id = a.id))
+    ORDER BY a.asset_hash ASC LIMIT :limit
+  """, nativeQuery = true)
+  List<String> findHashesOfTypesAfter(
+          @Param("startHash") String startHash,
+          @Param("status") int status,
+          @Param("chunks") int chunks,
+          @Param("chunkid") int chunkId,
+          @Param("types") Collection<String> types,
+          @Param("limit") int limit);
+
+  @Modifying
+  @Query(value = "DELETE FROM asset_types WHERE asset_id = (SELECT id FROM assets WHERE asset_hash = :hash)", nativeQuery = true)
+  int deleteTypes(@Param("hash") String hash);
+
+  @Modifying
+  @Query(value = """
+    INSERT INTO asset_types(asset_id, type_iri)
+    SELECT id, :type FROM assets WHERE asset_hash = :hash
+    ON CONFLICT DO NOTHING
+  """, nativeQuery = true)
+  int insertType(@Param("hash") String hash, @Param("type") String type);
+
 }
@@ -0,0 +1,31 @@
+package eu.xfsc.fc.core.dao.cestracker;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "ces_checkpoint")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CesCheckpoint {
+
+  @Id
+  @Column(name = "source", nullable = false)
+  private String source;
+
+  @Column(name = "ces_id", length = 36, nullable = false)
+  private String cesId;
+
+  @Column(name = "updated_at", nullable = false)
+  private LocalDateTime updatedAt;
+}
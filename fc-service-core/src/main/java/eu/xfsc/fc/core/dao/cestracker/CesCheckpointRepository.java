@@ -0,0 +1,7 @@
+package eu.xfsc.fc.core.dao.cestracker;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface CesCheckpointRepository
+    extends JpaRepository<CesCheckpoint, String> {
+}
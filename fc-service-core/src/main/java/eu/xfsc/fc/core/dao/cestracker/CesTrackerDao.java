@@ -7,5 +7,7 @@ public interface CesTrackerDao {
     void insert(CesTracking event);
     CesTracking select(String cesId);
     CesTracking selectLatest();
+    String selectCheckpoint(String source);
+    void saveCheckpoint(String source, String cesId);
 	
 }
@@ -1,5 +1,8 @@
 package eu.xfsc.fc.core.dao.cestracker;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
 import org.springframework.stereotype.Component;
 
 import eu.xfsc.fc.core.service.pubsub.ces.CesTracking;
@@ -10,6 +13,7 @@ import lombok.RequiredArgsConstructor;
 public class CesTrackerJpaDao implements CesTrackerDao {
 
   private final CesTrackerRepository repository;
+  private final CesCheckpointRepository checkpointRepository;
 
   @Override
   public void insert(CesTracking event) {
@@ -29,4 +33,16 @@ public class CesTrackerJpaDao implements CesTrackerDao {
         .map(CesTrackerMapper::toTracking)
         .orElse(null);
   }
+
+  @Override
+  public String selectCheckpoint(String source) {
+    return checkpointRepository.findById(source)
+        .map(CesCheckpoint::getCesId)
+        .orElse(null);
+  }
+
+  @Override
+  public void saveCheckpoint(String source, String cesId) {
+    checkpointRepository.save(new CesCheckpoint(source, cesId, LocalDateTime.now(ZoneOffset.UTC)));
+  }
 }
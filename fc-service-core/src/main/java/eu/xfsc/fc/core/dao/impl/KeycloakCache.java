@@ -0,0 +1,132 @@
+package eu.xfsc.fc.core.dao.impl;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Caches the Keycloak lookups of the participant, user and session DAOs.
+ *
+ * <p>Entries are keyed on a {@link Region} and the lookup arguments and expire
+ * {@code keycloak.cache.ttl} after they were loaded; at most {@code keycloak.cache.max-size} entries
+ * are kept. Concurrent lookups of the same key wait for a single Keycloak request. Failed lookups
+ * are not cached. The DAOs invalidate the affected regions on every write, so changes made through
+ * this instance are visible immediately. Keys carry a generation of their region that is advanced
+ * when the whole region is invalidated, so a lookup still loading at that time stores its value under
+ * a key that is never read again; changes made through other instances or directly in
+ * Keycloak become visible once the entries expire. A zero TTL disables the cache.</p>
+ *
+ * <p>Cached values are Keycloak representations that the DAOs map to new model objects on every
+ * lookup, so callers never share a cached instance. Client lookups are kept in a cache of their
+ * own, so that they can run inside the loaders of other lookups.</p>
+ */
+@Slf4j
+@Component
+public class KeycloakCache {
+
+  /**
+   * Kinds of cached lookups.
+   */
+  enum Region {
+    /** The client representation of this catalogue. */
+    CLIENT,
+    /** The roles defined for the client of this catalogue. */
+    CLIENT_ROLES,
+    /** A participant group, by participant id. */
+    PARTICIPANT,
+    /** A page of participant groups and their total count. */
+    PARTICIPANT_PAGE,
+    /** A page of the members of a participant group. */
+    PARTICIPANT_USERS,
+    /** A user with its client roles, by user id. */
+    USER,
+    /** A page of users and their total count. */
+    USER_PAGE,
+    /** The active session of a user, by user id. */
+    SESSION
+  }
+
+  private record Key(Region region, long generation, List<Object> args) {
+  }
+
+  private final Cache<Key, Object> cache;
+  private final Cache<Key, Object> clientCache;
+  private final boolean enabled;
+  private final AtomicLongArray generations = new AtomicLongArray(Region.values().length);
+
+  public KeycloakCache(@Value("${keycloak.cache.ttl:PT30S}") Duration ttl,
+      @Value("${keycloak.cache.max-size:10000}") long maxSize) {
+    this.enabled = !ttl.isZero();
+    Duration expiry = enabled ? ttl : Duration.ofNanos(1);
+    this.cache = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(expiry).build();
+    this.clientCache = Caffeine.newBuilder().expireAfterWrite(expiry).build();
+    log.info("<init>; keycloak cache enabled: {}, max size: {}, ttl: {}", enabled, maxSize, ttl);
+  }
+
+  /**
+   * Returns the cached value of a lookup, or runs the lookup and caches its value.
+   *
+   * @param region the kind of lookup
+   * @param loader runs the lookup against Keycloak
+   * @param args the lookup arguments, may contain {@code null}
+   * @param <T> the type of the value
+   * @return the value of the lookup; {@code null} values are returned but not cached
+   */
+  @SuppressWarnings("unchecked") // values of a region are always stored by the same loader type
+  <T> T get(Region region, Supplier<T> loader, Object... args) {
+    if (!enabled) {
+      return loader.get();
+    }
+    return (T) cacheOf(region).get(key(region, args), key -> loader.get());
+  }
+
+  /**
+   * Drops the cached value of a lookup.
+   *
+   * @param region the kind of lookup
+   * @param args the lookup arguments
+   */
+  void invalidate(Region region, Object... args) {
+    // waits for a load of the same key in progress and drops its value
+    cacheOf(region).invalidate(key(region, args));
+  }
+
+  /**
+   * Drops all cached values of the given kinds of lookups.
+   *
+   * @param regions the kinds of lookups
+   */
+  void invalidateAll(Region... regions) {
+    List<Region> dropped = List.of(regions);
+    // removing the keys misses loads in progress, advancing the generation does not
+    dropped.forEach(region -> generations.incrementAndGet(region.ordinal()));
+    cache.asMap().keySet().removeIf(key -> dropped.contains(key.region()));
+    clientCache.asMap().keySet().removeIf(key -> dropped.contains(key.region()));
+  }
+
+  /**
+   * Drops all cached values.
+   */
+  public void clear() {
+    cache.invalidateAll();
+    clientCache.invalidateAll();
+  }
+
+  private Key key(Region region, Object... args) {
+    return new Key(region, generations.get(region.ordinal()), Arrays.asList(args));
+  }
+
+  private Cache<Key, Object> cacheOf(Region region) {
+    return region == Region.CLIENT || region == Region.CLIENT_ROLES ? clientCache : cache;
+  }
+}
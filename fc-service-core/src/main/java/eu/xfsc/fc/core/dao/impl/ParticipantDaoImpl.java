@@ -3,6 +3,9 @@ package eu.xfsc.fc.core.dao.impl;
 import static eu.xfsc.fc.core.dao.impl.UserDaoImpl.toUserProfile;
 import static eu.xfsc.fc.core.util.KeycloakUtils.getErrorMessage;
 
+import eu.xfsc.fc.core.dao.impl.KeycloakCache.Region;
+import eu.xfsc.fc.core.dao.impl.UserDaoImpl.UserEntry;
+
 import eu.xfsc.fc.api.generated.model.Participant;
 import eu.xfsc.fc.api.generated.model.UserProfile;
 import eu.xfsc.fc.core.dao.ParticipantDao;
@@ -31,7 +34,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
- * Implementation of the {@link ParticipantDao} interface.
+ * Implementation of the {@link ParticipantDao} interface. Lookups are served through the
+ * {@link KeycloakCache}.
  */
 @Slf4j
 @Component
@@ -46,6 +50,8 @@ public class ParticipantDaoImpl implements ParticipantDao {
   private String resourceId;
   @Autowired
   private Keycloak keycloak;
+  @Autowired
+  private KeycloakCache cache;
 
   /**
    * Create Participant.
@@ -58,7 +64,12 @@ public class ParticipantDaoImpl implements ParticipantDao {
 
     GroupsResource instance = keycloak.realm(realm).groups();
     GroupRepresentation groupRepo = toGroupRepo(participant);
-    Response response = instance.add(groupRepo);
+    Response response;
+    try {
+      response = instance.add(groupRepo);
+    } finally {
+      invalidateParticipant(participant.getId());
+    }
     if (response.getStatus() != HttpStatus.SC_CREATED) {
       String message = getErrorMessage(response);
       log.info("create.error; status {}:{}, {}", response.getStatus(), response.getStatusInfo(), message);
@@ -75,13 +86,11 @@ public class ParticipantDaoImpl implements ParticipantDao {
    */
   @Override
   public Optional<ParticipantMetaData> select(String participantId) {
-
-    GroupsResource instance = keycloak.realm(realm).groups();
-    List<GroupRepresentation> groups = instance.groups(participantId, 0, 1, false);
-    if (groups.size() == 0) {
+    Optional<GroupRepresentation> group = selectGroup(participantId);
+    if (group.isEmpty()) {
       return Optional.empty();
     }
-    return Optional.of(toParticipantExt(groups.getFirst()));
+    return Optional.of(toParticipantExt(group.get()));
   }
 
   /**
@@ -92,24 +101,22 @@ public class ParticipantDaoImpl implements ParticipantDao {
    */
   @Override
   public Optional<PaginatedResults<UserProfile>> selectUsers(String participantId, Integer offset, Integer limit) {
-
-    GroupsResource instance = keycloak.realm(realm).groups();
-    List<GroupRepresentation> groups = instance.groups(participantId, 0, 1, false);
-    if (groups.size() == 0) {
+    Optional<GroupRepresentation> groupRepo = selectGroup(participantId);
+    if (groupRepo.isEmpty()) {
       return Optional.empty();
     }
-    GroupRepresentation groupRepo = groups.getFirst();
+    List<UserEntry> members = cache.get(Region.PARTICIPANT_USERS, () -> {
+      GroupResource group = keycloak.realm(realm).groups().group(groupRepo.get().getId());
+      ClientRepresentation client = selectClient();
+      UsersResource usersResource = keycloak.realm(realm).users();
+      List<UserRepresentation> users = group.members(offset, limit, false);
+      return users.stream().map(user ->
+              new UserEntry(user, usersResource.get(user.getId()).roles().clientLevel(client.getId()).listAll()))
+          .toList();
+    }, participantId, offset, limit);
 
-    List<UserRepresentation> users;
     List<UserProfile> profiles = new ArrayList<>();
-
-    GroupResource group = instance.group(groupRepo.getId());
-    ClientRepresentation client = keycloak.realm(realm).clients().findByClientId(resourceId).getFirst();
-    UsersResource usersResource = keycloak.realm(realm).users();
-      users = group.members(offset, limit, false);
-    users.stream().map(user ->
-            toUserProfile(user, usersResource.get(user.getId()).roles().clientLevel(client.getId()).listAll()))
-        .forEach(profiles::add);
+    members.stream().map(member -> toUserProfile(member.user(), member.roles())).forEach(profiles::add);
     return Optional.of(new PaginatedResults<>(profiles));
   }
 
@@ -131,12 +138,18 @@ public class ParticipantDaoImpl implements ParticipantDao {
 
     UsersResource resource = keycloak.realm(realm).users();
     List<UserRepresentation> users;
-    do {
-      users = instance.group(groupRepo.getId()).members();
-      users.stream().forEach(ur -> resource.delete(ur.getId()));
-    } while (users.size() > 0);
+    try {
+      do {
+        users = instance.group(groupRepo.getId()).members();
+        users.stream().forEach(ur -> resource.delete(ur.getId()));
+      } while (users.size() > 0);
 
-    instance.group(groupRepo.getId()).remove();
+      instance.group(groupRepo.getId()).remove();
+    } finally {
+      // the members of the participant are deleted with it
+      invalidateParticipant(participantId);
+      cache.invalidateAll(Region.USER, Region.USER_PAGE, Region.SESSION);
+    }
     return Optional.of(toParticipantExt(groupRepo));
   }
 
@@ -156,7 +169,12 @@ public class ParticipantDaoImpl implements ParticipantDao {
     }
     GroupRepresentation groupRepo = groups.getFirst();
     GroupRepresentation updated = toGroupRepo(participant);
-    instance.group(groupRepo.getId()).update(updated);
+    try {
+      instance.group(groupRepo.getId()).update(updated);
+    } finally {
+      invalidateParticipant(participantId);
+      invalidateParticipant(participant.getId());
+    }
     return Optional.of(toParticipantExt(updated));
   }
 
@@ -169,10 +187,14 @@ public class ParticipantDaoImpl implements ParticipantDao {
    */
   @Override
   public PaginatedResults<ParticipantMetaData> search(Integer offset, Integer limit) {
-    GroupsResource instance = keycloak.realm(realm).groups();
-    List<GroupRepresentation> groups = instance.groups(null, offset, limit, false);
-    Map<String, Long> counts = instance.count();
-    long total = counts.get("count");
+    GroupPage page = cache.get(Region.PARTICIPANT_PAGE, () -> {
+      GroupsResource instance = keycloak.realm(realm).groups();
+      List<GroupRepresentation> groups = instance.groups(null, offset, limit, false);
+      Map<String, Long> counts = instance.count();
+      return new GroupPage(groups, counts.get("count"));
+    }, offset, limit);
+    List<GroupRepresentation> groups = page.groups();
+    long total = page.total();
     // map groups to ParticipantMetaData, filter out null values
     List<ParticipantMetaData> parts = groups.stream()
       .map(this::toParticipantExt)
@@ -183,6 +205,21 @@ public class ParticipantDaoImpl implements ParticipantDao {
     return new PaginatedResults<>(total, parts);
   }
 
+  private Optional<GroupRepresentation> selectGroup(String participantId) {
+    return cache.get(Region.PARTICIPANT, () -> keycloak.realm(realm).groups()
+        .groups(participantId, 0, 1, false).stream().findFirst(), participantId);
+  }
+
+  private ClientRepresentation selectClient() {
+    return cache.get(Region.CLIENT,
+        () -> keycloak.realm(realm).clients().findByClientId(resourceId).getFirst(), resourceId);
+  }
+
+  private void invalidateParticipant(String participantId) {
+    cache.invalidate(Region.PARTICIPANT, participantId);
+    cache.invalidateAll(Region.PARTICIPANT_PAGE, Region.PARTICIPANT_USERS);
+  }
+
   /**
    * Map participant to user group representation model.
    *
@@ -218,4 +255,7 @@ public class ParticipantDaoImpl implements ParticipantDao {
   private boolean emptyAttributes(List<String> attrs) {
     return attrs == null || attrs.isEmpty();
   }
+
+  private record GroupPage(List<GroupRepresentation> groups, long total) {
+  }
 }
@@ -1,6 +1,7 @@
 package eu.xfsc.fc.core.dao.impl;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -15,8 +16,13 @@ import org.springframework.stereotype.Component;
 
 import eu.xfsc.fc.api.generated.model.Session;
 import eu.xfsc.fc.core.dao.SessionDao;
+import eu.xfsc.fc.core.dao.impl.KeycloakCache.Region;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Implementation of the {@link SessionDao} interface. Active sessions are cached in the
+ * {@link KeycloakCache}; users without a session are looked up again on every call.
+ */
 @Slf4j
 @Component
 public class SessionDaoImpl implements SessionDao {
@@ -25,10 +31,17 @@ public class SessionDaoImpl implements SessionDao {
     private String realm;
     @Autowired
     private Keycloak keycloak;
+    @Autowired
+    private KeycloakCache cache;
     
 
     @Override
     public Session select(String id) {
+        SessionEntry entry = cache.get(Region.SESSION, () -> selectSession(id), id);
+        return entry == null ? null : new Session(entry.userId(), entry.started(), "ACTIVE", new ArrayList<>(entry.roles()));
+    }
+
+    private SessionEntry selectSession(String id) {
         UserResource user = keycloak.realm(realm).users().get(id);
         List<UserSessionRepresentation> sessions = user.getUserSessions();
         log.debug("select; got sessions: {}", sessions);
@@ -42,7 +55,7 @@ public class SessionDaoImpl implements SessionDao {
             List<String> roles = realmMappings != null
                 ? realmMappings.stream().map(RoleRepresentation::getName).collect(Collectors.toList())
                 : Collections.emptyList();
-            return new Session(ssn.getUserId(), started, "ACTIVE", roles);
+            return new SessionEntry(ssn.getUserId(), started, roles);
         }
         return null;
     }
@@ -50,7 +63,14 @@ public class SessionDaoImpl implements SessionDao {
     @Override
     public void delete(String id) {
         // keycloak.realm(realm).deleteSession(id);
-         keycloak.realm(realm).users().get(id).logout();
+        try {
+            keycloak.realm(realm).users().get(id).logout();
+        } finally {
+            cache.invalidate(Region.SESSION, id);
+        }
+    }
+
+    private record SessionEntry(String userId, Instant started, List<String> roles) {
     }
 
 }
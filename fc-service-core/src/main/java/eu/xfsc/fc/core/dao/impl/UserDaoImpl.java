@@ -3,6 +3,7 @@ package eu.xfsc.fc.core.dao.impl;
 import eu.xfsc.fc.api.generated.model.User;
 import eu.xfsc.fc.api.generated.model.UserProfile;
 import eu.xfsc.fc.core.dao.UserDao;
+import eu.xfsc.fc.core.dao.impl.KeycloakCache.Region;
 import eu.xfsc.fc.core.exception.ClientException;
 import eu.xfsc.fc.core.exception.ConflictException;
 import eu.xfsc.fc.core.pojo.PaginatedResults;
@@ -18,7 +19,6 @@ import jakarta.ws.rs.core.Response;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.http.HttpStatus;
 import org.keycloak.admin.client.Keycloak;
-import org.keycloak.admin.client.resource.ClientsResource;
 import org.keycloak.admin.client.resource.GroupsResource;
 import org.keycloak.admin.client.resource.RoleScopeResource;
 import org.keycloak.admin.client.resource.UserResource;
@@ -33,7 +33,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
- * Implementation of the {@link UserDao} interface.
+ * Implementation of the {@link UserDao} interface. Lookups are served through the
+ * {@link KeycloakCache}.
  */
 @Slf4j
 @Component
@@ -49,6 +50,8 @@ public class UserDaoImpl implements UserDao {
   private String resourceId;
   @Autowired
   private Keycloak keycloak;
+  @Autowired
+  private KeycloakCache cache;
 
   /**
    * Implementation of add user to catalogue repository.
@@ -62,6 +65,14 @@ public class UserDaoImpl implements UserDao {
     List<String> validatedRoles = validateRoles(user.getRoleIds());
     user.setRoleIds(validatedRoles);
     UsersResource instance = keycloak.realm(realm).users();
+    try {
+      return createUser(instance, userRepo, user);
+    } finally {
+      invalidateUser(null);
+    }
+  }
+
+  private UserProfile createUser(UsersResource instance, UserRepresentation userRepo, User user) {
     Response response = instance.create(userRepo);
     if (response.getStatus() == HttpStatus.SC_CONFLICT) {
       String message = getErrorMessage(response);
@@ -90,10 +101,13 @@ public class UserDaoImpl implements UserDao {
    */
   @Override
   public UserProfile select(String userId) {
-    UsersResource instance = keycloak.realm(realm).users();
-    UserResource userResource = instance.get(userId);
-    UserRepresentation userRepo = getUserRepresentation(userResource, userId);
-    return toUserProfile(userRepo, getUserRoles(instance, userId));
+    UserEntry entry = cache.get(Region.USER, () -> {
+      UsersResource instance = keycloak.realm(realm).users();
+      UserResource userResource = instance.get(userId);
+      UserRepresentation userRepo = getUserRepresentation(userResource, userId);
+      return new UserEntry(userRepo, getUserRoles(instance, userId));
+    }, userId);
+    return toUserProfile(entry.user(), entry.roles());
   }
 
   /**
@@ -106,18 +120,23 @@ public class UserDaoImpl implements UserDao {
    */
   @Override
   public PaginatedResults<UserProfile> search(String participantId, Integer offset, Integer limit) {
-    UsersResource instance = keycloak.realm(realm).users();
-    List<UserRepresentation> userRepos;
-    int totalCount = instance.count();
-    if (participantId == null) {
-      userRepos = instance.list(offset, limit);
-    } else {
-      userRepos = instance.searchByAttributes(offset, limit, true, false,
-          ATR_PARTICIPANT_ID + " = " + participantId);
-      totalCount = instance.searchByAttributes(participantId).size();
-    }
-    return new PaginatedResults<>(totalCount, userRepos.stream().map(
-        user -> toUserProfile(user, getUserRoles(instance, user.getId()))
+    UserPage page = cache.get(Region.USER_PAGE, () -> {
+      UsersResource instance = keycloak.realm(realm).users();
+      List<UserRepresentation> userRepos;
+      int totalCount = instance.count();
+      if (participantId == null) {
+        userRepos = instance.list(offset, limit);
+      } else {
+        userRepos = instance.searchByAttributes(offset, limit, true, false,
+            ATR_PARTICIPANT_ID + " = " + participantId);
+        totalCount = instance.searchByAttributes(participantId).size();
+      }
+      return new UserPage(totalCount, userRepos.stream()
+          .map(user -> new UserEntry(user, getUserRoles(instance, user.getId())))
+          .toList());
+    }, participantId, offset, limit);
+    return new PaginatedResults<>(page.totalCount(), page.users().stream().map(
+        entry -> toUserProfile(entry.user(), entry.roles())
     ).collect(Collectors.toList()));
   }
 
@@ -134,7 +153,13 @@ public class UserDaoImpl implements UserDao {
     UserRepresentation userRepo = getUserRepresentation(userResource, userId);
     List<RoleRepresentation> roles = getUserRoles(instance, userId);
 
-    Response response = instance.delete(userId);
+    Response response;
+    try {
+      response = instance.delete(userId);
+    } finally {
+      invalidateUser(userId);
+      cache.invalidate(Region.SESSION, userId);
+    }
     if (response.getStatus() != HttpStatus.SC_NO_CONTENT) {
       String message = getErrorMessage(response);
       log.info("delete.error; status {}:{}, {}", response.getStatus(), response.getStatusInfo(), message);
@@ -152,6 +177,14 @@ public class UserDaoImpl implements UserDao {
    */
   @Override
   public UserProfile update(String userId, User user) {
+    try {
+      return updateUser(userId, user);
+    } finally {
+      invalidateUser(userId);
+    }
+  }
+
+  private UserProfile updateUser(String userId, User user) {
     UsersResource instance = keycloak.realm(realm).users();
     UserResource userResource = instance.get(userId);
     UserRepresentation userRepo = toUserRepo(user);
@@ -184,7 +217,12 @@ public class UserDaoImpl implements UserDao {
   public UserProfile updateRoles(String userId, List<String> roles) {
     UsersResource instance = keycloak.realm(realm).users();
     UserResource userResource = instance.get(userId);
-    List<RoleRepresentation> roleRepresentations = assignRolesToUser(userResource, roles);
+    List<RoleRepresentation> roleRepresentations;
+    try {
+      roleRepresentations = assignRolesToUser(userResource, roles);
+    } finally {
+      invalidateUser(userId);
+    }
     if (roleRepresentations == null) {
         throw new ClientException("Please check that the sent roles are valid.");
     }
@@ -201,9 +239,7 @@ public class UserDaoImpl implements UserDao {
    */
   @Override
   public List<String> getAllRoles() {
-    ClientsResource clientsResource = keycloak.realm(realm).clients();
-    ClientRepresentation client = clientsResource.findByClientId(resourceId).getFirst();
-    return clientsResource.get(client.getId()).roles().list()
+    return selectClientRoles()
         .stream().map(RoleRepresentation::getName).collect(Collectors.toList());
   }
 
@@ -246,9 +282,8 @@ public class UserDaoImpl implements UserDao {
   }
 
   private List<RoleRepresentation> assignRolesToUser(UserResource userResource, List<String> roles) {
-    ClientsResource clientsResource = keycloak.realm(realm).clients();
-    ClientRepresentation client = clientsResource.findByClientId(resourceId).getFirst();
-    List<RoleRepresentation> existedRoles = clientsResource.get(client.getId()).roles().list();
+    ClientRepresentation client = selectClient();
+    List<RoleRepresentation> existedRoles = selectClientRoles();
     List<RoleRepresentation> roleRepresentations = existedRoles.stream().filter(role -> roles.contains(role.getName())).collect(Collectors.toList());
     //if added role is valid role then  delete old roles and update new one
     if ((!roleRepresentations.isEmpty() && roles.size() == roleRepresentations.size()) || roles.isEmpty()) {
@@ -265,9 +300,7 @@ public class UserDaoImpl implements UserDao {
     if (roles == null) {
       roles = Collections.emptyList();
     }
-    ClientsResource clientsResource = keycloak.realm(realm).clients();
-    ClientRepresentation client = clientsResource.findByClientId(resourceId).getFirst();
-    List<RoleRepresentation> existedRoles = clientsResource.get(client.getId()).roles().list();
+    List<RoleRepresentation> existedRoles = selectClientRoles();
     final List<String> finalRoles = roles;
     List<RoleRepresentation> roleRepresentations = existedRoles.stream().filter(role -> finalRoles.contains(role.getName())).collect(Collectors.toList());
     if ((roleRepresentations.isEmpty() && roles.size() != roleRepresentations.size())) {
@@ -281,10 +314,28 @@ public class UserDaoImpl implements UserDao {
   }
 
   private List<RoleRepresentation> getUserRoles(UsersResource instance, String userId) {
-    ClientRepresentation client = keycloak.realm(realm).clients().findByClientId(resourceId).getFirst();
+    ClientRepresentation client = selectClient();
     return instance.get(userId).roles().clientLevel(client.getId()).listAll();
   }
 
+  private ClientRepresentation selectClient() {
+    return cache.get(Region.CLIENT,
+        () -> keycloak.realm(realm).clients().findByClientId(resourceId).getFirst(), resourceId);
+  }
+
+  private List<RoleRepresentation> selectClientRoles() {
+    ClientRepresentation client = selectClient();
+    return cache.get(Region.CLIENT_ROLES,
+        () -> keycloak.realm(realm).clients().get(client.getId()).roles().list(), resourceId);
+  }
+
+  private void invalidateUser(String userId) {
+    if (userId != null) {
+      cache.invalidate(Region.USER, userId);
+    }
+    cache.invalidateAll(Region.USER_PAGE, Region.PARTICIPANT_USERS);
+  }
+
   private UserRepresentation getUserRepresentation(UserResource userResource, String id) {
     try {
       return userResource.toRepresentation();
@@ -320,4 +371,13 @@ public class UserDaoImpl implements UserDao {
     passwordCredentials.setValue(password);
     return passwordCredentials;
   }
+
+  /**
+   * A user together with its client roles, as cached by the {@link KeycloakCache}.
+   */
+  record UserEntry(UserRepresentation user, List<RoleRepresentation> roles) {
+  }
+
+  private record UserPage(long totalCount, List<UserEntry> users) {
+  }
 }
\ No newline at end of file
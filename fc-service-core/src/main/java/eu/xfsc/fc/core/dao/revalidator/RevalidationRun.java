@@ -0,0 +1,51 @@
+package eu.xfsc.fc.core.dao.revalidator;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A revalidation run of one instance, from its first claimed chunk until no chunk is due anymore.
+ */
+@Entity
+@Table(name = "revalidation_runs")
+@Getter
+@Setter
+@NoArgsConstructor
+public class RevalidationRun {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id")
+  private Long id;
+
+  @Column(name = "instance", length = 256, nullable = false)
+  private String instance;
+
+  @Column(name = "started_at", nullable = false)
+  private Instant startedAt;
+
+  @Column(name = "finished_at")
+  private Instant finishedAt;
+
+  @Column(name = "chunks", nullable = false)
+  private int chunks;
+
+  @Column(name = "processed", nullable = false)
+  private long processed;
+
+  @Column(name = "revoked", nullable = false)
+  private long revoked;
+
+  @Column(name = "errors", nullable = false)
+  private long errors;
+}
@@ -0,0 +1,16 @@
+package eu.xfsc.fc.core.dao.revalidator;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface RevalidationRunRepository extends JpaRepository<RevalidationRun, Long> {
+
+  /** Sets {@code finishedAt} of the runs of the given instance that are still open. */
+  @Modifying
+  @Query("UPDATE RevalidationRun r SET r.finishedAt = :finishedAt WHERE r.instance = :instance AND r.finishedAt IS NULL")
+  int closeOpenRuns(@Param("instance") String instance, @Param("finishedAt") Instant finishedAt);
+}
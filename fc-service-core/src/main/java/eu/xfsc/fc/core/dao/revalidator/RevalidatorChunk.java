@@ -24,4 +24,16 @@ public class RevalidatorChunk {
 
   @Column(name = "lastcheck", nullable = false)
   private Instant lastcheck;
+
+  @Column(name = "lease_id")
+  private String leaseId;
+
+  @Column(name = "lease_until")
+  private Instant leaseUntil;
+
+  @Column(name = "resume_hash")
+  private String resumeHash;
+
+  @Column(name = "started_at")
+  private Instant startedAt;
 }
@@ -0,0 +1,15 @@
+package eu.xfsc.fc.core.dao.revalidator;
+
+import java.time.Instant;
+
+/**
+ * A chunk of assets leased for revalidation.
+ *
+ * @param chunkId the id of the chunk
+ * @param lastCheck the time the chunk was last revalidated completely
+ * @param leaseId the id of the lease, identifying the holder in later updates of the chunk
+ * @param resumeHash the last asset hash revalidated by an earlier holder of the chunk, null to
+ *     start with the first asset
+ */
+public record RevalidatorChunkClaim(int chunkId, Instant lastCheck, String leaseId, String resumeHash) {
+}
@@ -1,8 +1,18 @@
 package eu.xfsc.fc.core.dao.revalidator;
 
+import java.time.Duration;
+
 interface RevalidatorChunkRepositoryCustom {
 
-  int findChunkForWork(String schemaType);
+  RevalidatorChunkClaim claimChunkForWork(String schemaType, Duration lease);
+
+  boolean recordChunkProgress(RevalidatorChunkClaim claim, String resumeHash, Duration lease);
+
+  boolean finishChunk(RevalidatorChunkClaim claim);
+
+  void releaseChunk(RevalidatorChunkClaim claim);
+
+  int countDueChunks(String schemaType);
 
   void checkChunkTable(int instanceCount);
 
@@ -1,8 +1,11 @@
 package eu.xfsc.fc.core.dao.revalidator;
 
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.UUID;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.Query;
@@ -17,25 +20,96 @@ public class RevalidatorChunkRepositoryCustomImpl implements RevalidatorChunkRep
   private final EntityManager entityManager;
 
   @Override
-  public int findChunkForWork(String schemaType) {
+  public RevalidatorChunkClaim claimChunkForWork(String schemaType, Duration lease) {
+    // a chunk is due when a schema of the type was added or shapes changed after its last check;
+    // chunks leased by other instances are skipped until their lease expires. A new pass over the
+    // chunk starts now, an unfinished one is continued after its resume hash.
     String sql = """
-        UPDATE revalidatorchunks SET lastcheck = now()
-        WHERE chunkid = (SELECT chunkid FROM revalidatorchunks
-          WHERE lastcheck < (SELECT created_at FROM schemafiles WHERE type = ?1 ORDER BY created_at DESC LIMIT 1)
-          ORDER BY chunkid LIMIT 1)
-        RETURNING chunkid""";
+        UPDATE revalidatorchunks c SET lease_id = ?2, lease_until = now() + ?3 * interval '1 millisecond',
+          started_at = CASE WHEN c.resume_hash IS NULL THEN now() ELSE c.started_at END
+        FROM (SELECT chunkid FROM revalidatorchunks
+          WHERE lastcheck < GREATEST(
+            (SELECT max(created_at) FROM schemafiles WHERE type = ?1),
+            (SELECT max(created_at) FROM schema_changes))
+          AND (lease_until IS NULL OR lease_until < now())
+          ORDER BY chunkid LIMIT 1
+          FOR UPDATE SKIP LOCKED) due
+        WHERE c.chunkid = due.chunkid
+        RETURNING c.chunkid, c.lastcheck, c.resume_hash""";
 
+    String leaseId = UUID.randomUUID().toString();
     Query query = entityManager.createNativeQuery(sql);
     query.setParameter(1, schemaType);
+    query.setParameter(2, leaseId);
+    query.setParameter(3, lease.toMillis());
 
     @SuppressWarnings("unchecked")
-    List<Integer> result = query.getResultList();
-    log.debug("findChunkForWork; found chunk: {}", result);
+    List<Object[]> result = query.getResultList();
+    log.debug("claimChunkForWork; found chunk: {}", result.isEmpty() ? null : result.getFirst()[0]);
 
-    if (!result.isEmpty()) {
-      return result.getFirst();
+    if (result.isEmpty()) {
+      return null;
     }
-    return -1;
+    Object[] row = result.getFirst();
+    return new RevalidatorChunkClaim(((Number) row[0]).intValue(), toInstant(row[1]), leaseId, (String) row[2]);
+  }
+
+  @Override
+  public boolean recordChunkProgress(RevalidatorChunkClaim claim, String resumeHash, Duration lease) {
+    int cnt = entityManager.createNativeQuery("""
+        UPDATE revalidatorchunks SET resume_hash = ?3, lease_until = now() + ?4 * interval '1 millisecond'
+        WHERE chunkid = ?1 AND lease_id = ?2""")
+        .setParameter(1, claim.chunkId())
+        .setParameter(2, claim.leaseId())
+        .setParameter(3, resumeHash)
+        .setParameter(4, lease.toMillis())
+        .executeUpdate();
+    return cnt > 0;
+  }
+
+  @Override
+  public boolean finishChunk(RevalidatorChunkClaim claim) {
+    // changes of the schemas during the pass keep the chunk due
+    int cnt = entityManager.createNativeQuery("""
+        UPDATE revalidatorchunks SET lastcheck = started_at,
+          lease_id = NULL, lease_until = NULL, resume_hash = NULL, started_at = NULL
+        WHERE chunkid = ?1 AND lease_id = ?2""")
+        .setParameter(1, claim.chunkId())
+        .setParameter(2, claim.leaseId())
+        .executeUpdate();
+    return cnt > 0;
+  }
+
+  @Override
+  public void releaseChunk(RevalidatorChunkClaim claim) {
+    entityManager.createNativeQuery("""
+        UPDATE revalidatorchunks SET lease_id = NULL, lease_until = NULL
+        WHERE chunkid = ?1 AND lease_id = ?2""")
+        .setParameter(1, claim.chunkId())
+        .setParameter(2, claim.leaseId())
+        .executeUpdate();
+  }
+
+  @Override
+  public int countDueChunks(String schemaType) {
+    Number count = (Number) entityManager.createNativeQuery("""
+        SELECT count(*) FROM revalidatorchunks
+        WHERE lastcheck < GREATEST(
+          (SELECT max(created_at) FROM schemafiles WHERE type = ?1),
+          (SELECT max(created_at) FROM schema_changes))""")
+        .setParameter(1, schemaType)
+        .getSingleResult();
+    return count.intValue();
+  }
+
+  private static Instant toInstant(Object value) {
+    if (value instanceof Timestamp timestamp) {
+      return timestamp.toInstant();
+    }
+    if (value instanceof OffsetDateTime dateTime) {
+      return dateTime.toInstant();
+    }
+    return (Instant) value;
   }
 
   @Override
@@ -74,8 +148,11 @@ public class RevalidatorChunkRepositoryCustomImpl implements RevalidatorChunkRep
   public void resetChunkTableTimes() {
     log.debug("resetChunkTableTimes.enter; Resetting chunk table times...");
     entityManager.createNativeQuery("LOCK TABLE revalidatorchunks").executeUpdate();
+    // revokes the leases, so that their holders stop and the chunks are revalidated from the start
     int cnt = entityManager
-        .createNativeQuery("UPDATE revalidatorchunks SET lastcheck = ?1")
+        .createNativeQuery("""
+            UPDATE revalidatorchunks SET lastcheck = ?1,
+              lease_id = NULL, lease_until = NULL, resume_hash = NULL, started_at = NULL""")
         .setParameter(1, Timestamp.from(Instant.parse("2000-01-01T00:00:00Z")))
         .executeUpdate();
     log.debug("resetChunkTableTimes.exit; resetting chunk table times done, updated: {}", cnt);
@@ -1,9 +1,17 @@
 package eu.xfsc.fc.core.dao.revalidator;
 
+import java.time.Duration;
+
 public interface RevalidatorChunksDao {
 
-	int findChunkForWork(String schemaType);
+	RevalidatorChunkClaim claimChunkForWork(String schemaType, Duration lease);
+	boolean recordChunkProgress(RevalidatorChunkClaim claim, String resumeHash, Duration lease);
+	boolean finishChunk(RevalidatorChunkClaim claim);
+	void releaseChunk(RevalidatorChunkClaim claim);
+	int countDueChunks(String schemaType);
 	void checkChunkTable(int instanceCount);
 	void resetChunkTableTimes();
 	
+	RevalidationRun saveRun(RevalidationRun run);
+	int closeOpenRuns(String instance);
 }
@@ -1,5 +1,8 @@
 package eu.xfsc.fc.core.dao.revalidator;
 
+import java.time.Duration;
+import java.time.Instant;
+
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -11,11 +14,36 @@ import lombok.RequiredArgsConstructor;
 public class RevalidatorChunksJpaDao implements RevalidatorChunksDao {
 
   private final RevalidatorChunkRepository repository;
+  private final RevalidationRunRepository runRepository;
+
+  @Override
+  @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+  public RevalidatorChunkClaim claimChunkForWork(String schemaType, Duration lease) {
+    return repository.claimChunkForWork(schemaType, lease);
+  }
+
+  @Override
+  @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+  public boolean recordChunkProgress(RevalidatorChunkClaim claim, String resumeHash, Duration lease) {
+    return repository.recordChunkProgress(claim, resumeHash, lease);
+  }
+
+  @Override
+  @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+  public boolean finishChunk(RevalidatorChunkClaim claim) {
+    return repository.finishChunk(claim);
+  }
 
   @Override
   @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
-  public int findChunkForWork(String schemaType) {
-    return repository.findChunkForWork(schemaType);
+  public void releaseChunk(RevalidatorChunkClaim claim) {
+    repository.releaseChunk(claim);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public int countDueChunks(String schemaType) {
+    return repository.countDueChunks(schemaType);
   }
 
   @Override
@@ -29,4 +57,16 @@ public class RevalidatorChunksJpaDao implements RevalidatorChunksDao {
   public void resetChunkTableTimes() {
     repository.resetChunkTableTimes();
   }
+
+  @Override
+  @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+  public RevalidationRun saveRun(RevalidationRun run) {
+    return runRepository.save(run);
+  }
+
+  @Override
+  @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+  public int closeOpenRuns(String instance) {
+    return runRepository.closeOpenRuns(instance, Instant.now());
+  }
 }
@@ -1,9 +1,11 @@
 package eu.xfsc.fc.core.dao.schemas;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import eu.xfsc.fc.core.exception.NotFoundException;
 import eu.xfsc.fc.core.service.schemastore.SchemaRecord;
@@ -20,6 +22,14 @@ public interface SchemaDao {
 	int deleteAll();
 	Optional<String> selectLatestContentByType(String typeName);
 
+	/**
+	 * Return the contents of all schemas of the given type in a single query.
+	 *
+	 * @param typeName the schema type name
+	 * @return schema contents in insertion order, or empty list if there are none
+	 */
+	List<String> selectContentsByType(String typeName);
+
 	/**
 	 * Return all versions of the schema, ordered ascending by version number.
 	 *
@@ -45,4 +55,20 @@ public interface SchemaDao {
 	 */
 	int getVersionCount(String schemaId);
 
+	/**
+	 * Record a change of shapes, affecting the instances of the given classes.
+	 *
+	 * @param targetClasses IRIs of the affected classes, or {@code null} if instances of any class are affected
+	 */
+	void insertChange(Collection<String> targetClasses);
+
+	/**
+	 * Return the classes affected by the shape changes recorded after the given time.
+	 *
+	 * @param since exclusive lower bound of the change time
+	 * @return IRIs of the affected classes, or {@code null} if instances of any class may be affected
+	 *         or no change was recorded
+	 */
+	Set<String> selectChangedTargetClasses(Instant since);
+
 }
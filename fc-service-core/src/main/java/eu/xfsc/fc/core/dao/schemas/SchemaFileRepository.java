@@ -1,5 +1,6 @@
 package eu.xfsc.fc.core.dao.schemas;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -37,10 +38,20 @@ public interface SchemaFileRepository
   """)
   Optional<String> findLatestContentByType(@Param("type") SchemaType type);
 
+  @Query("SELECT e.content FROM SchemaFile e WHERE e.type = :type ORDER BY e.id")
+  List<String> findContentsByType(@Param("type") SchemaType type);
+
   @Query("SELECT t.term FROM SchemaTerm t WHERE t.term IN :terms")
   List<String> findExistingTerms(@Param("terms") Collection<String> terms);
 
   @Modifying
   @Query("DELETE FROM SchemaFile")
   int deleteAllReturningCount();
+
+  @Modifying
+  @Query(value = "INSERT INTO schema_changes(target_class) VALUES (CAST(:targetClass AS TEXT))", nativeQuery = true)
+  int insertChange(@Param("targetClass") String targetClass);
+
+  @Query(value = "SELECT DISTINCT target_class FROM schema_changes WHERE created_at > :since", nativeQuery = true)
+  List<String> findChangedTargetClasses(@Param("since") Instant since);
 }
@@ -1,11 +1,13 @@
 package eu.xfsc.fc.core.dao.schemas;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Repository;
@@ -87,6 +89,27 @@ public class SchemaJpaDao implements SchemaDao {
     repository.saveAndFlush(entity);
   }
 
+  @Override
+  @Transactional
+  public void insertChange(Collection<String> targetClasses) {
+    if (targetClasses == null) {
+      repository.insertChange(null);
+      return;
+    }
+    for (String targetClass : targetClasses) {
+      repository.insertChange(targetClass);
+    }
+  }
+
+  @Override
+  public Set<String> selectChangedTargetClasses(Instant since) {
+    List<String> changed = repository.findChangedTargetClasses(since);
+    if (changed.isEmpty() || changed.contains(null)) {
+      return null;
+    }
+    return new HashSet<>(changed);
+  }
+
   @Override
   @Transactional
   public String delete(String schemaId) {
@@ -108,6 +131,12 @@ public class SchemaJpaDao implements SchemaDao {
     return repository.findLatestContentByType(SchemaType.valueOf(typeName));
   }
 
+  @Override
+  @Transactional(readOnly = true)
+  public List<String> selectContentsByType(String typeName) {
+    return repository.findContentsByType(SchemaType.valueOf(typeName));
+  }
+
   @Override
   @Transactional(readOnly = true)
   public List<SchemaRecord> selectVersions(String schemaId) {
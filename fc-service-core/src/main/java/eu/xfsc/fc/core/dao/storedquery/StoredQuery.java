@@ -0,0 +1,52 @@
+package eu.xfsc.fc.core.dao.storedquery;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import eu.xfsc.fc.api.generated.model.QueryLanguage;
+
+@Entity
+@Table(name = "stored_queries")
+@EntityListeners(AuditingEntityListener.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredQuery {
+
+  @Id
+  @Column(name = "name", length = 255, nullable = false)
+  private String name;
+
+  @Column(name = "description", length = 1024)
+  private String description;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "query_language", length = 20, nullable = false)
+  private QueryLanguage queryLanguage;
+
+  @Column(name = "query_text", columnDefinition = "TEXT", nullable = false)
+  private String queryText;
+
+  @CreatedDate
+  @Column(name = "created_at", updatable = false)
+  private LocalDateTime createdAt;
+
+  @LastModifiedDate
+  @Column(name = "updated_at")
+  private LocalDateTime updatedAt;
+}
@@ -0,0 +1,7 @@
+package eu.xfsc.fc.core.dao.storedquery;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StoredQueryRepository
+    extends JpaRepository<StoredQuery, String> {
+}
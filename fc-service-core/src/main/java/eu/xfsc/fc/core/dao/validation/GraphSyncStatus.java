@@ -3,12 +3,14 @@ package eu.xfsc.fc.core.dao.validation;
 /**
  * Graph DB synchronisation lifecycle for a {@link ValidationResult}.
  *
- * <p>The status is set atomically when {@code ValidationResultStoreImpl.store()}
- * commits. PENDING is not a valid committed state — the graph write either
- * succeeds ({@code SYNCED}) or fails ({@code FAILED}) within the same transaction.</p>
+ * <p>{@code ValidationResultStoreImpl.store()} commits a result as {@code PENDING}; the graph
+ * write is queued after the commit and moves it to {@code SYNCED} or {@code FAILED}.</p>
  */
 public enum GraphSyncStatus {
 
+  /** The result is stored, its graph write is queued. Pending results are requeued on startup. */
+  PENDING,
+
   /** The result was successfully written to the graph DB as {@code fcmeta:} triples. */
   SYNCED,
 
@@ -28,8 +28,8 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
  * and {@code validatedAt}. Allows tamper detection without a public endpoint.</p>
  *
  * <p>{@code graphSyncStatus} tracks whether this result has been written to the
- * graph DB as {@code fcmeta:} triples. Best-effort write: {@code FAILED} rows require
- * manual intervention; no background retry is performed.</p>
+ * graph DB as {@code fcmeta:} triples. The write is queued after the INSERT commits;
+ * {@code FAILED} rows are restored by a graph rebuild.</p>
  */
 @Entity
 @Table(name = "validation_result")
@@ -40,9 +40,10 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 public class ValidationResult {
 
   @Id
+  // one id per nextval, since ValidationResultRepository.insertOrTouch takes ids from the sequence too
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "validation_result_seq")
   @SequenceGenerator(name = "validation_result_seq", sequenceName = "validation_result_seq",
-      allocationSize = 50)
+      allocationSize = 1)
   private Long id;
 
   /**
@@ -92,13 +93,28 @@ public class ValidationResult {
   private String contentHash;
 
   /**
-   * Graph DB sync lifecycle: SYNCED or FAILED (set atomically when store() commits).
-   * Best-effort write: FAILED rows require manual intervention; no retry is performed.
+   * SHA-256 hex digest over canonical JSON of: assetIds, validatorIds, validatorType,
+   * conforms, report. Identifies the outcome independent of validatedAt; unique among
+   * current (not outdated) results, so repeated identical validations reuse one row.
+   */
+  @Column(name = "result_hash", length = 64)
+  private String resultHash;
+
+  /**
+   * Graph DB sync lifecycle: PENDING when store() commits, then SYNCED or FAILED once the
+   * queued graph write has run. FAILED rows are restored by a graph rebuild.
    */
   @Enumerated(EnumType.STRING)
   @Column(name = "graph_sync_status", length = 16)
   private GraphSyncStatus graphSyncStatus;
 
+  /**
+   * When an instance last queued the graph write of this result; a {@code PENDING} result claimed
+   * long ago is claimed again by another instance.
+   */
+  @Column(name = "graph_sync_claimed_at")
+  private Instant graphSyncClaimedAt;
+
   @Setter(AccessLevel.NONE)
   @CreatedDate
   @Column(name = "created_at", nullable = false, updatable = false)
@@ -1,5 +1,7 @@
 package eu.xfsc.fc.core.dao.validation;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -7,27 +9,44 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 /** Spring Data JPA repository for {@link ValidationResult} entities. */
 public interface ValidationResultRepository extends JpaRepository<ValidationResult, Long> {
 
+  /**
+   * The ID of a stored validation result, whether it was inserted or an existing one reused, and
+   * its graph sync status after the statement.
+   */
+  interface StoredResult {
+
+    Long getId();
+
+    Boolean getInserted();
+
+    String getGraphSyncStatus();
+  }
+
+  /** Selects the ids of the validation results referencing {@code :assetId}. */
+  String RESULTS_OF_ASSET = "SELECT result_id FROM validation_result_asset WHERE asset_id = :assetId";
+
   /**
    * Find all validation results where the given asset ID appears in the asset_ids array.
    *
-   * <p>Uses the GIN index  (Generalized Inverted Index - designed for composite values) on {@code asset_ids} 
-   * for efficient lookup. The {@code = ANY()} operator requires a GIN index on the array column</p>
+   * <p>Looks the asset up in {@code validation_result_asset}, which a trigger keeps in sync with
+   * {@code asset_ids}, through its B-tree index on {@code asset_id}.</p>
    */
-  @Query(value = "SELECT * FROM validation_result WHERE :assetId = ANY(asset_ids)",
-      countQuery = "SELECT COUNT(*) FROM validation_result WHERE :assetId = ANY(asset_ids)",
+  @Query(value = "SELECT * FROM validation_result WHERE id IN (" + RESULTS_OF_ASSET + ")",
+      countQuery = "SELECT COUNT(*) FROM validation_result_asset WHERE asset_id = :assetId",
       nativeQuery = true)
   Page<ValidationResult> findByAssetId(@Param("assetId") String assetId, Pageable pageable);
 
   /** Returns all validation results referencing {@code assetId}, without pagination. */
-  @Query(value = "SELECT * FROM validation_result WHERE :assetId = ANY(asset_ids)", nativeQuery = true)
+  @Query(value = "SELECT * FROM validation_result WHERE id IN (" + RESULTS_OF_ASSET + ")", nativeQuery = true)
   List<ValidationResult> findAllByAssetId(@Param("assetId") String assetId);
 
   /** Deletes all validation results that reference {@code assetId} in their {@code asset_ids} array. */
   @Modifying
-  @Query(value = "DELETE FROM validation_result WHERE :assetId = ANY(asset_ids)", nativeQuery = true)
+  @Query(value = "DELETE FROM validation_result WHERE id IN (" + RESULTS_OF_ASSET + ")", nativeQuery = true)
   void deleteAllByAssetId(@Param("assetId") String assetId);
 
   /**
@@ -35,7 +54,62 @@ public interface ValidationResultRepository extends JpaRepository<ValidationResu
    */
   @Modifying(clearAutomatically = true)
   @Query(value = "UPDATE validation_result SET outdated = true, outdated_reason = :reason "
-      + "WHERE :assetId = ANY(asset_ids)", nativeQuery = true)
+      + "WHERE id IN (" + RESULTS_OF_ASSET + ")", nativeQuery = true)
   void markOutdatedByAssetId(@Param("assetId") String assetId, @Param("reason") String reason);
 
+  /**
+   * Inserts a validation result as {@code PENDING}, or, if a current result with the same
+   * {@code resultHash} exists, moves its {@code validatedAt} and {@code contentHash} to the given
+   * values instead. An existing result whose graph write {@code FAILED} is set back to
+   * {@code PENDING}, so that the caller queues the write again. The check runs against the unique
+   * {@code result_hash} index, so concurrent identical validations still produce one row.
+   */
+  @Query(value = """
+      INSERT INTO validation_result(id, asset_ids, validator_ids, validator_type, conforms, validated_at,
+          report, content_hash, result_hash, graph_sync_status, graph_sync_claimed_at, created_at, outdated)
+      VALUES (nextval('validation_result_seq'), :assetIds, :validatorIds, :validatorType, :conforms, :validatedAt,
+          :report, :contentHash, :resultHash, 'PENDING', now(), now(), false)
+      ON CONFLICT (result_hash) WHERE NOT outdated
+      DO UPDATE SET validated_at = EXCLUDED.validated_at, content_hash = EXCLUDED.content_hash,
+          graph_sync_status = CASE WHEN validation_result.graph_sync_status = 'FAILED' THEN 'PENDING'
+              ELSE validation_result.graph_sync_status END,
+          graph_sync_claimed_at = CASE WHEN validation_result.graph_sync_status = 'SYNCED'
+              THEN validation_result.graph_sync_claimed_at ELSE now() END
+      RETURNING id, xmax = 0 AS inserted, graph_sync_status AS "graphSyncStatus"
+      """, nativeQuery = true)
+  StoredResult insertOrTouch(@Param("assetIds") String[] assetIds,
+      @Param("validatorIds") String[] validatorIds,
+      @Param("validatorType") String validatorType,
+      @Param("conforms") boolean conforms,
+      @Param("validatedAt") Instant validatedAt,
+      @Param("report") String report,
+      @Param("contentHash") String contentHash,
+      @Param("resultHash") String resultHash);
+
+  /** Sets the graph sync status of the given validation results. */
+  @Modifying
+  @Transactional
+  @Query("UPDATE ValidationResult r SET r.graphSyncStatus = :status WHERE r.id IN :ids")
+  int updateGraphSyncStatus(@Param("ids") Collection<Long> ids, @Param("status") GraphSyncStatus status);
+
+  /**
+   * Claims the {@code PENDING} validation results whose graph write was not claimed within the
+   * last {@code claimTimeoutSeconds}, so that only one instance queues them again. Rows locked by
+   * a concurrent claim are skipped.
+   *
+   * @return the ids of the claimed results
+   */
+  @Transactional
+  @Query(value = """
+      UPDATE validation_result SET graph_sync_claimed_at = now()
+      WHERE id IN (SELECT id FROM validation_result
+          WHERE graph_sync_status = 'PENDING'
+            AND (graph_sync_claimed_at IS NULL
+                OR graph_sync_claimed_at < now() - make_interval(secs => :claimTimeoutSeconds))
+          ORDER BY id
+          FOR UPDATE SKIP LOCKED)
+      RETURNING id
+      """, nativeQuery = true)
+  List<Long> claimPendingGraphSync(@Param("claimTimeoutSeconds") long claimTimeoutSeconds);
+
 }
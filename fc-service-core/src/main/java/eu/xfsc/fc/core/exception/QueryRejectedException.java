@@ -0,0 +1,31 @@
+package eu.xfsc.fc.core.exception;
+
+/**
+ * Exception thrown when a graph query is refused by admission control, either because its
+ * estimated cost exceeds the configured budget or because the client has too many queries running.
+ */
+public class QueryRejectedException extends ServiceException {
+
+  private final boolean overBudget;
+
+  /**
+   * Constructs a new QueryRejectedException with the specified detail message.
+   *
+   * @param message Detailed message about the thrown exception.
+   * @param overBudget whether the query was refused for its estimated cost rather than for the current load
+   */
+  public QueryRejectedException(String message, boolean overBudget) {
+    super(message);
+    this.overBudget = overBudget;
+  }
+
+  /**
+   * Returns whether the query was refused for its estimated cost. Such queries fail on every retry,
+   * while queries refused for the current load may succeed later.
+   *
+   * @return true if the query exceeds the cost budget
+   */
+  public boolean isOverBudget() {
+    return overBudget;
+  }
+}
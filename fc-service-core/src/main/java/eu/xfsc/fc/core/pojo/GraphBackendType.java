@@ -6,5 +6,6 @@ package eu.xfsc.fc.core.pojo;
 public enum GraphBackendType {
   NEO4J,
   FUSEKI,
+  TDB2,
   NONE
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package eu.xfsc.fc.core.pojo;
+
+import java.util.Set;
+
+import eu.xfsc.fc.api.generated.model.QueryLanguage;
+
+/**
+ * A stored graph query after validation, ready to be executed with bound parameters.
+ *
+ * @param parameters names of the parameters the query accepts
+ * @param parametersRequired whether every parameter must be bound on execution (openCypher),
+ *     or unbound ones are left as free variables (SPARQL)
+ */
+public record PreparedQuery(
+    String name,
+    String description,
+    QueryLanguage queryLanguage,
+    String query,
+    Set<String> parameters,
+    boolean parametersRequired) {}
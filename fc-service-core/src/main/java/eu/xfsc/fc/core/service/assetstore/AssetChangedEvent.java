@@ -0,0 +1,10 @@
+package eu.xfsc.fc.core.service.assetstore;
+
+/**
+ * Published by {@link AssetStoreImpl} when an asset is stored or its lifecycle status changes.
+ * Deletions are published as {@link AssetDeletedEvent} instead.
+ *
+ * @param assetId the subject IRI of the changed asset
+ */
+public record AssetChangedEvent(String assetId) {
+}
@@ -7,6 +7,7 @@ import eu.xfsc.fc.core.pojo.AssetFilter;
 import eu.xfsc.fc.core.pojo.AssetMetadata;
 import eu.xfsc.fc.core.pojo.CredentialVerificationResult;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -90,6 +91,21 @@ public interface AssetStore {
    */
   List<String> getActiveAssetHashes(String afterHash, int count, int chunks, int chunkId);
 
+  /**
+   * Like {@link #getActiveAssetHashes(String, int, int, int)}, but only returns
+   * the hashes of assets describing a node of one of the given RDF types.
+   * Assets stored before their types were indexed are always returned.
+   *
+   * @param afterHash The last hash of the previous batch.
+   * @param count the number of hashes to retrieve.
+   * @param chunks the number of chunks to subdivide hashes into.
+   * @param chunkId the 0-based id of the chunk to get.
+   * @param types the IRIs of the RDF types, must not be empty.
+   * @return the list of matching hashes coming after the hash "afterHash",
+   * ordered by hash.
+   */
+  List<String> getActiveAssetHashesOfTypes(String afterHash, int count, int chunks, int chunkId, Collection<String> types);
+
   /**
    * Store a non-RDF asset. The content is stored in the FileStore and metadata
    * (with content=NULL) is inserted into the database. No verification or graph
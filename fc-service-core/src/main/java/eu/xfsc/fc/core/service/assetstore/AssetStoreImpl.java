@@ -18,6 +18,7 @@ import eu.xfsc.fc.core.pojo.GraphBackendType;
 import eu.xfsc.fc.core.pojo.CredentialClaim;
 import eu.xfsc.fc.core.pojo.CredentialVerificationResult;
 import eu.xfsc.fc.core.pojo.PaginatedResults;
+import eu.xfsc.fc.core.pojo.RdfClaim;
 import eu.xfsc.fc.core.pojo.Validator;
 import eu.xfsc.fc.core.service.filestore.FileStore;
 import eu.xfsc.fc.core.service.graphdb.GraphStore;
@@ -25,6 +26,7 @@ import org.springframework.context.ApplicationEventPublisher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.mutable.MutableInt;
+import org.apache.jena.vocabulary.RDF;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
@@ -33,8 +35,11 @@ import org.springframework.transaction.annotation.Transactional;
 import eu.xfsc.fc.core.dao.assets.Asset;
 import java.io.IOException;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * File system based implementation of the asset store interface.
@@ -113,6 +118,7 @@ public class AssetStoreImpl implements AssetStore {
         .build();
 
     SubjectHashRecord subjectHash = insertAssetWithErrorHandling(assetRecord, assetMetadata);
+    dao.updateTypes(assetMetadata.getAssetHash(), extractTypes(verificationResult.getGraphClaims()));
 
     if (subjectHash != null && subjectHash.subjectId() != null) {
       graphDb.deleteClaims(subjectHash.subjectId());
@@ -120,9 +126,22 @@ public class AssetStoreImpl implements AssetStore {
       tryRewriteLinkTriples(assetMetadata.getId());
     }
     graphDb.addClaims(verificationResult.getGraphClaims(), assetMetadata.getId());
+    eventPublisher.publishEvent(new AssetChangedEvent(assetMetadata.getId()));
     return subjectHash;
   }
 
+  private static Set<String> extractTypes(List<RdfClaim> claims) {
+    Set<String> types = new TreeSet<>();
+    if (claims != null) {
+      for (RdfClaim claim : claims) {
+        if (RDF.type.getURI().equals(claim.getPredicateValue()) && claim.getObjectValue() != null) {
+          types.add(claim.getObjectValue());
+        }
+      }
+    }
+    return types;
+  }
+
   private Instant calculateExpirationTime(List<Validator> validators) {
     if (validators == null) {
       return null;
@@ -178,6 +197,7 @@ public class AssetStoreImpl implements AssetStore {
     } catch (IOException ex) {
       throw new ServerException("Failed to store asset content in file store", ex);
     }
+    eventPublisher.publishEvent(new AssetChangedEvent(subjectId));
     log.debug("storeAsset.exit; stored asset with hash: {}", assetMetadata.getAssetHash());
     return assetRecord;
   }
@@ -195,6 +215,7 @@ public class AssetStoreImpl implements AssetStore {
     	hash, AssetStatus.ACTIVE, ssr.getAssetStatus()));
     }
     graphDb.deleteClaims(ssr.subjectId());
+    eventPublisher.publishEvent(new AssetChangedEvent(ssr.subjectId()));
   }
 
   @Override
@@ -268,6 +289,11 @@ public class AssetStoreImpl implements AssetStore {
     return dao.selectHashes(afterHash, count, chunks, chunkId);
   }
 
+  @Override
+  public List<String> getActiveAssetHashesOfTypes(String afterHash, int count, int chunks, int chunkId, Collection<String> types) {
+    return dao.selectHashesOfTypes(afterHash, count, chunks, chunkId, types);
+  }
+
   @Override
   public AssetMetadata getById(final String id) {
     return dao.selectBySubjectId(id)
@@ -0,0 +1,159 @@
+package eu.xfsc.fc.core.service.bulkhead;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import eu.xfsc.fc.core.exception.ServiceUnavailableException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounds the number of concurrently running units of one kind of work, so that a flood of one
+ * kind cannot take all threads, database connections and graph sessions from the others.
+ *
+ * <p>All callers take their slot from a fair queue, so new callers cannot overtake waiting ones.
+ * Interactive callers use {@link #call(Supplier)} and are rejected when the queue is full or no
+ * slot got free within {@code maxWait}; background callers use {@link #callBlocking(Supplier)}
+ * and wait as long as needed.</p>
+ */
+@Slf4j
+public class Bulkhead {
+
+  @Getter
+  private final BulkheadType type;
+  @Getter
+  private final int maxConcurrent;
+  private final int maxWaiting;
+  private final Duration maxWait;
+  private final Semaphore slots;
+  private final AtomicInteger waiting = new AtomicInteger();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong completed = new AtomicLong();
+
+  public Bulkhead(BulkheadType type, int maxConcurrent, int maxWaiting, Duration maxWait) {
+    this.type = type;
+    this.maxConcurrent = Math.max(1, maxConcurrent);
+    this.maxWaiting = Math.max(0, maxWaiting);
+    this.maxWait = maxWait == null ? Duration.ZERO : maxWait;
+    this.slots = new Semaphore(this.maxConcurrent, true);
+  }
+
+  /**
+   * Runs the work in this bulkhead, waiting at most {@code maxWait} for a free slot.
+   *
+   * @param work the work to run
+   * @param <T> type of the result
+   * @return the result of the work
+   * @throws ServiceUnavailableException if no slot got free in time or too many callers are waiting
+   */
+  public <T> T call(Supplier<T> work) {
+    if (waiting.incrementAndGet() > maxWaiting && slots.availablePermits() == 0) {
+      waiting.decrementAndGet();
+      reject("too many waiting requests");
+    }
+    boolean acquired;
+    try {
+      // the timed acquire honours the fair queue, even with a zero timeout
+      acquired = slots.tryAcquire(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    } finally {
+      waiting.decrementAndGet();
+    }
+    if (!acquired) {
+      reject("no free slot within " + maxWait);
+    }
+    return runAndRelease(work);
+  }
+
+  /**
+   * Runs the work in this bulkhead, waiting as long as needed for a free slot.
+   *
+   * @param work the work to run
+   * @param <T> type of the result
+   * @return the result of the work
+   * @throws ServiceUnavailableException if the thread was interrupted while waiting
+   */
+  public <T> T callBlocking(Supplier<T> work) {
+    waiting.incrementAndGet();
+    try {
+      slots.acquire();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new ServiceUnavailableException(type + " bulkhead: interrupted while waiting for a free slot", ex);
+    } finally {
+      waiting.decrementAndGet();
+    }
+    return runAndRelease(work);
+  }
+
+  /**
+   * Runs the work in this bulkhead, waiting as long as needed for a free slot.
+   *
+   * @param work the work to run
+   */
+  public void runBlocking(Runnable work) {
+    callBlocking(() -> {
+      work.run();
+      return null;
+    });
+  }
+
+  /**
+   * Returns the number of units of work currently running.
+   *
+   * @return the number of taken slots
+   */
+  public int getActive() {
+    return maxConcurrent - slots.availablePermits();
+  }
+
+  /**
+   * Returns the number of callers currently waiting for a slot.
+   *
+   * @return the number of waiting callers
+   */
+  public int getWaiting() {
+    return waiting.get();
+  }
+
+  /**
+   * Returns the number of callers rejected so far.
+   *
+   * @return the number of rejections
+   */
+  public long getRejected() {
+    return rejected.get();
+  }
+
+  /**
+   * Returns the number of units of work completed so far, successfully or not.
+   *
+   * @return the number of completed calls
+   */
+  public long getCompleted() {
+    return completed.get();
+  }
+
+  private <T> T runAndRelease(Supplier<T> work) {
+    try {
+      return work.get();
+    } finally {
+      slots.release();
+      completed.incrementAndGet();
+    }
+  }
+
+  private void reject(String reason) {
+    rejected.incrementAndGet();
+    log.info("reject; {} bulkhead full: {}", type, reason);
+    throw new ServiceUnavailableException("The catalogue is busy (" + type.name().toLowerCase()
+        + " capacity exhausted), please try again later");
+  }
+
+}
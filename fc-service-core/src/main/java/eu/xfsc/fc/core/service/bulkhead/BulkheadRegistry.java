@@ -0,0 +1,56 @@
+package eu.xfsc.fc.core.service.bulkhead;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import eu.xfsc.fc.core.config.BulkheadProperties;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds the {@link Bulkhead} of every {@link BulkheadType}, configured by {@link BulkheadProperties}.
+ * When bulkheads are disabled, every type gets a bulkhead without a practical limit.
+ */
+@Slf4j
+@Component
+public class BulkheadRegistry {
+
+  private final Map<BulkheadType, Bulkhead> bulkheads = new EnumMap<>(BulkheadType.class);
+
+  public BulkheadRegistry(BulkheadProperties props) {
+    bulkheads.put(BulkheadType.QUERY, create(BulkheadType.QUERY, props.isEnabled(), props.getQuery()));
+    bulkheads.put(BulkheadType.INGEST, create(BulkheadType.INGEST, props.isEnabled(), props.getIngest()));
+    bulkheads.put(BulkheadType.ADMIN, create(BulkheadType.ADMIN, props.isEnabled(), props.getAdmin()));
+  }
+
+  /**
+   * Returns the bulkhead of the given type.
+   *
+   * @param type kind of work
+   * @return the bulkhead
+   */
+  public Bulkhead get(BulkheadType type) {
+    return bulkheads.get(type);
+  }
+
+  /**
+   * Returns all bulkheads.
+   *
+   * @return the bulkheads of all types
+   */
+  public Collection<Bulkhead> getAll() {
+    return Collections.unmodifiableCollection(bulkheads.values());
+  }
+
+  private static Bulkhead create(BulkheadType type, boolean enabled, BulkheadProperties.Pool pool) {
+    if (!enabled) {
+      return new Bulkhead(type, Integer.MAX_VALUE, 0, null);
+    }
+    log.info("create; {} bulkhead: {}", type, pool);
+    return new Bulkhead(type, pool.getMaxConcurrent(), pool.getMaxWaiting(), pool.getMaxWait());
+  }
+
+}
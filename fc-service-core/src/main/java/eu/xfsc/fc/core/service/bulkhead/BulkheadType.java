@@ -0,0 +1,22 @@
+package eu.xfsc.fc.core.service.bulkhead;
+
+/**
+ * Kinds of work isolated from each other by a {@link Bulkhead}.
+ */
+public enum BulkheadType {
+
+  /**
+   * Interactive graph queries.
+   */
+  QUERY,
+
+  /**
+   * Asset uploads and storage.
+   */
+  INGEST,
+
+  /**
+   * Background administration work, e.g. graph rebuilds and revalidation.
+   */
+  ADMIN
+}
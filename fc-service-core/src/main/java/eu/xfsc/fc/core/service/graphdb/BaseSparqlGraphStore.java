@@ -0,0 +1,299 @@
+package eu.xfsc.fc.core.service.graphdb;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.apache.jena.query.QuerySolution;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.RDFNode;
+
+import eu.xfsc.fc.api.generated.model.QueryLanguage;
+import eu.xfsc.fc.core.exception.ServerException;
+import eu.xfsc.fc.core.pojo.GraphQuery;
+import eu.xfsc.fc.core.util.ClaimValidator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Common part of the graph stores holding claims as RDF-star triples queried with SPARQL.
+ *
+ * <p>Every claim triple is stored as a triple term annotated with
+ * {@code <<(s p o)>> cred:credentialSubject <subject>}. This class holds the statements shared by
+ * the stores, the conversion of query results, the IRI checks guarding interpolated updates and
+ * the claim and asset counters; subclasses provide the access to their dataset.</p>
+ */
+@Slf4j
+public abstract class BaseSparqlGraphStore implements GraphStore {
+
+  protected static final String PROP_CREDENTIAL_SUBJECT = "https://www.w3.org/2018/credentials#credentialSubject";
+
+  /* Any appearances of ORDER BY (each word surrounded by any whitespace)
+   * which is not enclosed by quotes
+   */
+  private static final Pattern ORDER_BY_PATTERN = Pattern.compile("ORDER\\sBY(?=(?:[^'\"`]*(['\"`])[^'\"`]*\1)*[^'\"`]*$)", Pattern.CASE_INSENSITIVE);
+
+  // Rejects characters that break the <iri> token in a SPARQL string context.
+  private static final Pattern SAFE_IRI_PATTERN = Pattern.compile("^[^<>\"\\\\\\s{}|^`\\[\\]]+$");
+
+  private static final String CLAIM_COUNT_QUERY = "SELECT (COUNT(*) AS ?cnt) WHERE { "
+      + "<<(?s ?p ?o)>> <" + PROP_CREDENTIAL_SUBJECT + "> ?cs }";
+  private static final String ASSET_COUNT_QUERY = "SELECT (COUNT(DISTINCT ?cs) AS ?cnt) WHERE { "
+      + "<<(?s ?p ?o)>> <" + PROP_CREDENTIAL_SUBJECT + "> ?cs }";
+  private static final String SUBJECT_COUNT_QUERY = "SELECT (COUNT(*) AS ?claims) (COUNT(DISTINCT ?cs) AS ?assets) "
+      + "WHERE { VALUES ?cs { %s } <<(?s ?p ?o)>> <" + PROP_CREDENTIAL_SUBJECT + "> ?cs }";
+  private static final String VALIDATION_RESULT_SUBJECTS_QUERY = "SELECT DISTINCT ?cs WHERE { VALUES ?r { %1$s } "
+      + "{ <<(?r ?p ?o)>> <%2$s> ?cs } UNION { <<(?s ?p ?r)>> <%2$s> ?cs } }";
+
+  protected final ClaimValidator claimValidator = new ClaimValidator();
+  protected final GraphStatistics statistics = new GraphStatistics();
+
+  /**
+   * Runs a SELECT query in a read transaction, or in the transaction already open on the dataset.
+   *
+   * @param query the SPARQL query
+   * @param reader reads the solutions, called before the transaction ends
+   * @return the value returned by the reader
+   */
+  protected abstract <T> T select(String query, Function<ResultSet, T> reader);
+
+  /** {@inheritDoc} */
+  @Override
+  public Optional<QueryLanguage> getSupportedQueryLanguage() {
+    return Optional.of(QueryLanguage.SPARQL);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Estimated from the query algebra by {@link SparqlCostEstimator}, relative to the
+   * maintained claim count. The claims are counted first if they were never counted, so that
+   * queries are estimated before the first scheduled reconciliation as well.</p>
+   */
+  @Override
+  public long estimateQueryCost(GraphQuery query) {
+    if (query.getQueryLanguage() != QueryLanguage.SPARQL) {
+      return -1;
+    }
+    return SparqlCostEstimator.estimate(query.getQuery(), getClaimCount());
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getClaimCount() {
+    ensureStatistics();
+    return statistics.getClaimCount();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getRDFAssetCountInGraph() {
+    ensureStatistics();
+    return statistics.getAssetCount();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getWriteEpoch() {
+    return statistics.getWriteEpoch();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void reconcileStatistics() {
+    statistics.reconcile(() -> countAll(CLAIM_COUNT_QUERY, "claim"), () -> countAll(ASSET_COUNT_QUERY, "asset"));
+  }
+
+  private void ensureStatistics() {
+    if (!statistics.isInitialized() || statistics.isStale()) {
+      reconcileStatistics();
+    }
+  }
+
+  private long countAll(String query, String what) {
+    try {
+      return select(query, rs -> rs.hasNext() ? rs.next().getLiteral("cnt").getLong() : 0L);
+    } catch (Exception e) {
+      log.warn("Failed to get {} {} count: {}", getBackendType(), what, e.getMessage());
+      return -1;
+    }
+  }
+
+  /**
+   * Runs a write changing the claims of the given credential subjects only, and returns its effect
+   * on the counters. The effect is the difference between the counts of the claims of these
+   * subjects before and after the write, so it is exact unless the same subjects are written
+   * concurrently; the next reconciliation corrects such drift. Run it inside the write
+   * transaction to keep the counts consistent with the write.
+   *
+   * @param subjects the credential subjects whose claims the write adds or removes, null if not known
+   * @param write the write
+   * @return the claims and assets added, negative if removed, or null if they could not be counted
+   */
+  protected long[] countChange(Collection<String> subjects, Runnable write) {
+    if (subjects == null) {
+      write.run();
+      return null;
+    }
+    if (subjects.isEmpty()) {
+      write.run();
+      return new long[] {0, 0};
+    }
+    long[] before = countSubjects(subjects);
+    write.run();
+    long[] after = before == null ? null : countSubjects(subjects);
+    return after == null ? null : new long[] {after[0] - before[0], after[1] - before[1]};
+  }
+
+  /**
+   * Applies the effect of a completed write returned by {@link #countChange}, marking the counters
+   * stale if it is not known.
+   */
+  protected void recordChange(long[] change) {
+    if (change == null) {
+      statistics.recordUnknownWrite();
+    } else {
+      statistics.recordChange(change[0], change[1]);
+    }
+  }
+
+  private long[] countSubjects(Collection<String> subjects) {
+    String values = subjects.stream().map(iri -> "<" + iri + ">").collect(Collectors.joining(" "));
+    try {
+      return select(String.format(SUBJECT_COUNT_QUERY, values), rs -> {
+        QuerySolution solution = rs.next();
+        return new long[] {solution.getLiteral("claims").getLong(), solution.getLiteral("assets").getLong()};
+      });
+    } catch (Exception e) {
+      log.warn("Failed to count {} claims of {} subjects: {}", getBackendType(), subjects.size(), e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Returns the credential subjects holding claims of the given validation results, the subjects
+   * whose claims {@link #deleteValidationResultsUpdate(Collection)} removes.
+   *
+   * @param resultIris IRIs of the validation results, checked by {@link #requireSafeIri(String)}
+   * @return the credential subjects, null if the query failed
+   */
+  protected Set<String> validationResultSubjects(Collection<String> resultIris) {
+    String values = resultIris.stream().map(iri -> "<" + iri + ">").collect(Collectors.joining(" "));
+    try {
+      return select(String.format(VALIDATION_RESULT_SUBJECTS_QUERY, values, PROP_CREDENTIAL_SUBJECT), rs -> {
+        Set<String> subjects = new HashSet<>();
+        rs.forEachRemaining(solution -> {
+          RDFNode subject = solution.get("cs");
+          if (subject.isURIResource()) {
+            subjects.add(subject.asResource().getURI());
+          }
+        });
+        return subjects;
+      });
+    } catch (Exception e) {
+      log.warn("Failed to find {} subjects of {} validation results: {}", getBackendType(), resultIris.size(), e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Returns the SPARQL update removing the claims of a validation result: its own property
+   * triples {@code <<(result ?p ?o)>>} and the links to it {@code <<(?s ?p result)>>}.
+   *
+   * @param resultIri IRI of the validation result, checked by {@link #requireSafeIri(String)}
+   * @return the update
+   */
+  protected static String deleteValidationResultUpdate(String resultIri) {
+    // <<(?s ?p ?o)>> is the annotation-pattern syntax required by Jena SPARQL-star in WHERE/DELETE clauses.
+    return String.format(
+        "DELETE WHERE { <<(<%1$s> ?p ?o)>> <%2$s> ?cs . } ;"
+        + "DELETE WHERE { <<(?s ?p <%1$s>)>> <%2$s> ?cs . }",
+        resultIri, PROP_CREDENTIAL_SUBJECT);
+  }
+
+  /**
+   * Returns the SPARQL update removing the claims of several validation results at once.
+   *
+   * @param resultIris IRIs of the validation results, checked by {@link #requireSafeIri(String)}
+   * @return the update
+   */
+  protected static String deleteValidationResultsUpdate(Collection<String> resultIris) {
+    String values = resultIris.stream().map(iri -> "<" + iri + ">").collect(Collectors.joining(" "));
+    return String.format(
+        "DELETE { <<(?r ?p ?o)>> <%2$s> ?cs . } WHERE { VALUES ?r { %1$s } <<(?r ?p ?o)>> <%2$s> ?cs . } ;"
+        + "DELETE { <<(?s ?p ?r)>> <%2$s> ?cs . } WHERE { VALUES ?r { %1$s } <<(?s ?p ?r)>> <%2$s> ?cs . }",
+        values, PROP_CREDENTIAL_SUBJECT);
+  }
+
+  /**
+   * Checks that an IRI can be interpolated into a SPARQL string as {@code <iri>}.
+   *
+   * @param iri the IRI
+   * @throws ServerException if the IRI contains characters that would break out of the IRI token
+   */
+  protected static void requireSafeIri(String iri) {
+    if (iri == null || !SAFE_IRI_PATTERN.matcher(iri).matches()) {
+      throw new ServerException("IRI contains characters unsafe for SPARQL interpolation: " + iri);
+    }
+  }
+
+  /**
+   * Converts the solutions of a SELECT query to rows of JSON-serializable values. Results of
+   * queries without an ORDER BY clause are shuffled, so that no entries get a permanent advantage
+   * in the top n results.
+   *
+   * @param results the solutions
+   * @param query text of the query that produced them
+   * @return the rows keyed by variable name
+   */
+  protected static List<Map<String, Object>> toRows(ResultSet results, String query) {
+    List<Map<String, Object>> rows = new ArrayList<>();
+    results.forEachRemaining(solution -> rows.add(toRow(solution)));
+    if (!ORDER_BY_PATTERN.matcher(query).find()) {
+      Collections.shuffle(rows);
+    }
+    return rows;
+  }
+
+  private static Map<String, Object> toRow(QuerySolution solution) {
+    Map<String, Object> row = new HashMap<>();
+    solution.varNames().forEachRemaining(varName -> row.put(varName, convertRdfNode(solution.get(varName))));
+    return row;
+  }
+
+  /**
+   * Converts an {@link RDFNode} to a JSON-serializable Java object.
+   */
+  static Object convertRdfNode(RDFNode node) {
+    if (node == null) {
+      return null;
+    }
+    if (node.isLiteral()) {
+      Literal lit = node.asLiteral();
+      try {
+        Object value = lit.getValue();
+        if (value instanceof String || value instanceof Number || value instanceof Boolean) {
+          return value;
+        }
+        // Jena-internal types (e.g. XSDDateTime) are not JSON-serializable
+        return lit.getLexicalForm();
+      } catch (Exception e) {
+        log.warn("Could not extract typed value for literal '{}': {}", lit.getLexicalForm(), e.getMessage());
+        return lit.getLexicalForm();
+      }
+    }
+    if (node.isURIResource()) {
+      return node.asResource().getURI();
+    }
+    return node.toString();
+  }
+}
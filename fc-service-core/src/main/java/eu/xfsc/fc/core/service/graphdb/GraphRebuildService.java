@@ -76,6 +76,7 @@ public class GraphRebuildService {
                   status.incrementErrors();
                 }
               });
+          graphStore.reconcileStatistics();
           status.markComplete();
         } catch (Exception e) {
           log.error("Graph rebuild failed", e);
@@ -0,0 +1,169 @@
+package eu.xfsc.fc.core.service.graphdb;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import lombok.Getter;
+
+/**
+ * Incrementally maintained claim and asset counters of a graph store.
+ *
+ * <p>Graph stores adjust the counters on every write with deltas derived from the write itself,
+ * without reading the graph, and periodically replace them with full counts computed by the
+ * backend (see {@link GraphStatisticsReconciler}). A store that cannot derive the delta of a write
+ * marks the counters stale instead, and reconciles them before it reports them again. Deltas
+ * applied while a reconciliation is running may be lost or counted twice; the next reconciliation
+ * corrects such drift. Writes of unknown effect recorded while a reconciliation is running keep
+ * the counters stale.</p>
+ *
+ * <p>Next to the counters it keeps a write epoch, a number increased after every completed write.
+ * Unlike the counters it is never reset, so readers can use it to detect graph changes.</p>
+ */
+public class GraphStatistics {
+
+  private final AtomicLong claimCount = new AtomicLong();
+  private final AtomicLong assetCount = new AtomicLong();
+  private final AtomicLong writeEpoch = new AtomicLong();
+  private volatile boolean initialized;
+  private volatile boolean stale;
+  @Getter
+  private volatile Instant lastReconciledAt;
+
+  /**
+   * Returns whether the counters were set by at least one successful reconciliation.
+   *
+   * @return true if the counters hold meaningful values
+   */
+  public boolean isInitialized() {
+    return initialized;
+  }
+
+  /**
+   * Returns whether writes not reflected in the counters were recorded since the last
+   * reconciliation.
+   *
+   * @return true if the counters need to be reconciled before they are reported
+   */
+  public boolean isStale() {
+    return stale;
+  }
+
+  /**
+   * Returns the current claim count.
+   *
+   * @return the claim count, or {@code -1} if the counters were never reconciled
+   */
+  public long getClaimCount() {
+    return initialized ? claimCount.get() : -1;
+  }
+
+  /**
+   * Returns the current count of distinct assets in the graph.
+   *
+   * @return the asset count, or {@code -1} if the counters were never reconciled
+   */
+  public long getAssetCount() {
+    return initialized ? assetCount.get() : -1;
+  }
+
+  /**
+   * Returns the current write epoch.
+   *
+   * @return the number of writes recorded so far
+   */
+  public long getWriteEpoch() {
+    return writeEpoch.get();
+  }
+
+  /**
+   * Records a completed write that is not reflected in the counters.
+   */
+  public void recordWrite() {
+    writeEpoch.incrementAndGet();
+  }
+
+  /**
+   * Records a completed write whose effect on the counters is not known, until the next
+   * reconciliation.
+   */
+  public void recordUnknownWrite() {
+    stale = true;
+    recordWrite();
+  }
+
+  /**
+   * Records claims added to the graph.
+   *
+   * @param claims number of claims added
+   * @param assets number of assets that were not present in the graph before
+   */
+  public void recordAdded(long claims, long assets) {
+    claimCount.addAndGet(claims);
+    assetCount.addAndGet(assets);
+    recordWrite();
+  }
+
+  /**
+   * Records a write that added or removed claims. Counters never drop below zero.
+   *
+   * @param claims number of claims added, negative if claims were removed
+   * @param assets number of assets added to the graph, negative if assets were removed
+   */
+  public void recordChange(long claims, long assets) {
+    claimCount.updateAndGet(c -> Math.max(0, c + claims));
+    assetCount.updateAndGet(c -> Math.max(0, c + assets));
+    recordWrite();
+  }
+
+  /**
+   * Records claims removed from the graph. Counters never drop below zero.
+   *
+   * @param claims number of claims removed
+   * @param assets number of assets no longer present in the graph
+   */
+  public void recordDeleted(long claims, long assets) {
+    claimCount.updateAndGet(c -> Math.max(0, c - claims));
+    assetCount.updateAndGet(c -> Math.max(0, c - assets));
+    recordWrite();
+  }
+
+  /**
+   * Replaces the counters with full counts computed by the backend. Negative counts signal
+   * a failed computation and leave the counters unchanged.
+   *
+   * @param claims the full claim count
+   * @param assets the full asset count
+   * @return true if the counters were updated
+   */
+  public boolean reconcile(long claims, long assets) {
+    return reconcile(() -> claims, () -> assets);
+  }
+
+  /**
+   * Replaces the counters with full counts computed by the backend. The counters are marked
+   * fresh before counting, so that a write of unknown effect recorded while counting keeps them
+   * stale. Negative counts signal a failed computation and leave the counters unchanged.
+   *
+   * @param claimCounter computes the full claim count
+   * @param assetCounter computes the full asset count
+   * @return true if the counters were updated
+   */
+  public boolean reconcile(LongSupplier claimCounter, LongSupplier assetCounter) {
+    boolean wasStale = stale;
+    stale = false;
+    long claims = claimCounter.getAsLong();
+    long assets = claims < 0 ? -1 : assetCounter.getAsLong();
+    if (claims < 0 || assets < 0) {
+      if (wasStale) {
+        stale = true;
+      }
+      return false;
+    }
+    claimCount.set(claims);
+    assetCount.set(assets);
+    lastReconciledAt = Instant.now();
+    initialized = true;
+    return true;
+  }
+}
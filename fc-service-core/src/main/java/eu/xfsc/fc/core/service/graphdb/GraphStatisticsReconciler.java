@@ -0,0 +1,39 @@
+package eu.xfsc.fc.core.service.graphdb;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import eu.xfsc.fc.core.pojo.GraphBackendType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Periodically replaces the incrementally maintained graph counters with full counts,
+ * correcting any drift accumulated between reconciliations.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GraphStatisticsReconciler {
+
+  private final GraphStore graphStore;
+
+  /**
+   * Reconciles the graph store statistics. Skipped when the graph store is disabled.
+   */
+  @Scheduled(initialDelayString = "${graphstore.statistics.reconcile-interval:PT30M}",
+      fixedDelayString = "${graphstore.statistics.reconcile-interval:PT30M}")
+  public void reconcile() {
+    if (graphStore.getBackendType() == GraphBackendType.NONE) {
+      return;
+    }
+    long stamp = System.currentTimeMillis();
+    try {
+      graphStore.reconcileStatistics();
+      log.info("reconcile; graph statistics reconciled, claims: {}, assets: {}, took {} ms",
+          graphStore.getClaimCount(), graphStore.getRDFAssetCountInGraph(), System.currentTimeMillis() - stamp);
+    } catch (Exception e) {
+      log.warn("reconcile; failed to reconcile graph statistics: {}", e.getMessage());
+    }
+  }
+}
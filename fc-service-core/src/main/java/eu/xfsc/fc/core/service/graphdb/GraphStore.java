@@ -1,5 +1,6 @@
 package eu.xfsc.fc.core.service.graphdb;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -26,6 +27,17 @@ public interface GraphStore {
      */
     void addClaims(List<RdfClaim> claimList, String credentialSubject);
 
+    /**
+     * Pushes claims of several assets to the Graph DB. Implementations backed by a remote
+     * store may ship the whole batch in as few round trips as possible; the default
+     * implementation calls {@link #addClaims(List, String)} once per asset.
+     *
+     * @param claimsBySubject claims to be added, keyed by asset unique identifier
+     */
+    default void addClaimsBatch(Map<String, List<RdfClaim>> claimsBySubject) {
+        claimsBySubject.forEach((credentialSubject, claimList) -> addClaims(claimList, credentialSubject));
+    }
+
     /**
      * Deletes all claims in the Graph DB of a given asset
      * @param credentialSubject contains an asset unique identifier
@@ -43,6 +55,17 @@ public interface GraphStore {
      */
     void deleteValidationResultClaims(String resultIri);
 
+    /**
+     * Deletes all graph triples associated with several validation results. Implementations
+     * backed by a remote store may remove them in a single round trip; the default
+     * implementation calls {@link #deleteValidationResultClaims(String)} once per result.
+     *
+     * @param resultIris the IRIs of the validation results
+     */
+    default void deleteValidationResultClaimsBatch(Collection<String> resultIris) {
+        resultIris.forEach(this::deleteValidationResultClaims);
+    }
+
     /**
      * Query the graph when Cypher query is passed in query object and this
      * returns list of Maps with key value pairs as a result.
@@ -52,6 +75,30 @@ public interface GraphStore {
      */
     PaginatedResults<Map<String, Object>> queryData(GraphQuery query);
 
+    /**
+     * Estimates the cost of running the query without executing it, in the number of rows or
+     * statements the backend expects to touch. Used for admission control of user queries; the
+     * estimate is a relative measure and not exact.
+     *
+     * @param query the query to estimate
+     * @return the estimated cost (&ge; 0), or {@code -1} if no estimate is available.
+     *         The default implementation returns {@code -1}.
+     */
+    default long estimateQueryCost(GraphQuery query) {
+        return -1;
+    }
+
+    /**
+     * Checks that the backend can plan the query, without executing it. Used when stored queries
+     * are registered, so that invalid ones are rejected before they are run.
+     *
+     * @param query the query to check, parameters without values are allowed
+     * @throws eu.xfsc.fc.core.exception.ClientException if the backend rejects the query.
+     *         The default implementation accepts every query.
+     */
+    default void validateQuery(GraphQuery query) {
+    }
+
     /**
      * Returns the query language supported by this graph store implementation.
      *
@@ -76,6 +123,9 @@ public interface GraphStore {
     /**
      * Returns the number of claim entries currently stored in the graph database.
      * Counts only claim-related data, not internal/structural nodes or triples.
+     * Implementations serve the value from counters maintained on every write and
+     * reconciled by {@link #reconcileStatistics()}, so it may drift slightly between
+     * reconciliations.
      *
      * @return the claim count (&ge; 0), or {@code -1} if the count could not be
      *         determined (e.g. connectivity failure). The default implementation
@@ -89,6 +139,7 @@ public interface GraphStore {
      * Returns the number of distinct RDF-assets whose claims are stored
      * in the graph database. Unlike {@link #getClaimCount()}, which counts
      * individual claim triples/nodes, this counts unique credential subjects.
+     * Served from the same maintained counters as {@link #getClaimCount()}.
      *
      * @return the asset count (&ge; 0), or {@code -1} if the count could not be
      *         determined (e.g. connectivity failure). The default implementation
@@ -98,5 +149,28 @@ public interface GraphStore {
         return 0;
     }
 
+    /**
+     * Returns the write epoch of the store: a number that increases after every completed
+     * {@link #addClaims(List, String)}, {@link #deleteClaims(String)} or
+     * {@link #deleteValidationResultClaims(String)} call. Results read from the graph stay
+     * valid as long as the epoch does not change.
+     *
+     * @return the current write epoch, or {@code -1} if the store does not track writes.
+     *         The default implementation returns {@code -1}.
+     */
+    default long getWriteEpoch() {
+        return -1;
+    }
+
+    /**
+     * Recomputes the counters behind {@link #getClaimCount()} and
+     * {@link #getRDFAssetCountInGraph()} with a full count over the backend.
+     * Called periodically by {@link GraphStatisticsReconciler} and after bulk changes
+     * such as a graph rebuild. The default implementation does nothing.
+     */
+    default void reconcileStatistics() {
+        // nothing to reconcile
+    }
+
 }
 
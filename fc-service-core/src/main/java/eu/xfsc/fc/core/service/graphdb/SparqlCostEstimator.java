@@ -0,0 +1,102 @@
+package eu.xfsc.fc.core.service.graphdb;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.sparql.algebra.Algebra;
+import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.sparql.algebra.OpVisitorBase;
+import org.apache.jena.sparql.algebra.OpWalker;
+import org.apache.jena.sparql.algebra.op.OpBGP;
+import org.apache.jena.sparql.algebra.op.OpPath;
+import org.apache.jena.sparql.algebra.op.OpQuadPattern;
+import org.apache.jena.sparql.algebra.op.OpTriple;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Estimates the cost of SPARQL queries from their compiled algebra, for graph stores whose
+ * backends do not expose a query planner.
+ *
+ * <p>Every triple pattern is assumed to match a share of the graph that shrinks tenfold with each
+ * concrete subject, predicate or object; property paths are assumed to visit the whole graph.
+ * The query cost is the sum over all patterns. This ignores joins and filters, but reliably
+ * separates selective lookups from full scans.</p>
+ */
+@Slf4j
+public final class SparqlCostEstimator {
+
+  private static final long SELECTIVITY = 10;
+
+  private SparqlCostEstimator() {
+  }
+
+  /**
+   * Estimates the cost of the query on a graph of the given size.
+   *
+   * @param query SPARQL query text
+   * @param graphSize number of statements in the graph
+   * @return the estimated number of statements touched, or {@code -1} if the graph size is
+   *         unknown or the query cannot be parsed
+   */
+  public static long estimate(String query, long graphSize) {
+    if (graphSize < 0) {
+      return -1;
+    }
+    Op op;
+    try {
+      op = Algebra.compile(SparqlQueries.parse(query));
+    } catch (Exception ex) {
+      log.debug("estimate; cannot compile query: {}", ex.getMessage());
+      return -1;
+    }
+    CostVisitor visitor = new CostVisitor(graphSize);
+    OpWalker.walk(op, visitor);
+    return visitor.cost;
+  }
+
+  private static final class CostVisitor extends OpVisitorBase {
+
+    private final long graphSize;
+    private long cost;
+
+    private CostVisitor(long graphSize) {
+      this.graphSize = graphSize;
+    }
+
+    @Override
+    public void visit(OpBGP opBGP) {
+      opBGP.getPattern().forEach(this::add);
+    }
+
+    @Override
+    public void visit(OpTriple opTriple) {
+      add(opTriple.getTriple());
+    }
+
+    @Override
+    public void visit(OpQuadPattern quadPattern) {
+      quadPattern.getPattern().getList().forEach(q -> add(q.asTriple()));
+    }
+
+    @Override
+    public void visit(OpPath opPath) {
+      cost = saturatedAdd(cost, Math.max(1, graphSize));
+    }
+
+    private void add(Triple triple) {
+      long matches = Math.max(1, graphSize);
+      for (Node node : new Node[] {triple.getSubject(), triple.getPredicate(), triple.getObject()}) {
+        if (node.isConcrete()) {
+          matches = Math.max(1, matches / SELECTIVITY);
+        }
+      }
+      cost = saturatedAdd(cost, matches);
+    }
+
+    private static long saturatedAdd(long a, long b) {
+      long sum = a + b;
+      return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+  }
+
+}
@@ -0,0 +1,72 @@
+package eu.xfsc.fc.core.service.graphdb;
+
+import java.util.Map;
+
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.query.QuerySolutionMap;
+import org.apache.jena.query.Syntax;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.ResourceFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Parsing and parameter binding of SPARQL queries shared by the SPARQL graph stores.
+ *
+ * <p>Parsed queries are cached by their text, so stored and frequently repeated queries are
+ * parsed once. Cached {@link Query} instances are shared and must not be modified.</p>
+ */
+public final class SparqlQueries {
+
+  private static final int CACHE_SIZE = 1000;
+
+  private static final Cache<String, Query> PARSED = Caffeine.newBuilder()
+      .maximumSize(CACHE_SIZE)
+      .build();
+
+  private SparqlQueries() {
+  }
+
+  /**
+   * Parses the query, or returns the result of an earlier parse of the same text.
+   *
+   * @param query SPARQL query text
+   * @return the parsed query
+   * @throws org.apache.jena.query.QueryParseException if the query is not valid SPARQL
+   */
+  public static Query parse(String query) {
+    return PARSED.get(query, q -> QueryFactory.create(q, Syntax.syntaxARQ));
+  }
+
+  /**
+   * Converts query parameters to an initial binding of SPARQL variables. Strings enclosed
+   * in angle brackets are bound as IRIs, all other values as typed literals.
+   *
+   * @param params parameter values keyed by variable name without the leading {@code ?}
+   * @return the binding, empty if there are no parameters
+   */
+  public static QuerySolutionMap bindings(Map<String, Object> params) {
+    QuerySolutionMap bindings = new QuerySolutionMap();
+    if (params != null) {
+      params.forEach((name, value) -> {
+        if (value != null) {
+          bindings.add(name, toRdfNode(value));
+        }
+      });
+    }
+    return bindings;
+  }
+
+  private static RDFNode toRdfNode(Object value) {
+    if (value instanceof String str && str.length() > 2 && str.startsWith("<") && str.endsWith(">")) {
+      return ResourceFactory.createResource(str.substring(1, str.length() - 1));
+    }
+    if (value instanceof String str) {
+      return ResourceFactory.createStringLiteral(str);
+    }
+    return ResourceFactory.createTypedLiteral(value);
+  }
+
+}
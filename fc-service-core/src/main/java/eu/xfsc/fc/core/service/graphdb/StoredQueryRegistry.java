@@ -0,0 +1,224 @@
+package eu.xfsc.fc.core.service.graphdb;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryParseException;
+import org.apache.jena.sparql.algebra.Algebra;
+import org.apache.jena.sparql.algebra.OpVars;
+import org.apache.jena.sparql.core.Var;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import eu.xfsc.fc.api.generated.model.QueryLanguage;
+import eu.xfsc.fc.core.dao.storedquery.StoredQuery;
+import eu.xfsc.fc.core.dao.storedquery.StoredQueryRepository;
+import eu.xfsc.fc.core.exception.ClientException;
+import eu.xfsc.fc.core.exception.NotFoundException;
+import eu.xfsc.fc.core.pojo.GraphQuery;
+import eu.xfsc.fc.core.pojo.PreparedQuery;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Registry of named, parameterised graph queries.
+ *
+ * <p>Queries are validated when they are registered and persisted in the database: SPARQL queries
+ * are parsed, openCypher queries are planned by the {@link GraphStore}. Parameters are the names
+ * written as {@code $name} outside of literals and comments; in SPARQL, {@code ?name} variables
+ * stay free and cannot be bound. The prepared form (declared parameters, and for SPARQL the parsed
+ * query in {@link SparqlQueries}) is kept in memory, so executions only bind parameters. Prepared
+ * queries are reloaded from the database a minute after they were loaded, which bounds how long
+ * other catalogue instances keep running a replaced or deleted query.</p>
+ */
+@Slf4j
+@Service
+public class StoredQueryRegistry {
+
+  private static final Pattern NAME_PATTERN = Pattern.compile("[A-Za-z0-9][A-Za-z0-9_.-]{0,254}");
+  private static final Pattern CYPHER_PARAM = Pattern.compile("\\$([A-Za-z_][A-Za-z0-9_]*)");
+  // literals, quoted names and comments, which may contain '$' that is not a parameter
+  private static final Pattern CYPHER_SKIPPED = Pattern.compile(
+      "'(?:[^'\\\\]|\\\\.)*'|\"(?:[^\"\\\\]|\\\\.)*\"|`[^`]*`|//[^\\n]*|/\\*[\\s\\S]*?\\*/");
+  private static final Pattern SPARQL_PARAM = Pattern.compile("\\$([A-Za-z0-9_]+)");
+  // literals, IRIs and comments
+  private static final Pattern SPARQL_SKIPPED = Pattern.compile(
+      "\"\"\"[\\s\\S]*?\"\"\"|'''[\\s\\S]*?'''|\"(?:[^\"\\\\\\n]|\\\\.)*\"|'(?:[^'\\\\\\n]|\\\\.)*'"
+      + "|<[^<>\"{}|^`\\\\\\s]*>|#[^\\n]*");
+  private static final Duration RELOAD_AFTER = Duration.ofMinutes(1);
+
+  private final StoredQueryRepository storedQueryRepository;
+  private final GraphStore graphStore;
+  private final LoadingCache<String, Optional<PreparedQuery>> prepared;
+
+  public StoredQueryRegistry(StoredQueryRepository storedQueryRepository, GraphStore graphStore) {
+    this.storedQueryRepository = storedQueryRepository;
+    this.graphStore = graphStore;
+    this.prepared = Caffeine.newBuilder()
+        .expireAfterWrite(RELOAD_AFTER)
+        .build(name -> storedQueryRepository.findById(name).map(StoredQueryRegistry::prepare));
+  }
+
+  /**
+   * Validates and stores a query under the given name, replacing an earlier query of that name.
+   *
+   * @param name unique name of the query
+   * @param description optional human-readable description
+   * @param queryLanguage language of the query
+   * @param query query text, with parameters as {@code $name}
+   * @return the prepared query
+   * @throws ClientException if the name or the query is not valid
+   */
+  @Transactional
+  public PreparedQuery register(String name, String description, QueryLanguage queryLanguage, String query) {
+    if (name == null || !NAME_PATTERN.matcher(name).matches()) {
+      throw new ClientException("invalid stored query name: " + name
+          + "; use letters, digits, '.', '_' and '-' only");
+    }
+    if (queryLanguage == null || query == null || query.isBlank()) {
+      throw new ClientException("stored query " + name + " needs a query language and a query");
+    }
+    StoredQuery entity = storedQueryRepository.findById(name).orElseGet(StoredQuery::new);
+    entity.setName(name);
+    entity.setDescription(description);
+    entity.setQueryLanguage(queryLanguage);
+    entity.setQueryText(query.strip());
+    // prepare before saving, so that invalid queries are never persisted
+    PreparedQuery result = prepare(entity);
+    if (queryLanguage == QueryLanguage.OPENCYPHER) {
+      Map<String, Object> unbound = new HashMap<>();
+      result.parameters().forEach(p -> unbound.put(p, null));
+      graphStore.validateQuery(new GraphQuery(result.query(), unbound, queryLanguage, GraphQuery.QUERY_TIMEOUT, false));
+    }
+    storedQueryRepository.save(entity);
+    prepared.invalidate(name);
+    log.info("register; stored query {} with parameters {}", name, result.parameters());
+    return result;
+  }
+
+  /**
+   * Returns the prepared query of the given name.
+   *
+   * @param name name of the query
+   * @return the prepared query
+   * @throws NotFoundException if there is no query of that name
+   */
+  public PreparedQuery get(String name) {
+    return prepared.get(name).orElseThrow(() -> new NotFoundException("stored query not found: " + name));
+  }
+
+  /**
+   * Returns all stored queries ordered by name.
+   *
+   * @return the prepared stored queries
+   */
+  public List<PreparedQuery> findAll() {
+    return storedQueryRepository.findAll().stream()
+        .map(StoredQueryRegistry::prepare)
+        .sorted((a, b) -> a.name().compareTo(b.name()))
+        .toList();
+  }
+
+  /**
+   * Removes the query of the given name.
+   *
+   * @param name name of the query
+   * @throws NotFoundException if there is no query of that name
+   */
+  @Transactional
+  public void delete(String name) {
+    if (!storedQueryRepository.existsById(name)) {
+      throw new NotFoundException("stored query not found: " + name);
+    }
+    storedQueryRepository.deleteById(name);
+    prepared.invalidate(name);
+    log.info("delete; removed stored query {}", name);
+  }
+
+  /**
+   * Binds parameters to the stored query of the given name.
+   *
+   * @param name name of the query
+   * @param params parameter values keyed by parameter name
+   * @param timeout query timeout in seconds
+   * @param withTotalCount whether the total count is requested
+   * @return the graph query ready to be executed
+   * @throws NotFoundException if there is no query of that name
+   * @throws ClientException if unknown parameters are passed or required ones are missing
+   */
+  public GraphQuery bind(String name, Map<String, Object> params, int timeout, boolean withTotalCount) {
+    PreparedQuery query = get(name);
+    Map<String, Object> values = params == null ? Map.of() : params;
+    Set<String> unknown = values.keySet().stream()
+        .filter(p -> !query.parameters().contains(p))
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+    if (!unknown.isEmpty()) {
+      throw new ClientException("unknown parameters " + unknown + " for stored query " + name
+          + "; accepted parameters are " + query.parameters());
+    }
+    if (query.parametersRequired() && !values.keySet().containsAll(query.parameters())) {
+      Set<String> missing = new LinkedHashSet<>(query.parameters());
+      missing.removeAll(values.keySet());
+      throw new ClientException("missing parameters " + missing + " for stored query " + name);
+    }
+    return new GraphQuery(query.query(), values, query.queryLanguage(), timeout, withTotalCount);
+  }
+
+  private static PreparedQuery prepare(StoredQuery entity) {
+    Set<String> parameters;
+    boolean required;
+    if (entity.getQueryLanguage() == QueryLanguage.SPARQL) {
+      parameters = sparqlParameters(entity.getName(), entity.getQueryText());
+      required = false;
+    } else {
+      parameters = cypherParameters(entity.getQueryText());
+      required = true;
+    }
+    return new PreparedQuery(entity.getName(), entity.getDescription(), entity.getQueryLanguage(),
+        entity.getQueryText(), Collections.unmodifiableSet(parameters), required);
+  }
+
+  private static Set<String> sparqlParameters(String name, String text) {
+    Query query;
+    try {
+      query = SparqlQueries.parse(text);
+    } catch (QueryParseException ex) {
+      throw new ClientException("stored query " + name + " is not valid SPARQL: " + ex.getMessage());
+    }
+    if (!query.isSelectType()) {
+      throw new ClientException("stored query " + name + " must be a SPARQL SELECT query");
+    }
+    Set<String> variables = OpVars.mentionedVars(Algebra.compile(query)).stream()
+        .map(Var::getVarName)
+        .collect(Collectors.toSet());
+    Set<String> parameters = parameters(SPARQL_PARAM, SPARQL_SKIPPED, text);
+    parameters.retainAll(variables);
+    return parameters;
+  }
+
+  private static Set<String> cypherParameters(String text) {
+    return parameters(CYPHER_PARAM, CYPHER_SKIPPED, text);
+  }
+
+  private static Set<String> parameters(Pattern param, Pattern skipped, String text) {
+    Set<String> parameters = new LinkedHashSet<>();
+    Matcher matcher = param.matcher(skipped.matcher(text).replaceAll(" "));
+    while (matcher.find()) {
+      parameters.add(matcher.group(1));
+    }
+    return parameters;
+  }
+
+}
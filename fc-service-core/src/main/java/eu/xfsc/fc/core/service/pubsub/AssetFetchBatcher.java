@@ -0,0 +1,163 @@
+package eu.xfsc.fc.core.service.pubsub;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import eu.xfsc.fc.api.generated.model.AssetResult;
+import eu.xfsc.fc.client.AssetClient;
+import eu.xfsc.fc.client.ExternalServiceException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Coalesces the fetches of replicated assets from their source instances.
+ *
+ * <p>Hashes requested for the same source are collected for up to {@code linger}, or until
+ * {@code batchSize} hashes are pending, and then fetched with one
+ * {@link AssetClient#getAssetsByHashes} call on a virtual thread. A burst of asset events thus
+ * costs one round trip per batch instead of one per asset. Sources that do not offer the bulk
+ * endpoint yet, or do not let this instance use it, are remembered until restart and queried
+ * hash by hash, with concurrent requests.</p>
+ */
+@Slf4j
+class AssetFetchBatcher {
+
+	// statuses of sources without a usable bulk lookup
+	private static final Set<Integer> NO_BULK_LOOKUP = Set.of(401, 403, 404, 405);
+
+	private final Function<String, AssetClient> clients;
+	private final int batchSize;
+	private final Duration linger;
+	private final Map<String, Batch> open = new HashMap<>();
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Set<String> singleFetchSources = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * The hashes pending for one source, each with the future of its fetch.
+	 */
+	private static final class Batch {
+		private final Map<String, CompletableFuture<AssetResult>> pending = new LinkedHashMap<>();
+	}
+
+	AssetFetchBatcher(Function<String, AssetClient> clients, int batchSize, Duration linger) {
+		this.clients = clients;
+		this.batchSize = Math.max(1, batchSize);
+		this.linger = linger;
+	}
+
+	/**
+	 * Requests an asset with its content from the source instance.
+	 *
+	 * @param source the base URL of the source instance
+	 * @param hash the hash of the asset
+	 * @return the future of the asset, completed with {@code null} if the source does not have the
+	 *         asset (anymore), or exceptionally if the source could not be queried
+	 */
+	CompletableFuture<AssetResult> fetch(String source, String hash) {
+		Batch full = null;
+		CompletableFuture<AssetResult> result;
+		lock.lock();
+		try {
+			Batch batch = open.get(source);
+			if (batch == null) {
+				batch = new Batch();
+				open.put(source, batch);
+				Batch started = batch;
+				Thread.ofVirtual().name("asset-fetch-linger").start(() -> {
+					sleep(linger);
+					flush(source, started);
+				});
+			}
+			result = batch.pending.computeIfAbsent(hash, h -> new CompletableFuture<>());
+			if (batch.pending.size() >= batchSize) {
+				open.remove(source);
+				full = batch;
+			}
+		} finally {
+			lock.unlock();
+		}
+		if (full != null) {
+			Batch ready = full;
+			Thread.ofVirtual().name("asset-fetch").start(() -> fetchBatch(source, ready));
+		}
+		return result;
+	}
+
+	private void flush(String source, Batch batch) {
+		lock.lock();
+		try {
+			if (!open.remove(source, batch)) {
+				// already sent as a full batch
+				return;
+			}
+		} finally {
+			lock.unlock();
+		}
+		fetchBatch(source, batch);
+	}
+
+	private void fetchBatch(String source, Batch batch) {
+		List<String> hashes = List.copyOf(batch.pending.keySet());
+		log.debug("fetchBatch; fetching {} assets from {}", hashes.size(), source);
+		AssetClient client = clients.apply(source);
+		if (!singleFetchSources.contains(source)) {
+			try {
+				Map<String, AssetResult> found = new HashMap<>();
+				for (AssetResult asset : client.getAssetsByHashes(hashes, true, true)) {
+					if (asset.getMeta() != null) {
+						found.put(asset.getMeta().getAssetHash(), asset);
+					}
+				}
+				batch.pending.forEach((hash, future) -> future.complete(found.get(hash)));
+				return;
+			} catch (ExternalServiceException ex) {
+				if (!NO_BULK_LOOKUP.contains(ex.getStatus().value())) {
+					fail(source, batch, ex);
+					return;
+				}
+				singleFetchSources.add(source);
+				log.info("fetchBatch; bulk lookup of {} not usable ({}), fetching assets one by one", source, ex.getStatus());
+			} catch (RuntimeException ex) {
+				fail(source, batch, ex);
+				return;
+			}
+		}
+		fetchEach(client, batch);
+	}
+
+	private void fetchEach(AssetClient client, Batch batch) {
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			batch.pending.forEach((hash, future) -> executor.execute(() -> {
+				try {
+					future.complete(client.getAssetByHash(hash, false, true));
+				} catch (RuntimeException ex) {
+					log.warn("fetchEach.error; cannot fetch asset {}: {}", hash, ex.getMessage());
+					future.completeExceptionally(ex);
+				}
+			}));
+		}
+	}
+
+	private static void fail(String source, Batch batch, RuntimeException ex) {
+		log.warn("fetchBatch.error; cannot fetch {} assets from {}: {}", batch.pending.size(), source, ex.getMessage());
+		batch.pending.values().forEach(future -> future.completeExceptionally(ex));
+	}
+
+	private static void sleep(Duration duration) {
+		try {
+			Thread.sleep(duration);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -41,7 +41,7 @@ public abstract class BaseAssetPublisher implements AssetPublisher {
 	@Override
 	public boolean publish(AssetMetadata assetMetadata, CredentialVerificationResult verificationResult) {
 		if (supportsMetadataUpdate()) {
-			if (transactional) {
+			if (transactional || publishesAsync()) {
 				return publishInternal(assetMetadata, verificationResult);
 			} else {
 				threadPool.execute(() -> {
@@ -57,7 +57,7 @@ public abstract class BaseAssetPublisher implements AssetPublisher {
 	@Override
 	public boolean publish(String hash, AssetEvent event, AssetStatus status) {
 		if (supportsStatusUpdate()) {
-			if (transactional) {
+			if (transactional || publishesAsync()) {
 				return publishInternal(hash, event, status);
 			} else {
 				threadPool.execute(() -> {
@@ -94,5 +94,13 @@ public abstract class BaseAssetPublisher implements AssetPublisher {
     protected boolean supportsStatusUpdate() {
     	return true;
     }
+
+    /**
+     * Publishers that hand events to the broker without waiting for it return {@code true}; their
+     * publishInternal methods are then called on the caller thread instead of the thread pool.
+     */
+    protected boolean publishesAsync() {
+    	return false;
+    }
     
 }
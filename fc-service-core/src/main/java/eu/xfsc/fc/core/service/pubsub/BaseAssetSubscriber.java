@@ -1,7 +1,11 @@
 package eu.xfsc.fc.core.service.pubsub;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -19,6 +23,8 @@ import eu.xfsc.fc.core.pojo.ContentAccessorDirect;
 import eu.xfsc.fc.core.pojo.CredentialVerificationResult;
 import eu.xfsc.fc.core.service.pubsub.AssetPublisher.AssetEvent;
 import eu.xfsc.fc.core.service.assetstore.AssetStore;
+import eu.xfsc.fc.core.service.bulkhead.BulkheadRegistry;
+import eu.xfsc.fc.core.service.bulkhead.BulkheadType;
 import eu.xfsc.fc.core.service.verification.VerificationService;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
@@ -30,17 +36,26 @@ public abstract class BaseAssetSubscriber implements AssetSubscriber {
 		
     @Value("${subscriber.instance}")
     protected String instance;
+    @Value("${subscriber.fetch.batch-size:100}")
+    private int fetchBatchSize;
+    @Value("${subscriber.fetch.linger-ms:20}")
+    private long fetchLingerMs;
     @Autowired
 	protected AssetStore assetStore;
+    @Autowired
+	protected BulkheadRegistry bulkheads;
     @Autowired 
 	protected VerificationService verificationService;
     @Autowired 
 	protected ObjectMapper jsonMapper;
 
-	protected Map<String, AssetClient> assetClients = new HashMap<>();
+	protected Map<String, AssetClient> assetClients = new ConcurrentHashMap<>();
+	private AssetFetchBatcher assetFetcher;
     
     @PostConstruct
     public void init() throws Exception {
+    	assetFetcher = new AssetFetchBatcher(src -> assetClients.computeIfAbsent(src, s -> new AssetClient(s, (String) null)),
+    			fetchBatchSize, Duration.ofMillis(fetchLingerMs));
     	subscribe();
     }
 	
@@ -52,39 +67,73 @@ public abstract class BaseAssetSubscriber implements AssetSubscriber {
 		switch (event) {
 			case ADD:
 				try {
-					CredentialVerificationResult vr;
-					AssetMetadata assetMeta;
 					String dataStr = (String) params.get("data");
 					if (dataStr == null) {
-						// get it by hash from other instance, then register locally.. may be do it in separate working queue?
-						String source = (String) params.get("source");
-						AssetClient assetClient = assetClients.computeIfAbsent(source, src -> new AssetClient(src, (String) null));
-						AssetResult assetResult = assetClient.getAssetByHash(hash, false, true);
+						// get it by hash from other instance, batched with concurrent events, then register locally
+						AssetResult assetResult = fetchAsset((String) params.get("source"), hash);
+						if (assetResult == null || assetResult.getContent() == null) {
+							log.warn("onMessage; asset {} not found at source {}, skipping", hash, params.get("source"));
+							break;
+						}
 						ContentAccessor content = new ContentAccessorDirect(assetResult.getContent());
-						// how to get proper VR class?
-                      vr = verificationService.verifyCredential(content);
-					    assetMeta = new AssetMetadata(vr.getId(), vr.getIssuer(), vr.getValidators(), content);
+						ingest(() -> {
+							// how to get proper VR class?
+							CredentialVerificationResult vr = verificationService.verifyCredential(content);
+							assetStore.storeCredential(new AssetMetadata(vr.getId(), vr.getIssuer(), vr.getValidators(), content), vr);
+						});
 					} else {
 						Map<String, Object> data = jsonMapper.readValue((String) params.get("data"), mapTypeRef);
 					    String vrs = (String) data.get("verificationResult");
-					    vr = jsonMapper.readValue(vrs, CredentialVerificationResult.class);
+					    CredentialVerificationResult vr = jsonMapper.readValue(vrs, CredentialVerificationResult.class);
 					    String content = (String) data.get("content");
-					    assetMeta = new AssetMetadata(new ContentAccessorDirect(content), vr);
+					    AssetMetadata assetMeta = new AssetMetadata(new ContentAccessorDirect(content), vr);
+					    ingest(() -> assetStore.storeCredential(assetMeta, vr));
 					}
-					assetStore.storeCredential(assetMeta, vr);
 			    } catch (JsonProcessingException ex) {
 			    	log.warn("onMessage.error", ex);
 			    }
 				break;
 			case UPDATE:
-				assetStore.changeLifeCycleStatus(hash, AssetStatus.valueOf((String) params.get("status")));
+				ingest(() -> assetStore.changeLifeCycleStatus(hash, AssetStatus.valueOf((String) params.get("status"))));
 				break;
 			case DELETE:
-				assetStore.deleteAsset(hash);
+				ingest(() -> assetStore.deleteAsset(hash));
 				break;
 		}
 	}
 	
+    /**
+     * Decodes an event payload, decompressing it if it was sent with a {@link PayloadEncoding}.
+     *
+     * @param data the payload as received
+     * @param encoding the value of the {@link PayloadEncoding#HEADER} header, may be {@code null}
+     * @return the payload text
+     */
+    protected String decodePayload(byte[] data, String encoding) {
+    	PayloadEncoding payloadEncoding = PayloadEncoding.of(encoding);
+    	byte[] decoded = payloadEncoding == null ? data : payloadEncoding.decode(data);
+    	return new String(decoded, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Runs a change of the local store in the ingest bulkhead, waiting for a free slot, so that
+     * replicated assets share the ingest capacity with uploads.
+     */
+    private void ingest(Runnable work) {
+    	bulkheads.get(BulkheadType.INGEST).runBlocking(work);
+    }
+
+    private AssetResult fetchAsset(String source, String hash) {
+    	try {
+    		return assetFetcher.fetch(source, hash).join();
+    	} catch (CompletionException ex) {
+    		if (ex.getCause() instanceof RuntimeException cause) {
+    			throw cause;
+    		}
+    		throw ex;
+    	}
+    }
+
     protected abstract void subscribe() throws Exception;
 	
 }
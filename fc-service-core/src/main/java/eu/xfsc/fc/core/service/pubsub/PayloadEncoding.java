@@ -0,0 +1,117 @@
+package eu.xfsc.fc.core.service.pubsub;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+/**
+ * Compression of event payloads exchanged between catalogue instances. The encoding of a payload
+ * is sent in the {@link #HEADER} message header, using the names of the HTTP
+ * {@code Content-Encoding} registry.
+ */
+public enum PayloadEncoding {
+
+	GZIP("gzip") {
+		@Override
+		protected OutputStream wrap(OutputStream out) throws IOException {
+			return new GZIPOutputStream(out);
+		}
+
+		@Override
+		protected InputStream wrap(InputStream in) throws IOException {
+			return new GZIPInputStream(in);
+		}
+	},
+
+	ZSTD("zstd") {
+		@Override
+		protected OutputStream wrap(OutputStream out) throws IOException {
+			return new ZstdOutputStream(out);
+		}
+
+		@Override
+		protected InputStream wrap(InputStream in) throws IOException {
+			return new ZstdInputStream(in);
+		}
+	};
+
+	public static final String HEADER = "content-encoding";
+
+	private final String value;
+
+	PayloadEncoding(String value) {
+		this.value = value;
+	}
+
+	/**
+	 * Returns the name of the encoding as sent in the {@link #HEADER} header.
+	 *
+	 * @return the encoding name
+	 */
+	public String getValue() {
+		return value;
+	}
+
+	/**
+	 * Resolves an encoding name, as configured or received in the {@link #HEADER} header.
+	 *
+	 * @param value the encoding name, {@code none} or {@code null} for uncompressed payloads
+	 * @return the encoding, or {@code null} for uncompressed payloads
+	 * @throws IllegalArgumentException if the encoding is not supported
+	 */
+	public static PayloadEncoding of(String value) {
+		if (value == null || value.isBlank() || "none".equalsIgnoreCase(value) || "identity".equalsIgnoreCase(value)) {
+			return null;
+		}
+		for (PayloadEncoding encoding : values()) {
+			if (encoding.value.equalsIgnoreCase(value.strip())) {
+				return encoding;
+			}
+		}
+		throw new IllegalArgumentException("unsupported payload encoding: " + value);
+	}
+
+	/**
+	 * Compresses the payload.
+	 *
+	 * @param data the uncompressed payload
+	 * @return the compressed payload
+	 */
+	public byte[] encode(byte[] data) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+		try (OutputStream out = wrap(bytes)) {
+			out.write(data);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Decompresses the payload.
+	 *
+	 * @param data the compressed payload
+	 * @return the uncompressed payload
+	 * @throws UncheckedIOException if the payload is not valid for this encoding
+	 */
+	public byte[] decode(byte[] data) {
+		try (InputStream in = wrap(new ByteArrayInputStream(data))) {
+			return in.readAllBytes();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	protected abstract OutputStream wrap(OutputStream out) throws IOException;
+
+	protected abstract InputStream wrap(InputStream in) throws IOException;
+
+}
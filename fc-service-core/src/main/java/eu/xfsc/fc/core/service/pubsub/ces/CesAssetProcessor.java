@@ -1,23 +1,36 @@
 package eu.xfsc.fc.core.service.pubsub.ces;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigInteger;
 import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalLong;
 
 import lombok.RequiredArgsConstructor;
 import org.erdtman.jcs.JsonCanonicalizer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
+import eu.xfsc.fc.core.config.DocumentLoaderProperties;
 import eu.xfsc.fc.core.dao.cestracker.CesTrackerDao;
 import eu.xfsc.fc.core.exception.VerificationException;
 import eu.xfsc.fc.core.pojo.AssetMetadata;
@@ -25,10 +38,12 @@ import eu.xfsc.fc.core.pojo.ContentAccessor;
 import eu.xfsc.fc.core.pojo.ContentAccessorDirect;
 import eu.xfsc.fc.core.pojo.CredentialVerificationResult;
 import eu.xfsc.fc.core.service.resolve.DidDocumentResolver;
-import eu.xfsc.fc.core.service.resolve.HttpDocumentResolver;
 import eu.xfsc.fc.core.service.assetstore.AssetStore;
+import eu.xfsc.fc.core.service.bulkhead.BulkheadRegistry;
+import eu.xfsc.fc.core.service.bulkhead.BulkheadType;
 import eu.xfsc.fc.core.service.trustframework.TrustFrameworkRegistry;
 import eu.xfsc.fc.core.service.verification.VerificationService;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -46,6 +61,14 @@ public class CesAssetProcessor {
     private boolean verifyVCSignature;
     @Value("${subscriber.verify.integrity:true}")
     private boolean verifyIntegrity;
+    @Value("${subscriber.content-cache.size:10000}")
+    private int contentCacheSize;
+    @Value("${subscriber.content-cache.ttl:PT6H}")
+    private Duration contentCacheTtl;
+    @Value("${subscriber.http.timeout:PT30S}")
+    private Duration httpTimeout;
+    @Value("${subscriber.http.max-size:1MB}")
+    private DataSize httpMaxSize;
 
   protected final AssetStore assetStore;
   protected final VerificationService verificationService;
@@ -53,30 +76,75 @@ public class CesAssetProcessor {
 
   private final CesTrackerDao ctDao;
   private final DidDocumentResolver didResolver;
-  private final HttpDocumentResolver httpResolver;
   private final TrustFrameworkRegistry trustFrameworkRegistry;
+  private final DocumentLoaderProperties docLoaderProperties;
+  private final BulkheadRegistry bulkheads;
+  private final PlatformTransactionManager transactionManager;
 
-  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  /** Subject content keyed by the CES integrity hash it was verified against. */
+  private Cache<String, String> contentCache;
+  private HttpClient httpClient;
+  private TransactionTemplate ingestTransaction;
+
+  /**
+   * The content of a credential subject, resolved and checked against its integrity hash.
+   */
+  private record ResolvedSubject(String id, ContentAccessor payload) {
+  }
+
+  @PostConstruct
+  public void init() {
+    contentCache = Caffeine.newBuilder()
+        .maximumSize(contentCacheSize)
+        .expireAfterWrite(contentCacheTtl)
+        .build();
+    // one client for all subjects, so connections are pooled and HTTP/2 streams multiplexed
+    httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .connectTimeout(httpTimeout)
+        .build();
+    ingestTransaction = new TransactionTemplate(transactionManager);
+    ingestTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  /**
+   * Resolves the credential subjects of a CES event, then verifies and stores them together with
+   * the tracking record in one transaction. Subjects are resolved before the transaction, and the
+   * transaction is only opened once an ingest slot is free, so that no database connection is held
+   * while fetching subjects or waiting for a slot.
+   */
 	public int processCesEvent(CesTracking ctr, Map<String, Object> data) {
 	    List<Map<String, Object>> subjects = (List<Map<String, Object>>) data.get("credentialSubject");
+	    List<ResolvedSubject> resolved = new ArrayList<>();
 	    try {
-	    	int cnt = 0;
 		    for (Map<String, Object> subject: subjects) {
 		    	String sub = jsonMapper.writeValueAsString(subject);
 		    	CesSubject ceSub = jsonMapper.readValue(sub, CesSubject.class);
 		    	ctr.setCredId(ceSub.getId());
               if (isProcessibleSubject(ceSub)) {
-		    		if (processSubject(ceSub.getId(), ceSub.getGxIntegrity())) {
-		    			cnt++;
+		    		ContentAccessor payload = resolveSubject(ceSub.getId(), ceSub.getGxIntegrity());
+		    		if (payload != null) {
+		    			resolved.add(new ResolvedSubject(ceSub.getId(), payload));
 		    		}
 		    	}
 		    }
-		    ctr.setCredProcessed(cnt);
 	    	ctr.setCredId(null);
 	    } catch (JsonProcessingException ex) {
 	    	ctr.setError(ex.getMessage());
+			ctDao.insert(ctr);
+			return ctr.getCredProcessed();
 	    }
-		ctDao.insert(ctr);
+    	// replicated assets share the ingest capacity with uploads
+    	bulkheads.get(BulkheadType.INGEST).runBlocking(() -> ingestTransaction.executeWithoutResult(status -> {
+    		for (ResolvedSubject subject: resolved) {
+    			ctr.setCredId(subject.id());
+    			storeSubject(subject.payload());
+    		}
+    		ctr.setCredProcessed(resolved.size());
+    		ctr.setCredId(null);
+    		ctDao.insert(ctr);
+    	}));
 		return ctr.getCredProcessed();
 	}
 
@@ -93,33 +161,104 @@ public class CesAssetProcessor {
     return true;
 	}
 	
-	private boolean processSubject(String subId, String subIntegrity) {
-		log.debug("processSubject.enter; got subject id: {}, integrity: {}", subId, subIntegrity);
+	/**
+	 * Resolves the content of a subject and checks it against the integrity hash.
+	 *
+	 * @return the content, null if it could not be resolved
+	 */
+	private ContentAccessor resolveSubject(String subId, String subIntegrity) {
+		log.debug("resolveSubject.enter; got subject id: {}, integrity: {}", subId, subIntegrity);
+		String[] integrity = subIntegrity == null ? null : getIntegrityHash(subIntegrity);
+		String subContent = integrity == null ? null : getCachedContent(integrity[0], integrity[1]);
+		boolean cached = subContent != null;
+		if (!cached) {
+			subContent = resolveContent(subId);
+		}
+
+		if (subContent == null) {
+			return null;
+		}
+		if (!cached && integrity != null) {
+			boolean valid = digest(subContent, integrity[0]).equals(integrity[1]);
+			log.debug("resolveSubject; subject {} matches integrity hash: {}", subId, valid);
+			if (valid) {
+				contentCache.put(cacheKey(integrity[0], integrity[1]), subContent);
+			} else if (verifyIntegrity) {
+				throw new VerificationException("integrity check failed");
+			}
+		} else if (integrity == null && verifyIntegrity) {
+			throw new VerificationException("integrity check failed: no integrity hash for " + subId);
+		}
+		return new ContentAccessorDirect(subContent);
+	}
+
+	private void storeSubject(ContentAccessor payload) {
+		CredentialVerificationResult vr = verificationService.verifyCredential(payload, verifySemantics, verifySchema, verifyVPSignature, verifyVCSignature);
+		AssetMetadata assetMeta = new AssetMetadata(vr.getId(), vr.getIssuer(), vr.getValidators(), payload);
+		assetStore.storeCredential(assetMeta, vr);
+	}
+
+	private String getCachedContent(String algo, String hash) {
+		String key = cacheKey(algo, hash);
+		String content = contentCache.getIfPresent(key);
+		if (content != null && !digest(content, algo).equals(hash)) {
+			// never reuse content that does not match its key
+			contentCache.invalidate(key);
+			content = null;
+		}
+		log.debug("getCachedContent; content for {} found in cache: {}", key, content != null);
+		return content;
+	}
+
+	private String resolveContent(String subId) {
 		URI subUri = URI.create(subId);
-		String subContent = null;
-		if ("https".equals(subUri.getScheme())) {
-			subContent = httpResolver.resolveDocumentContent(subId);
-		} else if ("did".equals(subUri.getScheme())) {
-			subContent = didResolver.resolveDocumentContent(subId);
-		} else {
-			log.debug("processSubject; unknown scheme: {}", subUri.getScheme());
+		if ("https".equals(subUri.getScheme()) || "http".equals(subUri.getScheme())) {
+			// the same policy as for JSON-LD documents loaded during verification
+			if (!docLoaderProperties.isEnableHttp()) {
+				throw new VerificationException("cannot resolve " + subId + ", loading documents over HTTP is disabled");
+			}
+			return fetchContent(subUri);
 		}
-		
-		boolean processed = false;
-		if (subContent != null) {
-	    	if (verifyIntegrity) {
-	    		String[] parts = getIntegrityHash(subIntegrity);
-	    		verifySubjectIntegrity(subContent, parts[0], parts[1]);
-	    	}
-	    	ContentAccessor payload = new ContentAccessorDirect(subContent);
-	    	CredentialVerificationResult vr = verificationService.verifyCredential(payload, verifySemantics, verifySchema, verifyVPSignature, verifyVCSignature);
-	    	AssetMetadata assetMeta = new AssetMetadata(vr.getId(), vr.getIssuer(), vr.getValidators(), payload);
-	    	assetStore.storeCredential(assetMeta, vr);
-	    	processed = true;
+		if ("did".equals(subUri.getScheme())) {
+			return didResolver.resolveDocumentContent(subId);
 		}
-		return processed;
+		log.debug("resolveContent; unknown scheme: {}", subUri.getScheme());
+		return null;
 	}
-	
+
+	private String fetchContent(URI uri) {
+		HttpRequest request = HttpRequest.newBuilder(uri)
+				.timeout(httpTimeout)
+				.header("Accept", "application/ld+json, application/json;q=0.9")
+				.GET()
+				.build();
+		try {
+			HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+			try (InputStream body = response.body()) {
+				if (response.statusCode() != 200) {
+					throw new VerificationException("cannot resolve " + uri + ", got HTTP status " + response.statusCode());
+				}
+				long maxSize = httpMaxSize.toBytes();
+				OptionalLong length = response.headers().firstValueAsLong("Content-Length");
+				byte[] content = length.isPresent() && length.getAsLong() > maxSize ? null : body.readNBytes((int) maxSize + 1);
+				if (content == null || content.length > maxSize) {
+					throw new VerificationException("cannot resolve " + uri + ", content exceeds " + httpMaxSize);
+				}
+				return new String(content, StandardCharsets.UTF_8);
+			}
+		} catch (IOException ex) {
+			log.warn("fetchContent; error resolving {}", uri, ex);
+			throw new VerificationException(ex);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new VerificationException(ex);
+		}
+	}
+
+	private static String cacheKey(String algo, String hash) {
+		return algo + "-" + hash;
+	}
+
 	private String[] getIntegrityHash(String subIntegrity) {
 		String[] parts = subIntegrity.split("-");
 		if (parts.length == 2) {
@@ -132,34 +271,27 @@ public class CesAssetProcessor {
 		return new String[] {"SHA-256", subIntegrity};
 	}
 	
-	private void verifySubjectIntegrity(String json, String algo, String hash) {
+	private String digest(String json, String algo) {
 		String text;
 		try {
 			JsonCanonicalizer jc = new JsonCanonicalizer(json);
 			text = jc.getEncodedString();
 		} catch (IOException ex) {
-			log.info("verifySubjectIntegrity.error: {}", ex.getMessage());
+			log.info("digest.error: {}", ex.getMessage());
 			throw new VerificationException(ex);
 		}
 
 		byte[] textHash;
 		try {
 			MessageDigest md = MessageDigest.getInstance(algo);
-			md.update(text.getBytes()); //StandardCharsets.UTF_8));
+			md.update(text.getBytes(StandardCharsets.UTF_8));
 			textHash = md.digest();
 		} catch (NoSuchAlgorithmException ex) {
-			log.info("verifySubjectIntegrity.error: {}", ex.getMessage());
+			log.info("digest.error: {}", ex.getMessage());
 			throw new VerificationException(ex);
 		}
-		// could use this one instead, but for SHA-256 only..
-		//String digest = HashUtils.calculateSha256AsHex(text);
-
 		BigInteger bi = new BigInteger(1, textHash);
-	    String digest = String.format("%0" + (textHash.length << 1) + "x", bi);
-		log.debug("verifySubjectIntegrity; got digest: {}, but hash is: {}", digest, hash);
-		if (!digest.equals(hash)) { 
-			throw new VerificationException("integrity check failed");
-		}
+	    return String.format("%0" + (textHash.length << 1) + "x", bi);
 	}
 	
 }
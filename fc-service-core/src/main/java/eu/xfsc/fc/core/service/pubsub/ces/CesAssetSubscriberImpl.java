@@ -2,108 +2,334 @@ package eu.xfsc.fc.core.service.pubsub.ces;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.TaskScheduler;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import eu.xfsc.fc.core.dao.cestracker.CesTrackerDao;
+import eu.xfsc.fc.core.exception.ClientException;
 import eu.xfsc.fc.core.exception.ConflictException;
 import eu.xfsc.fc.core.exception.VerificationException;
 import eu.xfsc.fc.core.service.pubsub.BaseAssetSubscriber;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Ingests credential events from a Gaia-X CES instance.
+ *
+ * <p>Ingestion is pipelined: a fetcher pages through the CES events into a queue of
+ * {@code subscriber.queue-size} events, so the next page is fetched while the current one is
+ * processed, and a dispatcher runs up to {@code subscriber.concurrency} events at a time on
+ * virtual threads, each resolving, verifying and storing its credentials. A slow credential
+ * therefore holds up only its own slot, not the whole page.</p>
+ *
+ * <p>An event is done once it is stored, or recorded in the tracker as rejected by a verification,
+ * conflict or client error. Other failures, such as an unavailable DID resolver, database or graph,
+ * are retried with a backoff from {@code subscriber.retry-delay} up to
+ * {@code subscriber.max-retry-delay}, holding the slot of the event meanwhile. An event still
+ * failing after {@code subscriber.max-attempts} attempts is recorded in the tracker with its last
+ * error and done, so that it does not hold up the checkpoint forever.</p>
+ *
+ * <p>Events complete out of order, but the checkpoint stored in {@link CesTrackerDao} only moves
+ * up to the last event before which all events are done. It is written at most once per
+ * {@code subscriber.checkpoint-interval}. After a crash, ingestion resumes from the checkpoint and
+ * skips events already recorded in the tracker.</p>
+ */
 @Slf4j
 public class CesAssetSubscriberImpl extends BaseAssetSubscriber {
 
     @Value("${subscriber.url}")
     private String subUrl;
     @Value("${subscriber.page-size:20}")
-    private int pageSize;    
+    private int pageSize;
     @Value("${subscriber.event-type:#{null}}")
     private String eventType;
     @Value("${subscriber.fixed-rate:30000}")
     private Duration fixedRate;
-    
+    @Value("${subscriber.concurrency:0}")
+    private int concurrency;
+    @Value("${subscriber.queue-size:0}")
+    private int queueSize;
+    @Value("${subscriber.retry-delay:PT1S}")
+    private Duration retryDelay;
+    @Value("${subscriber.max-retry-delay:PT5M}")
+    private Duration maxRetryDelay;
+    @Value("${subscriber.max-attempts:10}")
+    private int maxAttempts;
+    @Value("${subscriber.checkpoint-interval:PT1S}")
+    private Duration checkpointInterval;
+
 	@Autowired
 	private CesTrackerDao ctDao;
     @Autowired
-    private TaskScheduler scheduler;
-    @Autowired
     private CesAssetProcessor ceProcessor;
     private CesRestClient cesClient;
     private ExecutorService ceExecutor;
-    
-    private int total = 0;
-    private String lastId = null;
-    
+    private BlockingQueue<PendingEvent> events;
+    private Semaphore slots;
+    private final Deque<PendingEvent> inProgress = new ArrayDeque<>();
+    private final ReentrantLock progressLock = new ReentrantLock();
+    private final AtomicLong total = new AtomicLong();
+    private String checkpoint;
+    private String savedCheckpoint;
+    private volatile boolean running;
+    private Thread fetcher;
+    private Thread dispatcher;
+    private Thread checkpointer;
+
+    /**
+     * An event on its way through the pipeline.
+     */
+    static final class PendingEvent {
+    	private final String cesId;
+    	private final Map<String, Object> event;
+    	private boolean done;
+
+    	PendingEvent(String cesId, Map<String, Object> event) {
+    		this.cesId = cesId;
+    		this.event = event;
+    	}
+    }
+
 	@Override
 	protected void subscribe() throws Exception {
 		log.debug("subscribe");
 		cesClient = new CesRestClient(this.jsonMapper, subUrl);
-		ceExecutor = Executors.newFixedThreadPool(pageSize); // .newVirtualThreadPerTaskExecutor();
-		scheduler.scheduleAtFixedRate(() -> {
-			if (lastId == null) {
-				CesTracking latest = ctDao.selectLatest();
-				lastId = latest == null ? null : latest.getCesId();
+		int workers = concurrency > 0 ? concurrency : pageSize;
+		slots = new Semaphore(workers);
+		events = new ArrayBlockingQueue<>(queueSize > 0 ? queueSize : 2 * pageSize);
+		ceExecutor = Executors.newVirtualThreadPerTaskExecutor();
+		running = true;
+		fetcher = Thread.ofVirtual().name("ces-fetcher").start(this::fetchEvents);
+		dispatcher = Thread.ofVirtual().name("ces-dispatcher").start(this::dispatchEvents);
+		checkpointer = Thread.ofVirtual().name("ces-checkpointer").start(this::saveCheckpoints);
+		log.info("subscribe; ingesting events from {} with {} workers", subUrl, workers);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		running = false;
+		if (fetcher != null) {
+			fetcher.interrupt();
+			dispatcher.interrupt();
+			checkpointer.interrupt();
+			// events not completed are processed again after the restart
+			ceExecutor.shutdown();
+		}
+	}
+
+	private void fetchEvents() {
+		String lastId = ctDao.selectCheckpoint(subUrl);
+		if (lastId == null) {
+			CesTracking latest = ctDao.selectLatest();
+			lastId = latest == null ? null : latest.getCesId();
+		}
+		sleep(fixedRate);
+		while (running) {
+			try {
+				List<Map<String, Object>> page = cesClient.getCredentials(lastId, 0, pageSize, eventType);
+				log.debug("fetchEvents; got events: {}, lastId: {}", page == null ? 0 : page.size(), lastId);
+				if (page == null || page.isEmpty()) {
+					sleep(fixedRate);
+					continue;
+				}
+				for (Map<String, Object> event: page) {
+					String id = (String) event.get("id");
+					// blocks while the pipeline is full
+					events.put(new PendingEvent(id, event));
+					lastId = id;
+				}
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (Exception ex) {
+				log.error("fetchEvents.error", ex);
+				sleep(fixedRate);
 			}
-			List<Map<String, Object>> events = cesClient.getCredentials(lastId, 0, pageSize, eventType);
-			log.debug("scheduled-run; got events: {}, lastId: {}", events.size(), lastId);
-			String id;
-			int cnt = 0;
-			for (Map<String, Object> event: events) {
-				id = (String) event.get("id");
-				log.debug("scheduled-run; processing event with id: {}", id);
-				onMessage(event);
-				total++;
-				cnt++;
-				lastId = id;
-			}			
-			log.debug("scheduled-run; processed events: {}, lastId: {}, total: {}", cnt, lastId, total);
-		}, Instant.now().plus(fixedRate), fixedRate);
+		}
 	}
-	
+
+	private void dispatchEvents() {
+		while (running) {
+			try {
+				PendingEvent pending = events.take();
+				slots.acquire();
+				track(pending);
+				ceExecutor.execute(() -> {
+					try {
+						if (process(pending)) {
+							complete(pending);
+						}
+					} finally {
+						slots.release();
+					}
+				});
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	void track(PendingEvent pending) {
+		progressLock.lock();
+		try {
+			inProgress.addLast(pending);
+		} finally {
+			progressLock.unlock();
+		}
+	}
+
+	/**
+	 * Processes an event, retrying failures with a growing delay until it succeeds or fails
+	 * {@code subscriber.max-attempts} times; 0 retries it until it succeeds.
+	 *
+	 * @param pending the event
+	 * @return {@code true} once the event is done, {@code false} if the subscriber was shut down before
+	 */
+	boolean process(PendingEvent pending) {
+		Duration delay = retryDelay;
+		for (int attempt = 1; ; attempt++) {
+			try {
+				onMessage(pending.event);
+				return true;
+			} catch (Exception ex) {
+				if (!running) {
+					return false;
+				}
+				if (maxAttempts > 0 && attempt >= maxAttempts && reject(pending, ex)) {
+					return true;
+				}
+				log.warn("process; event {} failed on attempt {}, retrying in {}", pending.cesId, attempt, delay, ex);
+				try {
+					Thread.sleep(delay);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+				Duration next = delay.multipliedBy(2);
+				delay = next.compareTo(maxRetryDelay) > 0 ? maxRetryDelay : next;
+			}
+		}
+	}
+
+	/**
+	 * Records an event that failed too often in the tracker, with its last error.
+	 *
+	 * @return {@code true} if the event was recorded
+	 */
+	private boolean reject(PendingEvent pending, Exception ex) {
+		log.error("process; event {} failed {} times, giving up", pending.cesId, maxAttempts, ex);
+		CesTracking ctr = new CesTracking(pending.cesId, null, Instant.now(), 0, null, String.valueOf(ex));
+		try {
+			ctr.setEvent(jsonMapper.writeValueAsString(pending.event));
+		} catch (JsonProcessingException jpe) {
+			log.debug("reject; cannot serialize event {}: {}", pending.cesId, jpe.getMessage());
+		}
+		try {
+			ctDao.insert(ctr);
+			return true;
+		} catch (RuntimeException re) {
+			log.warn("reject; cannot record event {}, retrying it: {}", pending.cesId, re.getMessage());
+			return false;
+		}
+	}
+
+	void complete(PendingEvent pending) {
+		// a lock instead of synchronized, so that virtual threads do not pin their carrier
+		progressLock.lock();
+		try {
+			pending.done = true;
+			while (!inProgress.isEmpty() && inProgress.peekFirst().done) {
+				checkpoint = inProgress.pollFirst().cesId;
+			}
+		} finally {
+			progressLock.unlock();
+		}
+		log.debug("complete; processed event: {}, total: {}", pending.cesId, total.incrementAndGet());
+	}
+
+	private void saveCheckpoints() {
+		while (running) {
+			sleep(checkpointInterval);
+			saveCheckpoint();
+		}
+		// clear the interrupt of the shutdown before the final write
+		Thread.interrupted();
+		saveCheckpoint();
+	}
+
+	/**
+	 * Writes the checkpoint, if it moved since it was last written.
+	 */
+	void saveCheckpoint() {
+		String latest;
+		progressLock.lock();
+		try {
+			latest = checkpoint;
+		} finally {
+			progressLock.unlock();
+		}
+		if (latest != null && !latest.equals(savedCheckpoint)) {
+			ctDao.saveCheckpoint(subUrl, latest);
+			savedCheckpoint = latest;
+		}
+	}
+
 	@Override
 	public void onMessage(Map<String, Object> event) {
 		CesTracking ctr = new CesTracking((String) event.get("id"), null, Instant.now(), 0, null, null);
 		String source = (String) event.get("source");
-		if (!instance.equals(source)) {
-			ceExecutor.execute(() -> {
-				Thread th = Thread.currentThread();
-				if (th.getName() == null) {
-					th.setName("ceProcessor-" + th.getId()); // .threadId());
-				}
-				log.debug("onMessage; processing event: {}", ctr.getCesId());
-				
-				try {
-					ctr.setEvent(jsonMapper.writeValueAsString(event));
-				} catch (JsonProcessingException ex) {
-			    	log.info("processCesEvent.error: {}", ex.getMessage());
-			    	ctr.setError(ex.getMessage());
-					ctDao.insert(ctr);
-				}
-				
-				int cnt = 0;
-				if (ctr.getError() == null) {
-					try {
-					    Map<String, Object> data = (Map<String, Object>) event.get("data");
-						cnt = ceProcessor.processCesEvent(ctr, data);
-				    } catch (VerificationException | ConflictException ex) {
-				    	log.info("processCesEvent.error: {}", ex.getMessage());
-				    	ctr.setError(ex.getMessage());
-						ctDao.insert(ctr);
-				    }
-				}
-				log.debug("onMessage; processed event: {}, creds: {}", ctr.getCesId(), cnt);
-			});
+		if (instance.equals(source)) {
+			return;
+		}
+		if (ctDao.select(ctr.getCesId()) != null) {
+			log.debug("onMessage; event {} already processed", ctr.getCesId());
+			return;
+		}
+		log.debug("onMessage; processing event: {}", ctr.getCesId());
+
+		try {
+			ctr.setEvent(jsonMapper.writeValueAsString(event));
+		} catch (JsonProcessingException ex) {
+	    	log.info("processCesEvent.error: {}", ex.getMessage());
+	    	ctr.setError(ex.getMessage());
+			ctDao.insert(ctr);
 		}
+
+		int cnt = 0;
+		if (ctr.getError() == null) {
+			try {
+			    Map<String, Object> data = (Map<String, Object>) event.get("data");
+				cnt = ceProcessor.processCesEvent(ctr, data);
+		    } catch (VerificationException | ConflictException | ClientException ex) {
+		    	log.info("processCesEvent.error: {}", ex.getMessage());
+		    	ctr.setError(ex.getMessage());
+				ctDao.insert(ctr);
+		    }
+		}
+		log.debug("onMessage; processed event: {}, creds: {}", ctr.getCesId(), cnt);
 	}
-	
-}
 
+	private static void sleep(Duration duration) {
+		try {
+			Thread.sleep(duration);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -1,7 +1,26 @@
 package eu.xfsc.fc.core.service.pubsub.nats;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,60 +29,399 @@ import eu.xfsc.fc.api.generated.model.AssetStatus;
 import eu.xfsc.fc.core.pojo.AssetMetadata;
 import eu.xfsc.fc.core.pojo.CredentialVerificationResult;
 import eu.xfsc.fc.core.service.pubsub.BaseAssetPublisher;
+import eu.xfsc.fc.core.service.pubsub.PayloadEncoding;
 import io.nats.client.Connection;
-import io.nats.client.JetStreamApiException;
+import io.nats.client.JetStream;
+import io.nats.client.api.PublishAck;
 import io.nats.client.impl.Headers;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Publishes asset events to a NATS JetStream subject, one message per event on
+ * {@code subject + "." + hash}.
+ *
+ * <p>Messages are published with {@link JetStream#publishAsync}, so the storing thread does not wait
+ * for the JetStream ack. At most {@code publisher.max-in-flight} messages are unacknowledged at a
+ * time; further publishes wait up to {@code publisher.window-wait-ms} for the window. Instead of a
+ * flush per message, the connection buffer is flushed once per {@code publisher.flush-interval-ms}.
+ * Messages that could not be published or were not acknowledged are written to the retry
+ * directory {@code publisher.retry-dir} and re-published in the background, also after a restart.
+ * It defaults to a directory below {@code java.io.tmpdir}; set it to a durable location so that
+ * buffered messages survive the loss of the temporary directory.</p>
+ *
+ * <p>The events of one asset are published in the order they were sent: while an earlier message
+ * of the same subject is unacknowledged or buffered, later messages are buffered behind it instead
+ * of being published directly. Buffered messages are named after their send time and sequence, so
+ * a message buffered when its ack failed is re-published before the later messages queued behind
+ * it. Once the earlier message is acknowledged, the queued ones are re-published right away instead
+ * of waiting for the next {@code publisher.retry-interval-ms}.</p>
+ *
+ * <p>When content is sent, payloads of at least {@code publisher.compression-min-size} bytes are
+ * compressed with {@code publisher.compression} ({@code gzip} or {@code zstd}), flagged in the
+ * {@link PayloadEncoding#HEADER} header. Payloads still larger than
+ * {@code publisher.max-payload-size} are left out, and subscribers fetch the asset by its hash
+ * instead.</p>
+ *
+ * <p>In transactional mode every publish still waits for its ack, and failed messages are not
+ * buffered, as the caller rolls back instead.</p>
+ */
 @Slf4j
 public class NatsAssetPublisherImpl extends BaseAssetPublisher {
-	
-    @Value("${publisher.subject}")
-    private String subject;
-    @Value("${publisher.send-content}")
-    private boolean sendContent;
-	
+
+	private static final String RETRY_SUFFIX = ".json";
+
+	@Value("${publisher.subject}")
+	private String subject;
+	@Value("${publisher.send-content}")
+	private boolean sendContent;
+	@Value("${publisher.compression:none}")
+	private String compression;
+	@Value("${publisher.compression-min-size:1024}")
+	private int compressionMinSize;
+	@Value("${publisher.max-payload-size:1048576}")
+	private int maxPayloadSize;
+	@Value("${publisher.max-in-flight:256}")
+	private int maxInFlight;
+	@Value("${publisher.window-wait-ms:1000}")
+	private long windowWaitMs;
+	@Value("${publisher.flush-interval-ms:20}")
+	private long flushIntervalMs;
+	@Value("${publisher.ack-timeout-ms:5000}")
+	private long ackTimeoutMs;
+	@Value("${publisher.retry-dir:${java.io.tmpdir}/fc-publisher-retry}")
+	private String retryLocation;
+	@Value("${publisher.retry-interval-ms:10000}")
+	private long retryIntervalMs;
+
 	@Autowired
 	private Connection pubConnection;
 
+	private PayloadEncoding payloadEncoding;
+	private Path retryDir;
+	private JetStream jetStream;
+	private Semaphore window;
+	private ScheduledExecutorService scheduler;
+	private final AtomicBoolean flushScheduled = new AtomicBoolean();
+	private final AtomicBoolean retryScheduled = new AtomicBoolean();
+	// whether the last publish was acknowledged, queued messages are only re-published early then
+	private volatile boolean brokerAvailable = true;
+	private final AtomicLong sequence = new AtomicLong();
+	// messages per subject that are unacknowledged or buffered, later ones queue up behind them
+	private final Map<String, Integer> unsettled = new ConcurrentHashMap<>();
+	// subjects with a directly published message awaiting its ack, not to be overtaken by the retry
+	private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * A message as kept in the retry directory.
+	 *
+	 * @param id the send time and sequence of the message, orders the buffered messages
+	 */
+	record PendingMessage(String id, String subject, Map<String, String> headers, byte[] body) {
+	}
+
+	@Override
+	protected void initialize() throws Exception {
+		payloadEncoding = PayloadEncoding.of(compression);
+		jetStream = pubConnection.jetStream();
+		window = new Semaphore(Math.max(1, maxInFlight));
+		retryDir = Path.of(retryLocation);
+		Files.createDirectories(retryDir);
+		for (PendingMessage message : readPending(listPending())) {
+			unsettled.merge(message.subject(), 1, Integer::sum);
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "nats-publisher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduler.scheduleWithFixedDelay(this::retryPending, 0, retryIntervalMs, TimeUnit.MILLISECONDS);
+		log.info("initialize; publishing to {} with max {} messages in flight, retry dir: {}", subject, maxInFlight, retryDir);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (scheduler == null) {
+			return;
+		}
+		scheduler.shutdown();
+		flush();
+		try {
+			// wait for outstanding acks; failed ones end up in the retry directory
+			if (window.tryAcquire(Math.max(1, maxInFlight), ackTimeoutMs, TimeUnit.MILLISECONDS)) {
+				window.release(Math.max(1, maxInFlight));
+			} else {
+				log.warn("shutdown; not all published messages were acknowledged");
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	protected boolean publishesAsync() {
+		return true;
+	}
+
 	@Override
 	protected boolean publishInternal(AssetMetadata assetMetadata, CredentialVerificationResult verificationResult) {
 		log.debug("publishInternal. asset: {}", assetMetadata);
-		try {
-			Headers headers = new Headers();
-			headers.put("source", instance);
-			headers.put("event", AssetEvent.ADD.name());
-			headers.put("status", assetMetadata.getStatus().name());
-			byte[] body = null;
-			if (sendContent) {
-			    Map<String, Object> data = Map.of("content", assetMetadata.getContentAccessor().getContentAsString(), 
-				    "verificationResult", jsonMapper.writeValueAsString(verificationResult));
-			    body = jsonMapper.writeValueAsString(data).getBytes();
+		Map<String, String> headers = new LinkedHashMap<>();
+		headers.put("source", instance);
+		headers.put("event", AssetEvent.ADD.name());
+		headers.put("status", assetMetadata.getStatus().name());
+		byte[] body = null;
+		if (sendContent) {
+			try {
+				Map<String, Object> data = Map.of("content", assetMetadata.getContentAccessor().getContentAsString(),
+					"verificationResult", jsonMapper.writeValueAsString(verificationResult));
+				body = encodePayload(jsonMapper.writeValueAsString(data).getBytes(StandardCharsets.UTF_8), headers);
+			} catch (IOException ex) {
+				log.error("publishInternal.error", ex);
+				return false;
 			}
-			pubConnection.jetStream().publish(subject + "." + assetMetadata.getAssetHash(), headers, body); 
-			return true;
-		} catch (IOException | JetStreamApiException ex) {
-			log.error("publishInternal.error", ex);
 		}
-		return false;
+		return send(newMessage(subject + "." + assetMetadata.getAssetHash(), headers, body));
 	}
 
 	@Override
 	protected boolean publishInternal(String hash, AssetEvent event, AssetStatus status) {
 		log.debug("publishInternal. hash: {}, event: {}, status: {}", hash, event, status);
+		Map<String, String> headers = new LinkedHashMap<>();
+		headers.put("source", instance);
+		headers.put("event", event.name());
+		if (status != null) {
+			headers.put("status", status.name());
+		}
+		return send(newMessage(subject + "." + hash, headers, null));
+	}
+
+	private PendingMessage newMessage(String messageSubject, Map<String, String> headers, byte[] body) {
+		String id = String.format("%013d-%09d", System.currentTimeMillis(), sequence.incrementAndGet() % 1_000_000_000);
+		return new PendingMessage(id, messageSubject, headers, body);
+	}
+
+	private byte[] encodePayload(byte[] data, Map<String, String> headers) {
+		byte[] body = data;
+		if (payloadEncoding != null && data.length >= compressionMinSize) {
+			body = payloadEncoding.encode(data);
+			headers.put(PayloadEncoding.HEADER, payloadEncoding.getValue());
+		}
+		if (maxPayloadSize > 0 && body.length > maxPayloadSize) {
+			// subscribers fetch the asset from this instance instead
+			log.debug("encodePayload; payload of {} bytes exceeds {}, sending reference only", body.length, maxPayloadSize);
+			headers.remove(PayloadEncoding.HEADER);
+			return null;
+		}
+		return body;
+	}
+
+	private boolean send(PendingMessage message) {
+		if (!transactional && unsettled.merge(message.subject(), 1, Integer::sum) > 1) {
+			log.debug("send; queueing {} behind earlier unacknowledged messages", message.subject());
+			if (!spool(message)) {
+				return false;
+			}
+			if (!inFlight.contains(message.subject())) {
+				// the earlier message may have been acknowledged before this one was buffered
+				scheduleRetry();
+			}
+			return true;
+		}
+		boolean acquired;
+		try {
+			acquired = window.tryAcquire(windowWaitMs, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			acquired = false;
+		}
+		if (!acquired) {
+			log.warn("send; publish window full for {}", message.subject());
+			return retryLater(message);
+		}
+		CompletableFuture<PublishAck> ack;
+		inFlight.add(message.subject());
 		try {
-			Headers headers = new Headers();
-			headers.put("source", instance);
-			headers.put("event", event.name());
-			if (status != null) {
-				headers.put("status", status.name());
+			ack = jetStream.publishAsync(message.subject(), toHeaders(message.headers()), message.body());
+		} catch (RuntimeException ex) {
+			window.release();
+			brokerAvailable = false;
+			log.warn("send; publish failed for {}: {}", message.subject(), ex.getMessage());
+			boolean buffered = retryLater(message);
+			inFlight.remove(message.subject());
+			return buffered;
+		}
+		scheduleFlush();
+		CompletableFuture<Boolean> result = ack
+			.orTimeout(ackTimeoutMs, TimeUnit.MILLISECONDS)
+			.handle((pa, ex) -> {
+				window.release();
+				if (ex == null) {
+					brokerAvailable = true;
+					settle(message);
+					inFlight.remove(message.subject());
+					if (!transactional && unsettled.containsKey(message.subject())) {
+						// later messages of this subject are queued behind it
+						scheduleRetry();
+					}
+					return true;
+				}
+				brokerAvailable = false;
+				log.warn("send; no ack for {}: {}", message.subject(), ex.toString());
+				retryLater(message);
+				inFlight.remove(message.subject());
+				return false;
+			});
+		if (transactional) {
+			return result.join();
+		}
+		return true;
+	}
+
+	private void scheduleFlush() {
+		if (flushScheduled.compareAndSet(false, true)) {
+			try {
+				scheduler.schedule(() -> {
+					flushScheduled.set(false);
+					flush();
+				}, flushIntervalMs, TimeUnit.MILLISECONDS);
+			} catch (RuntimeException ex) {
+				// scheduler shut down, flush right away
+				flushScheduled.set(false);
+				flush();
+			}
+		}
+	}
+
+	/**
+	 * Re-publishes the buffered messages right away, unless the broker is failing; then they wait for
+	 * the next scheduled retry.
+	 */
+	private void scheduleRetry() {
+		if (brokerAvailable && retryScheduled.compareAndSet(false, true)) {
+			try {
+				scheduler.execute(() -> {
+					retryScheduled.set(false);
+					republish(listPending());
+				});
+			} catch (RejectedExecutionException ex) {
+				// shutting down, the messages stay buffered for the next start
+				retryScheduled.set(false);
 			}
-			pubConnection.jetStream().publish(subject + "." + hash, headers, null);
+		}
+	}
+
+	private void flush() {
+		try {
+			pubConnection.flushBuffer();
+		} catch (IOException ex) {
+			log.debug("flush.error: {}", ex.getMessage());
+		}
+	}
+
+	private boolean retryLater(PendingMessage message) {
+		return !transactional && spool(message);
+	}
+
+	private void settle(PendingMessage message) {
+		if (!transactional) {
+			unsettled.computeIfPresent(message.subject(), (s, count) -> count > 1 ? count - 1 : null);
+		}
+	}
+
+	private boolean spool(PendingMessage message) {
+		Path tmp = retryDir.resolve(message.id() + ".tmp");
+		try {
+			Files.write(tmp, jsonMapper.writeValueAsBytes(message));
+			Files.move(tmp, retryDir.resolve(message.id() + RETRY_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
 			return true;
-		} catch (IOException | JetStreamApiException ex) {
-			log.error("publishInternal.error", ex);
+		} catch (IOException ex) {
+			log.error("spool.error; message for {} is lost", message.subject(), ex);
+			settle(message);
+			return false;
+		}
+	}
+
+	private List<Path> listPending() {
+		try (Stream<Path> files = Files.list(retryDir)) {
+			return files.filter(f -> f.getFileName().toString().endsWith(RETRY_SUFFIX)).sorted().toList();
+		} catch (IOException ex) {
+			log.warn("listPending.error; cannot list {}: {}", retryDir, ex.getMessage());
+			return List.of();
+		}
+	}
+
+	private List<PendingMessage> readPending(List<Path> files) {
+		List<PendingMessage> messages = new ArrayList<>(files.size());
+		for (Path file : files) {
+			PendingMessage message = readPending(file);
+			if (message != null) {
+				messages.add(message);
+			}
+		}
+		return messages;
+	}
+
+	private PendingMessage readPending(Path file) {
+		try {
+			return jsonMapper.readValue(file.toFile(), PendingMessage.class);
+		} catch (IOException ex) {
+			log.error("readPending.error; dropping unreadable buffered message {}", file, ex);
+			moveAside(file);
+			return null;
 		}
-		return false;
+	}
+
+	private void retryPending() {
+		List<Path> pending = listPending();
+		if (!pending.isEmpty()) {
+			log.info("retryPending; re-publishing {} buffered messages", pending.size());
+		}
+		republish(pending);
+	}
+
+	private void republish(List<Path> pending) {
+		Set<String> deferred = new HashSet<>();
+		for (Path file : pending) {
+			PendingMessage message = readPending(file);
+			if (message == null) {
+				continue;
+			}
+			if (deferred.contains(message.subject()) || inFlight.contains(message.subject())) {
+				// an earlier message of this subject is still awaiting its ack and may be buffered yet
+				deferred.add(message.subject());
+				continue;
+			}
+			try {
+				jetStream.publishAsync(message.subject(), toHeaders(message.headers()), message.body())
+					.get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+				brokerAvailable = true;
+				Files.delete(file);
+				settle(message);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (Exception ex) {
+				// keep the order: stop at the first failure and try again in the next round
+				brokerAvailable = false;
+				log.debug("retryPending; broker still unavailable: {}", ex.getMessage());
+				return;
+			}
+		}
+	}
+
+	private static void moveAside(Path file) {
+		try {
+			Files.move(file, file.resolveSibling(file.getFileName() + ".failed"), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException ex) {
+			log.warn("moveAside.error; {}", ex.getMessage());
+		}
+	}
+
+	private static Headers toHeaders(Map<String, String> values) {
+		Headers headers = new Headers();
+		values.forEach(headers::put);
+		return headers;
 	}
 
 }
@@ -1,80 +1,324 @@
 package eu.xfsc.fc.core.service.pubsub.nats;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 
 import eu.xfsc.fc.core.config.NatsConfig;
+import eu.xfsc.fc.core.exception.ClientException;
+import eu.xfsc.fc.core.exception.ConflictException;
+import eu.xfsc.fc.core.exception.NotFoundException;
+import eu.xfsc.fc.core.exception.VerificationException;
 import eu.xfsc.fc.core.service.pubsub.BaseAssetSubscriber;
+import eu.xfsc.fc.core.service.pubsub.PayloadEncoding;
 import io.nats.client.Connection;
-import io.nats.client.PushSubscribeOptions;
+import io.nats.client.JetStreamApiException;
+import io.nats.client.JetStreamManagement;
+import io.nats.client.JetStreamSubscription;
+import io.nats.client.Message;
+import io.nats.client.PullSubscribeOptions;
+import io.nats.client.api.AckPolicy;
 import io.nats.client.api.ConsumerConfiguration;
+import io.nats.client.api.ConsumerInfo;
 import io.nats.client.api.DeliverPolicy;
 import io.nats.client.impl.Headers;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Consumes asset events from a durable JetStream pull consumer.
+ *
+ * <p>Messages are fetched in batches of {@code subscriber.batch-size}. The messages of a batch are
+ * grouped by subject, i.e. by asset, and the groups are processed in parallel on virtual threads,
+ * keeping the order of the events of one asset. A message is acknowledged only after
+ * {@link #onMessage(Map)} returned, so that its changes are committed; on failure it is
+ * negatively acknowledged for redelivery after {@code subscriber.redelivery-delay-ms}, together
+ * with the later messages of the same asset in the batch. The next batch is fetched once the
+ * current one is done.</p>
+ *
+ * <p>Events that were applied already, such as the redelivery of a committed ADD, are acknowledged.
+ * Events that cannot succeed, because they are rejected as invalid, and events that still fail on
+ * their {@code subscriber.max-deliver}th delivery are terminated and logged as dead letters.</p>
+ *
+ * <p>The order of the events of one asset is kept within a batch only: an event handed back for
+ * redelivery comes back after later events of the same asset that were fetched with later
+ * batches, or by other instances, in the meantime.</p>
+ *
+ * <p>Instances sharing the durable consumer {@code subscriber.queue} share the work. A push
+ * consumer of that name, as created by earlier versions, is replaced on startup by a pull consumer
+ * resuming after its last acknowledged message.</p>
+ */
 @Slf4j
 public class NatsAssetSubscriberImpl extends BaseAssetSubscriber {
-	
-	@Value("${subscriber.subject}")	
-    private String subject;
+
+	@Value("${subscriber.subject}")
+	private String subject;
 	@Value("${subscriber.stream}")
 	private String stream;
 	@Value("${subscriber.queue}")
-    private String queue;
-	@Value("${subscriber.group}")
-    private String group;
-	
-    @Autowired 
+	private String queue;
+	@Value("${subscriber.batch-size:100}")
+	private int batchSize;
+	@Value("${subscriber.fetch-wait-ms:1000}")
+	private long fetchWaitMs;
+	@Value("${subscriber.ack-wait-ms:60000}")
+	private long ackWaitMs;
+	@Value("${subscriber.redelivery-delay-ms:5000}")
+	private long redeliveryDelayMs;
+	@Value("${subscriber.max-deliver:10}")
+	private long maxDeliver;
+	@Value("${subscriber.group:#{null}}")
+	private String group;
+
+	@Autowired
 	private Connection subConnection;
-	
+
+	private final AtomicLong lag = new AtomicLong(-1);
+	private final AtomicLong processed = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong deadLettered = new AtomicLong();
+	private ExecutorService workers;
+	private Thread fetcher;
+	private volatile boolean running;
+
 	@Override
 	protected void subscribe() throws Exception {
 		log.debug("subscribe; connect: {}, store: {}", subConnection, assetStore);
-	    //Choosing delivery policy is analogous to setting the current offset
-	    //in a partition for a consumer or consumer group in Kafka.
-	    DeliverPolicy deliverPolicy = DeliverPolicy.New;
-	    PushSubscribeOptions subscribeOptions = ConsumerConfiguration.builder()
-	            .durable(queue)
-	            .deliverGroup(group)
-	            .deliverPolicy(deliverPolicy)
-	            .buildPushSubscribeOptions();
-	    /*Subscription subscription =*/
-	    NatsConfig.createOrReplaceStream(subConnection.jetStreamManagement(), stream, subject);
-	    subConnection.jetStream().subscribe(
-	            subject,
-	            group,
-	            subConnection.createDispatcher(),
-	            natsMsg -> {
-	                //This callback will be called for incoming messages
-	                //asynchronously. Every subscription configured this
-	                //way will be backed by its own thread, that will be
-	                //used to call this callback.
-	            	log.debug("onMessage; got message: {}", natsMsg);
-	            	try {
-	            		Headers headers = natsMsg.getHeaders();
-	            		String source = headers.getFirst("source");
-	            		if (!instance.equals(source)) {
-		            		Map<String, Object> params = new HashMap<>();
-		            		headers.entrySet().forEach(e -> {
-		            			params.put(e.getKey(), e.getValue().getFirst());
-		            		});
-		            		String payload = new String(natsMsg.getData());
-		            		if (payload.length() > 10) {
-		            			params.put("data", payload);
-		            		}
-		            		params.put("hash", natsMsg.getSubject().substring(6));
-		            		this.onMessage(params);
-	            		}
-	            	} catch (Exception ex) {
-	            		log.error("onMessage.error", ex);
-	            	}
-	            },
-	            true,  //true if you want received messages to be acknowledged
-	                   //automatically, otherwise you will have to call
-	                   //natsMessage.ack() manually in the above callback function
-	            subscribeOptions);
+		if (group != null) {
+			log.warn("subscribe; subscriber.group is no longer used, instances share work through the durable consumer {}", queue);
+		}
+		// keep the stream, so that the consumer catches up with events published while it was down
+		JetStreamManagement jsm = subConnection.jetStreamManagement();
+		NatsConfig.createStreamIfAbsent(jsm, stream, subject);
+		jsm.addOrUpdateConsumer(stream, consumerConfiguration(jsm));
+		JetStreamSubscription subscription = subConnection.jetStream().subscribe(subject, PullSubscribeOptions.bind(stream, queue));
+		workers = Executors.newVirtualThreadPerTaskExecutor();
+		running = true;
+		fetcher = Thread.ofPlatform().name("nats-subscriber").daemon().start(() -> fetchLoop(subscription));
+		log.info("subscribe; pulling {} from stream {} as {} in batches of {}", subject, stream, queue, batchSize);
+	}
+
+	/**
+	 * Returns the configuration of the durable pull consumer. The delivery position of an existing
+	 * pull consumer is kept. An existing push consumer is deleted, and the pull consumer replacing
+	 * it resumes after the last message the push consumer acknowledged.
+	 */
+	private ConsumerConfiguration consumerConfiguration(JetStreamManagement jsm) throws IOException, JetStreamApiException {
+		ConsumerConfiguration.Builder builder;
+		ConsumerInfo existing = getConsumerInfo(jsm);
+		if (existing == null) {
+			//Choosing delivery policy is analogous to setting the current offset
+			//in a partition for a consumer or consumer group in Kafka.
+			builder = ConsumerConfiguration.builder().durable(queue).filterSubject(subject).deliverPolicy(DeliverPolicy.New);
+		} else if (existing.getConsumerConfiguration().getDeliverSubject() != null) {
+			long resumeAt = existing.getAckFloor().getStreamSequence() + 1;
+			log.info("subscribe; replacing push consumer {} by a pull consumer resuming at stream sequence {}", queue, resumeAt);
+			deleteConsumer(jsm);
+			builder = ConsumerConfiguration.builder().durable(queue).filterSubject(subject)
+					.deliverPolicy(DeliverPolicy.ByStartSequence).startSequence(resumeAt);
+		} else {
+			builder = ConsumerConfiguration.builder(existing.getConsumerConfiguration());
+		}
+		return builder
+				.ackPolicy(AckPolicy.Explicit)
+				.ackWait(Duration.ofMillis(ackWaitMs))
+				.maxAckPending(Math.max(batchSize, 1) * 10L)
+				.maxDeliver(maxDeliver)
+				.build();
+	}
+
+	private void deleteConsumer(JetStreamManagement jsm) throws IOException, JetStreamApiException {
+		try {
+			jsm.deleteConsumer(stream, queue);
+		} catch (JetStreamApiException ex) {
+			// deleted concurrently by another instance
+			if (ex.getErrorCode() != 404) {
+				throw ex;
+			}
+		}
+	}
+
+	private ConsumerInfo getConsumerInfo(JetStreamManagement jsm) throws IOException, JetStreamApiException {
+		try {
+			return jsm.getConsumerInfo(stream, queue);
+		} catch (JetStreamApiException ex) {
+			if (ex.getErrorCode() == 404) {
+				return null;
+			}
+			throw ex;
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		running = false;
+		if (fetcher != null) {
+			fetcher.interrupt();
+		}
+		if (workers != null) {
+			// unacknowledged messages are redelivered after ack-wait
+			workers.shutdown();
+		}
+	}
+
+	/**
+	 * Returns the number of messages in the stream not yet delivered to the consumer, as of the last
+	 * fetched message.
+	 *
+	 * @return the consumer lag, or {@code -1} before the first message was fetched
+	 */
+	public long getLag() {
+		return lag.get();
+	}
+
+	/**
+	 * Returns the number of messages processed and acknowledged so far.
+	 *
+	 * @return the number of processed messages
+	 */
+	public long getProcessed() {
+		return processed.get();
+	}
+
+	/**
+	 * Returns the number of messages that were terminated without being processed.
+	 *
+	 * @return the number of dead-lettered messages
+	 */
+	public long getDeadLettered() {
+		return deadLettered.get();
+	}
+
+	/**
+	 * Returns the number of messages that failed and were handed back for redelivery.
+	 *
+	 * @return the number of failed messages
+	 */
+	public long getFailed() {
+		return failed.get();
+	}
+
+	private void fetchLoop(JetStreamSubscription subscription) {
+		while (running) {
+			try {
+				List<Message> batch = subscription.fetch(batchSize, Duration.ofMillis(fetchWaitMs));
+				if (!batch.isEmpty()) {
+					processBatch(batch);
+				}
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (Exception ex) {
+				if (!running) {
+					return;
+				}
+				log.error("fetchLoop.error", ex);
+				sleep(redeliveryDelayMs);
+			}
+		}
+	}
+
+	void processBatch(List<Message> batch) throws InterruptedException {
+		Map<String, List<Message>> bySubject = new LinkedHashMap<>();
+		for (Message msg : batch) {
+			bySubject.computeIfAbsent(msg.getSubject(), s -> new ArrayList<>()).add(msg);
+		}
+		List<Future<?>> tasks = new ArrayList<>(bySubject.size());
+		for (List<Message> messages : bySubject.values()) {
+			tasks.add(workers.submit(() -> processInOrder(messages)));
+		}
+		for (Future<?> task : tasks) {
+			try {
+				task.get();
+			} catch (ExecutionException ex) {
+				log.error("processBatch.error", ex.getCause());
+			}
+		}
+		Message last = batch.get(batch.size() - 1);
+		if (last.isJetStream()) {
+			lag.set(last.metaData().pendingCount());
+		}
+		log.debug("processBatch; processed {} messages for {} assets, lag: {}", batch.size(), bySubject.size(), lag.get());
+	}
+
+	private void processInOrder(List<Message> messages) {
+		for (int i = 0; i < messages.size(); i++) {
+			Message msg = messages.get(i);
+			try {
+				process(msg);
+				msg.ack();
+				processed.incrementAndGet();
+			} catch (ConflictException | NotFoundException ex) {
+				// applied already, e.g. the redelivery of an event whose ack got lost
+				log.debug("processInOrder; {} applied already: {}", msg.getSubject(), ex.getMessage());
+				msg.ack();
+				processed.incrementAndGet();
+			} catch (ClientException | VerificationException ex) {
+				deadLetter(msg, ex);
+			} catch (Exception ex) {
+				if (deliveredCount(msg) >= maxDeliver) {
+					deadLetter(msg, ex);
+					continue;
+				}
+				log.warn("processInOrder; processing {} failed, will be redelivered", msg.getSubject(), ex);
+				// the later events of this asset must not overtake the failed one
+				for (Message rest : messages.subList(i, messages.size())) {
+					rest.nakWithDelay(Duration.ofMillis(redeliveryDelayMs));
+					failed.incrementAndGet();
+				}
+				return;
+			}
+		}
+	}
+
+	private void deadLetter(Message msg, Exception ex) {
+		log.error("processInOrder; dead letter {} after {} deliveries, headers: {}", msg.getSubject(), deliveredCount(msg),
+				msg.getHeaders(), ex);
+		msg.term();
+		deadLettered.incrementAndGet();
+	}
+
+	private static long deliveredCount(Message msg) {
+		return msg.isJetStream() ? msg.metaData().deliveredCount() : 1;
+	}
+
+	private void process(Message natsMsg) {
+		log.debug("process; got message: {}", natsMsg);
+		Headers headers = natsMsg.getHeaders();
+		String source = headers.getFirst("source");
+		if (instance.equals(source)) {
+			return;
+		}
+		Map<String, Object> params = new HashMap<>();
+		headers.entrySet().forEach(e -> {
+			params.put(e.getKey(), e.getValue().getFirst());
+		});
+		byte[] data = natsMsg.getData();
+		if (data != null && data.length > 10) {
+			params.put("data", decodePayload(data, headers.getFirst(PayloadEncoding.HEADER)));
+		}
+		String msgSubject = natsMsg.getSubject();
+		params.put("hash", msgSubject.substring(msgSubject.lastIndexOf('.') + 1));
+		this.onMessage(params);
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
 	}
 }
@@ -0,0 +1,185 @@
+package eu.xfsc.fc.core.service.schemastore;
+
+import eu.xfsc.fc.core.service.schemastore.SchemaStore.SchemaType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.UUID;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Broadcasts schema changes between the instances sharing the catalogue database, over Postgres
+ * {@code LISTEN/NOTIFY} on the channel {@value #CHANNEL}.
+ *
+ * <p>Schema changes of this instance are sent once their transaction commits, in a transaction of
+ * their own, since Postgres delivers a notification only when the transaction sending it commits.
+ * A single platform
+ * thread listens on a connection of its own, taken from the pool for the lifetime of the instance,
+ * and publishes the changes of other instances as remote {@link SchemaChangedEvent}s, so that
+ * caches derived from the schemas are dropped and rebuilt lazily, on their next use. Notifications
+ * sent while the listener is not connected are lost, so all caches are dropped whenever it
+ * (re)connects. Changes of this instance are not received back.</p>
+ *
+ * <p>The bus is disabled by {@code federated-catalogue.schema.change-bus.enabled=false}, or when the
+ * database is not Postgres.</p>
+ */
+@Slf4j
+@Component
+public class SchemaChangeBus {
+
+  static final String CHANNEL = "fc_schema_changes";
+  private static final String ALL_TYPES = "*";
+  private static final int POLL_MILLIS = 1000;
+
+  private final DataSource dataSource;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate notifyTransaction;
+  private final ApplicationEventPublisher eventPublisher;
+  private final boolean enabled;
+  private final Duration reconnectDelay;
+  private final String instanceId = UUID.randomUUID().toString();
+
+  private volatile boolean running;
+  private Thread listener;
+
+  public SchemaChangeBus(DataSource dataSource, PlatformTransactionManager transactionManager,
+      ApplicationEventPublisher eventPublisher,
+      @Value("${federated-catalogue.schema.change-bus.enabled:true}") boolean enabled,
+      @Value("${federated-catalogue.schema.change-bus.reconnect-delay:PT5S}") Duration reconnectDelay) {
+    this.dataSource = dataSource;
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    // after the commit, the connection of the finished transaction is still bound to the thread
+    this.notifyTransaction = new TransactionTemplate(transactionManager);
+    this.notifyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.eventPublisher = eventPublisher;
+    this.enabled = enabled;
+    this.reconnectDelay = reconnectDelay;
+  }
+
+  /**
+   * Starts listening for the schema changes of other instances.
+   */
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      log.info("start; schema change bus disabled");
+      return;
+    }
+    running = true;
+    listener = Thread.ofPlatform().name("schema-change-listener").daemon().start(this::listen);
+  }
+
+  /**
+   * Stops listening.
+   */
+  @PreDestroy
+  public void stop() {
+    running = false;
+    if (listener != null) {
+      listener.interrupt();
+    }
+  }
+
+  /**
+   * Sends a schema change of this instance to the other instances once the surrounding
+   * transaction commits. Changes received from other instances are not sent again.
+   *
+   * @param event the schema change
+   */
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onSchemaChanged(SchemaChangedEvent event) {
+    if (!running || event.remote()) {
+      return;
+    }
+    String change = event.type() == null ? ALL_TYPES : event.type().name();
+    try {
+      notifyTransaction.executeWithoutResult(status ->
+          jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, instanceId + " " + change));
+    } catch (DataAccessException | TransactionException ex) {
+      // the change is committed already; peers pick it up when their cached schemas are rebuilt
+      log.warn("onSchemaChanged; cannot notify other instances of change {}: {}", change, ex.getMessage());
+    }
+  }
+
+  private void listen() {
+    while (running) {
+      try (Connection connection = dataSource.getConnection()) {
+        if (!connection.isWrapperFor(PGConnection.class)) {
+          log.info("listen; database does not support LISTEN/NOTIFY, schema change bus disabled");
+          running = false;
+          return;
+        }
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("LISTEN " + CHANNEL);
+        }
+        log.debug("listen; listening on {}", CHANNEL);
+        publish(null);
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        while (running) {
+          PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+          if (notifications != null) {
+            for (PGNotification notification : notifications) {
+              receive(notification.getParameter());
+            }
+          }
+        }
+      } catch (SQLException ex) {
+        if (running) {
+          log.warn("listen; connection lost, reconnecting in {}: {}", reconnectDelay, ex.getMessage());
+          sleep();
+        }
+      }
+    }
+  }
+
+  void receive(String payload) {
+    String[] parts = payload.split(" ", 2);
+    if (parts.length < 2 || instanceId.equals(parts[0])) {
+      return;
+    }
+    if (ALL_TYPES.equals(parts[1])) {
+      publish(null);
+      return;
+    }
+    try {
+      publish(SchemaType.valueOf(parts[1]));
+    } catch (IllegalArgumentException ex) {
+      log.warn("receive; ignoring change of unknown schema type {}", parts[1]);
+    }
+  }
+
+  private void publish(SchemaType type) {
+    try {
+      eventPublisher.publishEvent(new SchemaChangedEvent(type, true));
+    } catch (RuntimeException ex) {
+      log.warn("publish; failed to apply schema change of type {}", type, ex);
+    }
+  }
+
+  private void sleep() {
+    try {
+      Thread.sleep(reconnectDelay);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+}
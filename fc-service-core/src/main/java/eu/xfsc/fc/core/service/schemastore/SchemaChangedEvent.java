@@ -0,0 +1,15 @@
+package eu.xfsc.fc.core.service.schemastore;
+
+import eu.xfsc.fc.core.service.schemastore.SchemaStore.SchemaType;
+
+/**
+ * Published when the schemas of a type were added, updated or deleted, so that caches derived from
+ * them are dropped and rebuilt on their next use. Changes made by this instance are published by
+ * {@link SchemaStoreImpl}; changes made by other instances are received and published by
+ * {@link SchemaChangeBus}.
+ *
+ * @param type the type of the changed schemas, or {@code null} if schemas of any type may have changed
+ * @param remote {@code true} if the change was made by another instance
+ */
+public record SchemaChangedEvent(SchemaType type, boolean remote) {
+}
@@ -1,5 +1,6 @@
 package eu.xfsc.fc.core.service.schemastore;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -190,6 +191,16 @@ public interface SchemaStore {
    */
   List<SchemaRecord> getSchemaVersions(String identifier);
 
+  /**
+   * Get the classes whose instances may validate differently due to the shape changes
+   * made after the given time, so that only those need to be revalidated.
+   *
+   * @param since The time of the last revalidation.
+   * @return The IRIs of the affected classes and their subclasses, or {@code null} if
+   *         instances of any class may be affected.
+   */
+  Set<String> getChangedTargetClasses(Instant since);
+
   /**
    * Remove all Schemas from the SchemaStore.
    */
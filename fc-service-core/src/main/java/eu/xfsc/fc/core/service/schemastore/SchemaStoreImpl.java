@@ -38,10 +38,13 @@ import org.apache.jena.vocabulary.SKOS;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.w3c.dom.Document;
 
 import javax.xml.XMLConstants;
@@ -53,6 +56,7 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -75,6 +79,7 @@ public class SchemaStoreImpl implements SchemaStore {
   private final SchemaDao dao;
   private final ProtectedNamespaceFilter protectedNamespaceFilter;
   private final TrustFrameworkRegistry trustFrameworkRegistry;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Autowired
   private ObjectProvider<DocumentBuilderFactory> secureDocumentBuilderFactoryProvider;
@@ -252,27 +257,22 @@ public class SchemaStoreImpl implements SchemaStore {
 
   private ContentAccessor createCompositeSchema(SchemaType type) {
     log.debug("createCompositeSchema.enter; got type: {}", type);
-    StringWriter out = new StringWriter();
-    Map<SchemaType, List<String>> schemaList = getSchemaList();
+    List<String> contents = dao.selectContentsByType(type.name());
 
-    List<String> schemaListForType = schemaList.get(type);
-    if (schemaListForType == null) {
-      log.debug("createCompositeSchema.exit; returning empty content for unknown type");
-      return new ContentAccessorDirect("");
-    }
-    
-    Model model = ModelFactory.createDefaultModel();
+    // every schema is parsed once into a graph of its own and then merged, so its triples are copied
+    // into the composite exactly once instead of being re-added with those of all previous schemas
     Model unionModel = ModelFactory.createDefaultModel();
-    for (String schemaId : schemaListForType) {
-      ContentAccessor schemaContent = getSchema(schemaId);
-      StringReader schemaContentReader = new StringReader(schemaContent.getContentAsString());
-      model.read(schemaContentReader, null, "TURTLE");
+    for (String schemaContent : contents) {
+      Model model = ModelFactory.createDefaultModel();
+      model.read(new StringReader(schemaContent), null, "TURTLE");
       unionModel.add(model);
     }
+    StringWriter out = new StringWriter();
     RDFDataMgr.write(out, unionModel, Lang.TURTLE);
     ContentAccessor content = new ContentAccessorDirect(out.toString());
 
-    log.debug("createCompositeSchema.exit; returning: {}", content.getContentAsString().length());
+    log.debug("createCompositeSchema.exit; merged {} schemas, returning: {}", contents.size(),
+        content.getContentAsString().length());
     try {
       final String compositeSchemaName = "CompositeSchema" + type.name();
       fileStore.replaceFile(compositeSchemaName, content);
@@ -401,7 +401,10 @@ public class SchemaStoreImpl implements SchemaStore {
       throw new ServerException(ex);
     }
 
-    COMPOSITE_SCHEMAS.remove(newRecord.type());
+    schemaChanged(newRecord.type());
+    if (newRecord.type() == SchemaType.SHAPE) {
+      recordShapeChange("", newRecord.content());
+    }
     return new SchemaStoreResult(newRecord.getId(), analysis.getWarning(), newRecord.createdAt());
   }
 
@@ -428,7 +431,10 @@ public class SchemaStoreImpl implements SchemaStore {
       throw new ServerException(ex);
     }
 
-    COMPOSITE_SCHEMAS.remove(newRecord.type());
+    schemaChanged(newRecord.type());
+    if (newRecord.type() == SchemaType.SHAPE) {
+      recordShapeChange(existing.content(), newRecord.content());
+    }
 
     // Envers writes audit entries in beforeTransactionCompletion — after all application code
     // in this transaction — so getVersionCount returns N (committed prior revisions only).
@@ -442,6 +448,44 @@ public class SchemaStoreImpl implements SchemaStore {
         currentVersion, previousVersion > 0 ? previousVersion : null);
   }
 
+  /**
+   * Records the classes affected by a change of shapes, for the revalidation of their instances.
+   * Removed shapes need no record, as assets cannot stop conforming to them.
+   */
+  private void recordShapeChange(String oldContent, String newContent) {
+    Set<String> targetClasses;
+    try {
+      Model ontology = readModel(getCompositeSchema(SchemaType.ONTOLOGY).getContentAsString());
+      targetClasses = ShapeTargets.changedTargetClasses(readModel(oldContent), readModel(newContent), ontology);
+    } catch (RuntimeException ex) {
+      log.warn("recordShapeChange; cannot compare shapes, all assets will be revalidated: {}", ex.getMessage());
+      targetClasses = null;
+    }
+    log.debug("recordShapeChange; affected classes: {}", targetClasses);
+    if (targetClasses == null || !targetClasses.isEmpty()) {
+      dao.insertChange(targetClasses);
+    }
+  }
+
+  private static Model readModel(String content) {
+    RuntimeException error = null;
+    for (String lang : List.of("JSON-LD", "RDF/XML", "TTL")) {
+      Model model = ModelFactory.createDefaultModel();
+      try {
+        model.read(new StringReader(content), null, lang);
+        return model;
+      } catch (RuntimeException ex) {
+        error = ex;
+      }
+    }
+    throw error;
+  }
+
+  @Override
+  public Set<String> getChangedTargetClasses(Instant since) {
+    return dao.selectChangedTargetClasses(since);
+  }
+
   @Override
   public void deleteSchema(String identifier) {
 	String typeName = dao.delete(identifier);
@@ -449,7 +493,7 @@ public class SchemaStoreImpl implements SchemaStore {
     if (typeName == null) {
       throw new NotFoundException("Schema with id " + identifier + " was not found");
     }
-    COMPOSITE_SCHEMAS.remove(SchemaType.valueOf(typeName));
+    schemaChanged(SchemaType.valueOf(typeName));
   }
 
   @Override
@@ -521,7 +565,29 @@ public class SchemaStoreImpl implements SchemaStore {
     } catch (IOException ex) {
       log.error("SchemaStoreImpl: Exception while clearing FileStore: {}.", ex.getMessage());
     }
-    COMPOSITE_SCHEMAS.clear();
+    schemaChanged(null);
+  }
+
+  /**
+   * Drops the cached composite schemas affected by a schema change of this or another instance;
+   * they are rebuilt on their next use. Local changes are applied once their transaction completes,
+   * so that a concurrent rebuild cannot cache the schemas as they were before the commit, and a
+   * rebuild within a rolled back transaction is not kept.
+   *
+   * @param event the schema change
+   */
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+  public void onSchemaChanged(SchemaChangedEvent event) {
+    log.debug("onSchemaChanged; type: {}, remote: {}", event.type(), event.remote());
+    if (event.type() == null) {
+      COMPOSITE_SCHEMAS.clear();
+    } else {
+      COMPOSITE_SCHEMAS.remove(event.type());
+    }
+  }
+
+  private void schemaChanged(SchemaType type) {
+    eventPublisher.publishEvent(new SchemaChangedEvent(type, false));
   }
 
 }
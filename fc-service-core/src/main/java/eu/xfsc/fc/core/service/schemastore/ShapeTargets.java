@@ -0,0 +1,153 @@
+package eu.xfsc.fc.core.service.schemastore;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.shacl.vocabulary.SHACLM;
+import org.apache.jena.vocabulary.OWL;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+
+/**
+ * Computes the classes whose instances may validate differently after a change of SHACL shapes.
+ *
+ * <p>A shape is identified by its IRI and compared with all statements reachable from it through
+ * blank nodes, so that a change of a nested property shape counts as a change of its node shape.
+ * The targets of a changed shape are its {@code sh:targetClass} values, or the shape itself if it
+ * is also a class. A changed shape without targets affects the targets of the shapes referring to
+ * it. Shapes with node or property based targets may affect instances of any class, in which
+ * case {@code null} is returned.</p>
+ *
+ * <p>Only the targets in the new shapes count: revalidation revokes assets that no longer
+ * conform, and an asset no longer targeted by a shape cannot stop conforming to it.</p>
+ */
+final class ShapeTargets {
+
+  private static final List<Property> NON_CLASS_TARGETS =
+      List.of(SHACLM.targetNode, SHACLM.targetSubjectsOf, SHACLM.targetObjectsOf);
+
+  private ShapeTargets() {
+  }
+
+  /**
+   * Returns the classes whose instances are affected by the change from {@code oldShapes} to
+   * {@code newShapes}, including their subclasses as declared in {@code ontology}.
+   *
+   * @param oldShapes the shapes before the change, empty for a new schema
+   * @param newShapes the shapes after the change
+   * @param ontology the ontology declaring the class hierarchy, may be empty
+   * @return the IRIs of the affected classes, empty if no instance is affected, or {@code null}
+   *         if instances of any class may be affected
+   */
+  static Set<String> changedTargetClasses(Model oldShapes, Model newShapes, Model ontology) {
+    Deque<Resource> pending = new ArrayDeque<>();
+    for (Resource shape : namedShapes(newShapes)) {
+      if (!closure(oldShapes, List.of(shape)).isIsomorphicWith(closure(newShapes, List.of(shape)))) {
+        pending.add(shape);
+      }
+    }
+    List<Resource> oldAnonymous = anonymousShapes(oldShapes);
+    List<Resource> newAnonymous = anonymousShapes(newShapes);
+    if (!closure(oldShapes, oldAnonymous).isIsomorphicWith(closure(newShapes, newAnonymous))) {
+      // blank node shapes cannot be matched one by one
+      pending.addAll(newAnonymous);
+    }
+
+    Set<String> classes = new TreeSet<>();
+    Set<Resource> visited = new HashSet<>();
+    while (!pending.isEmpty()) {
+      Resource shape = pending.poll();
+      if (!visited.add(shape)) {
+        continue;
+      }
+      for (Property target : NON_CLASS_TARGETS) {
+        if (newShapes.contains(shape, target)) {
+          return null;
+        }
+      }
+      boolean targeted = false;
+      for (RDFNode targetClass : newShapes.listObjectsOfProperty(shape, SHACLM.targetClass).toList()) {
+        if (!targetClass.isURIResource()) {
+          return null;
+        }
+        classes.add(targetClass.asResource().getURI());
+        targeted = true;
+      }
+      if (shape.isURIResource()
+          && (newShapes.contains(shape, RDF.type, RDFS.Class) || newShapes.contains(shape, RDF.type, OWL.Class))) {
+        classes.add(shape.getURI());
+        targeted = true;
+      }
+      if (!targeted) {
+        // nested or referenced shapes apply through the shapes referring to them
+        newShapes.listStatements(null, null, shape).mapWith(Statement::getSubject).forEach(pending::add);
+      }
+    }
+    return withSubclasses(classes, ontology, newShapes);
+  }
+
+  private static Set<String> withSubclasses(Set<String> classes, Model ontology, Model shapes) {
+    Model hierarchy = ModelFactory.createUnion(ontology, shapes);
+    Deque<String> pending = new ArrayDeque<>(classes);
+    while (!pending.isEmpty()) {
+      Resource type = hierarchy.createResource(pending.poll());
+      hierarchy.listSubjectsWithProperty(RDFS.subClassOf, type).forEach(sub -> {
+        if (sub.isURIResource() && classes.add(sub.getURI())) {
+          pending.add(sub.getURI());
+        }
+      });
+    }
+    return classes;
+  }
+
+  private static List<Resource> namedShapes(Model model) {
+    return model.listSubjects().filterKeep(r -> r.isURIResource() && isShape(model, r)).toList();
+  }
+
+  private static List<Resource> anonymousShapes(Model model) {
+    return model.listSubjects()
+        .filterKeep(r -> r.isAnon() && isShape(model, r) && !model.contains(null, null, r))
+        .toList();
+  }
+
+  private static boolean isShape(Model model, Resource resource) {
+    return model.contains(resource, RDF.type, SHACLM.NodeShape)
+        || model.contains(resource, RDF.type, SHACLM.PropertyShape)
+        || model.contains(resource, SHACLM.targetClass)
+        || model.contains(resource, SHACLM.path)
+        || model.contains(resource, SHACLM.property);
+  }
+
+  /**
+   * Returns the statements about the given resources, following blank node objects.
+   */
+  private static Model closure(Model model, List<Resource> roots) {
+    Model closure = ModelFactory.createDefaultModel();
+    Deque<Resource> pending = new ArrayDeque<>(roots);
+    Set<Resource> visited = new HashSet<>();
+    while (!pending.isEmpty()) {
+      Resource subject = pending.poll();
+      if (!visited.add(subject)) {
+        continue;
+      }
+      model.listStatements(subject, null, (RDFNode) null).forEach(st -> {
+        closure.add(st);
+        if (st.getObject().isAnon()) {
+          pending.add(st.getObject().asResource());
+        }
+      });
+    }
+    return closure;
+  }
+
+}
@@ -0,0 +1,299 @@
+package eu.xfsc.fc.core.service.validation;
+
+import eu.xfsc.fc.core.dao.validation.GraphSyncStatus;
+import eu.xfsc.fc.core.dao.validation.ValidationResult;
+import eu.xfsc.fc.core.dao.validation.ValidationResultRepository;
+import eu.xfsc.fc.core.service.graphdb.GraphStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Synchronises stored validation results to the graph store in the background.
+ *
+ * <p>Writes and deletions are queued when the surrounding transaction commits, so no DB
+ * transaction waits on the graph. A single virtual thread collects queued work for up to
+ * {@code linger-ms}, or until {@code batch-size} results are queued, then writes the results with
+ * one {@link ValidationResultGraphWriter#writeAll} call and deletes the claims of removed results
+ * with one {@link GraphStore#deleteValidationResultClaimsBatch} call. Queued writes are applied
+ * before queued deletions, so the claims of a result deleted right after it was stored do not
+ * survive in the graph.</p>
+ *
+ * <p>A failed batch write is retried result by result; results that still fail are marked
+ * {@code FAILED} and restored by a graph rebuild. Results left {@code PENDING} by a stopped
+ * instance are claimed by one of the running instances once their graph write was queued longer
+ * than {@code claim-timeout} ago, on startup and every {@code claim-timeout} after.</p>
+ */
+@Slf4j
+@Service
+public class ValidationResultGraphSync {
+
+  private final ValidationResultRepository repository;
+  private final GraphStore graphStore;
+  private final ValidationResultGraphWriter graphWriter;
+  private final int batchSize;
+  private final Duration linger;
+  private final Duration claimTimeout;
+
+  private final Set<Long> writes = new LinkedHashSet<>();
+  private final Set<String> deletes = new LinkedHashSet<>();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition queued = lock.newCondition();
+  private final Condition idle = lock.newCondition();
+  private boolean flushing;
+  private volatile boolean running;
+  private Thread worker;
+
+  public ValidationResultGraphSync(ValidationResultRepository repository, GraphStore graphStore,
+      ValidationResultGraphWriter graphWriter,
+      @Value("${federated-catalogue.validation-result.graph-sync.batch-size:100}") int batchSize,
+      @Value("${federated-catalogue.validation-result.graph-sync.linger-ms:200}") long lingerMs,
+      @Value("${federated-catalogue.validation-result.graph-sync.claim-timeout:PT5M}") Duration claimTimeout) {
+    this.repository = repository;
+    this.graphStore = graphStore;
+    this.graphWriter = graphWriter;
+    this.batchSize = Math.max(1, batchSize);
+    this.linger = Duration.ofMillis(lingerMs);
+    this.claimTimeout = claimTimeout;
+  }
+
+  /**
+   * Starts the sync worker and queues the results left {@code PENDING} by stopped instances.
+   */
+  @PostConstruct
+  public void start() {
+    running = true;
+    worker = Thread.ofVirtual().name("validation-result-graph-sync").start(this::run);
+    requeueAbandoned();
+  }
+
+  /**
+   * Claims and queues the {@code PENDING} results whose graph write was queued longer than
+   * {@code claim-timeout} ago.
+   */
+  @Scheduled(initialDelayString = "${federated-catalogue.validation-result.graph-sync.claim-timeout:PT5M}",
+      fixedDelayString = "${federated-catalogue.validation-result.graph-sync.claim-timeout:PT5M}")
+  public void requeueAbandoned() {
+    List<Long> claimed = repository.claimPendingGraphSync(claimTimeout.toSeconds());
+    if (!claimed.isEmpty()) {
+      log.info("requeueAbandoned; requeueing {} validation results pending graph sync", claimed.size());
+      enqueue(claimed, List.of());
+    }
+  }
+
+  /**
+   * Stops the sync worker after the queued work is flushed.
+   */
+  @PreDestroy
+  public void stop() {
+    running = false;
+    if (worker == null) {
+      return;
+    }
+    worker.interrupt();
+    try {
+      worker.join(Duration.ofSeconds(10));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+  }
+
+  /**
+   * Queues the graph write of a stored validation result once the current transaction commits.
+   *
+   * @param id the ID of the stored validation result
+   */
+  public void write(Long id) {
+    afterCommit(() -> enqueue(List.of(id), List.of()));
+  }
+
+  /**
+   * Queues the deletion of the graph claims of validation results once the current transaction
+   * commits.
+   *
+   * @param resultIris the IRIs of the deleted validation results
+   */
+  public void delete(Collection<String> resultIris) {
+    if (resultIris.isEmpty()) {
+      return;
+    }
+    List<String> iris = List.copyOf(resultIris);
+    afterCommit(() -> enqueue(List.of(), iris));
+  }
+
+  /**
+   * Applies all queued work in the calling thread, waiting for a batch in progress to finish.
+   */
+  public void flush() {
+    while (flushBatch()) {
+      // until the queues are empty
+    }
+  }
+
+  /**
+   * Returns the number of queued writes and deletions.
+   *
+   * @return the queue length
+   */
+  public int getQueueSize() {
+    lock.lock();
+    try {
+      return writes.size() + deletes.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+
+  private void enqueue(Collection<Long> ids, Collection<String> resultIris) {
+    lock.lock();
+    try {
+      writes.addAll(ids);
+      deletes.addAll(resultIris);
+      queued.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void run() {
+    while (running) {
+      try {
+        lock.lock();
+        try {
+          while (writes.isEmpty() && deletes.isEmpty()) {
+            queued.await();
+          }
+          long remaining = linger.toNanos();
+          while (remaining > 0 && writes.size() < batchSize && deletes.size() < batchSize) {
+            remaining = queued.awaitNanos(remaining);
+          }
+        } finally {
+          lock.unlock();
+        }
+        flushBatch();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException ex) {
+        log.error("run; graph sync of validation results failed", ex);
+      }
+    }
+  }
+
+  /**
+   * Applies up to one batch of queued writes and deletions. Batches are applied one at a time,
+   * so a deletion never overtakes the write of the same result.
+   *
+   * @return whether any work was taken from the queues
+   */
+  private boolean flushBatch() {
+    List<Long> ids;
+    List<String> iris;
+    lock.lock();
+    try {
+      while (flushing) {
+        idle.awaitUninterruptibly();
+      }
+      ids = take(writes);
+      iris = take(deletes);
+      if (ids.isEmpty() && iris.isEmpty()) {
+        return false;
+      }
+      flushing = true;
+    } finally {
+      lock.unlock();
+    }
+    try {
+      if (!ids.isEmpty()) {
+        writeBatch(ids);
+      }
+      if (!iris.isEmpty()) {
+        deleteBatch(iris);
+      }
+    } finally {
+      lock.lock();
+      try {
+        flushing = false;
+        idle.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+    return true;
+  }
+
+  private <T> List<T> take(Set<T> queue) {
+    List<T> batch = new ArrayList<>(Math.min(queue.size(), batchSize));
+    Iterator<T> it = queue.iterator();
+    while (it.hasNext() && batch.size() < batchSize) {
+      batch.add(it.next());
+      it.remove();
+    }
+    return batch;
+  }
+
+  private void writeBatch(List<Long> ids) {
+    // results deleted in the meantime are not found and skipped
+    List<ValidationResult> results = repository.findAllById(ids);
+    if (results.isEmpty()) {
+      return;
+    }
+    try {
+      graphWriter.writeAll(results, graphStore);
+      repository.updateGraphSyncStatus(results.stream().map(ValidationResult::getId).toList(), GraphSyncStatus.SYNCED);
+      log.debug("writeBatch; synced {} validation results", results.size());
+    } catch (Exception batchError) {
+      log.warn("writeBatch; batch graph write of {} validation results failed, retrying one by one: {}",
+          results.size(), batchError.getMessage());
+      for (ValidationResult result : results) {
+        GraphSyncStatus status;
+        try {
+          graphWriter.write(result, graphStore);
+          status = GraphSyncStatus.SYNCED;
+        } catch (Exception e) {
+          log.error("writeBatch; graph write failed for result id={}, marking FAILED", result.getId(), e);
+          status = GraphSyncStatus.FAILED;
+        }
+        repository.updateGraphSyncStatus(List.of(result.getId()), status);
+      }
+    }
+  }
+
+  private void deleteBatch(List<String> resultIris) {
+    try {
+      graphStore.deleteValidationResultClaimsBatch(resultIris);
+      log.debug("deleteBatch; deleted graph claims of {} validation results", resultIris.size());
+    } catch (Exception e) {
+      log.warn("deleteBatch; graph cleanup failed for {} validation results: {}", resultIris.size(), e.getMessage());
+    }
+  }
+
+}
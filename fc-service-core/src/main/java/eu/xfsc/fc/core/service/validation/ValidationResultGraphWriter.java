@@ -6,7 +6,10 @@ import eu.xfsc.fc.core.pojo.CredentialClaim;
 import eu.xfsc.fc.core.pojo.RdfClaim;
 import eu.xfsc.fc.core.service.graphdb.GraphStore;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -46,6 +49,43 @@ public class ValidationResultGraphWriter {
    * @param graphStore  the active graph store implementation
    */
   public void write(ValidationResult result, GraphStore graphStore) {
+    List<RdfClaim> claims = claims(result);
+    // Use the first assetId as the credentialSubject grouping key for graph partitioning
+    graphStore.addClaims(claims, result.getAssetIds()[0]);
+    log.debug("write; wrote {} fcmeta triples for result id={}", claims.size(), result.getId());
+  }
+
+  /**
+   * Writes all triples for the given validation results to the graph store with one
+   * {@link GraphStore#addClaimsBatch(Map)} call. Results sharing their first asset are merged
+   * under the same credentialSubject.
+   *
+   * @param results     persisted entities with non-null IDs
+   * @param graphStore  the active graph store implementation
+   */
+  public void writeAll(Collection<ValidationResult> results, GraphStore graphStore) {
+    Map<String, List<RdfClaim>> claimsBySubject = new LinkedHashMap<>();
+    for (ValidationResult result : results) {
+      claimsBySubject.computeIfAbsent(result.getAssetIds()[0], subject -> new ArrayList<>()).addAll(claims(result));
+    }
+    if (claimsBySubject.isEmpty()) {
+      return;
+    }
+    graphStore.addClaimsBatch(claimsBySubject);
+    log.debug("writeAll; wrote fcmeta triples for {} results of {} subjects", results.size(), claimsBySubject.size());
+  }
+
+  /**
+   * Returns the IRI for a stored validation result, using the configured {@code fcmeta:} namespace.
+   *
+   * @param id the numeric ID of the stored {@link eu.xfsc.fc.core.dao.validation.ValidationResult}
+   * @return the full validation result IRI
+   */
+  public String resultIri(Long id) {
+    return namespaceProperties.getNamespace() + "ValidationResult/" + id;
+  }
+
+  private List<RdfClaim> claims(ValidationResult result) {
     String fcmeta = namespaceProperties.getNamespace();
     String resultIri = resultIri(result.getId());
     List<RdfClaim> claims = new ArrayList<>();
@@ -67,21 +107,7 @@ public class ValidationResultGraphWriter {
         "\"" + result.getValidatorType() + "\""));
     claims.add(literalTriple(resultIri, fcmeta + "validatedAt",
         "\"" + result.getValidatedAt().toString() + "\"^^<" + XSD + "dateTime>"));
-
-    // Use the first assetId as the credentialSubject grouping key for graph partitioning
-    String credentialSubject = result.getAssetIds()[0];
-    graphStore.addClaims(claims, credentialSubject);
-    log.debug("write; wrote {} fcmeta triples for result id={}", claims.size(), result.getId());
-  }
-
-  /**
-   * Returns the IRI for a stored validation result, using the configured {@code fcmeta:} namespace.
-   *
-   * @param id the numeric ID of the stored {@link eu.xfsc.fc.core.dao.validation.ValidationResult}
-   * @return the full validation result IRI
-   */
-  public String resultIri(Long id) {
-    return namespaceProperties.getNamespace() + "ValidationResult/" + id;
+    return claims;
   }
 
   private static CredentialClaim iriTriple(String subject, String predicate, String object) {
@@ -24,6 +24,11 @@ import org.springframework.stereotype.Service;
  * {@code conforms}, {@code validatedAt}. The {@code report} field is excluded — it is
  * large, optional, and may be truncated. Canonicalization uses JCS (RFC 8785) to ensure
  * a deterministic byte representation across JVM instances.</p>
+ *
+ * <p>The result hash identifies the outcome of a validation for deduplication. It covers
+ * {@code assetIds}, {@code validatorIds}, {@code validatorType}, {@code conforms} and
+ * {@code report}, but not {@code validatedAt}: validating an unchanged asset against unchanged
+ * validators yields the same result hash.</p>
  */
 @Slf4j
 @Service
@@ -46,6 +51,19 @@ public class ValidationResultHasher {
     return digest(canonical);
   }
 
+  /**
+   * Computes the SHA-256 hex digest identifying the outcome of the given validation result.
+   *
+   * @param result entity with all fields populated except the hashes
+   * @return 64-character lowercase hex string
+   * @throws ServerException if canonicalization or digest fails
+   */
+  public String resultHash(ValidationResult result) {
+    Map<String, Object> fields = outcomeFields(result);
+    fields.put("report", result.getReport());
+    return digest(canonicalize(fields));
+  }
+
   /**
    * Returns true if the stored {@code contentHash} matches a freshly computed hash.
    * Used for tamper detection — does not throw, returns false on mismatch.
@@ -61,6 +79,12 @@ public class ValidationResultHasher {
   }
 
   private String canonicalize(ValidationResult result) {
+    Map<String, Object> fields = outcomeFields(result);
+    fields.put("validatedAt", result.getValidatedAt().toString());
+    return canonicalize(fields);
+  }
+
+  private static Map<String, Object> outcomeFields(ValidationResult result) {
     // LinkedHashMap preserves insertion order; JsonCanonicalizer sorts keys anyway (JCS).
     // Sort array contents for canonical ordering (JCS sorts keys, not array elements).
     Map<String, Object> fields = new LinkedHashMap<>();
@@ -70,7 +94,10 @@ public class ValidationResultHasher {
     fields.put("validatorIds", Arrays.stream(result.getValidatorIds())
         .sorted().toList());
     fields.put("validatorType", result.getValidatorType());
-    fields.put("validatedAt", result.getValidatedAt().toString());
+    return fields;
+  }
+
+  private String canonicalize(Map<String, Object> fields) {
     try {
       String json = objectMapper.writeValueAsString(fields);
       return new JsonCanonicalizer(json).getEncodedString();
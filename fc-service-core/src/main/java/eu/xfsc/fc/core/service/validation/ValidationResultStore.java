@@ -13,10 +13,11 @@ import org.springframework.data.domain.Pageable;
 public interface ValidationResultStore {
 
   /**
-   * Persists the validation result and returns its storage ID.
+   * Persists the validation result and returns its storage ID. A result identical to a current
+   * stored result, apart from its validation time, updates that result instead.
    *
    * @param result the validation result to store
-   * @return the ID of the stored result; never null
+   * @return the ID of the stored or updated result; never null
    */
   Long store(ValidationResultRecord result);
 
@@ -4,6 +4,7 @@ import eu.xfsc.fc.core.dao.validation.GraphSyncStatus;
 import eu.xfsc.fc.core.dao.validation.OutdatedReason;
 import eu.xfsc.fc.core.dao.validation.ValidationResult;
 import eu.xfsc.fc.core.dao.validation.ValidationResultRepository;
+import eu.xfsc.fc.core.dao.validation.ValidationResultRepository.StoredResult;
 import eu.xfsc.fc.core.service.graphdb.GraphStore;
 import java.util.List;
 import java.util.Optional;
@@ -18,11 +19,15 @@ import org.springframework.transaction.annotation.Transactional;
  * Implements {@link ValidationResultStore} and provides
  * validation result persistence with graph DB sync.
  *
- * <p>Write sequence: relational DB INSERT + graph DB write both happen inside the {@code @Transactional}
- * boundary; the DB commits only when {@code store()} returns. If the DB fails to commit after a
- * successful graph write, graph triples will exist without a corresponding DB row.
- * If the graph write itself fails, the row is marked
- * {@code FAILED} and no retry is attempted. The relational DB is the system of record.</p>
+ * <p>Write sequence: the relational DB INSERT commits with status {@code PENDING}; the graph write
+ * is queued on {@link ValidationResultGraphSync} once the transaction commits and applied in
+ * batches, so a rolled back INSERT never reaches the graph. If the graph write fails, the row is
+ * marked {@code FAILED} and restored by a graph rebuild. The relational DB is the system of record.</p>
+ *
+ * <p>A validation with the same outcome as a current result of the same assets and validators
+ * does not add a row: the existing result gets the new {@code validatedAt} and keeps its graph
+ * triples, whose {@code fcmeta:validatedAt} records when the outcome was first seen. If the graph
+ * write of the existing result failed or has not run yet, it is queued again.</p>
  */
 @Slf4j
 @Service
@@ -30,30 +35,37 @@ import org.springframework.transaction.annotation.Transactional;
 public class ValidationResultStoreImpl implements ValidationResultStore {
 
   private final ValidationResultRepository repository;
-  private final GraphStore graphStore;
   private final ValidationResultGraphWriter graphWriter;
   private final ValidationResultHasher hasher;
+  private final ValidationResultGraphSync graphSync;
 
   /**
    * {@inheritDoc}
    *
-   * <p>Persists the result to the relational DB (with tamper-proof hash), then attempts a
-   * graph DB write (best-effort). The DB row is the source of truth; a failed graph
-   * write marks the row {@code FAILED} and is not retried.</p>
+   * <p>Persists the result to the relational DB (with tamper-proof hash) as {@code PENDING} and
+   * queues the graph DB write for after the commit. The DB row is the source of truth; a failed
+   * graph write marks the row {@code FAILED}. If an identical current result exists, only its
+   * {@code validatedAt} is updated and its ID is returned.</p>
    */
   @Override
   @Transactional
   public Long store(ValidationResultRecord record) {
     ValidationResult entity = buildEntity(record);
     entity.setContentHash(hasher.hash(entity));
-    ValidationResult saved = repository.save(entity);
-    log.debug("store; saved ValidationResult id={}, conforms={}", saved.getId(), saved.isConforms());
-
-    // Note: the graph write happens while the @Transactional method is still open.
-    // The DB transaction commits when store() returns. Best-effort: graph write failure marks row FAILED; no retry.
-    tryWriteToGraph(saved);
-
-    return saved.getId();
+    entity.setResultHash(hasher.resultHash(entity));
+    StoredResult stored = repository.insertOrTouch(entity.getAssetIds(), entity.getValidatorIds(),
+        entity.getValidatorType().name(), entity.isConforms(), entity.getValidatedAt(), entity.getReport(),
+        entity.getContentHash(), entity.getResultHash());
+    if (Boolean.TRUE.equals(stored.getInserted())) {
+      log.debug("store; saved ValidationResult id={}, conforms={}", stored.getId(), entity.isConforms());
+      graphSync.write(stored.getId());
+    } else if (GraphSyncStatus.PENDING.name().equals(stored.getGraphSyncStatus())) {
+      log.debug("store; identical ValidationResult id={} not in the graph yet, queueing its write", stored.getId());
+      graphSync.write(stored.getId());
+    } else {
+      log.debug("store; identical ValidationResult id={} revalidated at {}", stored.getId(), entity.getValidatedAt());
+    }
+    return stored.getId();
   }
 
   @Override
@@ -79,15 +91,9 @@ public class ValidationResultStoreImpl implements ValidationResultStore {
   public void deleteByAssetId(String assetId) {
     List<ValidationResult> results = repository.findAllByAssetId(assetId);
     log.debug("deleteByAssetId; found {} results for assetId={}", results.size(), assetId);
-    for (ValidationResult result : results) {
-      String iri = graphWriter.resultIri(result.getId());
-      try {
-        graphStore.deleteValidationResultClaims(iri);
-      } catch (Exception e) {
-        log.warn("deleteByAssetId; graph cleanup failed for result id={}: {}", result.getId(), e.getMessage());
-      }
-    }
     repository.deleteAllByAssetId(assetId);
+    // the graph claims of all results go in one call, once the deletion has committed
+    graphSync.delete(results.stream().map(result -> graphWriter.resultIri(result.getId())).toList());
     log.debug("deleteByAssetId; deleted {} DB rows for assetId={}", results.size(), assetId);
   }
 
@@ -122,17 +128,4 @@ public class ValidationResultStoreImpl implements ValidationResultStore {
     entity.setReport(record.report());
     return entity;
   }
-
-  private void tryWriteToGraph(ValidationResult saved) {
-    try {
-      graphWriter.write(saved, graphStore);
-      saved.setGraphSyncStatus(GraphSyncStatus.SYNCED);
-      repository.save(saved);
-    } catch (Exception e) {
-      log.error("store; graph DB write failed for result id={}, marking FAILED (no retry)",
-          saved.getId(), e);
-      saved.setGraphSyncStatus(GraphSyncStatus.FAILED);
-      repository.save(saved);
-    }
-  }
 }
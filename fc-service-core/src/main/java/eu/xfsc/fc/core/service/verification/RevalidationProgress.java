@@ -0,0 +1,213 @@
+package eu.xfsc.fc.core.service.verification;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Tracks the progress of the revalidation run of this instance.
+ *
+ * <p>A run starts with the first chunk claimed and completes when no chunk is due anymore. Chunks
+ * stopped by a restart, a shutdown or an error are counted as aborted, not as done; they stay due
+ * and are revalidated again. The estimated time to completion assumes that this instance
+ * revalidates the remaining due chunks at the mean chunk duration seen so far, so it is an upper
+ * bound when several instances share the work.</p>
+ */
+@Getter
+public class RevalidationProgress {
+  private final long startTimeMs;
+  private final int workerCount;
+  @Getter(AccessLevel.NONE)
+  private final AtomicLong processed = new AtomicLong(0);
+  @Getter(AccessLevel.NONE)
+  private final AtomicLong revoked = new AtomicLong(0);
+  @Getter(AccessLevel.NONE)
+  private final AtomicLong errors = new AtomicLong(0);
+  @Getter(AccessLevel.NONE)
+  private final AtomicLong assetNanos = new AtomicLong(0);
+  @Getter(AccessLevel.NONE)
+  private final AtomicInteger busyWorkers = new AtomicInteger(0);
+  private volatile int chunksDone;
+  private volatile int chunksAborted;
+  private volatile long chunkNanos;
+  private volatile int currentChunk = -1;
+  private volatile int remainingChunks = -1;
+  private volatile boolean complete;
+  @Getter(AccessLevel.NONE)
+  private volatile boolean idle;
+
+  /**
+   * Creates a new progress tracker for a run using the given number of workers.
+   *
+   * @param workerCount the maximum number of assets revalidated in parallel
+   */
+  public RevalidationProgress(int workerCount) {
+    this.workerCount = workerCount;
+    this.startTimeMs = System.currentTimeMillis();
+  }
+
+  /**
+   * Creates an idle progress indicating no revalidation is in progress.
+   *
+   * @return an idle RevalidationProgress
+   */
+  public static RevalidationProgress idle() {
+    RevalidationProgress idle = new RevalidationProgress(0);
+    idle.idle = true;
+    idle.complete = true;
+    idle.remainingChunks = 0;
+    return idle;
+  }
+
+  /**
+   * Records the start of the revalidation of a chunk.
+   *
+   * @param chunkId the id of the chunk
+   */
+  void startChunk(int chunkId) {
+    currentChunk = chunkId;
+  }
+
+  /**
+   * Records the end of the revalidation of the current chunk.
+   *
+   * @param nanos the time spent on the chunk
+   * @param remaining the number of chunks still due, across all instances
+   */
+  void finishChunk(long nanos, int remaining) {
+    chunkNanos += nanos;
+    chunksDone++;
+    currentChunk = -1;
+    remainingChunks = remaining;
+  }
+
+  /**
+   * Records that the revalidation of the current chunk stopped before all its assets were done.
+   */
+  void abortChunk() {
+    chunksAborted++;
+    currentChunk = -1;
+  }
+
+  /**
+   * Records the start of the revalidation of an asset.
+   */
+  void startAsset() {
+    busyWorkers.incrementAndGet();
+  }
+
+  /**
+   * Records the end of the revalidation of an asset.
+   *
+   * @param nanos the time spent on the asset
+   * @param wasRevoked whether the asset was revoked
+   * @param failed whether the asset could not be revalidated
+   */
+  void finishAsset(long nanos, boolean wasRevoked, boolean failed) {
+    busyWorkers.decrementAndGet();
+    assetNanos.addAndGet(nanos);
+    processed.incrementAndGet();
+    if (wasRevoked) {
+      revoked.incrementAndGet();
+    }
+    if (failed) {
+      errors.incrementAndGet();
+    }
+  }
+
+  /**
+   * Marks the run as complete.
+   */
+  void markComplete() {
+    this.complete = true;
+    this.remainingChunks = 0;
+  }
+
+  public long getProcessedCount() {
+    return processed.get();
+  }
+
+  public long getRevokedCount() {
+    return revoked.get();
+  }
+
+  public long getErrorCount() {
+    return errors.get();
+  }
+
+  /**
+   * Returns the number of assets being revalidated right now.
+   *
+   * @return the busy worker count
+   */
+  public int getBusyWorkers() {
+    return busyWorkers.get();
+  }
+
+  /**
+   * Returns the elapsed duration in milliseconds since the run started.
+   *
+   * @return duration in milliseconds, 0 when no run was started
+   */
+  public long getDurationMs() {
+    return idle ? 0 : System.currentTimeMillis() - startTimeMs;
+  }
+
+  /**
+   * Returns the number of assets revalidated per second since the run started.
+   *
+   * @return the throughput of this instance
+   */
+  public double getAssetsPerSecond() {
+    long duration = getDurationMs();
+    return duration == 0 ? 0 : processed.get() * 1000.0 / duration;
+  }
+
+  /**
+   * Returns the number of assets a single worker revalidates per second, while it is busy.
+   *
+   * @return the throughput of one worker
+   */
+  public double getAssetsPerSecondPerWorker() {
+    long nanos = assetNanos.get();
+    return nanos == 0 ? 0 : processed.get() * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+  }
+
+  /**
+   * Returns the mean time to revalidate one asset.
+   *
+   * @return the mean duration in milliseconds, 0 before the first asset
+   */
+  public double getMeanAssetMs() {
+    long count = processed.get();
+    return count == 0 ? 0 : assetNanos.get() / 1_000_000.0 / count;
+  }
+
+  /**
+   * Returns the mean time to revalidate one chunk.
+   *
+   * @return the mean duration in milliseconds, 0 before the first chunk
+   */
+  public double getMeanChunkMs() {
+    int count = chunksDone;
+    return count == 0 ? 0 : chunkNanos / 1_000_000.0 / count;
+  }
+
+  /**
+   * Returns the estimated time until no chunk is due anymore.
+   *
+   * @return the estimate in milliseconds, or -1 as long as no chunk has been completed
+   */
+  public long getEtaMs() {
+    if (complete) {
+      return 0;
+    }
+    if (chunksDone == 0 || remainingChunks < 0) {
+      return -1;
+    }
+    return (long) (remainingChunks * getMeanChunkMs());
+  }
+}
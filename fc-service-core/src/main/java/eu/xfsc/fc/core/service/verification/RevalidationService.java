@@ -24,6 +24,13 @@ public interface RevalidationService {
    */
   boolean isWorking();
 
+  /**
+   * Returns the progress of the current, or else the last, revalidation run of this instance.
+   *
+   * @return the progress, idle if no run has started yet
+   */
+  RevalidationProgress getProgress();
+
   /**
    * Clean up the revalidationService. If there are running tasks they will
    * complete, but any queued tasks will not.
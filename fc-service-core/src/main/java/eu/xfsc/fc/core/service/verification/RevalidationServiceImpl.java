@@ -1,17 +1,24 @@
 package eu.xfsc.fc.core.service.verification;
 
 import eu.xfsc.fc.api.generated.model.AssetStatus;
+import eu.xfsc.fc.core.dao.revalidator.RevalidationRun;
+import eu.xfsc.fc.core.dao.revalidator.RevalidatorChunkClaim;
 import eu.xfsc.fc.core.dao.revalidator.RevalidatorChunksDao;
 import eu.xfsc.fc.core.exception.VerificationException;
 import eu.xfsc.fc.core.pojo.ContentAccessor;
+import eu.xfsc.fc.core.service.bulkhead.BulkheadRegistry;
+import eu.xfsc.fc.core.service.bulkhead.BulkheadType;
 import eu.xfsc.fc.core.service.schemastore.SchemaStore;
 import eu.xfsc.fc.core.service.assetstore.AssetStore;
-import eu.xfsc.fc.core.util.ProcessorUtils;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.extern.slf4j.Slf4j;
@@ -19,16 +26,35 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 
 /**
- * Revalidates all active assets against the composite schema.
+ * Revalidates active assets against the composite schema.
+ *
+ * <p>The assets are split into chunks by their hash. Each instance leases due chunks one at a
+ * time with {@link RevalidatorChunksDao#claimChunkForWork}, which skips chunks leased by other
+ * instances, so any number of running instances share the work without coordination. Configure
+ * more chunks than instances to let added instances speed up revalidation.</p>
+ *
+ * <p>The assets of a leased chunk are revalidated in batches of {@code batch-size} hashes on
+ * virtual threads, at most {@code worker-count} at a time. After each batch the last hash is
+ * recorded and the lease renewed; a chunk is marked as revalidated only when its last batch is
+ * done. When an instance stops, its lease expires after {@code lease-time} and another instance
+ * continues the chunk after the last recorded hash, so at most one batch is revalidated twice.</p>
+ *
+ * <p>When shapes changed since a chunk was last revalidated, only the assets describing
+ * instances of the classes targeted by the changed shapes are revalidated. All assets of the
+ * chunk are revalidated after a restart, or when the affected classes are not known.</p>
  */
 @Slf4j
 public class RevalidationServiceImpl implements RevalidationService {
 
   private static final String REVALIDATOR_THREAD_NAME = "revalidator";
   private static final String MANAGER_THREAD_NAME = "revalidationManager";
+  /**
+   * The time chunks are reset to by {@link RevalidatorChunksDao#resetChunkTableTimes()}.
+   */
+  private static final Instant RESET_TIME = Instant.parse("2000-01-01T00:00:00Z");
 
   /**
-   * The number of worker threads to use for revalidating assets.
+   * The maximum number of assets to revalidate in parallel.
    */
   @Value("${federated-catalogue.revalidation-service.worker-count:5}")
   private int workerCount;
@@ -45,12 +71,30 @@ public class RevalidationServiceImpl implements RevalidationService {
   @Value("${federated-catalogue.revalidation-service.sleeptime:1000}")
   private int managerSleepTime;
 
+  /**
+   * The time a chunk stays leased without progress, must exceed the time to revalidate a batch.
+   */
+  @Value("${federated-catalogue.revalidation-service.lease-time:PT5M}")
+  private Duration leaseTime;
+
+  /**
+   * The number of chunks to split the assets into, the instance count if not set.
+   */
+  @Value("${federated-catalogue.revalidation-service.chunk-count:0}")
+  private int chunkCount;
+
   /**
    * The total number of parallel instances of the catalogue that are running.
    */
   @Value("${federated-catalogue.instance-count:3}")
   private int instanceCount;
 
+  /**
+   * The name of this instance in the revalidation run records.
+   */
+  @Value("${federated-catalogue.revalidation-service.instance-name:${HOSTNAME:localhost}}")
+  private String instanceName;
+
   @Autowired
   private RevalidatorChunksDao dao;
 
@@ -60,14 +104,28 @@ public class RevalidationServiceImpl implements RevalidationService {
   @Autowired
   private SchemaValidationService schemaValidationService;
 
-  private BlockingQueue<String> taskQueue;
-  private ExecutorService executorService;
+  @Autowired
+  private SchemaStore schemaStore;
+
+  @Autowired
+  private BulkheadRegistry bulkheads;
+
   private Thread managementThread;
+  /**
+   * Released by requesters to wake up the manager.
+   */
+  private final Semaphore wakeUp = new Semaphore(0);
 
+  private volatile RevalidationProgress progress = RevalidationProgress.idle();
   /**
-   * Set to true by requesters, set to false by the manager when done processing.
+   * The record of the current run, null when no run is in progress.
    */
-  private int workingOnChunk = -1;
+  private RevalidationRun run;
+
+  /**
+   * The chunk the manager is working on, -1 when idle.
+   */
+  private volatile int workingOnChunk = -1;
   /**
    * Set to true by requesters, set to false by the manager when the precessing is restarted.
    */
@@ -85,6 +143,10 @@ public class RevalidationServiceImpl implements RevalidationService {
     this.instanceCount = instanceCount;
   }
 
+  public void setChunkCount(int chunkCount) {
+    this.chunkCount = chunkCount;
+  }
+
   public void setWorkerCount(int workerCount) {
     this.workerCount = workerCount;
   }
@@ -93,74 +155,167 @@ public class RevalidationServiceImpl implements RevalidationService {
     this.batchSize = batchSize;
   }
 
-  private void handleTask(final String assetHash) {
+  private int getChunks() {
+    return chunkCount > 0 ? chunkCount : instanceCount;
+  }
+
+  /**
+   * Revalidates an asset, revoking it when it no longer conforms.
+   *
+   * @return true if the asset was revoked
+   */
+  private boolean revalidate(final String assetHash) {
     ContentAccessor content = assetStorePublisher.getFileByHash(assetHash);
     try {
       schemaValidationService.validateCredentialAgainstCompositeSchema(content);
+      return false;
     } catch (VerificationException ex) {
       log.info("Asset {} is no longer valid", assetHash);
       assetStorePublisher.changeLifeCycleStatus(assetHash, AssetStatus.REVOKED);
-    }
-    final var finalTaskQueue = taskQueue;
-    if (finalTaskQueue != null && finalTaskQueue.size() < 0.5 * batchSize) {
-      notifyManager();
+      return true;
     }
   }
 
   private void manage() {
     log.info("Revalidation manager starting.");
-    String lastHash = null;
-    boolean sleepAfter = true;
     while (!shutdown.get()) {
-      if (restart.get()) {
+      if (restart.getAndSet(false)) {
         log.info("Processing revalidation restart.");
-        restart.set(false);
-        workingOnChunk = -1;
-        taskQueue.clear();
       }
-      if (workingOnChunk < 0) {
-        workingOnChunk = dao.findChunkForWork(SchemaStore.SchemaType.SHAPE.name());
-      }
-      if (workingOnChunk >= 0) {
-        if (taskQueue.size() < 0.5 * batchSize) {
-          // Fetch more hashes.
-          List<String> activeAssetHashes = assetStorePublisher.getActiveAssetHashes(lastHash, batchSize, instanceCount, workingOnChunk);
-          if (activeAssetHashes.isEmpty()) {
-            log.info("Finished revalidating.");
-            workingOnChunk = -1;
-            lastHash = null;
+      RevalidatorChunkClaim claim = dao.claimChunkForWork(SchemaStore.SchemaType.SHAPE.name(), leaseTime);
+      if (claim != null) {
+        if (run == null) {
+          startRun();
+        }
+        workingOnChunk = claim.chunkId();
+        progress.startChunk(claim.chunkId());
+        long start = System.nanoTime();
+        try {
+          Set<String> targetClasses = claim.lastCheck().isAfter(RESET_TIME) ? schemaStore.getChangedTargetClasses(claim.lastCheck()) : null;
+          log.info("Revalidating chunk {} for {}.", workingOnChunk, targetClasses == null ? "all assets" : "types " + targetClasses);
+          if (revalidateChunk(claim, targetClasses) && dao.finishChunk(claim)) {
+            progress.finishChunk(System.nanoTime() - start, dao.countDueChunks(SchemaStore.SchemaType.SHAPE.name()));
+            saveRun(null);
           } else {
-            taskQueue.addAll(activeAssetHashes);
-            lastHash = activeAssetHashes.get(activeAssetHashes.size() - 1);
-            log.debug("Added {} hashes for chunk {} of {}. Queue now: {}", activeAssetHashes.size(), workingOnChunk, instanceCount, taskQueue.size());
+            abortChunk(claim);
           }
+        } catch (InterruptedException ex) {
+          log.warn("Revalidation manager was interrupted.");
+          abortChunk(claim);
+          Thread.currentThread().interrupt();
+          break;
+        } catch (RuntimeException ex) {
+          log.error("Revalidation of chunk {} failed.", claim.chunkId(), ex);
+          abortChunk(claim);
+        } finally {
+          workingOnChunk = -1;
         }
+        // look for the next due chunk right away
+        continue;
       }
-      if (sleepAfter && managerSleepTime > 0) {
-        synchronized (managementThread) {
-          try {
-            managementThread.wait(managerSleepTime);
-          } catch (InterruptedException ex) {
-            log.warn("Revalidation manager was interrupted.");
-          }
+      if (run != null) {
+        finishRun();
+      }
+      if (managerSleepTime > 0) {
+        try {
+          wakeUp.tryAcquire(managerSleepTime, TimeUnit.MILLISECONDS);
+          wakeUp.drainPermits();
+        } catch (InterruptedException ex) {
+          log.warn("Revalidation manager was interrupted.");
+          Thread.currentThread().interrupt();
+          break;
         }
       }
     }
     log.info("Revalidation manager exiting.");
   }
 
+  /**
+   * Releases the lease of a chunk that was not finished, so that any instance can continue it.
+   */
+  private void abortChunk(RevalidatorChunkClaim claim) {
+    progress.abortChunk();
+    try {
+      dao.releaseChunk(claim);
+    } catch (RuntimeException ex) {
+      log.warn("Cannot release chunk {}, it is continued when its lease expires: {}", claim.chunkId(), ex.getMessage());
+    }
+  }
+
+  /**
+   * Revalidates the assets of a chunk after its resume hash, returns when all of them are
+   * revalidated, when the processing is restarted or shut down or when the lease is lost.
+   *
+   * @return true if all assets of the chunk were revalidated
+   */
+  private boolean revalidateChunk(RevalidatorChunkClaim claim, Set<String> targetClasses) throws InterruptedException {
+    if (targetClasses != null && targetClasses.isEmpty()) {
+      return true;
+    }
+    int chunkId = claim.chunkId();
+    int chunks = getChunks();
+    int permits = Math.max(1, workerCount);
+    Semaphore workers = new Semaphore(permits);
+    ThreadFactory factory = Thread.ofVirtual().name(REVALIDATOR_THREAD_NAME + "-" + chunkId + "-", 0).factory();
+    // closing the executor waits for the assets still being revalidated
+    try (ExecutorService executor = Executors.newThreadPerTaskExecutor(factory)) {
+      String lastHash = claim.resumeHash();
+      int count = 0;
+      while (!shutdown.get() && !restart.get()) {
+        List<String> hashes = targetClasses == null
+            ? assetStorePublisher.getActiveAssetHashes(lastHash, batchSize, chunks, chunkId)
+            : assetStorePublisher.getActiveAssetHashesOfTypes(lastHash, batchSize, chunks, chunkId, targetClasses);
+        if (hashes.isEmpty()) {
+          log.info("Finished revalidating chunk {}, assets: {}.", chunkId, count);
+          return true;
+        }
+        for (String hash : hashes) {
+          workers.acquire();
+          executor.execute(() -> {
+            progress.startAsset();
+            long start = System.nanoTime();
+            boolean revoked = false;
+            boolean failed = false;
+            try {
+              revoked = bulkheads.get(BulkheadType.ADMIN).callBlocking(() -> revalidate(hash));
+            } catch (RuntimeException ex) {
+              log.warn("Revalidation of asset {} failed: {}", hash, ex.getMessage());
+              failed = true;
+            } finally {
+              progress.finishAsset(System.nanoTime() - start, revoked, failed);
+              workers.release();
+            }
+          });
+        }
+        // the batch is recorded once all its assets are done
+        workers.acquire(permits);
+        workers.release(permits);
+        lastHash = hashes.get(hashes.size() - 1);
+        count += hashes.size();
+        log.debug("Revalidated {} hashes of chunk {} of {}.", count, chunkId, chunks);
+        if (!dao.recordChunkProgress(claim, lastHash, leaseTime)) {
+          log.warn("Lost the lease of chunk {} after {} assets.", chunkId, count);
+          return false;
+        }
+      }
+      log.info("Stopped revalidating chunk {} after {} assets.", chunkId, count);
+    }
+    return false;
+  }
+
   /**
    * Starts the revalidation process when it is not started yet, restarts the process when it is already running. It
    * does this by resetting the times on the chunk table to 2000-01-01T00:00:00Z
    */
   @Override
   public void startValidating() {
-    if (taskQueue == null) {
+    if (managementThread == null) {
       setup();
     }
     log.debug("Sending Start signal to revalidation manager.");
-    dao.resetChunkTableTimes();
+    // stop the current chunk first, the reset makes it due again
     restart.set(true);
+    dao.resetChunkTableTimes();
     notifyManager();
   }
 
@@ -169,34 +324,69 @@ public class RevalidationServiceImpl implements RevalidationService {
     return workingOnChunk >= 0;
   }
 
-  private void notifyManager() {
-    final Thread localManagementThread = managementThread;
-    if (localManagementThread == null) {
-      return;
-    }
-    synchronized (localManagementThread) {
-      managementThread.notify();
+  @Override
+  public RevalidationProgress getProgress() {
+    return progress;
+  }
+
+  private void startRun() {
+    progress = new RevalidationProgress(workerCount);
+    run = new RevalidationRun();
+    run.setInstance(instanceName);
+    run.setStartedAt(Instant.ofEpochMilli(progress.getStartTimeMs()));
+    saveRun(null);
+    log.info("Revalidation run {} started.", run.getId());
+  }
+
+  private void finishRun() {
+    progress.markComplete();
+    saveRun(Instant.now());
+    log.info("Revalidation run {} finished; assets: {}, revoked: {}, errors: {}, duration: {}ms.", run.getId(),
+        progress.getProcessedCount(), progress.getRevokedCount(), progress.getErrorCount(), progress.getDurationMs());
+    run = null;
+  }
+
+  /**
+   * Persists the counts of the current run, so that they survive a restart of the instance.
+   */
+  private void saveRun(Instant finishedAt) {
+    run.setChunks(progress.getChunksDone());
+    run.setProcessed(progress.getProcessedCount());
+    run.setRevoked(progress.getRevokedCount());
+    run.setErrors(progress.getErrorCount());
+    run.setFinishedAt(finishedAt);
+    try {
+      run = dao.saveRun(run);
+    } catch (RuntimeException ex) {
+      log.warn("Cannot save revalidation run: {}", ex.getMessage());
     }
   }
 
+  private void notifyManager() {
+    wakeUp.release();
+  }
+
   /**
    * Sets up the RevalidationService so it is ready for work. This does not actually start the revalidation process yet.
    */
   @Override
   public synchronized void setup() {
     shutdown.set(false);
-    if (taskQueue != null) {
+    if (managementThread != null) {
       return;
     }
-    dao.checkChunkTable(instanceCount);
-    taskQueue = new ArrayBlockingQueue<>(batchSize * 2);
-    executorService = ProcessorUtils.createProcessors(workerCount, taskQueue, this::handleTask, REVALIDATOR_THREAD_NAME);
-    managementThread = new Thread(this::manage, MANAGER_THREAD_NAME);
-    managementThread.start();
+    dao.checkChunkTable(getChunks());
+    // runs left open by an earlier process of this instance ended when it stopped
+    int closed = dao.closeOpenRuns(instanceName);
+    if (closed > 0) {
+      log.info("Closed {} revalidation runs left open by a previous start of {}.", closed, instanceName);
+    }
+    managementThread = Thread.ofVirtual().name(MANAGER_THREAD_NAME).start(this::manage);
   }
 
   /**
-   * Clean up the revalidationService. If there are running tasks they will complete, but any queued tasks will not.
+   * Clean up the revalidationService. Running revalidations of assets complete, but the remaining assets of the
+   * current chunk are not revalidated.
    */
   @Override
   public synchronized void cleanup() {
@@ -205,9 +395,13 @@ public class RevalidationServiceImpl implements RevalidationService {
       return;
     }
     notifyManager();
-    ProcessorUtils.shutdownProcessors(executorService, taskQueue, 10, TimeUnit.SECONDS);
-    taskQueue = null;
-    executorService = null;
+    try {
+      if (!managementThread.join(Duration.ofSeconds(10))) {
+        log.warn("Revalidation manager did not stop in time.");
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
     managementThread = null;
   }
 
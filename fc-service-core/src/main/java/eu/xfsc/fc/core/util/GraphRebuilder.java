@@ -7,12 +7,17 @@ import eu.xfsc.fc.core.pojo.AssetMetadata;
 import eu.xfsc.fc.core.pojo.RdfClaim;
 import eu.xfsc.fc.core.service.graphdb.GraphStore;
 import eu.xfsc.fc.core.service.assetstore.AssetStore;
+import eu.xfsc.fc.core.service.bulkhead.Bulkhead;
+import eu.xfsc.fc.core.service.bulkhead.BulkheadRegistry;
+import eu.xfsc.fc.core.service.bulkhead.BulkheadType;
 import eu.xfsc.fc.core.service.validation.ValidationResultStore;
 import eu.xfsc.fc.core.service.verification.ProtectedNamespaceFilter;
 import eu.xfsc.fc.core.service.verification.VerificationConstants;
 import eu.xfsc.fc.core.service.verification.claims.ClaimExtractionService;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
@@ -39,12 +44,18 @@ public class GraphRebuilder {
    */
   private static final int QUEUE_CLEAR_WAIT_INTERVAL = 100;
 
+  /**
+   * The number of assets whose claims are handed to the graph store in one write.
+   */
+  private static final int GRAPH_WRITE_BATCH_SIZE = 20;
+
   private final AssetStore assetStore;
   private final GraphStore graphStore;
     private final ClaimExtractionService claimExtractionService;
   private final ProtectedNamespaceFilter protectedNamespaceFilter;
   private final AssetRepository assetRepository;
   private final ValidationResultStore validationResultStore;
+  private final BulkheadRegistry bulkheads;
 
   /**
    * Starts rebuilding the graphDb, blocking until finished or interrupted.
@@ -72,20 +83,15 @@ public class GraphRebuilder {
    */
   public void rebuildGraphDb(int chunkCount, int chunkId, int threads, int batchSize,
                              BiConsumer<Integer, Exception> progressCallback) {
-    BlockingQueue<String> taskQueue = new ArrayBlockingQueue<>(batchSize);
+    BlockingQueue<List<String>> taskQueue = new ArrayBlockingQueue<>(batchSize);
     AtomicInteger pendingTasks = new AtomicInteger(0);
-    ExecutorService executorService = ProcessorUtils.createProcessors(threads, taskQueue, hash -> {
-      Exception caught = null;
+    Bulkhead bulkhead = bulkheads.get(BulkheadType.ADMIN);
+    ExecutorService executorService = ProcessorUtils.createProcessors(threads, taskQueue, hashes -> {
       try {
-        addAssetToGraph(hash);
-      } catch (Exception e) {
-        log.error("Failed to add asset {} to graph", hash, e);
-        caught = e;
+        // shares the admin slots with revalidation, so a rebuild cannot starve interactive work
+        bulkhead.runBlocking(() -> addAssetsToGraph(hashes, progressCallback));
       } finally {
         pendingTasks.decrementAndGet();
-        if (progressCallback != null) {
-          progressCallback.accept(1, caught);
-        }
       }
     }, "GraphRebuilder");
 
@@ -97,15 +103,17 @@ public class GraphRebuilder {
       log.info("Rebuilding GraphDB: Fetched {} Hashes", lastCount);
       if (lastCount > 0) {
         lastHash = activeAssetHashes.getLast();
-        for (String hash : activeAssetHashes) {
+        for (int i = 0; i < lastCount; i += GRAPH_WRITE_BATCH_SIZE) {
+          List<String> hashes = List.copyOf(activeAssetHashes.subList(i, Math.min(i + GRAPH_WRITE_BATCH_SIZE, lastCount)));
           try {
             pendingTasks.incrementAndGet();
-            taskQueue.put(hash);
+            taskQueue.put(hashes);
           } catch (InterruptedException ex) {
             log.warn("Interrupted while rebuilding the GraphDB, aborting.");
             lastCount = 0;
             taskQueue.clear();
             pendingTasks.decrementAndGet();
+            break;
           }
         }
       }
@@ -157,14 +165,54 @@ public class GraphRebuilder {
     }
   }
 
-    private void addAssetToGraph(String hash) throws Exception {
-    AssetMetadata assetMetaData = assetStore.getByHash(hash);
-    if (assetMetaData.getContentAccessor() == null) {
+  /**
+   * Extracts the claims of the given assets and writes them to the graph store in one batch.
+   * If the batch write fails, the assets are retried one by one so that a single broken asset
+   * does not fail the whole batch.
+   */
+  private void addAssetsToGraph(List<String> hashes, BiConsumer<Integer, Exception> progressCallback) {
+    Map<String, List<RdfClaim>> claimsBySubject = new LinkedHashMap<>();
+    for (String hash : hashes) {
+      try {
+        AssetMetadata assetMetaData = assetStore.getByHash(hash);
+        if (assetMetaData.getContentAccessor() == null) {
+          reportProgress(progressCallback, null);
+          continue;
+        }
+        List<RdfClaim> claims = extractClaims(assetMetaData);
+        claims = protectedNamespaceFilter.filterClaims(claims, "graph rebuild").claims();
+        claimsBySubject.put(assetMetaData.getId(), claims);
+      } catch (Exception e) {
+        log.error("Failed to add asset {} to graph", hash, e);
+        reportProgress(progressCallback, e);
+      }
+    }
+    if (claimsBySubject.isEmpty()) {
       return;
     }
-        List<RdfClaim> claims = extractClaims(assetMetaData);
-    claims = protectedNamespaceFilter.filterClaims(claims, "graph rebuild").claims();
-    graphStore.addClaims(claims, assetMetaData.getId());
+    try {
+      graphStore.addClaimsBatch(claimsBySubject);
+      claimsBySubject.keySet().forEach(id -> reportProgress(progressCallback, null));
+    } catch (Exception batchError) {
+      log.warn("Batch graph write of {} assets failed, retrying one by one: {}",
+          claimsBySubject.size(), batchError.getMessage());
+      claimsBySubject.forEach((id, claims) -> {
+        Exception caught = null;
+        try {
+          graphStore.addClaims(claims, id);
+        } catch (Exception e) {
+          log.error("Failed to add asset {} to graph", id, e);
+          caught = e;
+        }
+        reportProgress(progressCallback, caught);
+      });
+    }
+  }
+
+  private static void reportProgress(BiConsumer<Integer, Exception> progressCallback, Exception error) {
+    if (progressCallback != null) {
+      progressCallback.accept(1, error);
+    }
   }
 
     private List<RdfClaim> extractClaims(AssetMetadata assetMetaData) throws Exception {
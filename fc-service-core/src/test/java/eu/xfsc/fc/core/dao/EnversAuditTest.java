@@ -3,6 +3,7 @@ package eu.xfsc.fc.core.dao;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.Instant;
@@ -407,6 +408,55 @@ class EnversAuditTest {
     assertTrue(revisionTimestamp.isAfter(Instant.now().minusSeconds(60)));
   }
 
+  // ===== Version index tests =====
+
+  @Test
+  void selectVersions_readsVersionIndexNewestFirstWithoutContent() {
+    transactionTemplate.executeWithoutResult(status ->
+        assetDao.insert(buildAssetRecord("hash-idx-1", "sub/idx", "iss/idx",
+            List.of("did:val:1")))
+    );
+    transactionTemplate.executeWithoutResult(status ->
+        assetDao.insert(buildAssetRecord("hash-idx-2", "sub/idx", "iss/idx",
+            List.of("did:val:1")))
+    );
+
+    List<AssetRecord> versions = transactionTemplate.execute(status -> assetDao.selectVersions("sub/idx"));
+
+    assertNotNull(versions);
+    assertEquals(2, versions.size());
+    assertEquals(2, versions.get(0).getVersion());
+    assertEquals("hash-idx-2", versions.get(0).getAssetHash());
+    assertEquals(AssetStatus.ACTIVE, versions.get(0).getStatus());
+    assertTrue(versions.get(0).getIsCurrent());
+    assertEquals(1, versions.get(1).getVersion());
+    assertEquals("hash-idx-1", versions.get(1).getAssetHash());
+    assertEquals(AssetStatus.DEPRECATED, versions.get(1).getStatus());
+    assertFalse(versions.get(1).getIsCurrent());
+    assertNull(versions.get(1).getContent());
+    assertEquals(2, transactionTemplate.execute(status -> assetDao.getVersionCount("sub/idx")));
+  }
+
+  @Test
+  void selectVersion_loadsContentOfSelectedVersion() {
+    transactionTemplate.executeWithoutResult(status ->
+        assetDao.insert(buildAssetRecord("hash-sel-1", "sub/sel", "iss/sel",
+            List.of("did:val:1")))
+    );
+    transactionTemplate.executeWithoutResult(status ->
+        assetDao.update("hash-sel-1", AssetStatus.REVOKED.ordinal())
+    );
+
+    AssetRecord first = transactionTemplate.execute(status -> assetDao.selectVersion("sub/sel", 1).orElseThrow());
+    AssetRecord second = transactionTemplate.execute(status -> assetDao.selectVersion("sub/sel", 2).orElseThrow());
+
+    assertEquals("content-hash-sel-1", first.getContent().getContentAsString());
+    assertEquals(AssetStatus.DEPRECATED, first.getStatus());
+    assertEquals(AssetStatus.REVOKED, second.getStatus());
+    assertTrue(second.getIsCurrent());
+    assertTrue(transactionTemplate.execute(status -> assetDao.selectVersion("sub/sel", 3)).isEmpty());
+  }
+
   // ===== Known gap documentation test =====
 
   @Test
@@ -0,0 +1,128 @@
+package eu.xfsc.fc.core.dao.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import eu.xfsc.fc.core.dao.impl.KeycloakCache.Region;
+
+class KeycloakCacheTest {
+
+  private final KeycloakCache cache = new KeycloakCache(Duration.ofMinutes(1), 100);
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @Test
+  void get_sameArguments_loadsOnce() {
+    assertEquals("user-1", cache.get(Region.USER, () -> load("user-1"), "id-1"));
+    assertEquals("user-1", cache.get(Region.USER, () -> load("other"), "id-1"));
+    assertEquals("page", cache.get(Region.USER_PAGE, () -> load("page"), null, 0, 10));
+    assertEquals("page", cache.get(Region.USER_PAGE, () -> load("other"), null, 0, 10));
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void get_concurrentLookups_shareOneLoad() throws Exception {
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> first = executor.submit(() -> cache.get(Region.PARTICIPANT, () -> {
+        loading.countDown();
+        await(release);
+        return load("participant");
+      }, "p-1"));
+      loading.await(5, TimeUnit.SECONDS);
+      Future<String> second = executor.submit(() -> cache.get(Region.PARTICIPANT, () -> load("other"), "p-1"));
+      release.countDown();
+
+      assertEquals("participant", first.get(5, TimeUnit.SECONDS));
+      assertEquals("participant", second.get(5, TimeUnit.SECONDS));
+      assertEquals(1, loads.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void get_failedOrEmptyLookup_isNotCached() {
+    assertThrows(IllegalStateException.class, () -> cache.get(Region.USER, () -> {
+      throw new IllegalStateException("keycloak unavailable");
+    }, "id-1"));
+    assertNull(cache.get(Region.SESSION, () -> null, "id-1"));
+
+    assertEquals("user-1", cache.get(Region.USER, () -> load("user-1"), "id-1"));
+    assertEquals("session", cache.get(Region.SESSION, () -> load("session"), "id-1"));
+  }
+
+  @Test
+  void invalidate_dropsOnlyTheGivenEntriesAndRegions() {
+    cache.get(Region.USER, () -> load("user-1"), "id-1");
+    cache.get(Region.USER, () -> load("user-2"), "id-2");
+    cache.get(Region.USER_PAGE, () -> load("page"), null, 0, 10);
+    cache.get(Region.CLIENT, () -> load("client"), "catalogue");
+
+    cache.invalidate(Region.USER, "id-1");
+    cache.invalidateAll(Region.USER_PAGE);
+
+    assertEquals("user-1b", cache.get(Region.USER, () -> load("user-1b"), "id-1"));
+    assertEquals("user-2", cache.get(Region.USER, () -> load("other"), "id-2"));
+    assertEquals("page-b", cache.get(Region.USER_PAGE, () -> load("page-b"), null, 0, 10));
+    assertEquals("client", cache.get(Region.CLIENT, () -> load("other"), "catalogue"));
+  }
+
+  @Test
+  void invalidateAll_duringLoad_discardsLoadedValue() throws Exception {
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<String> stale = executor.submit(() -> cache.get(Region.USER_PAGE, () -> {
+        loading.countDown();
+        await(release);
+        return load("stale");
+      }, null, 0, 10));
+      loading.await(5, TimeUnit.SECONDS);
+      cache.invalidateAll(Region.USER_PAGE);
+      release.countDown();
+
+      assertEquals("stale", stale.get(5, TimeUnit.SECONDS));
+      assertEquals("fresh", cache.get(Region.USER_PAGE, () -> load("fresh"), null, 0, 10));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void get_zeroTtl_alwaysLoads() {
+    KeycloakCache disabled = new KeycloakCache(Duration.ZERO, 100);
+
+    disabled.get(Region.USER, () -> load("user-1"), "id-1");
+    disabled.get(Region.USER, () -> load("user-1"), "id-1");
+
+    assertEquals(2, loads.get());
+  }
+
+  private String load(String value) {
+    loads.incrementAndGet();
+    return value;
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
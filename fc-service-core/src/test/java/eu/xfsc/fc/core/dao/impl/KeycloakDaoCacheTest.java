@@ -0,0 +1,174 @@
+package eu.xfsc.fc.core.dao.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.UserResource;
+import org.keycloak.admin.client.resource.UsersResource;
+import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.keycloak.representations.idm.UserSessionRepresentation;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import eu.xfsc.fc.api.generated.model.User;
+import eu.xfsc.fc.core.pojo.ParticipantMetaData;
+
+/**
+ * Tests that the writes of the Keycloak DAOs drop the lookups they affect from the shared
+ * {@link KeycloakCache}.
+ */
+class KeycloakDaoCacheTest {
+
+  private static final String REALM = "gaia-x";
+  private static final String RESOURCE = "federated-catalogue";
+  private static final String CLIENT_ID = "client-id";
+  private static final String USER_ID = "user-id";
+  private static final String PARTICIPANT_ID = "participant";
+  private static final String GROUP_ID = "group-id";
+
+  private RealmResource realm;
+  private UsersResource users;
+  private UserResource userResource;
+  private ParticipantDaoImpl participantDao;
+  private UserDaoImpl userDao;
+  private SessionDaoImpl sessionDao;
+
+  @BeforeEach
+  void setUp() {
+    Keycloak keycloak = mock(Keycloak.class);
+    realm = mock(RealmResource.class, RETURNS_DEEP_STUBS);
+    users = mock(UsersResource.class, RETURNS_DEEP_STUBS);
+    userResource = mock(UserResource.class, RETURNS_DEEP_STUBS);
+    when(keycloak.realm(REALM)).thenReturn(realm);
+    when(realm.users()).thenReturn(users);
+    when(users.get(USER_ID)).thenReturn(userResource);
+
+    ClientRepresentation client = new ClientRepresentation();
+    client.setId(CLIENT_ID);
+    RoleRepresentation role = new RoleRepresentation("Ro-MU-CA", null, false);
+    when(realm.clients().findByClientId(RESOURCE)).thenReturn(List.of(client));
+    when(realm.clients().get(CLIENT_ID).roles().list()).thenReturn(List.of(role));
+    when(userResource.roles().clientLevel(CLIENT_ID).listAll()).thenReturn(List.of(role));
+
+    KeycloakCache cache = new KeycloakCache(Duration.ofMinutes(1), 100);
+    participantDao = new ParticipantDaoImpl();
+    userDao = new UserDaoImpl();
+    sessionDao = new SessionDaoImpl();
+    for (Object dao : List.of(participantDao, userDao, sessionDao)) {
+      ReflectionTestUtils.setField(dao, "realm", REALM);
+      ReflectionTestUtils.setField(dao, "keycloak", keycloak);
+      ReflectionTestUtils.setField(dao, "cache", cache);
+    }
+    ReflectionTestUtils.setField(participantDao, "resourceId", RESOURCE);
+    ReflectionTestUtils.setField(userDao, "resourceId", RESOURCE);
+  }
+
+  @Test
+  void userUpdate_thenSelect_returnsUpdatedUser() {
+    UserRepresentation[] stored = {userRepo("Old")};
+    when(userResource.toRepresentation()).thenAnswer(inv -> stored[0]);
+    doAnswer(inv -> stored[0] = withId(inv.getArgument(0))).when(userResource).update(any());
+    when(userResource.groups()).thenReturn(List.of());
+    when(realm.groups().groups(PARTICIPANT_ID, 0, 1, true)).thenReturn(List.of(group("Participant")));
+    assertEquals("Old", userDao.select(USER_ID).getFirstName());
+
+    userDao.update(USER_ID, user("New"));
+
+    assertEquals("New", userDao.select(USER_ID).getFirstName());
+  }
+
+  @Test
+  void userUpdate_failing_stillDropsCachedUser() {
+    when(userResource.toRepresentation()).thenReturn(userRepo("Old"), userRepo("Old"), userRepo("Changed"));
+    doThrow(new IllegalStateException("keycloak unavailable")).when(userResource).update(any());
+    assertEquals("Old", userDao.select(USER_ID).getFirstName());
+
+    assertThrows(IllegalStateException.class, () -> userDao.update(USER_ID, user("New")));
+
+    assertEquals("Changed", userDao.select(USER_ID).getFirstName());
+  }
+
+  @Test
+  void participantDelete_thenUserSearch_doesNotReturnDeletedMembers() {
+    UserRepresentation member = userRepo("Member");
+    when(users.count()).thenReturn(1, 0);
+    when(users.list(0, 10)).thenReturn(List.of(member), List.of());
+    when(realm.groups().groups(PARTICIPANT_ID, 0, 1, false)).thenReturn(List.of(group("Participant")));
+    when(realm.groups().group(GROUP_ID).members()).thenReturn(List.of(member), List.of());
+    assertEquals(1, userDao.search(null, 0, 10).getTotalCount());
+
+    participantDao.delete(PARTICIPANT_ID);
+
+    assertEquals(0, userDao.search(null, 0, 10).getTotalCount());
+  }
+
+  @Test
+  void participantUpdate_thenSelect_returnsUpdatedParticipant() {
+    when(realm.groups().groups(PARTICIPANT_ID, 0, 1, false))
+        .thenReturn(List.of(group("Old")), List.of(group("New")));
+    when(realm.groups().groups(PARTICIPANT_ID, 0, 1, true)).thenReturn(List.of(group("Old")));
+    assertEquals("Old", participantDao.select(PARTICIPANT_ID).orElseThrow().getName());
+
+    participantDao.update(PARTICIPANT_ID, new ParticipantMetaData(PARTICIPANT_ID, "New", "key", null, "hash"));
+
+    assertEquals("New", participantDao.select(PARTICIPANT_ID).orElseThrow().getName());
+  }
+
+  @Test
+  void sessionDelete_thenSelect_findsNoSession() {
+    UserSessionRepresentation session = new UserSessionRepresentation();
+    session.setUserId(USER_ID);
+    session.setStart(System.currentTimeMillis());
+    when(userResource.getUserSessions()).thenReturn(List.of(session), List.of());
+    when(userResource.roles().getAll().getRealmMappings()).thenReturn(List.of());
+    assertNotNull(sessionDao.select(USER_ID));
+
+    sessionDao.delete(USER_ID);
+
+    assertNull(sessionDao.select(USER_ID));
+  }
+
+  private static User user(String firstName) {
+    User user = new User();
+    user.setParticipantId(PARTICIPANT_ID);
+    user.setFirstName(firstName);
+    user.setLastName("Doe");
+    user.setEmail("john.doe@example.org");
+    user.setRoleIds(List.of("Ro-MU-CA"));
+    return user;
+  }
+
+  private static UserRepresentation userRepo(String firstName) {
+    return withId(UserDaoImpl.toUserRepo(user(firstName)));
+  }
+
+  private static UserRepresentation withId(UserRepresentation userRepo) {
+    userRepo.setId(USER_ID);
+    return userRepo;
+  }
+
+  private static GroupRepresentation group(String name) {
+    GroupRepresentation group = ParticipantDaoImpl.toGroupRepo(
+        new ParticipantMetaData(PARTICIPANT_ID, name, "key", null, "hash"));
+    group.setId(GROUP_ID);
+    return group;
+  }
+}
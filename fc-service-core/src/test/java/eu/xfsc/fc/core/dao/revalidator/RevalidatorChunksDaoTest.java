@@ -1,10 +1,17 @@
 package eu.xfsc.fc.core.dao.revalidator;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +23,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import eu.xfsc.fc.core.config.DatabaseConfig;
 import eu.xfsc.fc.core.security.SecurityAuditorAware;
@@ -41,6 +50,8 @@ class RevalidatorChunksDaoTest {
   static class TestConfig {
   }
 
+  private static final Duration LEASE = Duration.ofMinutes(5);
+
   @Autowired
   private RevalidatorChunksDao revalidatorChunksDao;
 
@@ -50,9 +61,14 @@ class RevalidatorChunksDaoTest {
   @Autowired
   private JdbcTemplate jdbc;
 
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
   @AfterEach
   void cleanUp() {
     jdbc.update("DELETE FROM revalidatorchunks");
+    jdbc.update("DELETE FROM revalidation_runs");
+    jdbc.update("DELETE FROM schema_changes");
     schemaFileRepository.deleteAll();
   }
 
@@ -72,6 +88,14 @@ class RevalidatorChunksDaoTest {
     return schemaFileRepository.saveAndFlush(entity);
   }
 
+  private RevalidatorChunkClaim claim() {
+    return revalidatorChunksDao.claimChunkForWork("SHAPE", LEASE);
+  }
+
+  private void expireLease(int chunkId) {
+    jdbc.update("UPDATE revalidatorchunks SET lease_until = now() - interval '1 second' WHERE chunkid = ?", chunkId);
+  }
+
   private List<Integer> allChunkIds() {
     return jdbc.queryForList("SELECT chunkid FROM revalidatorchunks ORDER BY chunkid", Integer.class);
   }
@@ -83,63 +107,157 @@ class RevalidatorChunksDaoTest {
         chunkId);
   }
 
-  // ===== findChunkForWork =====
+  // ===== claimChunkForWork =====
+
+  @Test
+  void claimChunkForWork_staleChunk_returnsPreviousLastcheck() {
+    Instant oldTime = Instant.parse("2020-01-01T00:00:00Z");
+    insertChunk(3, oldTime);
+    insertSchemaFile("schema-1", SchemaType.SHAPE, Instant.parse("2024-01-01T00:00:00Z"));
+
+    RevalidatorChunkClaim claim = claim();
+
+    assertEquals(3, claim.chunkId());
+    assertEquals(oldTime, claim.lastCheck());
+    assertNotNull(claim.leaseId());
+    assertNull(claim.resumeHash());
+    assertEquals(oldTime, getLastcheck(3), "lastcheck should only change when the chunk is finished");
+  }
+
+  @Test
+  void claimChunkForWork_shapeChangedAfterLastcheck_returnsChunk() {
+    Instant lastcheck = Instant.parse("2024-06-01T00:00:00Z");
+    insertChunk(0, lastcheck);
+    insertSchemaFile("schema-1", SchemaType.SHAPE, Instant.parse("2024-01-01T00:00:00Z"));
+    jdbc.update("INSERT INTO schema_changes(target_class) VALUES ('http://example.org/Service')");
+
+    RevalidatorChunkClaim claim = claim();
+
+    assertEquals(0, claim.chunkId());
+    assertEquals(lastcheck, claim.lastCheck());
+  }
+
+  @Test
+  void claimChunkForWork_chunkLockedByOtherInstance_skipsIt() {
+    Instant oldTime = Instant.parse("2020-01-01T00:00:00Z");
+    insertChunk(0, oldTime);
+    insertChunk(1, oldTime);
+    insertSchemaFile("schema-1", SchemaType.SHAPE, Instant.parse("2024-01-01T00:00:00Z"));
+
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      jdbc.queryForList("SELECT chunkid FROM revalidatorchunks WHERE chunkid = 0 FOR UPDATE");
+      RevalidatorChunkClaim claim = CompletableFuture
+          .supplyAsync(() -> claim())
+          .orTimeout(10, TimeUnit.SECONDS)
+          .join();
+      assertEquals(1, claim.chunkId());
+    });
+  }
 
   @Test
-  void findChunkForWork_staleChunk_returnsChunkIdAndUpdatesLastcheck() {
+  void claimChunkForWork_chunkLeased_skipsItUntilLeaseExpires() {
     Instant oldTime = Instant.parse("2020-01-01T00:00:00Z");
-    Instant schemaUpdateTime = Instant.parse("2024-01-01T00:00:00Z");
     insertChunk(0, oldTime);
-    insertSchemaFile("schema-1", SchemaType.SHAPE, schemaUpdateTime);
+    insertSchemaFile("schema-1", SchemaType.SHAPE, Instant.parse("2024-01-01T00:00:00Z"));
+    RevalidatorChunkClaim first = claim();
 
-    int result = revalidatorChunksDao.findChunkForWork("SHAPE");
+    assertNull(claim());
 
-    assertEquals(0, result);
-    Instant updatedLastcheck = getLastcheck(0);
-    assertTrue(updatedLastcheck.isAfter(oldTime), "lastcheck should be updated to now()");
+    expireLease(0);
+    RevalidatorChunkClaim second = claim();
+    assertEquals(0, second.chunkId());
+    assertFalse(revalidatorChunksDao.recordChunkProgress(first, "hash-1", LEASE),
+        "the expired lease should be lost");
   }
 
   @Test
-  void findChunkForWork_noStaleChunks_returnsMinusOne() {
-    Instant recentTime = Instant.parse("2099-01-01T00:00:00Z");
-    insertChunk(0, recentTime);
+  void claimChunkForWork_progressRecorded_resumesAfterRecordedHash() {
+    insertChunk(0, Instant.parse("2020-01-01T00:00:00Z"));
     insertSchemaFile("schema-1", SchemaType.SHAPE, Instant.parse("2024-01-01T00:00:00Z"));
+    RevalidatorChunkClaim first = claim();
+    assertTrue(revalidatorChunksDao.recordChunkProgress(first, "hash-1", LEASE));
 
-    int result = revalidatorChunksDao.findChunkForWork("SHAPE");
+    revalidatorChunksDao.releaseChunk(first);
+    RevalidatorChunkClaim second = claim();
 
-    assertEquals(-1, result);
+    assertEquals("hash-1", second.resumeHash());
+    assertNotEquals(first.leaseId(), second.leaseId());
   }
 
   @Test
-  void findChunkForWork_emptyChunkTable_returnsMinusOne() {
+  void claimChunkForWork_checkedAfterLastSchemaChange_returnsNull() {
+    insertChunk(0, Instant.parse("2099-01-01T00:00:00Z"));
     insertSchemaFile("schema-1", SchemaType.SHAPE, Instant.parse("2024-01-01T00:00:00Z"));
 
-    int result = revalidatorChunksDao.findChunkForWork("SHAPE");
+    assertNull(claim());
+  }
+
+  @Test
+  void claimChunkForWork_emptyChunkTable_returnsNull() {
+    insertSchemaFile("schema-1", SchemaType.SHAPE, Instant.parse("2024-01-01T00:00:00Z"));
 
-    assertEquals(-1, result);
+    assertNull(claim());
   }
 
   @Test
-  void findChunkForWork_multipleStaleChunks_returnsLowestChunkId() {
+  void claimChunkForWork_multipleStaleChunks_returnsLowestChunkId() {
     Instant oldTime = Instant.parse("2020-01-01T00:00:00Z");
-    Instant schemaUpdateTime = Instant.parse("2024-01-01T00:00:00Z");
     insertChunk(2, oldTime);
     insertChunk(5, oldTime);
     insertChunk(1, oldTime);
-    insertSchemaFile("schema-1", SchemaType.SHAPE, schemaUpdateTime);
+    insertSchemaFile("schema-1", SchemaType.SHAPE, Instant.parse("2024-01-01T00:00:00Z"));
+
+    assertEquals(1, claim().chunkId());
+  }
+
+  @Test
+  void claimChunkForWork_noSchemaFile_returnsNull() {
+    insertChunk(0, Instant.parse("2020-01-01T00:00:00Z"));
+
+    assertNull(claim());
+  }
+
+  @Test
+  void claimChunkForWork_noStaleChunks_returnsNull() {
+    insertChunk(0, Instant.parse("2099-01-01T00:00:00Z"));
+    insertSchemaFile("schema-1", SchemaType.SHAPE, Instant.parse("2024-01-01T00:00:00Z"));
+    jdbc.update("INSERT INTO schema_changes(target_class) VALUES (NULL)");
+
+    assertNull(claim());
+  }
+
+  // ===== finishChunk =====
 
-    int result = revalidatorChunksDao.findChunkForWork("SHAPE");
+  @Test
+  void finishChunk_resumedPass_setsLastcheckToStartOfPass() {
+    insertChunk(0, Instant.parse("2020-01-01T00:00:00Z"));
+    insertSchemaFile("schema-1", SchemaType.SHAPE, Instant.parse("2024-01-01T00:00:00Z"));
+    RevalidatorChunkClaim first = claim();
+    revalidatorChunksDao.recordChunkProgress(first, "hash-1", LEASE);
+    Instant startedAt = jdbc.queryForObject("SELECT started_at FROM revalidatorchunks WHERE chunkid = 0",
+        (rs, rowNum) -> rs.getTimestamp("started_at").toInstant());
+    expireLease(0);
+    RevalidatorChunkClaim second = claim();
+
+    assertTrue(revalidatorChunksDao.finishChunk(second));
 
-    assertEquals(1, result);
+    assertEquals(startedAt, getLastcheck(0));
+    assertNull(claim(), "the finished chunk should not be due");
   }
 
   @Test
-  void findChunkForWork_noSchemaFile_returnsMinusOne() {
+  void finishChunk_leaseRevokedByReset_keepsChunkDue() {
     insertChunk(0, Instant.parse("2020-01-01T00:00:00Z"));
+    insertSchemaFile("schema-1", SchemaType.SHAPE, Instant.parse("2024-01-01T00:00:00Z"));
+    RevalidatorChunkClaim claim = claim();
+    revalidatorChunksDao.recordChunkProgress(claim, "hash-1", LEASE);
 
-    int result = revalidatorChunksDao.findChunkForWork("SHAPE");
+    revalidatorChunksDao.resetChunkTableTimes();
 
-    assertEquals(-1, result);
+    assertFalse(revalidatorChunksDao.finishChunk(claim));
+    RevalidatorChunkClaim again = claim();
+    assertEquals(0, again.chunkId());
+    assertNull(again.resumeHash(), "a reset chunk should be revalidated from the start");
   }
 
   // ===== checkChunkTable =====
@@ -223,4 +341,33 @@ class RevalidatorChunksDaoTest {
     revalidatorChunksDao.resetChunkTableTimes();
     // No exception = success
   }
+
+  // ===== closeOpenRuns =====
+
+  @Test
+  void closeOpenRuns_runLeftOpen_isFinished() {
+    RevalidationRun open = run("node-1", null);
+    RevalidationRun finished = run("node-1", Instant.parse("2024-06-01T01:00:00Z"));
+    RevalidationRun other = run("node-2", null);
+
+    assertEquals(1, revalidatorChunksDao.closeOpenRuns("node-1"));
+
+    assertNotNull(finishedAt(open.getId()), "the open run should be finished");
+    assertEquals(Instant.parse("2024-06-01T01:00:00Z"), finishedAt(finished.getId()));
+    assertNull(finishedAt(other.getId()), "runs of other instances should stay open");
+  }
+
+  private RevalidationRun run(String instance, Instant finishedAt) {
+    RevalidationRun run = new RevalidationRun();
+    run.setInstance(instance);
+    run.setStartedAt(Instant.parse("2024-06-01T00:00:00Z"));
+    run.setFinishedAt(finishedAt);
+    return revalidatorChunksDao.saveRun(run);
+  }
+
+  private Instant finishedAt(long runId) {
+    return jdbc.queryForObject("SELECT finished_at FROM revalidation_runs WHERE id = ?",
+        (rs, rowNum) -> rs.getTimestamp("finished_at") == null ? null : rs.getTimestamp("finished_at").toInstant(),
+        runId);
+  }
 }
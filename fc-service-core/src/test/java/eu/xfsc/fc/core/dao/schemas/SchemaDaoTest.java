@@ -10,6 +10,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -361,6 +362,26 @@ class SchemaDaoTest {
     assertTrue(result.isEmpty());
   }
 
+  // ===== selectContentsByType =====
+
+  @Test
+  void selectContentsByType_multipleTypes_returnsContentsOfTypeInInsertionOrder() {
+    schemaDao.insert(buildSimpleRecord("shape-1", SchemaType.SHAPE, "shape content 1", null));
+    schemaDao.insert(buildSimpleRecord("ont-1", SchemaType.ONTOLOGY, "ontology content", null));
+    schemaDao.insert(buildSimpleRecord("shape-2", SchemaType.SHAPE, "shape content 2", null));
+
+    List<String> result = schemaDao.selectContentsByType("SHAPE");
+
+    assertEquals(List.of("shape content 1", "shape content 2"), result);
+  }
+
+  @Test
+  void selectContentsByType_nonExistentType_returnsEmptyList() {
+    schemaDao.insert(buildSimpleRecord("schema-1", SchemaType.ONTOLOGY, "content", null));
+
+    assertTrue(schemaDao.selectContentsByType("SHAPE").isEmpty());
+  }
+
   // ===== JPA auditing =====
 
   @Test
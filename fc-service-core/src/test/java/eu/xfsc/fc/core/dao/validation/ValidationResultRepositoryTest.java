@@ -2,10 +2,13 @@ package eu.xfsc.fc.core.dao.validation;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import eu.xfsc.fc.core.config.DatabaseConfig;
+import eu.xfsc.fc.core.dao.validation.ValidationResultRepository.StoredResult;
 import eu.xfsc.fc.core.security.SecurityAuditorAware;
 import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
 import io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider;
@@ -166,6 +169,21 @@ class ValidationResultRepositoryTest {
     assertEquals(1, repository.count(), "Unrelated row must remain");
   }
 
+  @Test
+  void findByAssetId_assetIdsChanged_followsNewAssetIds() {
+    ValidationResult saved = repository.save(buildResult(
+        new String[]{"https://example.org/asset/old"},
+        new String[]{"ref/1"}, true, GraphSyncStatus.SYNCED));
+
+    saved.setAssetIds(new String[]{"https://example.org/asset/new", "https://example.org/asset/new"});
+    repository.save(saved);
+
+    assertEquals(0, repository.findByAssetId("https://example.org/asset/old", PageRequest.of(0, 10))
+        .getTotalElements(), "Result must no longer be found by its former asset id");
+    assertEquals(1, repository.findByAssetId("https://example.org/asset/new", PageRequest.of(0, 10))
+        .getTotalElements(), "Duplicate asset ids must be indexed once");
+  }
+
   // ===== findAll (used by GraphRebuilder) =====
 
   @Test
@@ -261,6 +279,76 @@ class ValidationResultRepositoryTest {
     assertDoesNotThrow(() -> repository.deleteAllByAssetId("https://example.org/asset/none"));
   }
 
+  // ===== insertOrTouch =====
+
+  @Test
+  @Transactional
+  void insertOrTouch_identicalResult_bumpsValidatedAtOfExistingRow() {
+    final String[] assetIds = {"https://example.org/asset/dedup-1"};
+    final String[] validatorIds = {"ref/1"};
+    Instant first = Instant.parse("2024-06-01T12:00:00Z");
+    Instant second = Instant.parse("2024-07-01T12:00:00Z");
+
+    StoredResult inserted = repository.insertOrTouch(assetIds, validatorIds, "SHACL", true, first, null,
+        "11".repeat(32), "ff".repeat(32));
+    StoredResult touched = repository.insertOrTouch(assetIds, validatorIds, "SHACL", true, second, null,
+        "22".repeat(32), "ff".repeat(32));
+
+    assertTrue(inserted.getInserted());
+    assertFalse(touched.getInserted());
+    assertEquals(inserted.getId(), touched.getId());
+    List<ValidationResult> rows = repository.findAllByAssetId(assetIds[0]);
+    assertEquals(1, rows.size());
+    assertEquals(second, rows.getFirst().getValidatedAt());
+    assertEquals("22".repeat(32), rows.getFirst().getContentHash());
+    assertEquals(GraphSyncStatus.PENDING, rows.getFirst().getGraphSyncStatus());
+  }
+
+  @Test
+  @Transactional
+  void insertOrTouch_identicalResultFailedInGraph_isPendingAgain() {
+    final String[] assetIds = {"https://example.org/asset/dedup-3"};
+    StoredResult inserted = repository.insertOrTouch(assetIds, new String[]{"ref/1"}, "SHACL", true,
+        Instant.parse("2024-06-01T12:00:00Z"), null, "11".repeat(32), "dd".repeat(32));
+    repository.updateGraphSyncStatus(List.of(inserted.getId()), GraphSyncStatus.FAILED);
+
+    StoredResult touched = repository.insertOrTouch(assetIds, new String[]{"ref/1"}, "SHACL", true,
+        Instant.parse("2024-07-01T12:00:00Z"), null, "22".repeat(32), "dd".repeat(32));
+
+    assertFalse(touched.getInserted());
+    assertEquals(GraphSyncStatus.PENDING.name(), touched.getGraphSyncStatus());
+  }
+
+  @Test
+  @Transactional
+  void claimPendingGraphSync_unclaimedPendingResult_isClaimedOnce() {
+    Long unclaimed = repository.saveAndFlush(buildResult(new String[]{"https://example.org/asset/claim-1"},
+        new String[]{"ref/1"}, true, GraphSyncStatus.PENDING)).getId();
+    repository.saveAndFlush(buildResult(new String[]{"https://example.org/asset/claim-2"},
+        new String[]{"ref/1"}, true, GraphSyncStatus.SYNCED));
+    repository.insertOrTouch(new String[]{"https://example.org/asset/claim-3"}, new String[]{"ref/1"}, "SHACL", true,
+        Instant.parse("2024-06-01T12:00:00Z"), null, "11".repeat(32), "cc".repeat(32));
+
+    assertEquals(List.of(unclaimed), repository.claimPendingGraphSync(300));
+    assertTrue(repository.claimPendingGraphSync(300).isEmpty());
+  }
+
+  @Test
+  @Transactional
+  void insertOrTouch_existingResultOutdated_insertsNewRow() {
+    final String[] assetIds = {"https://example.org/asset/dedup-2"};
+    StoredResult old = repository.insertOrTouch(assetIds, new String[]{"ref/1"}, "SHACL", true,
+        Instant.parse("2024-06-01T12:00:00Z"), null, "11".repeat(32), "ee".repeat(32));
+    repository.markOutdatedByAssetId(assetIds[0], OutdatedReason.ASSET_UPDATED.name());
+
+    StoredResult current = repository.insertOrTouch(assetIds, new String[]{"ref/1"}, "SHACL", true,
+        Instant.parse("2024-07-01T12:00:00Z"), null, "22".repeat(32), "ee".repeat(32));
+
+    assertTrue(current.getInserted());
+    assertNotEquals(old.getId(), current.getId());
+    assertEquals(2, repository.findAllByAssetId(assetIds[0]).size());
+  }
+
   @Test
   void findAll_mixedGraphSyncStatuses_returnsAll() {
     repository.save(buildResult(
@@ -0,0 +1,96 @@
+package eu.xfsc.fc.core.service.bulkhead;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import eu.xfsc.fc.core.exception.ServiceUnavailableException;
+
+/**
+ * Tests for {@link Bulkhead}.
+ */
+public class BulkheadTest {
+
+  @Test
+  public void call_freeSlot_runsWork() {
+    Bulkhead bulkhead = new Bulkhead(BulkheadType.QUERY, 1, 0, Duration.ZERO);
+
+    assertEquals("ok", bulkhead.call(() -> "ok"));
+    assertEquals(0, bulkhead.getActive());
+    assertEquals(1, bulkhead.getCompleted());
+  }
+
+  @Test
+  public void call_noSlotAndNoQueue_isRejected() throws Exception {
+    Bulkhead bulkhead = new Bulkhead(BulkheadType.INGEST, 1, 0, Duration.ofSeconds(5));
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> running = executor.submit(() -> bulkhead.runBlocking(() -> {
+        started.countDown();
+        await(release);
+      }));
+      started.await(5, TimeUnit.SECONDS);
+
+      assertThrows(ServiceUnavailableException.class, () -> bulkhead.call(() -> "late"));
+      assertEquals(1, bulkhead.getRejected());
+      assertEquals(1, bulkhead.getActive());
+
+      release.countDown();
+      running.get(5, TimeUnit.SECONDS);
+      assertEquals(0, bulkhead.getActive());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void call_noSlotWithinMaxWait_isRejected() throws Exception {
+    Bulkhead bulkhead = new Bulkhead(BulkheadType.QUERY, 1, 10, Duration.ofMillis(50));
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      executor.submit(() -> bulkhead.runBlocking(() -> {
+        started.countDown();
+        await(release);
+      }));
+      started.await(5, TimeUnit.SECONDS);
+
+      assertThrows(ServiceUnavailableException.class, () -> bulkhead.call(() -> "late"));
+      assertEquals(0, bulkhead.getWaiting());
+    } finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void call_failingWork_releasesSlot() {
+    Bulkhead bulkhead = new Bulkhead(BulkheadType.ADMIN, 1, 0, Duration.ZERO);
+
+    assertThrows(IllegalStateException.class, () -> bulkhead.call(() -> {
+      throw new IllegalStateException("boom");
+    }));
+    assertEquals(0, bulkhead.getActive());
+    assertEquals("ok", bulkhead.call(() -> "ok"));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
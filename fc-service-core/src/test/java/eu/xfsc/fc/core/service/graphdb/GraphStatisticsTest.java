@@ -0,0 +1,123 @@
+package eu.xfsc.fc.core.service.graphdb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link GraphStatistics}.
+ */
+public class GraphStatisticsTest {
+
+  @Test
+  public void newInstance_notReconciled_reportsUnknownCounts() {
+    GraphStatistics statistics = new GraphStatistics();
+
+    assertFalse(statistics.isInitialized());
+    assertEquals(-1, statistics.getClaimCount());
+    assertEquals(-1, statistics.getAssetCount());
+    assertNull(statistics.getLastReconciledAt());
+  }
+
+  @Test
+  public void recordAddedAndDeleted_afterReconcile_adjustsCounts() {
+    GraphStatistics statistics = new GraphStatistics();
+    assertTrue(statistics.reconcile(10, 2));
+
+    statistics.recordAdded(5, 1);
+    statistics.recordDeleted(3, 1);
+
+    assertEquals(12, statistics.getClaimCount());
+    assertEquals(2, statistics.getAssetCount());
+    assertNotNull(statistics.getLastReconciledAt());
+  }
+
+  @Test
+  public void recordDeleted_moreThanCounted_clampsAtZero() {
+    GraphStatistics statistics = new GraphStatistics();
+    statistics.reconcile(1, 1);
+
+    statistics.recordDeleted(5, 2);
+
+    assertEquals(0, statistics.getClaimCount());
+    assertEquals(0, statistics.getAssetCount());
+  }
+
+  @Test
+  public void reconcile_failedCount_keepsPreviousValues() {
+    GraphStatistics statistics = new GraphStatistics();
+    statistics.reconcile(7, 3);
+
+    assertFalse(statistics.reconcile(-1, 3));
+
+    assertEquals(7, statistics.getClaimCount());
+    assertEquals(3, statistics.getAssetCount());
+  }
+
+  @Test
+  public void recordChange_addedAndRemoved_adjustsCountsWithoutStaleness() {
+    GraphStatistics statistics = new GraphStatistics();
+    statistics.reconcile(10, 2);
+
+    statistics.recordChange(4, 1);
+    statistics.recordChange(-6, -2);
+
+    assertFalse(statistics.isStale());
+    assertEquals(8, statistics.getClaimCount());
+    assertEquals(1, statistics.getAssetCount());
+  }
+
+  @Test
+  public void recordUnknownWrite_isStaleUntilReconciled() {
+    GraphStatistics statistics = new GraphStatistics();
+    statistics.reconcile(10, 2);
+
+    statistics.recordUnknownWrite();
+
+    assertTrue(statistics.isStale());
+    statistics.reconcile(14, 3);
+    assertFalse(statistics.isStale());
+  }
+
+  @Test
+  public void reconcile_unknownWriteWhileCounting_staysStale() {
+    GraphStatistics statistics = new GraphStatistics();
+    statistics.recordUnknownWrite();
+
+    statistics.reconcile(() -> {
+      statistics.recordUnknownWrite();
+      return 10;
+    }, () -> 2);
+
+    assertTrue(statistics.isStale());
+    assertEquals(10, statistics.getClaimCount());
+  }
+
+  @Test
+  public void reconcile_failedCountOfStaleCounters_staysStale() {
+    GraphStatistics statistics = new GraphStatistics();
+    statistics.reconcile(10, 2);
+    statistics.recordUnknownWrite();
+
+    assertFalse(statistics.reconcile(() -> -1, () -> 2));
+
+    assertTrue(statistics.isStale());
+  }
+
+  @Test
+  public void writeEpoch_advancesOnEveryWrite_andSurvivesReconciliation() {
+    GraphStatistics statistics = new GraphStatistics();
+
+    statistics.recordAdded(2, 1);
+    statistics.recordDeleted(1, 0);
+    statistics.recordWrite();
+    statistics.recordUnknownWrite();
+    statistics.reconcile(1, 1);
+
+    assertEquals(4, statistics.getWriteEpoch());
+  }
+}
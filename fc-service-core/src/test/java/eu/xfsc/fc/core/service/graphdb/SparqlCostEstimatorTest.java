@@ -0,0 +1,43 @@
+package eu.xfsc.fc.core.service.graphdb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link SparqlCostEstimator}.
+ */
+public class SparqlCostEstimatorTest {
+
+  private static final long GRAPH_SIZE = 1_000_000;
+
+  @Test
+  public void estimate_fullScan_costsGraphSize() {
+    assertEquals(GRAPH_SIZE, SparqlCostEstimator.estimate("SELECT * WHERE { ?s ?p ?o }", GRAPH_SIZE));
+  }
+
+  @Test
+  public void estimate_boundPositions_reduceCost() {
+    long byPredicate = SparqlCostEstimator.estimate(
+        "SELECT ?s WHERE { ?s <http://schema.org/name> ?o }", GRAPH_SIZE);
+    long bySubjectAndPredicate = SparqlCostEstimator.estimate(
+        "SELECT ?o WHERE { <http://example.org/a> <http://schema.org/name> ?o }", GRAPH_SIZE);
+
+    assertEquals(GRAPH_SIZE / 10, byPredicate);
+    assertEquals(GRAPH_SIZE / 100, bySubjectAndPredicate);
+  }
+
+  @Test
+  public void estimate_propertyPath_costsGraphSize() {
+    long cost = SparqlCostEstimator.estimate(
+        "SELECT ?o WHERE { <http://example.org/a> <http://schema.org/knows>+ ?o }", GRAPH_SIZE);
+    assertTrue(cost >= GRAPH_SIZE);
+  }
+
+  @Test
+  public void estimate_invalidQueryOrUnknownSize_isUnknown() {
+    assertEquals(-1, SparqlCostEstimator.estimate("SELECT WHERE {", GRAPH_SIZE));
+    assertEquals(-1, SparqlCostEstimator.estimate("SELECT * WHERE { ?s ?p ?o }", -1));
+  }
+}
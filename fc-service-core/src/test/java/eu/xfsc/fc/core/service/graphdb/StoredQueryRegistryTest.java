@@ -0,0 +1,147 @@
+package eu.xfsc.fc.core.service.graphdb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import eu.xfsc.fc.api.generated.model.QueryLanguage;
+import eu.xfsc.fc.core.dao.storedquery.StoredQuery;
+import eu.xfsc.fc.core.dao.storedquery.StoredQueryRepository;
+import eu.xfsc.fc.core.exception.ClientException;
+import eu.xfsc.fc.core.exception.NotFoundException;
+import eu.xfsc.fc.core.pojo.GraphQuery;
+import eu.xfsc.fc.core.pojo.PreparedQuery;
+
+@ExtendWith(MockitoExtension.class)
+class StoredQueryRegistryTest {
+
+  private static final String CYPHER = "MATCH (n:ServiceOffering) WHERE n.uri = $uri AND n.name <> '$notAParam' RETURN n LIMIT $limit";
+  private static final String SPARQL = "SELECT ?s ?name WHERE { ?s <http://schema.org/name> $name } LIMIT 10";
+
+  @Mock
+  private StoredQueryRepository storedQueryRepository;
+  @Mock
+  private GraphStore graphStore;
+
+  private StoredQueryRegistry registry;
+
+  @BeforeEach
+  void setUp() {
+    registry = new StoredQueryRegistry(storedQueryRepository, graphStore);
+  }
+
+  @Test
+  void register_cypherQuery_extractsParametersOutsideLiterals() {
+    PreparedQuery query = registry.register("offering-by-uri", null, QueryLanguage.OPENCYPHER, CYPHER);
+
+    assertEquals(Set.of("uri", "limit"), query.parameters());
+    assertTrue(query.parametersRequired());
+    verify(storedQueryRepository).save(any());
+  }
+
+  @Test
+  void register_cypherQuery_ignoresParametersInCommentsAndQuotedNames() {
+    PreparedQuery query = registry.register("commented", null, QueryLanguage.OPENCYPHER,
+        "// filter by $old\nMATCH (n:`$Label`) /* $block */ WHERE n.uri = $uri RETURN n LIMIT 10");
+
+    assertEquals(Set.of("uri"), query.parameters());
+  }
+
+  @Test
+  void register_cypherQuery_isPlannedByGraphStoreWithUnboundParameters() {
+    registry.register("offering-by-uri", null, QueryLanguage.OPENCYPHER, CYPHER);
+
+    ArgumentCaptor<GraphQuery> planned = ArgumentCaptor.forClass(GraphQuery.class);
+    verify(graphStore).validateQuery(planned.capture());
+    assertEquals(CYPHER, planned.getValue().getQuery());
+    assertEquals(Set.of("uri", "limit"), planned.getValue().getParams().keySet());
+  }
+
+  @Test
+  void register_cypherRejectedByGraphStore_isNotStored() {
+    doThrow(new ClientException("invalid openCypher query")).when(graphStore).validateQuery(any());
+
+    assertThrows(ClientException.class,
+        () -> registry.register("broken", null, QueryLanguage.OPENCYPHER, "MATCH (n RETURN n LIMIT 1"));
+    verify(storedQueryRepository, never()).save(any());
+  }
+
+  @Test
+  void register_sparqlQuery_acceptsDollarVariablesAsParameters() {
+    PreparedQuery query = registry.register("names", "all names", QueryLanguage.SPARQL,
+        SPARQL + " # not $s\n");
+
+    assertEquals(Set.of("name"), query.parameters());
+    assertFalse(query.parametersRequired());
+    verify(graphStore, never()).validateQuery(any());
+  }
+
+  @Test
+  void register_invalidSparql_isNotStored() {
+    assertThrows(ClientException.class,
+        () -> registry.register("broken", null, QueryLanguage.SPARQL, "SELECT ?s WHERE {"));
+    assertThrows(ClientException.class,
+        () -> registry.register("update", null, QueryLanguage.SPARQL, "ASK { ?s ?p ?o }"));
+    verify(storedQueryRepository, never()).save(any());
+  }
+
+  @Test
+  void register_invalidName_isRejected() {
+    assertThrows(ClientException.class,
+        () -> registry.register("no spaces", null, QueryLanguage.OPENCYPHER, CYPHER));
+  }
+
+  @Test
+  void bind_validParameters_buildsGraphQueryAndLoadsOnce() {
+    when(storedQueryRepository.findById("offering-by-uri")).thenReturn(Optional.of(entity("offering-by-uri", CYPHER)));
+
+    GraphQuery first = registry.bind("offering-by-uri", Map.of("uri", "urn:a", "limit", 5), 5, true);
+    registry.bind("offering-by-uri", Map.of("uri", "urn:b", "limit", 5), 5, true);
+
+    assertEquals(CYPHER, first.getQuery());
+    assertEquals("urn:a", first.getParams().get("uri"));
+    verify(storedQueryRepository, times(1)).findById("offering-by-uri");
+  }
+
+  @Test
+  void bind_missingOrUnknownParameters_isRejected() {
+    when(storedQueryRepository.findById("offering-by-uri")).thenReturn(Optional.of(entity("offering-by-uri", CYPHER)));
+
+    assertThrows(ClientException.class, () -> registry.bind("offering-by-uri", Map.of("uri", "urn:a"), 5, true));
+    assertThrows(ClientException.class,
+        () -> registry.bind("offering-by-uri", Map.of("uri", "urn:a", "limit", 5, "other", 1), 5, true));
+  }
+
+  @Test
+  void bind_unknownQuery_throwsNotFound() {
+    when(storedQueryRepository.findById("missing")).thenReturn(Optional.empty());
+
+    assertThrows(NotFoundException.class, () -> registry.bind("missing", Map.of(), 5, true));
+  }
+
+  private static StoredQuery entity(String name, String text) {
+    StoredQuery entity = new StoredQuery();
+    entity.setName(name);
+    entity.setQueryLanguage(QueryLanguage.OPENCYPHER);
+    entity.setQueryText(text);
+    return entity;
+  }
+}
@@ -0,0 +1,110 @@
+package eu.xfsc.fc.core.service.pubsub;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import eu.xfsc.fc.api.generated.model.Asset;
+import eu.xfsc.fc.api.generated.model.AssetResult;
+import eu.xfsc.fc.client.AssetClient;
+import eu.xfsc.fc.client.ExternalServiceException;
+
+/**
+ * Tests for {@link AssetFetchBatcher}.
+ */
+public class AssetFetchBatcherTest {
+
+	private static final String SOURCE = "http://localhost:8081";
+
+	private AssetClient client;
+
+	@BeforeEach
+	public void setUp() {
+		client = mock(AssetClient.class);
+	}
+
+	@Test
+	public void fetch_concurrentHashes_areFetchedInOneRequest() {
+		when(client.getAssetsByHashes(any(), anyBoolean(), anyBoolean())).thenAnswer(inv -> {
+			Collection<String> hashes = inv.getArgument(0);
+			return hashes.stream().filter(h -> !"missing".equals(h)).map(AssetFetchBatcherTest::asset).toList();
+		});
+		AssetFetchBatcher batcher = new AssetFetchBatcher(src -> client, 10, Duration.ofMillis(50));
+
+		CompletableFuture<AssetResult> first = batcher.fetch(SOURCE, "h1");
+		CompletableFuture<AssetResult> second = batcher.fetch(SOURCE, "h2");
+		CompletableFuture<AssetResult> missing = batcher.fetch(SOURCE, "missing");
+
+		assertEquals("content-h1", first.join().getContent());
+		assertEquals("content-h2", second.join().getContent());
+		assertNull(missing.join());
+		verify(client, times(1)).getAssetsByHashes(eq(List.of("h1", "h2", "missing")), eq(true), eq(true));
+	}
+
+	@Test
+	public void fetch_fullBatch_isSentWithoutLinger() {
+		when(client.getAssetsByHashes(any(), anyBoolean(), anyBoolean()))
+			.thenAnswer(inv -> ((Collection<String>) inv.getArgument(0)).stream().map(AssetFetchBatcherTest::asset).toList());
+		AssetFetchBatcher batcher = new AssetFetchBatcher(src -> client, 2, Duration.ofMinutes(1));
+
+		CompletableFuture<AssetResult> first = batcher.fetch(SOURCE, "h1");
+		CompletableFuture<AssetResult> second = batcher.fetch(SOURCE, "h2");
+
+		assertEquals("content-h1", first.orTimeout(5, TimeUnit.SECONDS).join().getContent());
+		assertEquals("content-h2", second.join().getContent());
+	}
+
+	@Test
+	public void fetch_sourceWithoutBulkLookup_fallsBackToSingleFetches() {
+		when(client.getAssetsByHashes(any(), anyBoolean(), anyBoolean()))
+			.thenThrow(new ExternalServiceException(HttpStatus.NOT_FOUND, null));
+		when(client.getAssetByHash("h1", false, true)).thenReturn(asset("h1"));
+		AssetFetchBatcher batcher = new AssetFetchBatcher(src -> client, 10, Duration.ofMillis(10));
+
+		assertEquals("content-h1", batcher.fetch(SOURCE, "h1").join().getContent());
+		verify(client, times(1)).getAssetByHash("h1", false, true);
+	}
+
+	@Test
+	public void fetch_bulkLookupForbidden_isNotTriedAgain() {
+		when(client.getAssetsByHashes(any(), anyBoolean(), anyBoolean()))
+			.thenThrow(new ExternalServiceException(HttpStatus.FORBIDDEN, null));
+		when(client.getAssetByHash(any(), eq(false), eq(true))).thenAnswer(inv -> asset(inv.getArgument(0)));
+		AssetFetchBatcher batcher = new AssetFetchBatcher(src -> client, 2, Duration.ofMinutes(1));
+
+		CompletableFuture<AssetResult> first = batcher.fetch(SOURCE, "h1");
+		CompletableFuture<AssetResult> second = batcher.fetch(SOURCE, "h2");
+		assertEquals("content-h1", first.orTimeout(5, TimeUnit.SECONDS).join().getContent());
+		assertEquals("content-h2", second.orTimeout(5, TimeUnit.SECONDS).join().getContent());
+		CompletableFuture<AssetResult> third = batcher.fetch(SOURCE, "h3");
+		CompletableFuture<AssetResult> fourth = batcher.fetch(SOURCE, "h4");
+		assertEquals("content-h3", third.orTimeout(5, TimeUnit.SECONDS).join().getContent());
+		assertEquals("content-h4", fourth.orTimeout(5, TimeUnit.SECONDS).join().getContent());
+
+		verify(client, times(1)).getAssetsByHashes(any(), anyBoolean(), anyBoolean());
+		verify(client, times(4)).getAssetByHash(any(), eq(false), eq(true));
+	}
+
+	private static AssetResult asset(String hash) {
+		Asset meta = new Asset();
+		meta.setAssetHash(hash);
+		return new AssetResult(meta, "content-" + hash);
+	}
+
+}
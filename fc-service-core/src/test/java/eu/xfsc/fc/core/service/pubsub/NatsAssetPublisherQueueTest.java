@@ -0,0 +1,126 @@
+package eu.xfsc.fc.core.service.pubsub;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import eu.xfsc.fc.api.generated.model.AssetStatus;
+import eu.xfsc.fc.core.config.JacksonConfig;
+import eu.xfsc.fc.core.config.PubSubConfig;
+import eu.xfsc.fc.core.service.pubsub.AssetPublisher.AssetEvent;
+import io.nats.client.JetStream;
+import io.nats.client.api.PublishAck;
+import io.nats.client.impl.Headers;
+
+/**
+ * Tests that events queued behind an unacknowledged event of the same asset are published as soon
+ * as it is acknowledged. The retry interval is long, so only the early re-publish can send them.
+ */
+@SpringBootTest(properties = { "publisher.impl=nats", "publisher.retry-dir=target/nats-publisher-queue",
+		"publisher.retry-interval-ms=600000", "publisher.flush-interval-ms=1" })
+@ActiveProfiles({"test"})
+@ContextConfiguration(classes = {PubSubConfig.class, JacksonConfig.class, NatsAssetPublisherTest.NatsMockConfig.class})
+public class NatsAssetPublisherQueueTest {
+
+	private static final Path RETRY_DIR = Path.of("target/nats-publisher-queue");
+
+	@Autowired
+	private AssetPublisher natsPublisher;
+	@Autowired
+	private JetStream jetStream;
+
+	@BeforeEach
+	public void resetMocks() {
+		reset(jetStream);
+	}
+
+	@AfterEach
+	public void clearRetryDir() throws IOException {
+		try (Stream<Path> files = Files.list(RETRY_DIR)) {
+			for (Path file : files.toList()) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	@Test
+	public void publish_queuedEvent_isPublishedOnceEarlierEventIsAcknowledged() throws Exception {
+		CompletableFuture<PublishAck> firstAck = new CompletableFuture<>();
+		when(jetStream.publishAsync(anyString(), any(Headers.class), any()))
+			.thenReturn(firstAck)
+			.thenReturn(CompletableFuture.completedFuture(mock(PublishAck.class)));
+
+		assertTrue(natsPublisher.publish("3456", AssetEvent.UPDATE, AssetStatus.REVOKED));
+		assertTrue(natsPublisher.publish("3456", AssetEvent.DELETE, null));
+		assertEquals(1, pendingFiles());
+		firstAck.complete(mock(PublishAck.class));
+
+		assertTrue(waitFor(() -> pendingFiles() == 0 && invocations() == 2), "queued message was not published");
+		ArgumentCaptor<Headers> headers = ArgumentCaptor.forClass(Headers.class);
+		verify(jetStream, times(2)).publishAsync(eq("fc.sd.3456"), headers.capture(), isNull());
+		assertEquals(List.of("UPDATE", "DELETE"), headers.getAllValues().stream().map(h -> h.getFirst("event")).toList());
+	}
+
+	@Test
+	public void publish_queuedEventOfUnacknowledgedEvent_waitsForScheduledRetry() throws Exception {
+		CompletableFuture<PublishAck> firstAck = new CompletableFuture<>();
+		when(jetStream.publishAsync(anyString(), any(Headers.class), any())).thenReturn(firstAck);
+
+		assertTrue(natsPublisher.publish("7890", AssetEvent.UPDATE, AssetStatus.REVOKED));
+		assertTrue(natsPublisher.publish("7890", AssetEvent.DELETE, null));
+		firstAck.completeExceptionally(new IOException("no ack"));
+		Thread.sleep(300);
+
+		verify(jetStream, times(1)).publishAsync(anyString(), any(Headers.class), any());
+		assertEquals(2, pendingFiles());
+	}
+
+	private int invocations() {
+		return mockingDetails(jetStream).getInvocations().size();
+	}
+
+	private static long pendingFiles() {
+		try (Stream<Path> files = Files.list(RETRY_DIR)) {
+			return files.filter(f -> f.toString().endsWith(".json")).count();
+		} catch (IOException ex) {
+			return 0;
+		}
+	}
+
+	private static boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			if (condition.getAsBoolean()) {
+				return true;
+			}
+			Thread.sleep(50);
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,142 @@
+package eu.xfsc.fc.core.service.pubsub;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import eu.xfsc.fc.api.generated.model.AssetStatus;
+import eu.xfsc.fc.core.config.JacksonConfig;
+import eu.xfsc.fc.core.config.PubSubConfig;
+import eu.xfsc.fc.core.service.pubsub.AssetPublisher.AssetEvent;
+import io.nats.client.Connection;
+import io.nats.client.JetStream;
+import io.nats.client.api.PublishAck;
+import io.nats.client.impl.Headers;
+
+@SpringBootTest(properties = { "publisher.impl=nats", "publisher.retry-dir=target/nats-publisher-retry",
+		"publisher.retry-interval-ms=100", "publisher.flush-interval-ms=1" })
+@ActiveProfiles({"test"})
+@ContextConfiguration(classes = {PubSubConfig.class, JacksonConfig.class, NatsAssetPublisherTest.NatsMockConfig.class})
+public class NatsAssetPublisherTest {
+
+	private static final Path RETRY_DIR = Path.of("target/nats-publisher-retry");
+
+	@TestConfiguration
+	static class NatsMockConfig {
+
+		@Bean
+		public JetStream jetStream() {
+			return mock(JetStream.class);
+		}
+
+		@Bean
+		public Connection pubConnection(JetStream jetStream) throws IOException {
+			Connection connection = mock(Connection.class);
+			when(connection.jetStream()).thenReturn(jetStream);
+			return connection;
+		}
+	}
+
+	@Autowired
+	private AssetPublisher natsPublisher;
+	@Autowired
+	private JetStream jetStream;
+
+	@BeforeEach
+	public void resetMocks() {
+		reset(jetStream);
+	}
+
+	@Test
+	public void publish_acknowledged_returnsWithoutBuffering() throws Exception {
+		when(jetStream.publishAsync(anyString(), any(Headers.class), any()))
+			.thenReturn(CompletableFuture.completedFuture(mock(PublishAck.class)));
+
+		assertTrue(natsPublisher.publish("1234", AssetEvent.UPDATE, AssetStatus.REVOKED));
+
+		verify(jetStream).publishAsync(eq("fc.sd.1234"), any(Headers.class), isNull());
+		assertEquals(0, pendingFiles());
+	}
+
+	@Test
+	public void publish_notAcknowledged_isRepublishedFromRetryBuffer() throws Exception {
+		when(jetStream.publishAsync(anyString(), any(Headers.class), any()))
+			.thenReturn(CompletableFuture.failedFuture(new IOException("stream unavailable")))
+			.thenReturn(CompletableFuture.completedFuture(mock(PublishAck.class)));
+
+		assertTrue(natsPublisher.publish("5678", AssetEvent.DELETE, null));
+
+		assertTrue(waitFor(() -> pendingFiles() == 0 && invocations() == 2), "buffered message was not re-published");
+		verify(jetStream, times(2)).publishAsync(eq("fc.sd.5678"), any(Headers.class), isNull());
+	}
+
+	@Test
+	public void publish_laterEventOfUnacknowledgedAsset_isQueuedBehindIt() throws Exception {
+		CompletableFuture<PublishAck> firstAck = new CompletableFuture<>();
+		when(jetStream.publishAsync(anyString(), any(Headers.class), any()))
+			.thenReturn(firstAck)
+			.thenReturn(CompletableFuture.completedFuture(mock(PublishAck.class)));
+
+		assertTrue(natsPublisher.publish("9012", AssetEvent.UPDATE, AssetStatus.REVOKED));
+		assertTrue(natsPublisher.publish("9012", AssetEvent.DELETE, null));
+		Thread.sleep(300);
+		verify(jetStream, times(1)).publishAsync(anyString(), any(Headers.class), any());
+		firstAck.completeExceptionally(new IOException("no ack"));
+
+		assertTrue(waitFor(() -> pendingFiles() == 0 && invocations() == 3), "buffered messages were not re-published");
+		ArgumentCaptor<Headers> headers = ArgumentCaptor.forClass(Headers.class);
+		verify(jetStream, times(3)).publishAsync(eq("fc.sd.9012"), headers.capture(), isNull());
+		assertEquals(List.of("UPDATE", "UPDATE", "DELETE"),
+			headers.getAllValues().stream().map(h -> h.getFirst("event")).toList());
+	}
+
+	private int invocations() {
+		return mockingDetails(jetStream).getInvocations().size();
+	}
+
+	private static long pendingFiles() {
+		try (Stream<Path> files = Files.list(RETRY_DIR)) {
+			return files.filter(f -> f.toString().endsWith(".json")).count();
+		} catch (IOException ex) {
+			return 0;
+		}
+	}
+
+	private static boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			if (condition.getAsBoolean()) {
+				return true;
+			}
+			Thread.sleep(50);
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,49 @@
+package eu.xfsc.fc.core.service.pubsub;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Tests for {@link PayloadEncoding}.
+ */
+public class PayloadEncodingTest {
+
+	private static final byte[] PAYLOAD = "{\"content\":\"".concat("credential ".repeat(500)).concat("\"}")
+		.getBytes(StandardCharsets.UTF_8);
+
+	@ParameterizedTest
+	@EnumSource(PayloadEncoding.class)
+	public void encode_roundTrip_restoresPayload(PayloadEncoding encoding) {
+		byte[] encoded = encoding.encode(PAYLOAD);
+
+		assertTrue(encoded.length < PAYLOAD.length / 10);
+		assertArrayEquals(PAYLOAD, encoding.decode(encoded));
+	}
+
+	@Test
+	public void of_headerValues_resolveEncoding() {
+		assertEquals(PayloadEncoding.GZIP, PayloadEncoding.of("gzip"));
+		assertEquals(PayloadEncoding.ZSTD, PayloadEncoding.of("ZSTD"));
+		assertNull(PayloadEncoding.of(null));
+		assertNull(PayloadEncoding.of("none"));
+		assertThrows(IllegalArgumentException.class, () -> PayloadEncoding.of("br"));
+	}
+
+	@Test
+	public void decode_wrongEncoding_fails() {
+		byte[] gzipped = PayloadEncoding.GZIP.encode(PAYLOAD);
+
+		assertThrows(UncheckedIOException.class, () -> PayloadEncoding.ZSTD.decode(gzipped));
+	}
+
+}
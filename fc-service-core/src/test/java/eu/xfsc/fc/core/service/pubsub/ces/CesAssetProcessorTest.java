@@ -0,0 +1,192 @@
+package eu.xfsc.fc.core.service.pubsub.ces;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import eu.xfsc.fc.core.config.BulkheadProperties;
+import eu.xfsc.fc.core.config.DocumentLoaderProperties;
+import eu.xfsc.fc.core.dao.cestracker.CesTrackerDao;
+import eu.xfsc.fc.core.exception.VerificationException;
+import eu.xfsc.fc.core.pojo.ContentAccessor;
+import eu.xfsc.fc.core.pojo.CredentialVerificationResult;
+import eu.xfsc.fc.core.service.assetstore.AssetStore;
+import eu.xfsc.fc.core.service.bulkhead.BulkheadRegistry;
+import eu.xfsc.fc.core.service.resolve.DidDocumentResolver;
+import eu.xfsc.fc.core.service.trustframework.ResolvedRole;
+import eu.xfsc.fc.core.service.trustframework.TrustFrameworkRegistry;
+import eu.xfsc.fc.core.service.verification.VerificationService;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * Tests for the subject resolution and content cache of {@link CesAssetProcessor}.
+ */
+public class CesAssetProcessorTest {
+
+  private static final String SUBJECT_ID = "did:web:example.com:participant";
+  private static final String CONTENT = "{\"name\":\"Example\",\"id\":\"did:web:example.com:participant\"}";
+  // JCS puts the members in code point order
+  private static final String CANONICAL = "{\"id\":\"did:web:example.com:participant\",\"name\":\"Example\"}";
+
+  private CesAssetProcessor processor;
+  private AssetStore assetStore;
+  private DidDocumentResolver didResolver;
+  private DocumentLoaderProperties docLoaderProperties;
+  private PlatformTransactionManager transactionManager;
+  private MockWebServer subjectServer;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    assetStore = mock(AssetStore.class);
+    didResolver = mock(DidDocumentResolver.class);
+    VerificationService verificationService = mock(VerificationService.class);
+    TrustFrameworkRegistry registry = mock(TrustFrameworkRegistry.class);
+    when(registry.resolveRole(anyString())).thenReturn(new ResolvedRole("gaia-x", "participant"));
+    when(verificationService.verifyCredential(any(ContentAccessor.class), anyBoolean(), anyBoolean(), anyBoolean(), anyBoolean()))
+        .thenReturn(mock(CredentialVerificationResult.class));
+    docLoaderProperties = new DocumentLoaderProperties();
+    docLoaderProperties.setEnableHttp(true);
+    transactionManager = mock(PlatformTransactionManager.class);
+    processor = new CesAssetProcessor(assetStore, verificationService, new ObjectMapper(), mock(CesTrackerDao.class),
+        didResolver, registry, docLoaderProperties, new BulkheadRegistry(new BulkheadProperties()),
+        transactionManager);
+    ReflectionTestUtils.setField(processor, "verifyIntegrity", true);
+    ReflectionTestUtils.setField(processor, "contentCacheSize", 100);
+    ReflectionTestUtils.setField(processor, "contentCacheTtl", Duration.ofMinutes(5));
+    ReflectionTestUtils.setField(processor, "httpTimeout", Duration.ofSeconds(5));
+    ReflectionTestUtils.setField(processor, "httpMaxSize", DataSize.ofBytes(1024));
+    processor.init();
+    subjectServer = new MockWebServer();
+    subjectServer.start();
+  }
+
+  @AfterEach
+  public void tearDown() throws Exception {
+    subjectServer.shutdown();
+  }
+
+  @Test
+  public void processCesEvent_sameIntegrityHash_resolvesContentOnce() throws Exception {
+    when(didResolver.resolveDocumentContent(SUBJECT_ID)).thenReturn(CONTENT);
+    Map<String, Object> data = event("sha256-" + sha256(CANONICAL));
+
+    assertEquals(1, processor.processCesEvent(tracking("1"), data));
+    assertEquals(1, processor.processCesEvent(tracking("2"), data));
+
+    verify(didResolver, times(1)).resolveDocumentContent(SUBJECT_ID);
+    verify(assetStore, times(2)).storeCredential(any(), any());
+  }
+
+  @Test
+  public void processCesEvent_integrityMismatch_isRejectedAndNotCached() throws Exception {
+    when(didResolver.resolveDocumentContent(SUBJECT_ID)).thenReturn(CONTENT);
+    Map<String, Object> data = event("sha256-" + sha256("{}"));
+
+    assertThrows(VerificationException.class, () -> processor.processCesEvent(tracking("1"), data));
+    assertThrows(VerificationException.class, () -> processor.processCesEvent(tracking("2"), data));
+
+    verify(didResolver, times(2)).resolveDocumentContent(SUBJECT_ID);
+  }
+
+  @Test
+  public void processCesEvent_integrityMismatch_opensNoTransaction() throws Exception {
+    when(didResolver.resolveDocumentContent(SUBJECT_ID)).thenReturn(CONTENT);
+    Map<String, Object> data = event("sha256-" + sha256("{}"));
+
+    assertThrows(VerificationException.class, () -> processor.processCesEvent(tracking("1"), data));
+
+    verify(transactionManager, never()).getTransaction(any());
+    verify(assetStore, never()).storeCredential(any(), any());
+  }
+
+  @Test
+  public void processCesEvent_resolvedSubject_isStoredInOneTransaction() throws Exception {
+    when(didResolver.resolveDocumentContent(SUBJECT_ID)).thenReturn(CONTENT);
+
+    assertEquals(1, processor.processCesEvent(tracking("1"), event("sha256-" + sha256(CANONICAL))));
+
+    verify(transactionManager).getTransaction(any());
+    verify(transactionManager).commit(any());
+  }
+
+  @Test
+  public void processCesEvent_httpSubject_isFetchedAndStored() throws Exception {
+    subjectServer.enqueue(new MockResponse().setBody(CONTENT).addHeader("Content-Type", "application/ld+json"));
+    String subjectId = subjectServer.url("/participant.json").toString();
+
+    assertEquals(1, processor.processCesEvent(tracking("1"), event(subjectId, "sha256-" + sha256(CANONICAL))));
+
+    assertEquals(1, subjectServer.getRequestCount());
+    verify(assetStore).storeCredential(any(), any());
+  }
+
+  @Test
+  public void processCesEvent_httpDisabled_subjectIsNotFetched() throws Exception {
+    docLoaderProperties.setEnableHttp(false);
+    String subjectId = subjectServer.url("/participant.json").toString();
+    Map<String, Object> data = event(subjectId, "sha256-" + sha256(CANONICAL));
+
+    assertThrows(VerificationException.class, () -> processor.processCesEvent(tracking("1"), data));
+
+    assertEquals(0, subjectServer.getRequestCount());
+    verify(assetStore, never()).storeCredential(any(), any());
+  }
+
+  @Test
+  public void processCesEvent_oversizedHttpSubject_isRejected() throws Exception {
+    String content = "{\"id\":\"x\",\"name\":\"" + "a".repeat(2048) + "\"}";
+    subjectServer.enqueue(new MockResponse().setBody(content).addHeader("Content-Type", "application/ld+json"));
+    String subjectId = subjectServer.url("/participant.json").toString();
+    Map<String, Object> data = event(subjectId, "sha256-" + sha256(content));
+
+    assertThrows(VerificationException.class, () -> processor.processCesEvent(tracking("1"), data));
+
+    verify(assetStore, never()).storeCredential(any(), any());
+  }
+
+  private static CesTracking tracking(String id) {
+    return new CesTracking(id, null, Instant.now(), 0, null, null);
+  }
+
+  private static Map<String, Object> event(String integrity) {
+    return event(SUBJECT_ID, integrity);
+  }
+
+  private static Map<String, Object> event(String subjectId, String integrity) {
+    return Map.of("credentialSubject", List.of(Map.of(
+        "id", subjectId,
+        "gx:integrity", integrity,
+        "gx:type", "https://w3id.org/gaia-x/development#LegalParticipant")));
+  }
+
+  private static String sha256(String text) throws Exception {
+    MessageDigest md = MessageDigest.getInstance("SHA-256");
+    return HexFormat.of().formatHex(md.digest(text.getBytes(StandardCharsets.UTF_8)));
+  }
+
+}
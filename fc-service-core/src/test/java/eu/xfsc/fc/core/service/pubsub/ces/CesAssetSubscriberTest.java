@@ -0,0 +1,127 @@
+package eu.xfsc.fc.core.service.pubsub.ces;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import eu.xfsc.fc.core.dao.cestracker.CesTrackerDao;
+import eu.xfsc.fc.core.exception.ServerException;
+import eu.xfsc.fc.core.exception.VerificationException;
+import eu.xfsc.fc.core.service.pubsub.ces.CesAssetSubscriberImpl.PendingEvent;
+
+/**
+ * Tests for the retries and the checkpoint of {@link CesAssetSubscriberImpl}.
+ */
+public class CesAssetSubscriberTest {
+
+  private static final String SUB_URL = "https://ces.example.com";
+
+  private CesAssetSubscriberImpl subscriber;
+  private CesTrackerDao ctDao;
+  private CesAssetProcessor ceProcessor;
+
+  @BeforeEach
+  public void setUp() {
+    ctDao = mock(CesTrackerDao.class);
+    ceProcessor = mock(CesAssetProcessor.class);
+    subscriber = new CesAssetSubscriberImpl();
+    ReflectionTestUtils.setField(subscriber, "ctDao", ctDao);
+    ReflectionTestUtils.setField(subscriber, "ceProcessor", ceProcessor);
+    ReflectionTestUtils.setField(subscriber, "jsonMapper", new ObjectMapper());
+    ReflectionTestUtils.setField(subscriber, "instance", "http://localhost:8081");
+    ReflectionTestUtils.setField(subscriber, "subUrl", SUB_URL);
+    ReflectionTestUtils.setField(subscriber, "retryDelay", Duration.ofMillis(1));
+    ReflectionTestUtils.setField(subscriber, "maxRetryDelay", Duration.ofMillis(2));
+    ReflectionTestUtils.setField(subscriber, "running", true);
+  }
+
+  @Test
+  public void process_transientFailure_isRetriedUntilProcessed() {
+    when(ceProcessor.processCesEvent(any(), any()))
+        .thenThrow(new ServerException("graph unavailable"))
+        .thenThrow(new ServerException("graph unavailable"))
+        .thenReturn(1);
+
+    assertTrue(subscriber.process(event("1")));
+
+    verify(ceProcessor, times(3)).processCesEvent(any(), any());
+    verify(ctDao, never()).insert(any());
+  }
+
+  @Test
+  public void process_rejectedEvent_isRecordedWithoutRetry() {
+    when(ceProcessor.processCesEvent(any(), any())).thenThrow(new VerificationException("invalid signature"));
+
+    assertTrue(subscriber.process(event("1")));
+
+    verify(ceProcessor, times(1)).processCesEvent(any(), any());
+    verify(ctDao).insert(any());
+  }
+
+  @Test
+  public void process_failingEvent_isRecordedAfterMaxAttempts() {
+    ReflectionTestUtils.setField(subscriber, "maxAttempts", 3);
+    when(ceProcessor.processCesEvent(any(), any())).thenThrow(new NullPointerException("credentialSubject"));
+
+    assertTrue(subscriber.process(event("1")));
+
+    verify(ceProcessor, times(3)).processCesEvent(any(), any());
+    ArgumentCaptor<CesTracking> tracking = ArgumentCaptor.forClass(CesTracking.class);
+    verify(ctDao).insert(tracking.capture());
+    assertEquals("1", tracking.getValue().getCesId());
+    assertTrue(tracking.getValue().getError().contains("credentialSubject"));
+  }
+
+  @Test
+  public void process_failureAfterShutdown_isLeftForRestart() {
+    when(ceProcessor.processCesEvent(any(), any())).thenThrow(new ServerException("graph unavailable"));
+    ReflectionTestUtils.setField(subscriber, "running", false);
+
+    assertFalse(subscriber.process(event("1")));
+  }
+
+  @Test
+  public void saveCheckpoint_eventPending_stopsBeforeIt() {
+    PendingEvent first = event("1");
+    PendingEvent second = event("2");
+    PendingEvent third = event("3");
+    subscriber.track(first);
+    subscriber.track(second);
+    subscriber.track(third);
+
+    subscriber.complete(first);
+    subscriber.complete(third);
+    subscriber.saveCheckpoint();
+    subscriber.saveCheckpoint();
+
+    verify(ctDao, times(1)).saveCheckpoint(SUB_URL, "1");
+
+    subscriber.complete(second);
+    subscriber.saveCheckpoint();
+
+    verify(ctDao).saveCheckpoint(SUB_URL, "3");
+    verify(ctDao, never()).saveCheckpoint(anyString(), eq("2"));
+  }
+
+  private static PendingEvent event(String id) {
+    return new PendingEvent(id, Map.of("id", id, "source", "https://other.example.com", "data", Map.of()));
+  }
+}
@@ -0,0 +1,160 @@
+package eu.xfsc.fc.core.service.pubsub.nats;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import eu.xfsc.fc.api.generated.model.AssetStatus;
+import eu.xfsc.fc.core.config.BulkheadProperties;
+import eu.xfsc.fc.core.exception.ClientException;
+import eu.xfsc.fc.core.exception.NotFoundException;
+import eu.xfsc.fc.core.service.assetstore.AssetStore;
+import eu.xfsc.fc.core.service.bulkhead.BulkheadRegistry;
+import io.nats.client.Message;
+import io.nats.client.impl.Headers;
+import io.nats.client.impl.NatsJetStreamMetaData;
+
+/**
+ * Tests for the batch processing of {@link NatsAssetSubscriberImpl}.
+ */
+public class NatsAssetSubscriberTest {
+
+  private NatsAssetSubscriberImpl subscriber;
+  private AssetStore assetStore;
+  private ExecutorService workers;
+
+  @BeforeEach
+  public void setUp() {
+    subscriber = new NatsAssetSubscriberImpl();
+    assetStore = mock(AssetStore.class);
+    workers = Executors.newVirtualThreadPerTaskExecutor();
+    ReflectionTestUtils.setField(subscriber, "instance", "http://localhost:8082");
+    ReflectionTestUtils.setField(subscriber, "assetStore", assetStore);
+    ReflectionTestUtils.setField(subscriber, "bulkheads", new BulkheadRegistry(new BulkheadProperties()));
+    ReflectionTestUtils.setField(subscriber, "workers", workers);
+    ReflectionTestUtils.setField(subscriber, "redeliveryDelayMs", 10L);
+    ReflectionTestUtils.setField(subscriber, "maxDeliver", 3L);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    workers.shutdownNow();
+  }
+
+  @Test
+  public void processBatch_eventsOfOneAsset_areProcessedInOrderAndAcked() throws Exception {
+    Message update = message("fc.sd.a", "UPDATE", "http://localhost:8081");
+    Message delete = message("fc.sd.a", "DELETE", "http://localhost:8081");
+
+    subscriber.processBatch(List.of(update, delete));
+
+    InOrder order = inOrder(assetStore, update, delete);
+    order.verify(assetStore).changeLifeCycleStatus("a", AssetStatus.REVOKED);
+    order.verify(update).ack();
+    order.verify(assetStore).deleteAsset("a");
+    order.verify(delete).ack();
+    assertEquals(2, subscriber.getProcessed());
+  }
+
+  @Test
+  public void processBatch_failedEvent_isNakedWithLaterEventsOfSameAsset() throws Exception {
+    Message failing = message("fc.sd.a", "UPDATE", "http://localhost:8081");
+    Message later = message("fc.sd.a", "DELETE", "http://localhost:8081");
+    Message other = message("fc.sd.b", "DELETE", "http://localhost:8081");
+    doThrow(new IllegalStateException("db down")).when(assetStore).changeLifeCycleStatus("a", AssetStatus.REVOKED);
+
+    subscriber.processBatch(List.of(failing, later, other));
+
+    verify(failing).nakWithDelay(any(Duration.class));
+    verify(later).nakWithDelay(any(Duration.class));
+    verify(assetStore, never()).deleteAsset("a");
+    verify(failing, never()).ack();
+    verify(assetStore).deleteAsset("b");
+    verify(other).ack();
+    assertEquals(2, subscriber.getFailed());
+  }
+
+  @Test
+  public void processBatch_eventAppliedAlready_isAcked() throws Exception {
+    Message duplicate = message("fc.sd.a", "DELETE", "http://localhost:8081");
+    Message later = message("fc.sd.a", "UPDATE", "http://localhost:8081");
+    doThrow(new NotFoundException("not found")).when(assetStore).deleteAsset("a");
+
+    subscriber.processBatch(List.of(duplicate, later));
+
+    verify(duplicate).ack();
+    verify(later).ack();
+    verify(duplicate, never()).nakWithDelay(any(Duration.class));
+    assertEquals(2, subscriber.getProcessed());
+  }
+
+  @Test
+  public void processBatch_rejectedEvent_isTerminatedAndLaterEventsProcessed() throws Exception {
+    Message rejected = message("fc.sd.a", "UPDATE", "http://localhost:8081");
+    Message later = message("fc.sd.a", "DELETE", "http://localhost:8081");
+    doThrow(new ClientException("invalid status")).when(assetStore).changeLifeCycleStatus("a", AssetStatus.REVOKED);
+
+    subscriber.processBatch(List.of(rejected, later));
+
+    verify(rejected).term();
+    verify(rejected, never()).nakWithDelay(any(Duration.class));
+    verify(assetStore).deleteAsset("a");
+    verify(later).ack();
+    assertEquals(1, subscriber.getDeadLettered());
+  }
+
+  @Test
+  public void processBatch_failedOnLastDelivery_isTerminated() throws Exception {
+    Message failing = message("fc.sd.a", "UPDATE", "http://localhost:8081");
+    NatsJetStreamMetaData metaData = mock(NatsJetStreamMetaData.class);
+    when(metaData.deliveredCount()).thenReturn(3L);
+    when(failing.isJetStream()).thenReturn(true);
+    when(failing.metaData()).thenReturn(metaData);
+    doThrow(new IllegalStateException("db down")).when(assetStore).changeLifeCycleStatus("a", AssetStatus.REVOKED);
+
+    subscriber.processBatch(List.of(failing));
+
+    verify(failing).term();
+    verify(failing, never()).nakWithDelay(any(Duration.class));
+    assertEquals(1, subscriber.getDeadLettered());
+    assertEquals(0, subscriber.getFailed());
+  }
+
+  @Test
+  public void processBatch_ownEvent_isAckedWithoutProcessing() throws Exception {
+    Message own = message("fc.sd.a", "DELETE", "http://localhost:8082");
+
+    subscriber.processBatch(List.of(own));
+
+    verify(assetStore, never()).deleteAsset(any());
+    verify(own).ack();
+  }
+
+  private static Message message(String subject, String event, String source) {
+    Headers headers = new Headers();
+    headers.put("source", source);
+    headers.put("event", event);
+    headers.put("status", AssetStatus.REVOKED.name());
+    Message msg = mock(Message.class);
+    when(msg.getSubject()).thenReturn(subject);
+    when(msg.getHeaders()).thenReturn(headers);
+    return msg;
+  }
+
+}
@@ -0,0 +1,90 @@
+package eu.xfsc.fc.core.service.schemastore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import eu.xfsc.fc.core.service.schemastore.SchemaStore.SchemaType;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@ContextConfiguration(classes = {SchemaChangeBusTest.TestConfig.class})
+@AutoConfigureEmbeddedDatabase(provider = DatabaseProvider.ZONKY)
+class SchemaChangeBusTest {
+
+  @Configuration
+  @EnableAutoConfiguration
+  static class TestConfig {
+  }
+
+  @Autowired
+  private DataSource dataSource;
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private final BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+  private final BlockingQueue<Object> peerReceived = new LinkedBlockingQueue<>();
+  private SchemaChangeBus bus;
+  private SchemaChangeBus peer;
+
+  @BeforeEach
+  void startBuses() throws InterruptedException {
+    bus = new SchemaChangeBus(dataSource, transactionManager, received::add, true, Duration.ofSeconds(1));
+    peer = new SchemaChangeBus(dataSource, transactionManager, peerReceived::add, true, Duration.ofSeconds(1));
+    bus.start();
+    peer.start();
+    // every bus drops all caches once it listens
+    assertEquals(new SchemaChangedEvent(null, true), received.poll(10, TimeUnit.SECONDS));
+    assertEquals(new SchemaChangedEvent(null, true), peerReceived.poll(10, TimeUnit.SECONDS));
+  }
+
+  @AfterEach
+  void stopBuses() {
+    bus.stop();
+    peer.stop();
+  }
+
+  @Test
+  void onSchemaChanged_localChange_isReceivedByPeerOnly() throws InterruptedException {
+    bus.onSchemaChanged(new SchemaChangedEvent(SchemaType.SHAPE, false));
+
+    assertEquals(new SchemaChangedEvent(SchemaType.SHAPE, true), peerReceived.poll(10, TimeUnit.SECONDS));
+    assertNull(received.poll(2, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void onSchemaChanged_remoteChange_isNotSentAgain() throws InterruptedException {
+    peer.onSchemaChanged(new SchemaChangedEvent(SchemaType.ONTOLOGY, true));
+    peer.onSchemaChanged(new SchemaChangedEvent(null, false));
+
+    assertEquals(new SchemaChangedEvent(null, true), received.poll(10, TimeUnit.SECONDS));
+    assertNull(received.poll(2, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void receive_unknownOrMalformedChange_isIgnored() {
+    bus.receive("other-instance UNKNOWN");
+    bus.receive("malformed");
+
+    assertNull(received.poll());
+  }
+}
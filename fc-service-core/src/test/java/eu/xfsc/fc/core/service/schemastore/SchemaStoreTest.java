@@ -22,6 +22,7 @@ import java.io.InputStreamReader;
 import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -30,11 +31,16 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import javax.sql.DataSource;
+
 import eu.xfsc.fc.core.dao.schemas.SchemaAuditRepository;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
@@ -51,6 +57,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -103,6 +110,12 @@ public class SchemaStoreTest {
   @Autowired
   private JdbcTemplate jdbc;
 
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
 
   public Set<String> getExtractedTermsSet(ContentAccessor extractedTerms) throws IOException {
     Set<String> extractedTermsSet = new HashSet<>();
@@ -429,9 +442,11 @@ public class SchemaStoreTest {
   }
 
   /**
-   * Test of getCompositeSchema method, of class SchemaManagementImpl.
+   * Test of getCompositeSchema method, of class SchemaManagementImpl. The cached composite schema is
+   * dropped once the change commits, so the schemas are added in transactions of their own.
    */
   @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   public void testGetCompositeSchema() {
     Model modelActual = ModelFactory.createDefaultModel();
     String sub01 = "https://w3id.org/gaia-x/2511#PhysicalResourceShape";
@@ -449,34 +464,41 @@ public class SchemaStoreTest {
 
     //storageSelfCleaning();
 
-    schemaStore.addSchema(TestUtil.getAccessor(getClass(), schemaPath1));
-
-    SchemaAnalysisResult schemaResult = schemaStore.analyzeSchema(schema01Content);
-    assertTrue(schemaResult.isValid());
+    String schemaId1 = schemaStore.addSchema(TestUtil.getAccessor(getClass(), schemaPath1)).id();
+    String schemaId2 = null;
+    try {
+      SchemaAnalysisResult schemaResult = schemaStore.analyzeSchema(schema01Content);
+      assertTrue(schemaResult.isValid());
 
-    ContentAccessor compositeSchemaActual = schemaStore.getCompositeSchema(SHAPE);
-    log.trace(compositeSchemaActual.getContentAsString());
+      ContentAccessor compositeSchemaActual = schemaStore.getCompositeSchema(SHAPE);
+      log.trace(compositeSchemaActual.getContentAsString());
 
-    StringReader schemaContentReaderComposite = new StringReader(compositeSchemaActual.getContentAsString());
-    modelActual.read(schemaContentReaderComposite, "", "TURTLE");
-    assertTrue(isExistTriple(modelActual, sub01, pre01, obj01));
-    assertFalse(isExistTriple(modelActual, sub02, pre02, obj02));
+      StringReader schemaContentReaderComposite = new StringReader(compositeSchemaActual.getContentAsString());
+      modelActual.read(schemaContentReaderComposite, "", "TURTLE");
+      assertTrue(isExistTriple(modelActual, sub01, pre01, obj01));
+      assertFalse(isExistTriple(modelActual, sub02, pre02, obj02));
 
-    ContentAccessor schema02Content = TestUtil.getAccessor(getClass(), schemaPath2);
+      ContentAccessor schema02Content = TestUtil.getAccessor(getClass(), schemaPath2);
 
-    schemaStore.addSchema(TestUtil.getAccessor(getClass(), schemaPath2));
+      schemaId2 = schemaStore.addSchema(TestUtil.getAccessor(getClass(), schemaPath2)).id();
 
-    schemaStore.analyzeSchema(schema02Content);
+      schemaStore.analyzeSchema(schema02Content);
 
-    compositeSchemaActual = schemaStore.getCompositeSchema(SHAPE);
+      compositeSchemaActual = schemaStore.getCompositeSchema(SHAPE);
 
-    log.trace(compositeSchemaActual.getContentAsString());
+      log.trace(compositeSchemaActual.getContentAsString());
 
-    schemaContentReaderComposite = new StringReader(compositeSchemaActual.getContentAsString());
+      schemaContentReaderComposite = new StringReader(compositeSchemaActual.getContentAsString());
 
-    modelActual.read(schemaContentReaderComposite, "", "TURTLE");
-    assertTrue(isExistTriple(modelActual, sub01, pre01, obj01));
-    assertTrue(isExistTriple(modelActual, sub02, pre02, obj02));
+      modelActual.read(schemaContentReaderComposite, "", "TURTLE");
+      assertTrue(isExistTriple(modelActual, sub01, pre01, obj01));
+      assertTrue(isExistTriple(modelActual, sub02, pre02, obj02));
+    } finally {
+      schemaStore.deleteSchema(schemaId1);
+      if (schemaId2 != null) {
+        schemaStore.deleteSchema(schemaId2);
+      }
+    }
   }
 
   @Test
@@ -726,6 +748,30 @@ public class SchemaStoreTest {
     }
   }
 
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void updateSchema_committed_isSentToOtherInstances() throws InterruptedException {
+    BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+    SchemaChangeBus peer = new SchemaChangeBus(dataSource, transactionManager, received::add, true, Duration.ofSeconds(1));
+    peer.start();
+    try {
+      assertEquals(new SchemaChangedEvent(null, true), received.poll(10, TimeUnit.SECONDS));
+      String schemaId = schemaStore.addSchema(
+          TestUtil.getAccessor(getClass(), "Schema-Tests/valid-schemaShapeReduced.ttl")).id();
+      try {
+        assertEquals(new SchemaChangedEvent(SHAPE, true), received.poll(10, TimeUnit.SECONDS));
+
+        schemaStore.updateSchema(schemaId, TestUtil.getAccessor(getClass(), "Schema-Tests/valid-schemaShape.ttl"));
+
+        assertEquals(new SchemaChangedEvent(SHAPE, true), received.poll(10, TimeUnit.SECONDS));
+      } finally {
+        schemaStore.deleteSchema(schemaId);
+      }
+    } finally {
+      peer.stop();
+    }
+  }
+
   private static boolean isExistTriple(Model model, String sub, String pre, String obj) {
     StmtIterator iterActual = model.listStatements();
     while (iterActual.hasNext()) {
@@ -0,0 +1,79 @@
+package eu.xfsc.fc.core.service.schemastore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.Set;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.junit.jupiter.api.Test;
+
+public class ShapeTargetsTest {
+
+  private static final String PREFIXES = """
+      @prefix sh: <http://www.w3.org/ns/shacl#> .
+      @prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .
+      @prefix xsd: <http://www.w3.org/2001/XMLSchema#> .
+      @prefix ex: <http://example.org/> .
+      """;
+
+  private static final String SHAPES = PREFIXES + """
+      ex:ServiceShape a sh:NodeShape ;
+        sh:targetClass ex:Service ;
+        sh:property [ sh:path ex:name ; sh:datatype xsd:string ] .
+      ex:ProviderShape a sh:NodeShape ;
+        sh:targetClass ex:Provider ;
+        sh:property [ sh:path ex:address ; sh:node ex:AddressShape ] .
+      ex:AddressShape a sh:NodeShape ;
+        sh:property [ sh:path ex:city ; sh:minCount 1 ] .
+      """;
+
+  private static final String ONTOLOGY = PREFIXES + """
+      ex:Service a rdfs:Class .
+      ex:SaaS a rdfs:Class ; rdfs:subClassOf ex:Service .
+      ex:Provider a rdfs:Class .
+      """;
+
+  @Test
+  public void testUnchangedShapes() {
+    Set<String> classes = ShapeTargets.changedTargetClasses(read(SHAPES), read(SHAPES), read(ONTOLOGY));
+    assertTrue(classes.isEmpty());
+  }
+
+  @Test
+  public void testChangedPropertyShapeIncludesSubclasses() {
+    String changed = SHAPES.replace("sh:datatype xsd:string", "sh:datatype xsd:anyURI");
+    Set<String> classes = ShapeTargets.changedTargetClasses(read(SHAPES), read(changed), read(ONTOLOGY));
+    assertEquals(Set.of("http://example.org/Service", "http://example.org/SaaS"), classes);
+  }
+
+  @Test
+  public void testChangedReferencedShapeAffectsReferringTarget() {
+    String changed = SHAPES.replace("sh:minCount 1", "sh:minCount 2");
+    Set<String> classes = ShapeTargets.changedTargetClasses(read(SHAPES), read(changed), read(ONTOLOGY));
+    assertEquals(Set.of("http://example.org/Provider"), classes);
+  }
+
+  @Test
+  public void testNewShapeAddsItsTargets() {
+    Set<String> classes = ShapeTargets.changedTargetClasses(ModelFactory.createDefaultModel(), read(SHAPES),
+        ModelFactory.createDefaultModel());
+    assertEquals(Set.of("http://example.org/Service", "http://example.org/Provider"), classes);
+  }
+
+  @Test
+  public void testNodeTargetRequiresFullRevalidation() {
+    String changed = SHAPES.replace("sh:targetClass ex:Service", "sh:targetNode ex:service1");
+    assertNull(ShapeTargets.changedTargetClasses(read(SHAPES), read(changed), read(ONTOLOGY)));
+  }
+
+  private static Model read(String turtle) {
+    Model model = ModelFactory.createDefaultModel();
+    model.read(new StringReader(turtle), null, "TTL");
+    return model;
+  }
+
+}
@@ -0,0 +1,116 @@
+package eu.xfsc.fc.core.service.validation;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import eu.xfsc.fc.core.dao.validation.GraphSyncStatus;
+import eu.xfsc.fc.core.dao.validation.ValidationResult;
+import eu.xfsc.fc.core.dao.validation.ValidationResultRepository;
+import eu.xfsc.fc.core.dao.validation.ValidatorType;
+import eu.xfsc.fc.core.service.graphdb.GraphStore;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ValidationResultGraphSyncTest {
+
+  @Mock
+  private ValidationResultRepository repository;
+  @Mock
+  private GraphStore graphStore;
+  @Mock
+  private ValidationResultGraphWriter graphWriter;
+
+  private ValidationResultGraphSync sync;
+
+  @BeforeEach
+  void setUp() {
+    sync = new ValidationResultGraphSync(repository, graphStore, graphWriter, 100, 10, Duration.ofMinutes(5));
+  }
+
+  @Test
+  void flush_queuedResults_writtenInOneBatchAndMarkedSynced() {
+    List<ValidationResult> results = List.of(buildEntityWithId(1L), buildEntityWithId(2L));
+    when(repository.findAllById(List.of(1L, 2L))).thenReturn(results);
+
+    sync.write(1L);
+    sync.write(2L);
+    sync.flush();
+
+    verify(graphWriter).writeAll(results, graphStore);
+    verify(repository).updateGraphSyncStatus(List.of(1L, 2L), GraphSyncStatus.SYNCED);
+  }
+
+  @Test
+  void flush_batchWriteFails_retriesOneByOne() {
+    ValidationResult ok = buildEntityWithId(1L);
+    ValidationResult broken = buildEntityWithId(2L);
+    when(repository.findAllById(List.of(1L, 2L))).thenReturn(List.of(ok, broken));
+    doThrow(new RuntimeException("graph unavailable")).when(graphWriter).writeAll(anyCollection(), any());
+    doThrow(new RuntimeException("invalid claim")).when(graphWriter).write(broken, graphStore);
+
+    sync.write(1L);
+    sync.write(2L);
+    sync.flush();
+
+    verify(graphWriter).write(ok, graphStore);
+    verify(repository).updateGraphSyncStatus(List.of(1L), GraphSyncStatus.SYNCED);
+    verify(repository).updateGraphSyncStatus(List.of(2L), GraphSyncStatus.FAILED);
+  }
+
+  @Test
+  void flush_resultDeletedBeforeWrite_skipsWriteAndDeletesClaimsInOneCall() {
+    when(repository.findAllById(List.of(3L))).thenReturn(List.of());
+
+    sync.write(3L);
+    sync.delete(List.of("https://fc.example.org/meta/ValidationResult/3",
+        "https://fc.example.org/meta/ValidationResult/4"));
+    sync.flush();
+
+    InOrder order = inOrder(repository, graphStore);
+    order.verify(repository).findAllById(List.of(3L));
+    order.verify(graphStore).deleteValidationResultClaimsBatch(List.of(
+        "https://fc.example.org/meta/ValidationResult/3", "https://fc.example.org/meta/ValidationResult/4"));
+    verify(graphWriter, never()).writeAll(anyCollection(), any());
+  }
+
+  @Test
+  void start_abandonedPendingResults_areClaimedAndWrittenInBackground() {
+    ValidationResult pending = buildEntityWithId(5L);
+    when(repository.claimPendingGraphSync(300)).thenReturn(List.of(5L));
+    when(repository.findAllById(List.of(5L))).thenReturn(List.of(pending));
+
+    sync.start();
+    try {
+      verify(repository, timeout(5000)).updateGraphSyncStatus(eq(List.of(5L)), eq(GraphSyncStatus.SYNCED));
+      verify(graphWriter).writeAll(List.of(pending), graphStore);
+    } finally {
+      sync.stop();
+    }
+  }
+
+  private static ValidationResult buildEntityWithId(long id) {
+    ValidationResult e = new ValidationResult();
+    e.setAssetIds(new String[]{"https://example.org/asset/1"});
+    e.setValidatorIds(new String[]{"https://example.org/schema/1"});
+    e.setValidatorType(ValidatorType.SHACL);
+    e.setConforms(true);
+    e.setValidatedAt(Instant.parse("2024-06-01T12:00:00Z"));
+    e.setId(id);
+    return e;
+  }
+}
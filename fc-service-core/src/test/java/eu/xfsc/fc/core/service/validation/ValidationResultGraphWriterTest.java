@@ -16,6 +16,7 @@ import eu.xfsc.fc.core.pojo.RdfClaim;
 import eu.xfsc.fc.core.service.graphdb.GraphStore;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -105,6 +106,25 @@ class ValidationResultGraphWriterTest {
     assertEquals("https://example.org/asset/FIRST", subjectCaptor.getValue());
   }
 
+  // ===== writeAll =====
+
+  @Test
+  @SuppressWarnings("unchecked") // ArgumentCaptor.forClass(Map.class) produces an unchecked cast
+  void writeAll_resultsOfSameAsset_mergedUnderOneSubject() {
+    ValidationResult first = buildResult(1L, new String[]{"https://example.org/asset/1"});
+    ValidationResult second = buildResult(2L, new String[]{"https://example.org/asset/1"});
+    ValidationResult other = buildResult(3L, new String[]{"https://example.org/asset/2"});
+
+    writer.writeAll(List.of(first, second, other), graphStore);
+
+    ArgumentCaptor<Map<String, List<RdfClaim>>> batchCaptor = forClass(Map.class);
+    verify(graphStore).addClaimsBatch(batchCaptor.capture());
+    Map<String, List<RdfClaim>> batch = batchCaptor.getValue();
+    assertEquals(2, batch.size());
+    assertEquals(10, batch.get("https://example.org/asset/1").size(), "Two results of 5 triples each");
+    assertEquals(5, batch.get("https://example.org/asset/2").size());
+  }
+
   // ===== write — validatorId triples =====
 
   @Test
@@ -166,4 +166,31 @@ class ValidationResultHasherTest {
     assertEquals(hasher.hash(r1), hasher.hash(r2),
         "Hash must be stable regardless of assetIds array element order");
   }
+
+  // ===== resultHash =====
+
+  @Test
+  void resultHash_differentValidatedAt_returnsSameHash() {
+    ValidationResult first = buildResult(new String[]{"https://example.org/asset/1"},
+        new String[]{"ref/1"}, ValidatorType.SHACL, true, Instant.parse("2024-06-01T12:00:00Z"));
+    ValidationResult repeated = buildResult(new String[]{"https://example.org/asset/1"},
+        new String[]{"ref/1"}, ValidatorType.SHACL, true, Instant.parse("2024-07-01T12:00:00Z"));
+
+    assertEquals(hasher.resultHash(first), hasher.resultHash(repeated));
+    assertNotEquals(hasher.hash(first), hasher.hash(repeated));
+  }
+
+  @Test
+  void resultHash_differentReport_returnsDifferentHash() {
+    Instant ts = Instant.parse("2024-06-01T12:00:00Z");
+    ValidationResult r1 = buildResult(new String[]{"https://example.org/asset/1"},
+        new String[]{"ref/1"}, ValidatorType.SHACL, false, ts);
+    r1.setReport("missing ex:name");
+    ValidationResult r2 = buildResult(new String[]{"https://example.org/asset/1"},
+        new String[]{"ref/1"}, ValidatorType.SHACL, false, ts);
+    r2.setReport("missing ex:address");
+
+    assertNotEquals(hasher.resultHash(r1), hasher.resultHash(r2));
+    assertEquals(hasher.hash(r1), hasher.hash(r2), "The content hash does not cover the report");
+  }
 }
@@ -5,21 +5,22 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import eu.xfsc.fc.core.dao.validation.GraphSyncStatus;
 import eu.xfsc.fc.core.dao.validation.ValidatorType;
 import eu.xfsc.fc.core.dao.validation.ValidationResult;
 import eu.xfsc.fc.core.dao.validation.ValidationResultRepository;
+import eu.xfsc.fc.core.dao.validation.ValidationResultRepository.StoredResult;
 import eu.xfsc.fc.core.service.graphdb.GraphStore;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -39,57 +40,56 @@ class ValidationResultStoreImplTest {
   private ValidationResultGraphWriter graphWriter;
   @Mock
   private ValidationResultHasher hasher;
+  @Mock
+  private ValidationResultGraphSync graphSync;
 
   @InjectMocks
   private ValidationResultStoreImpl service;
 
-  // ===== store — graph write succeeds =====
+  // ===== store =====
 
   @Test
-  void store_graphWriteSucceeds_statusTransitionsToSynced() {
+  void store_newResult_insertsPendingAndQueuesGraphWrite() {
     ValidationResultRecord record = buildRecord(true);
-    ValidationResult saved = buildEntityWithId(1L);
     when(hasher.hash(any())).thenReturn("aabbcc");
-    when(repository.save(any())).thenReturn(saved);
+    when(hasher.resultHash(any())).thenReturn("ddeeff");
+    when(repository.insertOrTouch(any(), any(), eq("SHACL"), eq(true), any(), any(), eq("aabbcc"), eq("ddeeff")))
+        .thenReturn(stored(1L, true, GraphSyncStatus.PENDING));
 
-    service.store(record);
+    Long id = service.store(record);
 
-    ArgumentCaptor<ValidationResult> captor = ArgumentCaptor.forClass(ValidationResult.class);
-    // Called twice: first save (PostgreSQL commit), second save (status update to SYNCED)
-    verify(repository, org.mockito.Mockito.times(2)).save(captor.capture());
-    List<ValidationResult> savedEntities = captor.getAllValues();
-    assertEquals(GraphSyncStatus.SYNCED,
-        savedEntities.get(1).getGraphSyncStatus());
+    assertEquals(1L, id);
+    verify(graphSync).write(1L);
+    verifyNoInteractions(graphStore, graphWriter);
   }
 
   @Test
-  void store_graphWriteSucceeds_returnsId() {
+  void store_identicalResultExists_returnsItsIdWithoutGraphWrite() {
     ValidationResultRecord record = buildRecord(false);
-    ValidationResult saved = buildEntityWithId(99L);
     when(hasher.hash(any())).thenReturn("hash");
-    when(repository.save(any())).thenReturn(saved);
+    when(hasher.resultHash(any())).thenReturn("same");
+    when(repository.insertOrTouch(any(), any(), any(), eq(false), any(), any(), any(), eq("same")))
+        .thenReturn(stored(99L, false, GraphSyncStatus.SYNCED));
 
     Long id = service.store(record);
 
     assertEquals(99L, id);
+    verify(graphSync, never()).write(any());
+    verify(repository, never()).save(any());
   }
 
-  // ===== store — graph write fails =====
-
   @Test
-  void store_graphWriteFails_statusMarkedFailed() {
-    ValidationResultRecord record = buildRecord(true);
-    ValidationResult saved = buildEntityWithId(2L);
-    when(hasher.hash(any())).thenReturn("aabbcc");
-    when(repository.save(any())).thenReturn(saved);
-    doThrow(new RuntimeException("graph unavailable"))
-        .when(graphWriter).write(any(), any());
+  void store_identicalResultFailedInGraph_queuesGraphWriteAgain() {
+    ValidationResultRecord record = buildRecord(false);
+    when(hasher.hash(any())).thenReturn("hash");
+    when(hasher.resultHash(any())).thenReturn("same");
+    when(repository.insertOrTouch(any(), any(), any(), eq(false), any(), any(), any(), eq("same")))
+        .thenReturn(stored(99L, false, GraphSyncStatus.PENDING));
 
-    service.store(record);
+    Long id = service.store(record);
 
-    // Two saves: initial PG commit + FAILED status update
-    verify(repository, org.mockito.Mockito.times(2)).save(any());
-    assertEquals(GraphSyncStatus.FAILED, saved.getGraphSyncStatus());
+    assertEquals(99L, id);
+    verify(graphSync).write(99L);
   }
 
   // ===== getByAssetId =====
@@ -133,7 +133,7 @@ class ValidationResultStoreImplTest {
   // ===== deleteByAssetId =====
 
   @Test
-  void deleteByAssetId_existingResults_deletesGraphAndPostgresRows() {
+  void deleteByAssetId_existingResults_deletesRowsAndQueuesOneGraphDeletion() {
     ValidationResult result1 = buildEntityWithId(10L);
     ValidationResult result2 = buildEntityWithId(11L);
     when(repository.findAllByAssetId("https://example.org/asset/1"))
@@ -143,9 +143,10 @@ class ValidationResultStoreImplTest {
 
     service.deleteByAssetId("https://example.org/asset/1");
 
-    verify(graphStore).deleteValidationResultClaims("https://fc.example.org/meta/ValidationResult/10");
-    verify(graphStore).deleteValidationResultClaims("https://fc.example.org/meta/ValidationResult/11");
     verify(repository).deleteAllByAssetId("https://example.org/asset/1");
+    verify(graphSync).delete(List.of("https://fc.example.org/meta/ValidationResult/10",
+        "https://fc.example.org/meta/ValidationResult/11"));
+    verifyNoInteractions(graphStore);
   }
 
   @Test
@@ -156,23 +157,29 @@ class ValidationResultStoreImplTest {
     service.deleteByAssetId("https://example.org/asset/unknown");
 
     verify(repository).deleteAllByAssetId("https://example.org/asset/unknown");
-    org.mockito.Mockito.verifyNoInteractions(graphStore);
+    verify(graphSync).delete(List.of());
+    verifyNoInteractions(graphStore);
   }
 
-  @Test
-  void deleteByAssetId_graphThrows_deletesDbRowsAnyway() {
-    ValidationResult result = buildEntityWithId(20L);
-    when(repository.findAllByAssetId("https://example.org/asset/1"))
-        .thenReturn(List.of(result));
-    when(graphWriter.resultIri(20L)).thenReturn("https://fc.example.org/meta/ValidationResult/20");
-    doThrow(new RuntimeException("graph unavailable"))
-        .when(graphStore).deleteValidationResultClaims(any());
 
-    service.deleteByAssetId("https://example.org/asset/1");
+  private static StoredResult stored(long id, boolean inserted, GraphSyncStatus status) {
+    return new StoredResult() {
+      @Override
+      public Long getId() {
+        return id;
+      }
 
-    verify(repository).deleteAllByAssetId("https://example.org/asset/1");
-  }
+      @Override
+      public Boolean getInserted() {
+        return inserted;
+      }
 
+      @Override
+      public String getGraphSyncStatus() {
+        return status.name();
+      }
+    };
+  }
 
   private static ValidationResultRecord buildRecord(boolean conforms) {
     return new ValidationResultRecord(
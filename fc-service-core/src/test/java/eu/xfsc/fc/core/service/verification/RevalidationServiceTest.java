@@ -1,6 +1,7 @@
 package eu.xfsc.fc.core.service.verification;
 
 import eu.xfsc.fc.api.generated.model.AssetStatus;
+import eu.xfsc.fc.core.config.BulkheadProperties;
 import eu.xfsc.fc.core.config.VerificationStackTestConfig;
 import eu.xfsc.fc.core.dao.assets.AssetAuditRepository;
 import eu.xfsc.fc.core.dao.assets.AssetJpaDao;
@@ -15,6 +16,7 @@ import eu.xfsc.fc.core.service.assetstore.AssetStore;
 import eu.xfsc.fc.core.service.assetstore.AssetStoreImpl;
 import eu.xfsc.fc.core.service.assetstore.IriGenerator;
 import eu.xfsc.fc.core.service.assetstore.IriValidator;
+import eu.xfsc.fc.core.service.bulkhead.BulkheadRegistry;
 import eu.xfsc.fc.core.service.graphdb.DummyGraphStore;
 import eu.xfsc.fc.core.service.provenance.ProvenanceService;
 import eu.xfsc.fc.core.service.schemastore.SchemaStore;
@@ -63,6 +65,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
     AssetAuditRepository.class,
     AssetJpaDao.class,
     AssetStoreImpl.class,
+    BulkheadProperties.class,
+    BulkheadRegistry.class,
     DummyGraphStore.class,
     IriGenerator.class,
     IriValidator.class,
@@ -166,6 +170,9 @@ public class RevalidationServiceTest {
     }
     revalidator.cleanup();
     assertTrue(allChunksAfter(treshold), "All chunks should have been revalidated.");
+    assertTrue(revalidator.getProgress().getChunksDone() > 0, "Revalidated chunks should be counted.");
+    Integer runs = jdbc.queryForObject("select count(*) from revalidation_runs", Integer.class);
+    assertTrue(runs > 0, "The revalidation run should be recorded.");
   }
 
   @Test
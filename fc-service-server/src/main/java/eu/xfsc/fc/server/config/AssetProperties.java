@@ -22,4 +22,7 @@ public class AssetProperties {
       "text/plain"
   ));
 
+  /** Maximum number of hashes accepted by one {@code POST /assets/lookup} request. */
+  private int maxLookupHashes = 1000;
+
 }
@@ -0,0 +1,42 @@
+package eu.xfsc.fc.server.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import eu.xfsc.fc.core.service.pubsub.AssetSubscriber;
+import eu.xfsc.fc.core.service.pubsub.nats.NatsAssetSubscriberImpl;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Publishes the consumer lag and throughput of the NATS asset subscriber as
+ * {@code fc.subscriber.*} meters. Nothing is registered for other subscriber implementations.
+ */
+@Component
+@RequiredArgsConstructor
+public class AssetSubscriberMetrics implements MeterBinder {
+
+  private final ObjectProvider<AssetSubscriber> subscriber;
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    if (!(subscriber.getIfAvailable() instanceof NatsAssetSubscriberImpl nats)) {
+      return;
+    }
+    Gauge.builder("fc.subscriber.lag", nats, NatsAssetSubscriberImpl::getLag)
+        .description("Messages in the stream not yet delivered to the consumer")
+        .register(registry);
+    FunctionCounter.builder("fc.subscriber.processed", nats, NatsAssetSubscriberImpl::getProcessed)
+        .description("Messages processed and acknowledged")
+        .register(registry);
+    FunctionCounter.builder("fc.subscriber.failed", nats, NatsAssetSubscriberImpl::getFailed)
+        .description("Messages handed back for redelivery")
+        .register(registry);
+    FunctionCounter.builder("fc.subscriber.dead-lettered", nats, NatsAssetSubscriberImpl::getDeadLettered)
+        .description("Messages terminated without being processed")
+        .register(registry);
+  }
+}
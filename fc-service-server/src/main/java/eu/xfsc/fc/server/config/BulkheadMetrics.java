@@ -0,0 +1,47 @@
+package eu.xfsc.fc.server.config;
+
+import org.springframework.stereotype.Component;
+
+import eu.xfsc.fc.core.service.bulkhead.Bulkhead;
+import eu.xfsc.fc.core.service.bulkhead.BulkheadRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Publishes the state of the query, ingest and admin bulkheads as {@code fc.bulkhead.*} meters,
+ * tagged with the bulkhead type.
+ */
+@Component
+@RequiredArgsConstructor
+public class BulkheadMetrics implements MeterBinder {
+
+  private final BulkheadRegistry bulkheads;
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    for (Bulkhead bulkhead : bulkheads.getAll()) {
+      String type = bulkhead.getType().name().toLowerCase();
+      Gauge.builder("fc.bulkhead.active", bulkhead, Bulkhead::getActive)
+          .description("Units of work running in the bulkhead")
+          .tag("type", type)
+          .register(registry);
+      Gauge.builder("fc.bulkhead.waiting", bulkhead, Bulkhead::getWaiting)
+          .description("Callers waiting for a free slot")
+          .tag("type", type)
+          .register(registry);
+      Gauge.builder("fc.bulkhead.max.concurrent", bulkhead, Bulkhead::getMaxConcurrent)
+          .tag("type", type)
+          .register(registry);
+      FunctionCounter.builder("fc.bulkhead.rejected", bulkhead, Bulkhead::getRejected)
+          .description("Callers rejected because the bulkhead was full")
+          .tag("type", type)
+          .register(registry);
+      FunctionCounter.builder("fc.bulkhead.completed", bulkhead, Bulkhead::getCompleted)
+          .tag("type", type)
+          .register(registry);
+    }
+  }
+}
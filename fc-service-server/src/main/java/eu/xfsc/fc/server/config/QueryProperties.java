@@ -1,10 +1,12 @@
 package eu.xfsc.fc.server.config;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -17,6 +19,14 @@ public class QueryProperties {
 
 	private List<String> partners;
 	private String self;
+	/* deadline for the answer of a single partner in distributed search, capped by the query timeout */
+	private Duration partnerTimeout = Duration.ofSeconds(5);
+	/* part of the partner deadline kept to merge the results, the rest is forwarded as the timeout of the partners */
+	private Duration partnerTimeoutMargin = Duration.ofSeconds(1);
+	/* delay after which the entry node sends an unanswered partner request a second time; zero disables hedging */
+	private Duration partnerHedgeDelay = Duration.ofSeconds(1);
+	private Cache cache = new Cache();
+	private Admission admission = new Admission();
 	
 	public List<String> getPartners() {
 		if (partners == null) {
@@ -27,7 +37,43 @@ public class QueryProperties {
 
 	@Override
 	public String toString() {
-		return "QueryProperties [partners=" + partners + ", self=" + self + "]";
+		return "QueryProperties [partners=" + partners + ", self=" + self + ", partnerTimeout=" + partnerTimeout
+				+ ", partnerTimeoutMargin=" + partnerTimeoutMargin + ", partnerHedgeDelay=" + partnerHedgeDelay + ", cache=" + cache + ", admission=" + admission + "]";
+	}
+
+	/**
+	 * Settings of the graph query result cache.
+	 */
+	@Getter
+	@Setter
+	@lombok.ToString
+	public static class Cache {
+
+		private boolean enabled = true;
+		/* upper bound of the estimated size of all cached results */
+		private DataSize maxSize = DataSize.ofMegabytes(64);
+		/* bounds staleness caused by writes of other catalogue instances sharing the graph database */
+		private Duration ttl = Duration.ofMinutes(5);
+	}
+
+	/**
+	 * Settings of the cost-based admission control of graph queries.
+	 */
+	@Getter
+	@Setter
+	@lombok.ToString
+	public static class Admission {
+
+		private boolean enabled = true;
+		/* queries with a higher estimated cost are rejected; zero or less disables the limit */
+		private long maxCost = 50_000_000;
+		/* queries with a higher estimated cost share the heavy query slots */
+		private long heavyCost = 1_000_000;
+		private int maxHeavyConcurrent = 2;
+		/* concurrently running queries of one client, zero or less disables the limit */
+		private int maxConcurrentPerClient = 4;
+		/* how long a query may wait for a free slot before it is rejected */
+		private Duration queueTimeout = Duration.ofSeconds(2);
 	}
 	
 }
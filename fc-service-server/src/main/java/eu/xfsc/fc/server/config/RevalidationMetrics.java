@@ -0,0 +1,73 @@
+package eu.xfsc.fc.server.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import eu.xfsc.fc.core.service.verification.RevalidationProgress;
+import eu.xfsc.fc.core.service.verification.RevalidationService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Publishes the progress of the current revalidation run as {@code fc.revalidation.*} meters.
+ * The values restart from zero with each run. Nothing is registered when this instance does not
+ * revalidate assets.
+ */
+@Component
+@RequiredArgsConstructor
+public class RevalidationMetrics implements MeterBinder {
+
+  private final ObjectProvider<RevalidationService> revalidationService;
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    RevalidationService service = revalidationService.getIfAvailable();
+    if (service == null) {
+      return;
+    }
+    gauge(registry, service, "fc.revalidation.processed", "Assets revalidated in the current run",
+        RevalidationProgress::getProcessedCount);
+    gauge(registry, service, "fc.revalidation.revoked", "Assets revoked in the current run",
+        RevalidationProgress::getRevokedCount);
+    gauge(registry, service, "fc.revalidation.errors", "Assets that could not be revalidated in the current run",
+        RevalidationProgress::getErrorCount);
+    gauge(registry, service, "fc.revalidation.chunks.done", "Chunks revalidated by this instance in the current run",
+        RevalidationProgress::getChunksDone);
+    gauge(registry, service, "fc.revalidation.chunks.remaining", "Chunks still due across all instances",
+        RevalidationProgress::getRemainingChunks);
+    gauge(registry, service, "fc.revalidation.chunk.current", "Chunk being revalidated, -1 when idle",
+        RevalidationProgress::getCurrentChunk);
+    gauge(registry, service, "fc.revalidation.workers.busy", "Assets being revalidated right now",
+        RevalidationProgress::getBusyWorkers);
+    gauge(registry, service, "fc.revalidation.throughput", "Assets revalidated per second since the run started",
+        RevalidationProgress::getAssetsPerSecond);
+    gauge(registry, service, "fc.revalidation.worker.throughput", "Assets revalidated per second by one busy worker",
+        RevalidationProgress::getAssetsPerSecondPerWorker);
+    timeGauge(registry, service, "fc.revalidation.asset.duration", "Mean time to revalidate an asset",
+        RevalidationProgress::getMeanAssetMs);
+    timeGauge(registry, service, "fc.revalidation.chunk.duration", "Mean time to revalidate a chunk",
+        RevalidationProgress::getMeanChunkMs);
+    timeGauge(registry, service, "fc.revalidation.eta", "Estimated time until no chunk is due, -1 when unknown",
+        RevalidationProgress::getEtaMs);
+  }
+
+  private static void gauge(MeterRegistry registry, RevalidationService service, String name, String description,
+      ToDoubleFunction<RevalidationProgress> value) {
+    Gauge.builder(name, service, s -> value.applyAsDouble(s.getProgress()))
+        .description(description)
+        .register(registry);
+  }
+
+  private static void timeGauge(MeterRegistry registry, RevalidationService service, String name, String description,
+      ToDoubleFunction<RevalidationProgress> millis) {
+    TimeGauge.builder(name, service, TimeUnit.MILLISECONDS, s -> millis.applyAsDouble(s.getProgress()))
+        .description(description)
+        .register(registry);
+  }
+}
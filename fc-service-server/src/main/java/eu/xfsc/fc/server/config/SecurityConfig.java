@@ -92,6 +92,7 @@ public class SecurityConfig {
           .requestMatchers(HttpMethod.GET, "/assets/*/machine-readable").hasAnyRole(ASSET_READ, ADMIN_ALL)
           .requestMatchers(HttpMethod.GET, "/assets/*/validations").hasAnyRole(ASSET_READ, ADMIN_ALL)
           .requestMatchers(HttpMethod.POST, "/assets/validate").hasAnyRole(ASSET_READ, ADMIN_ALL)
+          .requestMatchers(HttpMethod.POST, "/assets/lookup").hasAnyRole(ASSET_READ, ADMIN_ALL)
           .requestMatchers(HttpMethod.POST, "/assets/*/provenance").hasAnyRole(ASSET_UPDATE, ADMIN_ALL)
           .requestMatchers(HttpMethod.GET, "/assets/*/provenance", "/assets/*/provenance/*").hasAnyRole(ASSET_READ, ADMIN_ALL)
           .requestMatchers(HttpMethod.POST, "/assets/*/provenance/*/verify", "/assets/*/provenance/verify").hasAnyRole(ASSET_UPDATE, ADMIN_ALL)
@@ -138,6 +139,9 @@ public class SecurityConfig {
           .requestMatchers(HttpMethod.GET, "/admin/schema-validation").hasRole(ADMIN_ALL)
           .requestMatchers(HttpMethod.PUT, "/admin/schema-validation/**").hasRole(ADMIN_ALL)
 
+          // Stored Query Admin APIs
+          .requestMatchers("/admin/stored-queries", "/admin/stored-queries/*").hasRole(ADMIN_ALL)
+
           // Graph Database Admin APIs
           .requestMatchers(HttpMethod.GET, "/admin/graph-database").hasRole(ADMIN_ALL)
           .requestMatchers(HttpMethod.POST, "/admin/graph-database/switch").hasRole(ADMIN_ALL)
@@ -146,6 +150,9 @@ public class SecurityConfig {
           .requestMatchers(HttpMethod.POST, "/admin/graph/rebuild").hasRole(ADMIN_ALL)
           .requestMatchers(HttpMethod.GET, "/admin/graph/rebuild/status", "/admin/graph/status").hasRole(ADMIN_ALL)
 
+          // Revalidation Admin APIs
+          .requestMatchers(HttpMethod.GET, "/admin/revalidation/status").hasRole(ADMIN_ALL)
+
           // Actuator graph-rebuild
           .requestMatchers(HttpMethod.POST, "/actuator/graph-rebuild").hasRole(ADMIN_ALL)
 
@@ -7,6 +7,7 @@ import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static org.springframework.http.HttpStatus.NOT_IMPLEMENTED;
 import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
 import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
 import static org.springframework.http.HttpStatus.UNSUPPORTED_MEDIA_TYPE;
 
@@ -20,6 +21,7 @@ import eu.xfsc.fc.core.exception.ClientException;
 import eu.xfsc.fc.core.exception.ConflictException;
 import eu.xfsc.fc.core.exception.GraphStoreDisabledException;
 import eu.xfsc.fc.core.exception.NotFoundException;
+import eu.xfsc.fc.core.exception.QueryRejectedException;
 import eu.xfsc.fc.core.exception.ServerException;
 import eu.xfsc.fc.core.exception.ServiceUnavailableException;
 import eu.xfsc.fc.core.exception.TimeoutException;
@@ -136,6 +138,22 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         new Error("graph_store_disabled", exception.getMessage()), SERVICE_UNAVAILABLE);
   }
 
+  /**
+   * Method handles the Query Rejected Exception.
+   *
+   * @param exception Thrown QueryRejectedException.
+   * @return The custom Federated Catalogue application error with status code 422 for queries over
+   *     the cost budget, or 429 for queries rejected because of the current load.
+   */
+  @ExceptionHandler({QueryRejectedException.class})
+  protected ResponseEntity<Error> handleQueryRejectedException(QueryRejectedException exception) {
+    log.info("handleQueryRejectedException; error: {}", exception.getMessage());
+    if (exception.isOverBudget()) {
+      return new ResponseEntity<>(new Error("query_cost_exceeded", exception.getMessage()), UNPROCESSABLE_ENTITY);
+    }
+    return new ResponseEntity<>(new Error("too_many_requests", exception.getMessage()), TOO_MANY_REQUESTS);
+  }
+
   /**
    * Method handles the ServiceUnavailableException.
    *
@@ -4,9 +4,6 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.sql.SQLException;
 import java.time.Duration;
-import java.util.List;
-import java.util.Map;
-import java.util.function.Supplier;
 
 import javax.sql.DataSource;
 
@@ -16,16 +13,9 @@ import org.springframework.stereotype.Service;
 import eu.xfsc.fc.api.generated.model.AdminHealthStatus;
 import eu.xfsc.fc.api.generated.model.AdminHealthStatusGraphDbStatus;
 import eu.xfsc.fc.api.generated.model.AdminStats;
-import eu.xfsc.fc.api.generated.model.AssetStatus;
 import eu.xfsc.fc.api.generated.model.KeycloakAdminUrl;
-import eu.xfsc.fc.core.dao.ParticipantDao;
-import eu.xfsc.fc.core.dao.UserDao;
-import eu.xfsc.fc.core.dao.trustframework.TrustFrameworkRepository;
-import eu.xfsc.fc.core.pojo.AssetFilter;
 import eu.xfsc.fc.core.pojo.GraphBackendType;
-import eu.xfsc.fc.core.service.assetstore.AssetStore;
 import eu.xfsc.fc.core.service.graphdb.GraphStore;
-import eu.xfsc.fc.core.service.schemastore.SchemaStore;
 import eu.xfsc.fc.server.config.AdminDashboardConfig;
 import eu.xfsc.fc.server.generated.controller.AdminApiDelegate;
 import lombok.RequiredArgsConstructor;
@@ -41,12 +31,8 @@ public class AdminDashboardService implements AdminApiDelegate {
 
   private static final Duration KEYCLOAK_TIMEOUT = Duration.ofSeconds(5);
 
-  private final AssetStore assetStore;
-  private final SchemaStore schemaStore;
+  private final AdminStatsSnapshot statsSnapshot;
   private final GraphStore graphStore;
-  private final ParticipantDao participantDao;
-  private final TrustFrameworkRepository trustFrameworkRepository;
-  private final UserDao userDao;
   private final DataSource dataSource;
   private final AdminDashboardConfig config;
 
@@ -57,54 +43,7 @@ public class AdminDashboardService implements AdminApiDelegate {
 
   @Override
   public ResponseEntity<AdminStats> getAdminStats() {
-    AdminStats stats = new AdminStats();
-
-    AssetFilter allFilter = new AssetFilter();
-    allFilter.setLimit(0);
-    allFilter.setOffset(0);
-    stats.setTotalAssets(safeGet(
-        () -> assetStore.getByFilter(allFilter, false, false).getTotalCount(), -1L, "total asset count"));
-
-    AssetFilter activeFilter = new AssetFilter();
-    activeFilter.setStatuses(List.of(AssetStatus.ACTIVE));
-    activeFilter.setLimit(0);
-    activeFilter.setOffset(0);
-    stats.setActiveAssets(safeGet(
-        () -> assetStore.getByFilter(activeFilter, false, false).getTotalCount(), -1L, "active asset count"));
-
-    stats.setTotalSchemas(safeGet(() -> {
-      Map<SchemaStore.SchemaType, List<String>> schemas = schemaStore.getSchemaList();
-      return schemas.values().stream().mapToLong(List::size).sum();
-    }, -1L, "schema count"));
-
-    stats.setTotalParticipants(safeGet(
-        () -> participantDao.search(0, 0).getTotalCount(), -1L, "participant count"));
-
-    stats.setTotalUsers(safeGet(
-        () -> userDao.search(null, 0, 0).getTotalCount(), -1L, "user count"));
-
-    stats.setActiveTrustFrameworks(safeGet(
-        trustFrameworkRepository::countByEnabledTrue, -1L, "trust framework count"));
-
-    try {
-      stats.setGraphClaimCount(graphStore.getClaimCount());
-      stats.setGraphBackend(graphStore.getBackendType().name());
-    } catch (RuntimeException e) {
-      log.warn("Failed to get graph info", e);
-      stats.setGraphClaimCount(-1L);
-      stats.setGraphBackend("UNKNOWN");
-    }
-
-    return ResponseEntity.ok(stats);
-  }
-
-  private <T> T safeGet(Supplier<T> supplier, T fallback, String context) {
-    try {
-      return supplier.get();
-    } catch (RuntimeException e) {
-      log.warn("Failed to get {}", context, e);
-      return fallback;
-    }
+    return ResponseEntity.ok(statsSnapshot.getStats());
   }
 
   @Override
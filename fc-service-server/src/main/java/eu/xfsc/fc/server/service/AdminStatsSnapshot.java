@@ -0,0 +1,226 @@
+package eu.xfsc.fc.server.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import eu.xfsc.fc.api.generated.model.AdminStats;
+import eu.xfsc.fc.api.generated.model.AssetStatus;
+import eu.xfsc.fc.core.dao.ParticipantDao;
+import eu.xfsc.fc.core.dao.UserDao;
+import eu.xfsc.fc.core.dao.trustframework.TrustFrameworkRepository;
+import eu.xfsc.fc.core.pojo.AssetFilter;
+import eu.xfsc.fc.core.service.assetstore.AssetChangedEvent;
+import eu.xfsc.fc.core.service.assetstore.AssetDeletedEvent;
+import eu.xfsc.fc.core.service.assetstore.AssetStore;
+import eu.xfsc.fc.core.service.graphdb.GraphStore;
+import eu.xfsc.fc.core.service.schemastore.SchemaStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the admin dashboard statistics in memory.
+ *
+ * <p>Collecting the statistics takes several database counts, Keycloak searches and graph
+ * counts, so they are collected in the background every
+ * {@code admin.dashboard.stats.refresh-interval} instead of on every dashboard request. Reads are
+ * served from the last snapshot together with its age; only the first read after startup waits for
+ * a collection.</p>
+ *
+ * <p>Asset changes only affect the asset and graph counts. These are counted again on read, once
+ * assets changed and the counts are older than {@code admin.dashboard.stats.change-delay}, so
+ * ingest causes no work while nobody looks at the dashboard and changes made in the meantime are
+ * coalesced into one count.</p>
+ *
+ * <p>Only asset changes made through this instance are signalled: each instance of a cluster keeps
+ * its own snapshot, and {@code refreshPending} says nothing about changes made through other
+ * instances. Those, as well as schema, participant, user and trust framework changes, show up with
+ * the next scheduled refresh.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AdminStatsSnapshot {
+
+  private final AssetStore assetStore;
+  private final SchemaStore schemaStore;
+  private final GraphStore graphStore;
+  private final ParticipantDao participantDao;
+  private final TrustFrameworkRepository trustFrameworkRepository;
+  private final UserDao userDao;
+
+  @Value("${admin.dashboard.stats.change-delay:PT10S}")
+  private Duration changeDelay;
+
+  private final AtomicBoolean changed = new AtomicBoolean();
+  private final ReentrantLock refreshLock = new ReentrantLock();
+  private volatile Snapshot current;
+
+  /**
+   * Returns the statistics of the last snapshot, collecting them first if none was taken yet, and
+   * counting the assets again if they changed more than the change delay after the last count.
+   *
+   * @return a new {@link AdminStats} carrying the snapshot time and age
+   */
+  public AdminStats getStats() {
+    Snapshot snapshot = current;
+    if (snapshot == null) {
+      refresh();
+    } else if (changed.get() && !snapshot.takenAt().plus(changeDelay).isAfter(Instant.now())) {
+      refreshAssetCounts();
+    }
+    return current.toStats(Instant.now(), changed.get());
+  }
+
+  /**
+   * Collects the statistics and replaces the snapshot. Concurrent calls wait for the collection in
+   * progress and then collect again.
+   */
+  @Scheduled(initialDelayString = "${admin.dashboard.stats.refresh-interval:PT5M}",
+      fixedDelayString = "${admin.dashboard.stats.refresh-interval:PT5M}")
+  public void refresh() {
+    refreshLock.lock();
+    try {
+      // changes signalled from here on are not guaranteed to be seen and trigger another refresh
+      changed.set(false);
+      long stamp = System.currentTimeMillis();
+      current = collect();
+      log.debug("refresh; admin statistics collected in {} ms", System.currentTimeMillis() - stamp);
+    } finally {
+      refreshLock.unlock();
+    }
+  }
+
+  /**
+   * Counts the assets and graph claims again and replaces them in the snapshot, unless a
+   * concurrent read already did.
+   */
+  private void refreshAssetCounts() {
+    refreshLock.lock();
+    try {
+      if (!changed.getAndSet(false)) {
+        return;
+      }
+      long stamp = System.currentTimeMillis();
+      current = current.withAssetCounts(collectAssetCounts());
+      log.debug("refreshAssetCounts; asset counts collected in {} ms", System.currentTimeMillis() - stamp);
+    } finally {
+      refreshLock.unlock();
+    }
+  }
+
+  /**
+   * Marks the snapshot outdated once the asset change is committed. Only changes of this instance
+   * are published as events.
+   */
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onAssetChanged(AssetChangedEvent event) {
+    changed.set(true);
+  }
+
+  /**
+   * Marks the snapshot outdated once the asset deletion is committed.
+   */
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onAssetDeleted(AssetDeletedEvent event) {
+    changed.set(true);
+  }
+
+  private Snapshot collect() {
+    long totalSchemas = safeGet(() -> {
+      Map<SchemaStore.SchemaType, List<String>> schemas = schemaStore.getSchemaList();
+      return schemas.values().stream().mapToLong(List::size).sum();
+    }, -1L, "schema count");
+
+    long totalParticipants = safeGet(
+        () -> participantDao.search(0, 0).getTotalCount(), -1L, "participant count");
+
+    long totalUsers = safeGet(
+        () -> userDao.search(null, 0, 0).getTotalCount(), -1L, "user count");
+
+    long activeTrustFrameworks = safeGet(
+        trustFrameworkRepository::countByEnabledTrue, -1L, "trust framework count");
+
+    return new Snapshot(collectAssetCounts(), totalSchemas, totalParticipants, totalUsers, activeTrustFrameworks);
+  }
+
+  private AssetCounts collectAssetCounts() {
+    AssetFilter allFilter = new AssetFilter();
+    allFilter.setLimit(0);
+    allFilter.setOffset(0);
+    long totalAssets = safeGet(
+        () -> assetStore.getByFilter(allFilter, false, false).getTotalCount(), -1L, "total asset count");
+
+    AssetFilter activeFilter = new AssetFilter();
+    activeFilter.setStatuses(List.of(AssetStatus.ACTIVE));
+    activeFilter.setLimit(0);
+    activeFilter.setOffset(0);
+    long activeAssets = safeGet(
+        () -> assetStore.getByFilter(activeFilter, false, false).getTotalCount(), -1L, "active asset count");
+
+    long graphClaimCount;
+    String graphBackend;
+    try {
+      graphClaimCount = graphStore.getClaimCount();
+      graphBackend = graphStore.getBackendType().name();
+    } catch (RuntimeException e) {
+      log.warn("Failed to get graph info", e);
+      graphClaimCount = -1L;
+      graphBackend = "UNKNOWN";
+    }
+
+    return new AssetCounts(totalAssets, activeAssets, graphClaimCount, graphBackend, Instant.now());
+  }
+
+  private <T> T safeGet(Supplier<T> supplier, T fallback, String context) {
+    try {
+      return supplier.get();
+    } catch (RuntimeException e) {
+      log.warn("Failed to get {}", context, e);
+      return fallback;
+    }
+  }
+
+  private record AssetCounts(long totalAssets, long activeAssets, long graphClaimCount, String graphBackend,
+      Instant takenAt) {
+  }
+
+  private record Snapshot(AssetCounts assets, long totalSchemas, long totalParticipants, long totalUsers,
+      long activeTrustFrameworks) {
+
+    Instant takenAt() {
+      return assets.takenAt();
+    }
+
+    Snapshot withAssetCounts(AssetCounts counts) {
+      return new Snapshot(counts, totalSchemas, totalParticipants, totalUsers, activeTrustFrameworks);
+    }
+
+    AdminStats toStats(Instant now, boolean refreshPending) {
+      Instant takenAt = takenAt();
+      AdminStats stats = new AdminStats();
+      stats.setTotalAssets(assets.totalAssets());
+      stats.setActiveAssets(assets.activeAssets());
+      stats.setTotalSchemas(totalSchemas);
+      stats.setTotalParticipants(totalParticipants);
+      stats.setTotalUsers(totalUsers);
+      stats.setActiveTrustFrameworks(activeTrustFrameworks);
+      stats.setGraphClaimCount(assets.graphClaimCount());
+      stats.setGraphBackend(assets.graphBackend());
+      stats.setSnapshotTime(takenAt);
+      stats.setSnapshotAgeMs(Duration.between(takenAt, now).toMillis());
+      stats.setRefreshPending(refreshPending);
+      return stats;
+    }
+  }
+}
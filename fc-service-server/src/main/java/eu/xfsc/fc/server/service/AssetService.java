@@ -2,6 +2,7 @@ package eu.xfsc.fc.server.service;
 
 import eu.xfsc.fc.api.generated.model.Asset;
 import eu.xfsc.fc.api.generated.model.AssetEnrichmentResponse;
+import eu.xfsc.fc.api.generated.model.AssetLookupRequest;
 import eu.xfsc.fc.api.generated.model.AssetResult;
 import eu.xfsc.fc.api.generated.model.AssetStatus;
 import eu.xfsc.fc.api.generated.model.AssetVersion;
@@ -131,6 +132,41 @@ public class AssetService implements AssetsApiDelegate {
     }
     final PaginatedResults<AssetMetadata> assets = assetStorePublisher.getByFilter(filter, withMeta, withContent);
     log.debug("readAssets.exit; returning: {}", assets);
+    return ResponseEntity.ok(toAssets(assets, withMeta, withContent));
+  }
+
+  /**
+   * Service method for POST /assets/lookup : Read several assets by their hashes in one request.
+   * Used by other catalogue instances to fetch replicated assets in batches.
+   *
+   * @param lookupRequest hashes of the assets and the parts of them to return
+   * @return the active assets found for the hashes (status code 200)
+   *         or the request is empty or has too many hashes (status code 400)
+   */
+  @Override
+  public ResponseEntity<Assets> readAssetsByHashes(AssetLookupRequest lookupRequest) {
+    if (lookupRequest == null || lookupRequest.getHashes() == null || lookupRequest.getHashes().isEmpty()) {
+      throw new ClientException("At least one asset hash is required");
+    }
+    List<String> hashes = lookupRequest.getHashes().stream().distinct().toList();
+    if (hashes.size() > assetProperties.getMaxLookupHashes()) {
+      throw new ClientException("Too many asset hashes: " + hashes.size() + ", maximum is "
+          + assetProperties.getMaxLookupHashes());
+    }
+    boolean withMeta = Boolean.TRUE.equals(lookupRequest.getWithMeta());
+    boolean withContent = !Boolean.FALSE.equals(lookupRequest.getWithContent());
+    log.debug("readAssetsByHashes.enter; got {} hashes, withMeta: {}, withContent: {}", hashes.size(), withMeta, withContent);
+
+    AssetFilter filter = new AssetFilter();
+    filter.setHashes(hashes);
+    filter.setStatuses(List.of(AssetStatus.ACTIVE));
+    filter.setLimit(hashes.size());
+    final PaginatedResults<AssetMetadata> assets = assetStorePublisher.getByFilter(filter, withMeta, withContent);
+    log.debug("readAssetsByHashes.exit; found {} assets", assets.getResults().size());
+    return ResponseEntity.ok(toAssets(assets, withMeta, withContent));
+  }
+
+  private static Assets toAssets(PaginatedResults<AssetMetadata> assets, boolean withMeta, boolean withContent) {
     List<AssetResult> results = null;
     if (withMeta) {
         if (withContent) {
@@ -146,7 +182,7 @@ public class AssetService implements AssetsApiDelegate {
             new AssetResult(null, asset.getContentAccessor() != null
                 ? asset.getContentAccessor().getContentAsString() : null)).collect(Collectors.toList());
     }
-    return ResponseEntity.ok(new Assets((int) assets.getTotalCount(), results));
+    return new Assets((int) assets.getTotalCount(), results);
   }
 
   /**
@@ -42,6 +42,8 @@ import eu.xfsc.fc.core.pojo.RdfClaim;
 import eu.xfsc.fc.core.service.assetstore.IriGenerator;
 import eu.xfsc.fc.core.service.assetstore.RdfDetector;
 import eu.xfsc.fc.core.service.assetstore.AssetStore;
+import eu.xfsc.fc.core.service.bulkhead.BulkheadRegistry;
+import eu.xfsc.fc.core.service.bulkhead.BulkheadType;
 import eu.xfsc.fc.core.service.verification.ProtectedNamespaceFilter;
 import eu.xfsc.fc.core.service.verification.VerificationService;
 import eu.xfsc.fc.core.service.verification.VerificationConstants;
@@ -75,6 +77,7 @@ public class AssetUploadService {
     private final GraphStore graphStore;
     private final ObjectMapper objectMapper;
     private final ObjectProvider<DocumentBuilderFactory> secureDocumentBuilderFactoryProvider;
+    private final BulkheadRegistry bulkheads;
 
     public UploadResult processUpload(byte[] content, String contentType, String originalFilename) {
         return processUpload(content, contentType, originalFilename, null);
@@ -90,6 +93,11 @@ public class AssetUploadService {
         if (content == null || content.length == 0) {
             throw new ClientException("Upload content must not be empty");
         }
+        return bulkheads.get(BulkheadType.INGEST).call(
+                () -> doProcessUpload(content, contentType, originalFilename, existingId));
+    }
+
+    private UploadResult doProcessUpload(byte[] content, String contentType, String originalFilename, String existingId) {
 
         String normalizedContentType = normalizeContentType(contentType);
 
@@ -189,7 +197,7 @@ public class AssetUploadService {
         if (graphStore.getBackendType() == GraphBackendType.NONE) {
             throw new GraphStoreDisabledException(
                     "Cannot enrich asset: graph store is disabled (graphstore.impl=none). "
-                    + "Enable a graph backend (neo4j or fuseki) to perform metadata enrichment.");
+                    + "Enable a graph backend (neo4j, fuseki or tdb2) to perform metadata enrichment.");
         }
 
         String rawPayloadText = new String(rdfPayload, StandardCharsets.UTF_8);
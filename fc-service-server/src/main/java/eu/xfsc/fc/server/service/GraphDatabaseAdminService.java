@@ -57,7 +57,7 @@ public class GraphDatabaseAdminService implements GraphDatabaseAdminApiDelegate
       GraphBackendType.valueOf(backend.toUpperCase());
     } catch (IllegalArgumentException e) {
       throw new ClientException("Invalid graph database backend: " + backend
-          + ". Valid options: NEO4J, FUSEKI, NONE");
+          + ". Valid options: NEO4J, FUSEKI, TDB2, NONE");
     }
 
     // Persist the preferred backend
@@ -0,0 +1,118 @@
+package eu.xfsc.fc.server.service;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import eu.xfsc.fc.core.exception.QueryRejectedException;
+import eu.xfsc.fc.core.pojo.GraphQuery;
+import eu.xfsc.fc.core.service.graphdb.GraphStore;
+import eu.xfsc.fc.server.config.QueryProperties;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Admits graph queries based on their estimated cost before they run.
+ *
+ * <p>The cost is estimated by the {@link GraphStore#estimateQueryCost(GraphQuery) graph store}.
+ * Queries above {@code max-cost} are rejected right away; queries above {@code heavy-cost} have to
+ * obtain one of {@code max-heavy-concurrent} heavy slots, so that a few expensive queries cannot
+ * exhaust the graph database. Independent of the cost, every client may run at most
+ * {@code max-concurrent-per-client} queries at a time. Queries that do not get a slot within
+ * {@code queue-timeout} are rejected as well. Queries whose cost cannot be estimated are treated
+ * as light.</p>
+ */
+@Slf4j
+@Component
+public class QueryAdmissionController {
+
+  private static final String ANONYMOUS = "anonymous";
+
+  private final GraphStore graphStore;
+  private final QueryProperties.Admission props;
+  private final Semaphore heavySlots;
+  private final LoadingCache<String, Semaphore> clientSlots;
+
+  public QueryAdmissionController(GraphStore graphStore, QueryProperties queryProps) {
+    this.graphStore = graphStore;
+    this.props = queryProps.getAdmission();
+    this.heavySlots = new Semaphore(Math.max(1, props.getMaxHeavyConcurrent()), true);
+    // idle clients are dropped; a semaphore still held by a running query is re-created on the next
+    // access, which can only admit a few queries too many
+    this.clientSlots = Caffeine.newBuilder()
+        .expireAfterAccess(props.getQueueTimeout().plusMinutes(10))
+        .build(client -> new Semaphore(props.getMaxConcurrentPerClient(), true));
+    log.info("<init>; query admission: {}", props);
+  }
+
+  /**
+   * Runs the query if its estimated cost and the current load allow it.
+   *
+   * @param query the graph query to admit
+   * @param runner runs the query against the graph store
+   * @param <T> type of the query result
+   * @return the result of the runner
+   * @throws QueryRejectedException if the query is too expensive or no slot got free in time
+   */
+  public <T> T admit(GraphQuery query, Supplier<T> runner) {
+    if (!props.isEnabled()) {
+      return runner.get();
+    }
+    long cost = graphStore.estimateQueryCost(query);
+    log.debug("admit; estimated cost {} for query: {}", cost, query.getQuery());
+    if (props.getMaxCost() > 0 && cost > props.getMaxCost()) {
+      throw new QueryRejectedException("query estimated cost " + cost + " exceeds the allowed maximum of "
+          + props.getMaxCost() + "; please make the query more selective", true);
+    }
+    Semaphore client = props.getMaxConcurrentPerClient() > 0 ? clientSlots.get(clientId()) : null;
+    acquire(client, "too many concurrent queries of the client");
+    try {
+      if (cost <= props.getHeavyCost()) {
+        return runner.get();
+      }
+      acquire(heavySlots, "too many expensive queries running");
+      try {
+        return runner.get();
+      } finally {
+        heavySlots.release();
+      }
+    } finally {
+      if (client != null) {
+        client.release();
+      }
+    }
+  }
+
+  private void acquire(Semaphore slots, String reason) {
+    if (slots == null) {
+      return;
+    }
+    boolean acquired;
+    try {
+      acquired = slots.tryAcquire(props.getQueueTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+    if (!acquired) {
+      log.info("acquire; query rejected: {}", reason);
+      throw new QueryRejectedException(reason + ", please try again later", false);
+    }
+  }
+
+  private static String clientId() {
+    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    if (auth == null || auth instanceof AnonymousAuthenticationToken || auth.getName() == null) {
+      return ANONYMOUS;
+    }
+    return auth.getName();
+  }
+
+}
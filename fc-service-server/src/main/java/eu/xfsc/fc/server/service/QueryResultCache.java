@@ -0,0 +1,155 @@
+package eu.xfsc.fc.server.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import eu.xfsc.fc.api.generated.model.QueryLanguage;
+import eu.xfsc.fc.core.pojo.GraphQuery;
+import eu.xfsc.fc.core.pojo.PaginatedResults;
+import eu.xfsc.fc.core.service.graphdb.GraphStore;
+import eu.xfsc.fc.server.config.QueryProperties;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Caches graph query results between graph changes.
+ *
+ * <p>Entries are keyed on the normalised query text, its parameters, language and total count
+ * flag, together with the {@link GraphStore#getWriteEpoch() write epoch} read before the query
+ * ran. Any write to the graph moves the epoch on, so later lookups never match results computed
+ * before the write; the outdated entries are dropped on the first lookup that sees the new epoch.
+ * Stores that do not track writes are never cached. The cache is bounded by the estimated size
+ * of the cached results.</p>
+ */
+@Slf4j
+@Component
+public class QueryResultCache {
+
+  private static final int ENTRY_OVERHEAD = 64;
+  private static final int FIELD_OVERHEAD = 16;
+
+  private final GraphStore graphStore;
+  private final boolean enabled;
+  private final Cache<Key, PaginatedResults<Map<String, Object>>> cache;
+  private final AtomicLong cachedEpoch = new AtomicLong(-1);
+
+  public QueryResultCache(GraphStore graphStore, QueryProperties queryProps) {
+    this.graphStore = graphStore;
+    QueryProperties.Cache props = queryProps.getCache();
+    this.enabled = props.isEnabled();
+    this.cache = Caffeine.newBuilder()
+        .maximumWeight(props.getMaxSize().toBytes())
+        .weigher((Key key, PaginatedResults<Map<String, Object>> value) -> weigh(key, value))
+        .expireAfterWrite(props.getTtl())
+        .build();
+    log.info("<init>; query result cache enabled: {}, max size: {}, ttl: {}", enabled, props.getMaxSize(), props.getTtl());
+  }
+
+  /**
+   * Returns cached results of the query or runs it and caches its results.
+   *
+   * @param query the graph query
+   * @param loader runs the query against the graph store
+   * @return the query results
+   */
+  public PaginatedResults<Map<String, Object>> get(GraphQuery query, Supplier<PaginatedResults<Map<String, Object>>> loader) {
+    long epoch = graphStore.getWriteEpoch();
+    if (!enabled || epoch < 0) {
+      return loader.get();
+    }
+    long previous = cachedEpoch.getAndSet(epoch);
+    if (previous != epoch && previous >= 0) {
+      log.debug("get; graph changed (epoch {} -> {}), dropping {} cached results", previous, epoch, cache.estimatedSize());
+      cache.asMap().keySet().removeIf(key -> key.epoch() != epoch);
+    }
+    Key key = new Key(normalize(query.getQuery()), query.getParams(), query.getQueryLanguage(), query.isWithTotalCount(), epoch);
+    PaginatedResults<Map<String, Object>> results = cache.getIfPresent(key);
+    if (results != null) {
+      log.debug("get; cache hit for query: {}", key.query());
+      return results;
+    }
+    // errors and timeouts propagate without populating the cache
+    results = loader.get();
+    cache.put(key, new PaginatedResults<>(results.getTotalCount(), List.copyOf(results.getResults())));
+    return results;
+  }
+
+  /**
+   * Drops all cached results.
+   */
+  public void clear() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * Collapses runs of whitespace outside of quoted literals and trims the query, so that
+   * formatting differences do not defeat the cache.
+   */
+  static String normalize(String query) {
+    StringBuilder sb = new StringBuilder(query.length());
+    char quote = 0;
+    boolean space = false;
+    for (int i = 0; i < query.length(); i++) {
+      char c = query.charAt(i);
+      if (quote != 0) {
+        sb.append(c);
+        if (c == '\\' && i + 1 < query.length()) {
+          sb.append(query.charAt(++i));
+        } else if (c == quote) {
+          quote = 0;
+        }
+      } else if (Character.isWhitespace(c)) {
+        space = true;
+      } else {
+        if (space && sb.length() > 0) {
+          sb.append(' ');
+        }
+        space = false;
+        sb.append(c);
+        if (c == '"' || c == '\'' || c == '`') {
+          quote = c;
+        }
+      }
+    }
+    return sb.toString();
+  }
+
+  private static int weigh(Key key, PaginatedResults<Map<String, Object>> value) {
+    long size = ENTRY_OVERHEAD + 2L * key.query().length() + estimate(key.params()) + estimate(value.getResults());
+    return (int) Math.min(Integer.MAX_VALUE, size);
+  }
+
+  private static long estimate(Object value) {
+    if (value == null) {
+      return FIELD_OVERHEAD;
+    }
+    if (value instanceof CharSequence cs) {
+      return FIELD_OVERHEAD + 2L * cs.length();
+    }
+    if (value instanceof Map<?, ?> map) {
+      long size = FIELD_OVERHEAD;
+      for (Map.Entry<?, ?> e : map.entrySet()) {
+        size += estimate(e.getKey()) + estimate(e.getValue());
+      }
+      return size;
+    }
+    if (value instanceof Collection<?> coll) {
+      long size = FIELD_OVERHEAD;
+      for (Object o : coll) {
+        size += estimate(o);
+      }
+      return size;
+    }
+    return FIELD_OVERHEAD;
+  }
+
+  record Key(String query, Map<String, Object> params, QueryLanguage language, boolean withTotalCount, long epoch) {}
+
+}
@@ -3,13 +3,14 @@ package eu.xfsc.fc.server.service;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.regex.Matcher;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -41,7 +42,10 @@ import eu.xfsc.fc.server.generated.controller.QueryApiDelegate;
 import eu.xfsc.fc.core.exception.ServerException;
 import eu.xfsc.fc.core.pojo.GraphQuery;
 import eu.xfsc.fc.core.pojo.PaginatedResults;
+import eu.xfsc.fc.core.service.bulkhead.BulkheadRegistry;
+import eu.xfsc.fc.core.service.bulkhead.BulkheadType;
 import eu.xfsc.fc.core.service.graphdb.GraphStore;
+import eu.xfsc.fc.core.service.graphdb.StoredQueryRegistry;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -54,6 +58,7 @@ import reactor.core.publisher.Mono;
 public class QueryService implements QueryApiDelegate {
 	
   private static int DEFAULT_LIMIT = 100;	
+  private static final Pattern LIMIT_PATTERN = Pattern.compile("(?m)(^|\\s)limit(\\s|$)");
   
   @Autowired
   private GraphStore graphStore;
@@ -63,6 +68,14 @@ public class QueryService implements QueryApiDelegate {
   private ResourceLoader resourceLoader;
   @Autowired
   private QueryLanguageValidator queryLanguageValidator;
+  @Autowired
+  private QueryResultCache queryResultCache;
+  @Autowired
+  private QueryAdmissionController admissionController;
+  @Autowired
+  private StoredQueryRegistry storedQueryRegistry;
+  @Autowired
+  private BulkheadRegistry bulkheads;
 
   @Autowired
   private QueryProperties queryProps;
@@ -110,16 +123,37 @@ public class QueryService implements QueryApiDelegate {
     log.debug("query.enter; got contentType: {}, queryLanguage: {}, timeout: {}, withTotalCount: {}, body: {}",
         contentType, queryLanguage, timeout, withTotalCount, body);
     queryLanguageValidator.validateLanguageSupport(queryLanguage);
-    String queryText = body;
-    if (checkIfLimitAbsent(queryText)) {
-      queryText = queryText + " LIMIT " + DEFAULT_LIMIT;
-    }
-    PaginatedResults<Map<String, Object>> queryResultList = graphStore.queryData(
-        new GraphQuery(queryText, null, queryLanguage, timeout, withTotalCount));
+    GraphQuery graphQuery = new GraphQuery(withDefaultLimit(body), null, queryLanguage, timeout, withTotalCount);
+    PaginatedResults<Map<String, Object>> queryResultList = runQuery(graphQuery);
     Results result = new Results((int) queryResultList.getTotalCount(), queryResultList.getResults());
     log.debug("query.exit; returning results: {}", result);
     return ResponseEntity.ok(result);
   }
+
+  /**
+   * Executes a stored query with the given parameters. The query was validated when it was
+   * registered, so only the parameters are checked here.
+   *
+   * @param name name of the stored query
+   * @param timeout query timeout in seconds
+   * @param withTotalCount whether to include total count
+   * @param parameters parameter values keyed by parameter name
+   * @return List of {@link Results}
+   */
+  @Override
+  public ResponseEntity<Results> executeStoredQuery(String name, Integer timeout, Boolean withTotalCount,
+      Map<String, Object> parameters) {
+    log.debug("executeStoredQuery.enter; got name: {}, timeout: {}, withTotalCount: {}, parameters: {}",
+        name, timeout, withTotalCount, parameters);
+    GraphQuery graphQuery = storedQueryRegistry.bind(name, parameters,
+        timeout == null ? GraphQuery.QUERY_TIMEOUT : timeout, withTotalCount == null || withTotalCount);
+    // the graph backend may have been switched since the query was registered
+    queryLanguageValidator.validateLanguageSupport(graphQuery.getQueryLanguage());
+    PaginatedResults<Map<String, Object>> queryResultList = runQuery(graphQuery);
+    Results result = new Results((int) queryResultList.getTotalCount(), queryResultList.getResults());
+    log.debug("executeStoredQuery.exit; returning {} results", result.getTotalCount());
+    return ResponseEntity.ok(result);
+  }
   
   
   /**
@@ -171,7 +205,17 @@ public class QueryService implements QueryApiDelegate {
   }
 
   /**
-   * performs distributed search
+   * performs distributed search.
+   *
+   * <p>Partner requests are sent before the local query runs. Every partner has its own deadline
+   * ({@code federated-catalogue.query.partner-timeout}, capped by the query timeout). The deadline
+   * less {@code partner-timeout-margin} is forwarded to the partners as their query timeout, so that
+   * nested searches finish before the deadline of their caller; partners are not asked at all once
+   * less than a second is left. Only the node the search entered hedges an unanswered request by a
+   * second one after {@code partner-hedge-delay}, so that the requests do not multiply along the
+   * route. The search waits no longer than the slowest deadline; partners that miss their deadline
+   * or fail are reported in {@link Results#getMissingServers()} instead of failing or delaying the
+   * whole search.</p>
    */
   @Override
   public ResponseEntity<Results> search(AnnotatedStatement statement) {
@@ -181,24 +225,33 @@ public class QueryService implements QueryApiDelegate {
 	  statement.putParametersItem("limit", DEFAULT_LIMIT);
 	}
 	boolean first = statement.getServers() == null || statement.getServers().isEmpty();
-	Mono<List<Results>> extra = searchPartners(statement);
-	    
 	String queryLanguage = getAnnotation(statement, "queryLanguage", QueryLanguage.OPENCYPHER.name());
 	Integer timeout = getAnnotation(statement, "timeout", GraphQuery.QUERY_TIMEOUT);
 	Boolean withTotalCount = getAnnotation(statement, "withTotalCount", true);
 
+	CompletableFuture<List<PartnerResults>> extra = searchPartners(statement, partnerDeadline(timeout), first);
+
 	queryLanguageValidator.validateLanguageSupport(QueryLanguage.valueOf(queryLanguage));
-	PaginatedResults<Map<String, Object>> queryResultList = graphStore.queryData(new GraphQuery(statement.getStatement(),
-	        statement.getParameters(), QueryLanguage.valueOf(queryLanguage), timeout, withTotalCount));
+	GraphQuery graphQuery = new GraphQuery(statement.getStatement(), statement.getParameters(),
+	        QueryLanguage.valueOf(queryLanguage), timeout, withTotalCount);
+	PaginatedResults<Map<String, Object>> queryResultList = runQuery(graphQuery);
 	Results result = new Results((int) queryResultList.getTotalCount(), queryResultList.getResults());
 	if (extra != null) {
-	  //extra.subscribe();
-	  result = mergePartnerResults(first, result, extra.block());
+	  result = mergePartnerResults(first, result, extra.join());
 	}
 	log.debug("search.exit; returning results: {}", result);
 	return ResponseEntity.ok(result);
   }
   
+  /**
+   * Serves the query from the result cache or runs it within the query bulkhead, after cost-based
+   * admission.
+   */
+  private PaginatedResults<Map<String, Object>> runQuery(GraphQuery graphQuery) {
+    return queryResultCache.get(graphQuery, () -> bulkheads.get(BulkheadType.QUERY).call(
+        () -> admissionController.admit(graphQuery, () -> graphStore.queryData(graphQuery))));
+  }
+
   private <T> T getAnnotation(AnnotatedStatement statement, String name, T defaultValue) {
 	if (statement.getAnnotations() == null) {
 	  return defaultValue;
@@ -210,24 +263,56 @@ public class QueryService implements QueryApiDelegate {
 	return value;
   }
 
+  /**
+   * Appends the default LIMIT to queries without one.
+   *
+   * @param query raw query text
+   * @return the query with a LIMIT clause
+   */
+  static String withDefaultLimit(String query) {
+    if (checkIfLimitAbsent(query)) {
+      return query + " LIMIT " + DEFAULT_LIMIT;
+    }
+    return query;
+  }
+
   /**
    * Check if limit is present or not in query.
    *
    * @param statement Query Statement
    * @return boolean match status
    */
-  private boolean checkIfLimitAbsent(String query) {
-	if (query.toLowerCase().indexOf("return") > 0) {
-      String subItem = "limit";
-      String pattern = "(?m)(^|\\s)" + subItem + "(\\s|$)";
-      Pattern p = Pattern.compile(pattern);
-      Matcher m = p.matcher(query.toLowerCase());
-      return !m.find();
+  private static boolean checkIfLimitAbsent(String query) {
+	String lower = query.toLowerCase();
+	if (lower.indexOf("return") > 0) {
+      return !LIMIT_PATTERN.matcher(lower).find();
 	}
 	return false;
   }
   
-  private Mono<List<Results>> searchPartners(AnnotatedStatement statement) {
+  private Duration partnerDeadline(Integer timeout) {
+	Duration deadline = queryProps.getPartnerTimeout();
+	if (timeout != null && timeout > 0 && Duration.ofSeconds(timeout).compareTo(deadline) < 0) {
+	  deadline = Duration.ofSeconds(timeout);
+	}
+	return deadline;
+  }
+
+  /**
+   * Returns the query timeout, in whole seconds, forwarded to partners that have to answer within
+   * the given deadline.
+   *
+   * @param deadline deadline of the partner answers
+   * @param margin time left to merge and return the results of the partners
+   * @return the timeout, or zero if there is no time left for partners to search
+   */
+  static int forwardedTimeout(Duration deadline, Duration margin) {
+	long seconds = deadline.minus(margin).toSeconds();
+	return seconds < 1 ? 0 : (int) Math.min(seconds, Integer.MAX_VALUE);
+  }
+
+  private CompletableFuture<List<PartnerResults>> searchPartners(AnnotatedStatement statement, Duration deadline,
+		  boolean hedge) {
 	if (queryClients != null) {
 	  Set<String> route = new HashSet<>();
 	  if (statement.getServers() == null) {
@@ -238,26 +323,57 @@ public class QueryService implements QueryApiDelegate {
 	  route.add(queryProps.getSelf());
 	  statement.getServers().addAll(queryProps.getPartners());
 	  statement.addServersItem(queryProps.getSelf());
+	  int partnerTimeout = forwardedTimeout(deadline, queryProps.getPartnerTimeoutMargin());
+	  if (partnerTimeout > 0) {
+		statement.putAnnotationsItem("timeout", partnerTimeout);
+	  }
 	  
-	  return Flux.fromIterable(queryClients).flatMap(c -> {
-		  	  if (!route.contains(c.getUrl())) {
-		  	    return c.searchAsync(statement);
-		  	  }
-		  	  return Mono.empty();
-	  	  })
-		  .onErrorContinue((ex, o) -> {
-		      log.debug("queryPartners.error; with object: {}", o, ex);
-	  	  })
-		  .collectList();
+	  // subscribed right away, so that partners are queried while the local query runs
+	  return Flux.fromIterable(queryClients)
+		  .filter(c -> !route.contains(c.getUrl()))
+		  .flatMap(c -> partnerTimeout > 0 ? searchPartner(c, statement, deadline, hedge) : noTimeLeft(c))
+		  .collectList()
+		  .toFuture();
 	} 
 	return null;
   }
+
+  private Mono<PartnerResults> noTimeLeft(QueryClient client) {
+	log.info("searchPartners; no time left to search partner {}", client.getUrl());
+	return Mono.just(new PartnerResults(client.getUrl(), null));
+  }
+
+  private Mono<PartnerResults> searchPartner(QueryClient client, AnnotatedStatement statement, Duration deadline,
+		  boolean hedge) {
+	Mono<Results> call = client.searchAsync(statement);
+	Duration hedgeDelay = queryProps.getPartnerHedgeDelay();
+	if (hedge && hedgeDelay != null && !hedgeDelay.isZero() && hedgeDelay.compareTo(deadline) < 0) {
+	  // the first successful answer wins, so the hedge also retries a request that failed fast
+	  call = Mono.firstWithValue(call, Mono.delay(hedgeDelay).then(client.searchAsync(statement)));
+	}
+	return call
+		.timeout(deadline)
+		.map(r -> new PartnerResults(client.getUrl(), r))
+		.onErrorResume(ex -> {
+		  log.info("searchPartners; no results from partner {} within {}: {}", client.getUrl(), deadline, ex.getMessage());
+		  return Mono.just(new PartnerResults(client.getUrl(), null));
+		});
+  }
   
-  private Results mergePartnerResults(boolean first, Results local, List<Results> extra) {
+  private Results mergePartnerResults(boolean first, Results local, List<PartnerResults> extra) {
 	Results results = new Results(0, new ArrayList<>());	
+	Set<String> missing = new HashSet<>();
+	Set<String> urls = new HashSet<>(extra.size());
 	if (!extra.isEmpty()) {
-	  Set<String> urls = new HashSet<>(extra.size());
-	  extra.stream().forEach(r -> {
+	  extra.stream().forEach(pr -> {
+		Results r = pr.results();
+		if (r == null) {
+		  missing.add(pr.url());
+		  return;
+		}
+		if (r.getMissingServers() != null) {
+		  missing.addAll(r.getMissingServers());
+		}
 	    // check extra keys for duplicate urls..
 		r.getItems().stream().forEach(m -> {
 			String server = (String) m.get("server");
@@ -281,7 +397,15 @@ public class QueryService implements QueryApiDelegate {
 		results.addItemsItem(Map.of("server", queryProps.getSelf(), "total", local.getTotalCount(), "items", local.getItems()));
 	}
 	results.setTotalCount(results.getTotalCount() + local.getTotalCount());
+	// a partner missed on one route may still have answered through another one
+	missing.removeAll(urls);
+	if (!missing.isEmpty()) {
+	  log.warn("mergePartnerResults; returning partial results, missing servers: {}", missing);
+	  results.setMissingServers(new ArrayList<>(missing));
+	}
     return results;
   }
+
+  private record PartnerResults(String url, Results results) {}
     
 }
\ No newline at end of file
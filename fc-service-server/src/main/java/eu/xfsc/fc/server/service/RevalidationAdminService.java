@@ -0,0 +1,53 @@
+package eu.xfsc.fc.server.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import eu.xfsc.fc.api.generated.model.RevalidationStatus;
+import eu.xfsc.fc.core.service.verification.RevalidationProgress;
+import eu.xfsc.fc.core.service.verification.RevalidationService;
+import eu.xfsc.fc.server.generated.controller.RevalidationAdminApiDelegate;
+
+/**
+ * Delegate implementation for Revalidation Admin API endpoints.
+ */
+@Service
+public class RevalidationAdminService implements RevalidationAdminApiDelegate {
+
+  private final ObjectProvider<RevalidationService> revalidationService;
+
+  public RevalidationAdminService(ObjectProvider<RevalidationService> revalidationService) {
+    this.revalidationService = revalidationService;
+  }
+
+  /**
+   * Returns the progress of the current or last revalidation run, idle when this instance does
+   * not revalidate assets.
+   *
+   * @return current {@link RevalidationStatus}
+   */
+  @Override
+  public ResponseEntity<RevalidationStatus> getRevalidationStatus() {
+    RevalidationService service = revalidationService.getIfAvailable();
+    RevalidationProgress progress = service == null ? RevalidationProgress.idle() : service.getProgress();
+    RevalidationStatus dto = new RevalidationStatus();
+    dto.setRunning(service != null && service.isWorking());
+    dto.setComplete(progress.isComplete());
+    dto.setCurrentChunk(progress.getCurrentChunk());
+    dto.setChunksDone(progress.getChunksDone());
+    dto.setChunksAborted(progress.getChunksAborted());
+    dto.setChunksRemaining(progress.getRemainingChunks());
+    dto.setProcessed(progress.getProcessedCount());
+    dto.setRevoked(progress.getRevokedCount());
+    dto.setErrors(progress.getErrorCount());
+    dto.setBusyWorkers(progress.getBusyWorkers());
+    dto.setWorkerCount(progress.getWorkerCount());
+    dto.setAssetsPerSecond(progress.getAssetsPerSecond());
+    dto.setAssetsPerSecondPerWorker(progress.getAssetsPerSecondPerWorker());
+    dto.setMeanChunkMs(progress.getMeanChunkMs());
+    dto.setEtaMs(progress.getEtaMs());
+    dto.setDurationMs(progress.getDurationMs());
+    return ResponseEntity.ok(dto);
+  }
+}
@@ -0,0 +1,62 @@
+package eu.xfsc.fc.server.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import eu.xfsc.fc.api.generated.model.StoredQueryDefinition;
+import eu.xfsc.fc.api.generated.model.StoredQueryEntry;
+import eu.xfsc.fc.core.pojo.PreparedQuery;
+import eu.xfsc.fc.core.service.graphdb.StoredQueryRegistry;
+import eu.xfsc.fc.server.generated.controller.StoredQueryAdminApiDelegate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * HTTP delegate for the stored query admin endpoints. Validation and persistence are done by
+ * {@link StoredQueryRegistry}; queries are executed through {@link QueryService}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StoredQueryAdminService implements StoredQueryAdminApiDelegate {
+
+  private final StoredQueryRegistry storedQueryRegistry;
+  private final QueryLanguageValidator queryLanguageValidator;
+
+  @Override
+  public ResponseEntity<List<StoredQueryEntry>> getStoredQueries() {
+    List<StoredQueryEntry> entries = storedQueryRegistry.findAll().stream()
+        .map(this::toEntry)
+        .toList();
+    return ResponseEntity.ok(entries);
+  }
+
+  @Override
+  public ResponseEntity<StoredQueryEntry> putStoredQuery(String name, StoredQueryDefinition definition) {
+    log.debug("putStoredQuery.enter; got name: {}, definition: {}", name, definition);
+    queryLanguageValidator.validateLanguageSupport(definition.getQueryLanguage());
+    PreparedQuery query = storedQueryRegistry.register(name, definition.getDescription(),
+        definition.getQueryLanguage(), QueryService.withDefaultLimit(definition.getQuery()));
+    return ResponseEntity.ok(toEntry(query));
+  }
+
+  @Override
+  public ResponseEntity<Void> deleteStoredQuery(String name) {
+    storedQueryRegistry.delete(name);
+    return ResponseEntity.ok().build();
+  }
+
+  private StoredQueryEntry toEntry(PreparedQuery query) {
+    StoredQueryEntry entry = new StoredQueryEntry();
+    entry.setName(query.name());
+    entry.setDescription(query.description());
+    entry.setQueryLanguage(query.queryLanguage());
+    entry.setQuery(query.query());
+    entry.setParameters(new ArrayList<>(query.parameters()));
+    entry.setParametersRequired(query.parametersRequired());
+    return entry;
+  }
+}
@@ -79,7 +79,9 @@ public class AdminDashboardControllerTest {
         .andExpect(jsonPath("$.totalSchemas").value(greaterThanOrEqualTo(0)))
         .andExpect(jsonPath("$.totalParticipants").value(isA(Number.class))) // Keycloak not available in tests
         .andExpect(jsonPath("$.graphClaimCount").value(greaterThanOrEqualTo(0)))
-        .andExpect(jsonPath("$.graphBackend").value(isA(String.class)));
+        .andExpect(jsonPath("$.graphBackend").value(isA(String.class)))
+        .andExpect(jsonPath("$.snapshotTime").exists())
+        .andExpect(jsonPath("$.snapshotAgeMs").value(greaterThanOrEqualTo(0)));
   }
 
   @Test
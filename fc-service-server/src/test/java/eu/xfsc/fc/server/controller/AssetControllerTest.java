@@ -870,6 +870,35 @@ public class AssetControllerTest {
 
     // ===== Validate endpoints — auth rejection =====
 
+    @Test
+    @WithMockUser(roles = {ASSET_READ})
+    public void readAssetsByHashes_knownAndUnknownHashes_returnsKnownAssets() throws Exception {
+        assetStorePublisher.storeCredential(assetMeta, getStaticVerificationResult());
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/assets/lookup")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"hashes\": [\"" + assetMeta.getAssetHash() + "\", \"unknown\"], \"withMeta\": true}")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        Assets assets = objectMapper.readValue(result.getResponse().getContentAsString(), Assets.class);
+        assertEquals(1, assets.getItems().size());
+        assertEquals(assetMeta.getAssetHash(), assets.getItems().getFirst().getMeta().getAssetHash());
+        assertNotNull(assets.getItems().getFirst().getContent());
+    }
+
+    @Test
+    @WithMockUser(roles = {ASSET_READ})
+    public void readAssetsByHashes_noHashes_returnsBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/assets/lookup")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"hashes\": []}")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void validateAsset_withoutAuth_returnsUnauthorized() throws Exception {
         mockMvc.perform(MockMvcRequestBuilders.post("/assets/validate")
@@ -8,6 +8,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -49,7 +50,8 @@ import okhttp3.mockwebserver.MockWebServer;
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
-@TestPropertySource(properties = {"graphstore.impl=neo4j"})
+@TestPropertySource(properties = {"graphstore.impl=neo4j", "federated-catalogue.query.partner-timeout=PT2S",
+    "federated-catalogue.query.partner-hedge-delay=PT0S"})
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 @AutoConfigureEmbeddedDatabase(provider = DatabaseProvider.ZONKY)
 @Import(EmbeddedNeo4JConfig.class)
@@ -140,6 +142,38 @@ public class DistributedQueryControllerTest {
 	assertEquals(21, result.getTotalCount());	  
   }
 
+  @Test
+  public void postSearchSlowPartnerReturnsPartialResults() throws Exception {
+
+	Results extra90 = new Results(20, List.of(Map.of("server", "http://localhost:9090", "total", 20,
+				"items", List.of(Map.of("key", "value", "key2", 210)))));
+	mockBackEnd90.enqueue(new MockResponse()
+			      .setBody(objectMapper.writeValueAsString(extra90))
+			      .addHeader("Content-Type", "application/json"));
+	Results extra91 = new Results(12, List.of(Map.of("server", "http://localhost:9091", "total", 12,
+				"items", List.of(Map.of("key", "value2")))));
+	mockBackEnd91.enqueue(new MockResponse()
+			      .setBody(objectMapper.writeValueAsString(extra91))
+			      .setBodyDelay(5, TimeUnit.SECONDS)
+			      .addHeader("Content-Type", "application/json"));
+
+    String response = mockMvc.perform(MockMvcRequestBuilders.post("/query/search")
+	            .content(QUERY_REQUEST_GET)
+	            .with(csrf())
+	            .contentType(MediaType.APPLICATION_JSON)
+	            .header("Produces", "application/json")
+	            .header("Accept", "application/json"))
+	            .andExpect(status().isOk())
+	            .andReturn()
+	            .getResponse()
+	            .getContentAsString();
+
+	Results result = objectMapper.readValue(response, Results.class);
+	assertEquals(2, result.getItems().size());
+	assertEquals(21, result.getTotalCount());
+	assertEquals(List.of("http://localhost:9091"), result.getMissingServers());
+  }
+
   @Test
   public void postSearchReturnSuccessResponse() throws Exception {
 	  
@@ -0,0 +1,140 @@
+package eu.xfsc.fc.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import eu.xfsc.fc.api.generated.model.AdminStats;
+import eu.xfsc.fc.core.dao.ParticipantDao;
+import eu.xfsc.fc.core.dao.UserDao;
+import eu.xfsc.fc.core.dao.trustframework.TrustFrameworkRepository;
+import eu.xfsc.fc.core.pojo.GraphBackendType;
+import eu.xfsc.fc.core.pojo.PaginatedResults;
+import eu.xfsc.fc.core.service.assetstore.AssetChangedEvent;
+import eu.xfsc.fc.core.service.assetstore.AssetStore;
+import eu.xfsc.fc.core.service.graphdb.GraphStore;
+import eu.xfsc.fc.core.service.schemastore.SchemaStore;
+
+/**
+ * Unit tests for {@link AdminStatsSnapshot}.
+ */
+@ExtendWith(MockitoExtension.class)
+class AdminStatsSnapshotTest {
+
+  @Mock
+  private AssetStore assetStore;
+  @Mock
+  private SchemaStore schemaStore;
+  @Mock
+  private GraphStore graphStore;
+  @Mock
+  private ParticipantDao participantDao;
+  @Mock
+  private TrustFrameworkRepository trustFrameworkRepository;
+  @Mock
+  private UserDao userDao;
+
+  @InjectMocks
+  private AdminStatsSnapshot snapshot;
+
+  @BeforeEach
+  void setUp() {
+    when(assetStore.getByFilter(any(), eq(false), eq(false))).thenReturn(new PaginatedResults<>(3, List.of()));
+    when(schemaStore.getSchemaList()).thenReturn(Map.of(SchemaStore.SchemaType.SHAPE, List.of("s1", "s2")));
+    when(participantDao.search(0, 0)).thenReturn(new PaginatedResults<>(4, List.of()));
+    when(userDao.search(null, 0, 0)).thenReturn(new PaginatedResults<>(5, List.of()));
+    when(trustFrameworkRepository.countByEnabledTrue()).thenReturn(1L);
+    when(graphStore.getClaimCount()).thenReturn(42L);
+    when(graphStore.getBackendType()).thenReturn(GraphBackendType.FUSEKI);
+    ReflectionTestUtils.setField(snapshot, "changeDelay", Duration.ZERO);
+  }
+
+  @Test
+  void getStats_repeatedReads_collectOnce() {
+    AdminStats first = snapshot.getStats();
+    AdminStats second = snapshot.getStats();
+
+    assertEquals(3L, first.getTotalAssets());
+    assertEquals(2L, first.getTotalSchemas());
+    assertEquals(4L, first.getTotalParticipants());
+    assertEquals(5L, first.getTotalUsers());
+    assertEquals(1L, first.getActiveTrustFrameworks());
+    assertEquals(42L, first.getGraphClaimCount());
+    assertEquals("FUSEKI", first.getGraphBackend());
+    assertNotNull(first.getSnapshotTime());
+    assertTrue(first.getSnapshotAgeMs() >= 0);
+    assertFalse(first.getRefreshPending());
+    assertEquals(first.getSnapshotTime(), second.getSnapshotTime());
+    verify(userDao, times(1)).search(null, 0, 0);
+  }
+
+  @Test
+  void getStats_noChange_keepsSnapshot() {
+    snapshot.getStats();
+
+    snapshot.getStats();
+
+    verify(assetStore, times(2)).getByFilter(any(), eq(false), eq(false));
+  }
+
+  @Test
+  void getStats_afterAssetChange_countsOnlyAssetsAgain() {
+    snapshot.getStats();
+    when(assetStore.getByFilter(any(), eq(false), eq(false))).thenReturn(new PaginatedResults<>(4, List.of()));
+    when(graphStore.getClaimCount()).thenReturn(43L);
+
+    snapshot.onAssetChanged(new AssetChangedEvent("urn:asset:1"));
+    AdminStats refreshed = snapshot.getStats();
+
+    assertEquals(4L, refreshed.getTotalAssets());
+    assertEquals(43L, refreshed.getGraphClaimCount());
+    assertEquals(4L, refreshed.getTotalParticipants());
+    assertFalse(refreshed.getRefreshPending());
+    verify(participantDao, times(1)).search(0, 0);
+    verify(userDao, times(1)).search(null, 0, 0);
+    verify(schemaStore, times(1)).getSchemaList();
+  }
+
+  @Test
+  void getStats_withinChangeDelay_servesPendingSnapshot() {
+    ReflectionTestUtils.setField(snapshot, "changeDelay", Duration.ofHours(1));
+    snapshot.getStats();
+
+    snapshot.onAssetChanged(new AssetChangedEvent("urn:asset:1"));
+    AdminStats pending = snapshot.getStats();
+
+    assertEquals(3L, pending.getTotalAssets());
+    assertTrue(pending.getRefreshPending());
+    verify(assetStore, times(2)).getByFilter(any(), eq(false), eq(false));
+  }
+
+  @Test
+  void refresh_afterAssetChange_clearsPendingChange() {
+    ReflectionTestUtils.setField(snapshot, "changeDelay", Duration.ofHours(1));
+    snapshot.getStats();
+    snapshot.onAssetChanged(new AssetChangedEvent("urn:asset:1"));
+
+    snapshot.refresh();
+
+    assertFalse(snapshot.getStats().getRefreshPending());
+    verify(participantDao, times(2)).search(0, 0);
+  }
+}
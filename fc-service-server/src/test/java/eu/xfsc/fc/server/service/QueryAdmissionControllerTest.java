@@ -0,0 +1,135 @@
+package eu.xfsc.fc.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import eu.xfsc.fc.api.generated.model.QueryLanguage;
+import eu.xfsc.fc.core.exception.QueryRejectedException;
+import eu.xfsc.fc.core.pojo.GraphQuery;
+import eu.xfsc.fc.core.service.graphdb.GraphStore;
+import eu.xfsc.fc.server.config.QueryProperties;
+
+/**
+ * Unit tests for {@link QueryAdmissionController} with mocked {@link GraphStore}.
+ */
+@ExtendWith(MockitoExtension.class)
+class QueryAdmissionControllerTest {
+
+  private static final GraphQuery QUERY = new GraphQuery("MATCH (n) RETURN n LIMIT 10", Map.of(),
+      QueryLanguage.OPENCYPHER, GraphQuery.QUERY_TIMEOUT, false);
+
+  @Mock
+  private GraphStore graphStore;
+
+  private QueryProperties queryProps;
+
+  @BeforeEach
+  void setUp() {
+    queryProps = new QueryProperties();
+    queryProps.getAdmission().setMaxCost(1000);
+    queryProps.getAdmission().setHeavyCost(100);
+    queryProps.getAdmission().setMaxHeavyConcurrent(1);
+    queryProps.getAdmission().setQueueTimeout(Duration.ofMillis(50));
+  }
+
+  @Test
+  void admit_cheapQuery_runs() {
+    when(graphStore.estimateQueryCost(any())).thenReturn(10L);
+
+    assertEquals("ok", new QueryAdmissionController(graphStore, queryProps).admit(QUERY, () -> "ok"));
+  }
+
+  @Test
+  void admit_queryOverBudget_isRejectedWithoutRunning() {
+    when(graphStore.estimateQueryCost(any())).thenReturn(5000L);
+    QueryAdmissionController controller = new QueryAdmissionController(graphStore, queryProps);
+
+    QueryRejectedException ex = assertThrows(QueryRejectedException.class,
+        () -> controller.admit(QUERY, () -> { throw new AssertionError("query must not run"); }));
+    assertTrue(ex.isOverBudget());
+  }
+
+  @Test
+  void admit_unknownCost_runs() {
+    when(graphStore.estimateQueryCost(any())).thenReturn(-1L);
+
+    assertEquals("ok", new QueryAdmissionController(graphStore, queryProps).admit(QUERY, () -> "ok"));
+  }
+
+  @Test
+  void admit_disabled_skipsEstimate() {
+    queryProps.getAdmission().setEnabled(false);
+
+    assertEquals("ok", new QueryAdmissionController(graphStore, queryProps).admit(QUERY, () -> "ok"));
+    verify(graphStore, never()).estimateQueryCost(any());
+  }
+
+  @Test
+  void admit_heavyQueryWhileHeavySlotTaken_isRejected() throws Exception {
+    when(graphStore.estimateQueryCost(any())).thenReturn(500L);
+    QueryAdmissionController controller = new QueryAdmissionController(graphStore, queryProps);
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> controller.admit(QUERY, () -> {
+      running.countDown();
+      await(release);
+      return "first";
+    }));
+    assertTrue(running.await(5, TimeUnit.SECONDS));
+
+    QueryRejectedException ex = assertThrows(QueryRejectedException.class, () -> controller.admit(QUERY, () -> "second"));
+    assertFalse(ex.isOverBudget());
+
+    release.countDown();
+    assertEquals("first", first.get(5, TimeUnit.SECONDS));
+    assertEquals("third", controller.admit(QUERY, () -> "third"));
+  }
+
+  @Test
+  void admit_tooManyQueriesOfOneClient_isRejected() throws Exception {
+    when(graphStore.estimateQueryCost(any())).thenReturn(10L);
+    queryProps.getAdmission().setMaxConcurrentPerClient(1);
+    QueryAdmissionController controller = new QueryAdmissionController(graphStore, queryProps);
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> controller.admit(QUERY, () -> {
+      running.countDown();
+      await(release);
+      return "first";
+    }));
+    assertTrue(running.await(5, TimeUnit.SECONDS));
+
+    assertThrows(QueryRejectedException.class, () -> controller.admit(QUERY, () -> "second"));
+
+    release.countDown();
+    assertEquals("first", first.get(5, TimeUnit.SECONDS));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
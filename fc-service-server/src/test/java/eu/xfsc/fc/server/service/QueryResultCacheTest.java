@@ -0,0 +1,114 @@
+package eu.xfsc.fc.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import eu.xfsc.fc.api.generated.model.QueryLanguage;
+import eu.xfsc.fc.core.exception.TimeoutException;
+import eu.xfsc.fc.core.pojo.GraphQuery;
+import eu.xfsc.fc.core.pojo.PaginatedResults;
+import eu.xfsc.fc.core.service.graphdb.GraphStore;
+import eu.xfsc.fc.server.config.QueryProperties;
+
+/**
+ * Unit tests for {@link QueryResultCache} with mocked {@link GraphStore}.
+ */
+@ExtendWith(MockitoExtension.class)
+class QueryResultCacheTest {
+
+  private static final String QUERY = "MATCH (n:ServiceOffering) RETURN n LIMIT 10";
+
+  @Mock
+  private GraphStore graphStore;
+
+  private QueryResultCache cache;
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    cache = new QueryResultCache(graphStore, new QueryProperties());
+  }
+
+  @Test
+  void get_sameQueryWithoutWrites_loadsOnce() {
+    when(graphStore.getWriteEpoch()).thenReturn(3L);
+
+    cache.get(query(QUERY), loader());
+    PaginatedResults<Map<String, Object>> results = cache.get(query(QUERY), loader());
+
+    assertEquals(1, loads.get());
+    assertEquals(1, results.getTotalCount());
+  }
+
+  @Test
+  void get_queryDifferingInWhitespaceOnly_hitsCache() {
+    when(graphStore.getWriteEpoch()).thenReturn(3L);
+
+    cache.get(query(QUERY), loader());
+    cache.get(query("  MATCH (n:ServiceOffering)\n  RETURN n\tLIMIT 10 "), loader());
+
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void get_afterGraphWrite_reloads() {
+    when(graphStore.getWriteEpoch()).thenReturn(3L, 4L);
+
+    cache.get(query(QUERY), loader());
+    cache.get(query(QUERY), loader());
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void get_storeWithoutWriteTracking_neverCaches() {
+    when(graphStore.getWriteEpoch()).thenReturn(-1L);
+
+    cache.get(query(QUERY), loader());
+    cache.get(query(QUERY), loader());
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void get_failingQuery_isNotCached() {
+    when(graphStore.getWriteEpoch()).thenReturn(3L);
+
+    assertThrows(TimeoutException.class, () -> cache.get(query(QUERY), () -> {
+      throw new TimeoutException("query timeout");
+    }));
+    cache.get(query(QUERY), loader());
+
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void normalize_keepsWhitespaceInsideQuotedLiterals() {
+    assertEquals("MATCH (n) WHERE n.name = 'a  b' RETURN n",
+        QueryResultCache.normalize(" MATCH (n)\n WHERE  n.name = 'a  b'\tRETURN n"));
+    assertEquals("RETURN \"x \\\"  y\"", QueryResultCache.normalize("RETURN   \"x \\\"  y\""));
+  }
+
+  private static GraphQuery query(String text) {
+    return new GraphQuery(text, Map.of(), QueryLanguage.OPENCYPHER, GraphQuery.QUERY_TIMEOUT, false);
+  }
+
+  private Supplier<PaginatedResults<Map<String, Object>>> loader() {
+    return () -> {
+      loads.incrementAndGet();
+      return new PaginatedResults<>(List.of(Map.of("n", "offering")));
+    };
+  }
+}
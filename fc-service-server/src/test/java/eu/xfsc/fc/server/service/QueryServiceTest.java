@@ -0,0 +1,31 @@
+package eu.xfsc.fc.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the deadline propagation of the distributed search in {@link QueryService}.
+ */
+class QueryServiceTest {
+
+  private static final Duration MARGIN = Duration.ofSeconds(1);
+
+  @Test
+  void forwardedTimeout_shrinksWithEveryHop() {
+    int timeout = 5;
+    for (int hop = 0; hop < 4; hop++) {
+      timeout = QueryService.forwardedTimeout(Duration.ofSeconds(timeout), MARGIN);
+    }
+    assertEquals(1, timeout);
+    assertEquals(0, QueryService.forwardedTimeout(Duration.ofSeconds(timeout), MARGIN));
+  }
+
+  @Test
+  void forwardedTimeout_lessThanASecondLeft_isZero() {
+    assertEquals(0, QueryService.forwardedTimeout(Duration.ofMillis(1900), MARGIN));
+    assertEquals(1, QueryService.forwardedTimeout(Duration.ofMillis(2500), MARGIN));
+  }
+}
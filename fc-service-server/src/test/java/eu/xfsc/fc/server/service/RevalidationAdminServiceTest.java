@@ -0,0 +1,60 @@
+package eu.xfsc.fc.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import eu.xfsc.fc.api.generated.model.RevalidationStatus;
+import eu.xfsc.fc.core.service.verification.RevalidationProgress;
+import eu.xfsc.fc.core.service.verification.RevalidationService;
+
+/**
+ * Unit tests for {@link RevalidationAdminService}.
+ */
+@ExtendWith(MockitoExtension.class)
+class RevalidationAdminServiceTest {
+
+  @Mock
+  private ObjectProvider<RevalidationService> provider;
+
+  @Mock
+  private RevalidationService revalidationService;
+
+  @Test
+  void getRevalidationStatus_noRevalidationService_returnsIdle() {
+    when(provider.getIfAvailable()).thenReturn(null);
+
+    ResponseEntity<RevalidationStatus> response = new RevalidationAdminService(provider).getRevalidationStatus();
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertFalse(response.getBody().getRunning());
+    assertTrue(response.getBody().getComplete());
+    assertEquals(0L, response.getBody().getProcessed());
+    assertEquals(0L, response.getBody().getEtaMs());
+    assertEquals(0L, response.getBody().getDurationMs());
+  }
+
+  @Test
+  void getRevalidationStatus_runInProgress_reportsProgress() {
+    RevalidationProgress progress = new RevalidationProgress(4);
+    when(provider.getIfAvailable()).thenReturn(revalidationService);
+    when(revalidationService.isWorking()).thenReturn(true);
+    when(revalidationService.getProgress()).thenReturn(progress);
+
+    RevalidationStatus status = new RevalidationAdminService(provider).getRevalidationStatus().getBody();
+
+    assertTrue(status.getRunning());
+    assertFalse(status.getComplete());
+    assertEquals(4, status.getWorkerCount());
+    assertEquals(-1L, status.getEtaMs());
+  }
+}